@@ -24,6 +24,8 @@
  ********************************************************************************/
 package org.aoju.bus.cache;
 
+import org.aoju.bus.core.sketch.BloomFilter;
+
 import java.util.Map;
 
 /**
@@ -45,6 +47,9 @@ public class Context {
     // 是否开启缓存防击穿
     private Switch prevent;
 
+    // 按缓存前缀(prefix)配置的已知ID布隆过滤器, 缓存未命中且ID一定不存在时不再调用方法
+    private Map<String, BloomFilter> filters;
+
     public static Context newConfig(Map<String, CacheX> caches) {
         Context config = new Context();
         config.caches = caches;
@@ -58,6 +63,29 @@ public class Context {
         return prevent != null && prevent == Switch.ON;
     }
 
+    /**
+     * 缓存key对应的ID是否一定不存在
+     *
+     * @param prefix 缓存前缀
+     * @param key    缓存key, 由前缀和ID拼装而成
+     * @return 配置了该前缀的过滤器且过滤器中一定不存在该ID时返回true
+     */
+    public boolean isAbsent(String prefix, String key) {
+        if (filters == null || prefix == null) {
+            return false;
+        }
+        BloomFilter filter = filters.get(prefix);
+        return filter != null && key.startsWith(prefix) && !filter.contains(key.substring(prefix.length()));
+    }
+
+    public Map<String, BloomFilter> getFilters() {
+        return filters;
+    }
+
+    public void setFilters(Map<String, BloomFilter> filters) {
+        this.filters = filters;
+    }
+
     public Map<String, CacheX> getCaches() {
         return caches;
     }
@@ -127,6 +127,7 @@ public class MultiCacheReader extends AbstractReader {
         Set<String> keys = key2MultiEntry.keySet();
         CacheKeys cacheKeys = cacheManager.readBatch(annoHolder.getCache(), keys);
         doRecord(cacheKeys, annoHolder);
+        cacheKeys = filterAbsent(cacheKeys, annoHolder);
 
         Object result;
         // have miss keys : part hit || all not hit
@@ -142,6 +143,20 @@ public class MultiCacheReader extends AbstractReader {
         return result;
     }
 
+    // 去除布隆过滤器判定一定不存在的miss keys, 这些ID不再调用方法
+    private CacheKeys filterAbsent(CacheKeys cacheKeys, AnnoHolder annoHolder) {
+        if (config.getFilters() == null || cacheKeys.getMissKeySet().isEmpty()) {
+            return cacheKeys;
+        }
+        Set<String> missKeys = cacheKeys.getMissKeySet().stream()
+                .filter(key -> !config.isAbsent(annoHolder.getPrefix(), key))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (missKeys.size() == cacheKeys.getMissKeySet().size()) {
+            return cacheKeys;
+        }
+        return new CacheKeys(cacheKeys.getHitKeyMap(), missKeys);
+    }
+
     private Object handlePartHit(ProxyChain baseInvoker, CacheKeys cacheKeys,
                                  AnnoHolder annoHolder, MethodHolder methodHolder,
                                  Map[] pair, boolean needWrite) throws Throwable {
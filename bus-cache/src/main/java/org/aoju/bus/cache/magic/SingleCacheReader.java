@@ -70,6 +70,11 @@ public class SingleCacheReader extends AbstractReader {
 
 
         // not hit
+        // 布隆过滤器判定ID一定不存在, 无需调用方法
+        if (config.isAbsent(annoHolder.getPrefix(), key)) {
+            return null;
+        }
+
         // invoke method
         Object invokeResult = doLogInvoke(baseInvoker::proceed);
         if (invokeResult != null && methodHolder.getInnerReturnType() == null) {
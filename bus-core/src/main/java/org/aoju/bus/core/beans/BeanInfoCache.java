@@ -24,6 +24,7 @@
  ********************************************************************************/
 package org.aoju.bus.core.beans;
 
+import org.aoju.bus.core.lang.Func;
 import org.aoju.bus.core.lang.SimpleCache;
 
 import java.beans.PropertyDescriptor;
@@ -55,6 +56,19 @@ public enum BeanInfoCache {
         return (ignoreCase ? ignoreCasePdCache : pdCache).get(beanClass);
     }
 
+    /**
+     * 获得属性名和{@link PropertyDescriptor}Map映射,不存在时创建并加入缓存
+     *
+     * @param beanClass  Bean的类
+     * @param ignoreCase 是否忽略大小写
+     * @param supplier   对象不存在时创建对象的函数
+     * @return 属性名和{@link PropertyDescriptor}Map映射
+     */
+    public Map<String, PropertyDescriptor> getPropertyDescriptorMap(Class<?> beanClass, boolean ignoreCase,
+                                                                    Func.Func0<Map<String, PropertyDescriptor>> supplier) {
+        return (ignoreCase ? ignoreCasePdCache : pdCache).get(beanClass, supplier);
+    }
+
     /**
      * 加入缓存
      *
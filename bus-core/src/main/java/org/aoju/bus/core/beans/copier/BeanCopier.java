@@ -41,6 +41,9 @@ import java.util.Map;
 
 /**
  * Bean拷贝
+ * <p>
+ * 目标类型非泛型时,Bean与Map之间的拷贝使用缓存的{@link CopyPlan}执行
+ * </p>
  *
  * @param <T> 目标对象类型
  * @author Kimi Liu
@@ -152,6 +155,10 @@ public class BeanCopier<T> implements Copier<T>, Serializable {
      * @param destBean     目标Bean
      */
     private void beanToBean(Object providerBean, Object destBean) {
+        if (isPlain()) {
+            CopyPlan.beanToBean(providerBean.getClass(), destBean.getClass(), this.copyOptions).copy(providerBean, destBean);
+            return;
+        }
         valueProviderToBean(new BeanValueProvider(providerBean, this.copyOptions.ignoreCase, this.copyOptions.ignoreError), destBean);
     }
 
@@ -162,6 +169,10 @@ public class BeanCopier<T> implements Copier<T>, Serializable {
      * @param bean Bean
      */
     private void mapToBean(Map<?, ?> map, Object bean) {
+        if (isPlain()) {
+            CopyPlan.mapToBean(bean.getClass(), this.copyOptions).copy(map, bean);
+            return;
+        }
         valueProviderToBean(
                 new MapValueProvider(map, this.copyOptions.ignoreCase, this.copyOptions.ignoreError),
                 bean
@@ -187,42 +198,16 @@ public class BeanCopier<T> implements Copier<T>, Serializable {
      * @param targetMap 目标的Map
      */
     private void beanToMap(Object bean, Map targetMap) {
-        final Collection<BeanDesc.PropDesc> props = BeanKit.getBeanDesc(bean.getClass()).getProps();
-        final HashSet<String> ignoreSet = (null != copyOptions.ignoreProperties) ? CollKit.newHashSet(copyOptions.ignoreProperties) : null;
-        final CopyOptions copyOptions = this.copyOptions;
+        CopyPlan.beanToMap(bean.getClass(), this.copyOptions).copy(bean, targetMap);
+    }
 
-        String key;
-        Method getter;
-        Object value;
-        for (BeanDesc.PropDesc prop : props) {
-            key = prop.getFieldName();
-            // 过滤class属性
-            // 得到property对应的getter方法
-            getter = prop.getGetter();
-            if (null != getter) {
-                // 只读取有getter方法的属性
-                try {
-                    value = getter.invoke(bean);
-                } catch (Exception e) {
-                    if (copyOptions.ignoreError) {
-                        continue;// 忽略反射失败
-                    } else {
-                        throw new InstrumentException("Get value of [{}] error!", prop.getFieldName());
-                    }
-                }
-                if (CollKit.contains(ignoreSet, key)) {
-                    // 目标属性值被忽略或值提供者无此key时跳过
-                    continue;
-                }
-                if (null == value && copyOptions.ignoreNullValue) {
-                    continue;// 当允许跳过空时,跳过
-                }
-                if (bean.equals(value)) {
-                    continue;// 值不能为bean本身,防止循环引用
-                }
-                targetMap.put(mappingKey(copyOptions.fieldMapping, key), value);
-            }
-        }
+    /**
+     * 目标类型是否为目标对象本身的类型(无需按泛型解析属性类型),此时可使用拷贝计划
+     *
+     * @return 是否可使用拷贝计划
+     */
+    private boolean isPlain() {
+        return this.destType == this.dest.getClass();
     }
 
     /**
@@ -0,0 +1,627 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.beans.copier;
+
+import org.aoju.bus.core.beans.BeanDesc;
+import org.aoju.bus.core.convert.BasicType;
+import org.aoju.bus.core.convert.Convert;
+import org.aoju.bus.core.lang.ClassCache;
+import org.aoju.bus.core.lang.Normal;
+import org.aoju.bus.core.lang.Typed;
+import org.aoju.bus.core.lang.exception.InstrumentException;
+import org.aoju.bus.core.map.CaseInsensitiveMap;
+import org.aoju.bus.core.toolkit.*;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Bean拷贝计划
+ * <p>
+ * 按(源类型, 目标类型, 拷贝选项)预先解析需要拷贝的属性,并将Getter/Setter编译为
+ * {@link LambdaMetafactory}生成的函数(无法生成时使用{@link MethodHandle}),
+ * 源属性类型可直接赋值给目标属性时跳过类型转换,拷贝计划会被缓存复用
+ * </p>
+ * 拷贝规则与{@link BeanCopier}的反射方式一致
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public final class CopyPlan {
+
+    /**
+     * 按目标Bean(Bean转Map时为源Bean)类型缓存的拷贝计划,计划保存在该类上,随类卸载回收
+     */
+    private static final ClassCache<Map<Key, CopyPlan>> CACHE = new ClassCache<>(clazz -> new ConcurrentHashMap<>());
+
+    private static final int BEAN_TO_BEAN = 0;
+    private static final int MAP_TO_BEAN = 1;
+    private static final int BEAN_TO_MAP = 2;
+
+    private final int kind;
+    private final Prop[] props;
+    private final boolean ignoreNullValue;
+    private final boolean ignoreError;
+    private final boolean ignoreCase;
+
+    private CopyPlan(int kind, List<Prop> props, CopyOptions copyOptions) {
+        this.kind = kind;
+        this.props = props.toArray(new Prop[0]);
+        this.ignoreNullValue = copyOptions.ignoreNullValue;
+        this.ignoreError = copyOptions.ignoreError;
+        this.ignoreCase = copyOptions.ignoreCase;
+    }
+
+    /**
+     * 获取Bean到Bean的拷贝计划
+     *
+     * @param sourceClass 源Bean类型
+     * @param targetClass 目标Bean类型
+     * @param copyOptions 拷贝选项
+     * @return 拷贝计划
+     */
+    public static CopyPlan beanToBean(Class<?> sourceClass, Class<?> targetClass, CopyOptions copyOptions) {
+        return get(BEAN_TO_BEAN, sourceClass, targetClass, copyOptions);
+    }
+
+    /**
+     * 获取Map到Bean的拷贝计划
+     *
+     * @param targetClass 目标Bean类型
+     * @param copyOptions 拷贝选项
+     * @return 拷贝计划
+     */
+    public static CopyPlan mapToBean(Class<?> targetClass, CopyOptions copyOptions) {
+        return get(MAP_TO_BEAN, null, targetClass, copyOptions);
+    }
+
+    /**
+     * 获取Bean到Map的拷贝计划
+     *
+     * @param sourceClass 源Bean类型
+     * @param copyOptions 拷贝选项
+     * @return 拷贝计划
+     */
+    public static CopyPlan beanToMap(Class<?> sourceClass, CopyOptions copyOptions) {
+        return get(BEAN_TO_MAP, sourceClass, null, copyOptions);
+    }
+
+    private static CopyPlan get(int kind, Class<?> sourceClass, Class<?> targetClass, CopyOptions copyOptions) {
+        final Class<?> beanClass = kind == BEAN_TO_MAP ? sourceClass : targetClass;
+        final Map<Key, CopyPlan> plans = CACHE.get(beanClass);
+        final Key key = new Key(kind, kind == BEAN_TO_BEAN ? sourceClass : null, copyOptions);
+        CopyPlan plan = plans.get(key);
+        if (null == plan) {
+            plan = plans.computeIfAbsent(key.snapshot(), k -> kind == BEAN_TO_MAP
+                    ? compileToMap(sourceClass, copyOptions)
+                    : compileToBean(kind, sourceClass, targetClass, copyOptions));
+        }
+        return plan;
+    }
+
+    /**
+     * 执行拷贝
+     *
+     * @param source 源对象
+     * @param target 目标对象
+     */
+    public void copy(Object source, Object target) {
+        switch (this.kind) {
+            case BEAN_TO_BEAN:
+                copyBeanToBean(source, target);
+                break;
+            case MAP_TO_BEAN:
+                copyMapToBean((Map<?, ?>) source, target);
+                break;
+            default:
+                copyBeanToMap(source, (Map<Object, Object>) target);
+        }
+    }
+
+    private void copyBeanToBean(Object source, Object bean) {
+        Object value;
+        for (Prop prop : this.props) {
+            value = null;
+            if (null != prop.getter) {
+                try {
+                    value = prop.getter.apply(source);
+                } catch (Exception e) {
+                    if (false == this.ignoreError) {
+                        throw new InstrumentException("Inject [{}] error!", prop.key);
+                    }
+                }
+                if (false == prop.direct) {
+                    // 尝试转换为目标类型，失败将返回原类型
+                    final Object convertValue = Convert.convertWithCheck(prop.valueType, value, null, this.ignoreError);
+                    if (null != convertValue) {
+                        value = convertValue;
+                    }
+                }
+            }
+            inject(prop, bean, value);
+        }
+    }
+
+    private void copyMapToBean(Map<?, ?> map, Object bean) {
+        if (this.ignoreCase && false == map instanceof CaseInsensitiveMap) {
+            map = new CaseInsensitiveMap<>(map);
+        }
+        Object value;
+        for (Prop prop : this.props) {
+            value = map.get(prop.key);
+            if (null == value) {
+                //检查下划线模式
+                value = map.get(prop.underlineKey);
+                if (null == value && false == map.containsKey(prop.key) && false == map.containsKey(prop.underlineKey)) {
+                    // 无对应值可提供
+                    continue;
+                }
+            }
+            if (null == prop.valueClass || false == prop.valueClass.isInstance(value)) {
+                value = Convert.convertWithCheck(prop.valueType, value, null, this.ignoreError);
+            }
+            inject(prop, bean, value);
+        }
+    }
+
+    private void copyBeanToMap(Object bean, Map<Object, Object> targetMap) {
+        Object value;
+        for (Prop prop : this.props) {
+            try {
+                value = prop.getter.apply(bean);
+            } catch (Exception e) {
+                if (this.ignoreError) {
+                    continue;// 忽略反射失败
+                } else {
+                    throw new InstrumentException("Get value of [{}] error!", prop.name);
+                }
+            }
+            if (null == value && this.ignoreNullValue) {
+                continue;// 当允许跳过空时,跳过
+            }
+            if (bean.equals(value)) {
+                continue;// 值不能为bean本身,防止循环引用
+            }
+            targetMap.put(prop.key, value);
+        }
+    }
+
+    /**
+     * 注入值,类型不匹配时执行默认转换
+     *
+     * @param prop  属性
+     * @param bean  目标Bean
+     * @param value 值
+     */
+    private void inject(Prop prop, Object bean, Object value) {
+        if (null == value && this.ignoreNullValue) {
+            return;// 当允许跳过空时,跳过
+        }
+        if (bean == value) {
+            return;// 值不能为bean本身,防止循环引用
+        }
+        try {
+            if (false == prop.propClass.isInstance(value)) {
+                value = Convert.convert(prop.propClass, value);
+                if (null == value && this.ignoreNullValue) {
+                    return;// 当允许跳过空时,跳过
+                }
+            }
+            if (null == value) {
+                // 获取null对应默认值,防止原始类型造成空指针问题
+                value = ClassKit.getDefaultValue(prop.paramType);
+            } else if (false == prop.paramClass.isInstance(value)) {
+                final Object targetValue = Convert.convert(prop.paramType, value);
+                if (null != targetValue) {
+                    value = targetValue;
+                }
+            }
+            prop.setter.accept(bean, value);
+        } catch (Exception e) {
+            if (false == this.ignoreError) {
+                throw new InstrumentException("Inject [{}] error!", prop.name);
+            }
+            // 忽略注入失败
+        }
+    }
+
+    private static CopyPlan compileToBean(int kind, Class<?> sourceClass, Class<?> targetClass, CopyOptions copyOptions) {
+        Class<?> actualEditable = targetClass;
+        if (null != copyOptions.editable) {
+            // 检查限制类是否为target的父类或接口
+            if (false == copyOptions.editable.isAssignableFrom(targetClass)) {
+                throw new IllegalArgumentException(StringKit.format("Target class [{}] not assignable to Editable class [{}]", targetClass.getName(), copyOptions.editable.getName()));
+            }
+            actualEditable = copyOptions.editable;
+        }
+        final HashSet<String> ignoreSet = (null != copyOptions.ignoreProperties) ? CollKit.newHashSet(copyOptions.ignoreProperties) : null;
+        final Map<String, String> fieldReverseMapping = copyOptions.getReversedMapping();
+        final Map<String, BeanDesc.PropDesc> sourceProps = kind == BEAN_TO_BEAN
+                ? BeanKit.getBeanDesc(sourceClass).getPropMap(copyOptions.ignoreCase) : null;
+
+        final List<Prop> props = new ArrayList<>();
+        for (BeanDesc.PropDesc prop : BeanKit.getBeanDesc(actualEditable).getProps()) {
+            final Field field = prop.getField();
+            final String fieldName = prop.getFieldName();
+            if (CollKit.contains(ignoreSet, fieldName)) {
+                // 目标属性值被忽略
+                continue;
+            }
+            final String providerKey = mappingKey(fieldReverseMapping, fieldName);
+            final String booleanKey = StringKit.upperFirstAndAddPre(providerKey, Normal.IS);
+            if (kind == BEAN_TO_BEAN && false == sourceProps.containsKey(providerKey) && false == sourceProps.containsKey(booleanKey)) {
+                // 无对应值可提供
+                continue;
+            }
+            final Method setterMethod = prop.getSetter();
+            if (null == setterMethod && false == BeanKit.isPublic(field)) {
+                // Setter方法不存在或者字段为非public跳过
+                continue;
+            }
+
+            final Prop target = new Prop();
+            target.name = fieldName;
+            target.key = providerKey;
+            target.valueType = valueType(targetClass, field, setterMethod);
+            target.valueClass = target.valueType instanceof Class ? BasicType.wrap((Class<?>) target.valueType) : null;
+            target.propClass = prop.getFieldClass();
+            if (null == setterMethod) {
+                target.paramType = field.getType();
+                target.setter = setter(field);
+            } else {
+                target.paramType = setterMethod.getParameterTypes()[0];
+                target.setter = setter(setterMethod);
+            }
+            target.paramClass = BasicType.wrap(target.paramType);
+
+            if (kind == MAP_TO_BEAN) {
+                target.underlineKey = StringKit.toUnderlineCase(providerKey);
+            } else {
+                BeanDesc.PropDesc sourcePd = sourceProps.get(providerKey);
+                if (null == sourcePd && (Boolean.class == target.valueType || boolean.class == target.valueType)) {
+                    // boolean类型字段字段名支持两种方式
+                    sourcePd = sourceProps.get(booleanKey);
+                }
+                if (null != sourcePd && null != sourcePd.getGetter()) {
+                    final Method getter = sourcePd.getGetter();
+                    target.getter = getter(getter);
+                    // 源类型可直接赋值给目标类型时无需转换
+                    final Class<?> returnClass = BasicType.wrap(getter.getReturnType());
+                    target.direct = null != target.valueClass
+                            && target.valueClass.isAssignableFrom(returnClass)
+                            && BasicType.wrap(target.propClass).isAssignableFrom(returnClass);
+                }
+            }
+            props.add(target);
+        }
+        return new CopyPlan(kind, props, copyOptions);
+    }
+
+    private static CopyPlan compileToMap(Class<?> sourceClass, CopyOptions copyOptions) {
+        final HashSet<String> ignoreSet = (null != copyOptions.ignoreProperties) ? CollKit.newHashSet(copyOptions.ignoreProperties) : null;
+        final List<Prop> props = new ArrayList<>();
+        for (BeanDesc.PropDesc prop : BeanKit.getBeanDesc(sourceClass).getProps()) {
+            final String fieldName = prop.getFieldName();
+            final Method getter = prop.getGetter();
+            if (null == getter || CollKit.contains(ignoreSet, fieldName)) {
+                // 只读取有getter方法且未被忽略的属性
+                continue;
+            }
+            final Prop source = new Prop();
+            source.name = fieldName;
+            source.key = mappingKey(copyOptions.fieldMapping, fieldName);
+            source.getter = getter(getter);
+            props.add(source);
+        }
+        return new CopyPlan(BEAN_TO_MAP, props, copyOptions);
+    }
+
+    /**
+     * 解析目标属性的实际类型,参数为泛型时解析为真实类型
+     *
+     * @param destType     目标类型
+     * @param field        字段
+     * @param setterMethod Setter方法
+     * @return 属性类型
+     */
+    private static Type valueType(Type destType, Field field, Method setterMethod) {
+        Type valueType = (null == setterMethod) ? TypeKit.getType(field) : TypeKit.getFirstParamType(setterMethod);
+        if (valueType instanceof ParameterizedType) {
+            // 参数为泛型参数类型，解析对应泛型类型为真实类型
+            ParameterizedType tmp = (ParameterizedType) valueType;
+            Type[] actualTypeArguments = tmp.getActualTypeArguments();
+            if (TypeKit.hasTypeVeriable(actualTypeArguments)) {
+                // 泛型对象中含有未被转换的泛型变量
+                actualTypeArguments = TypeKit.getActualTypes(destType, field.getDeclaringClass(), tmp.getActualTypeArguments());
+                if (ArrayKit.isNotEmpty(actualTypeArguments)) {
+                    // 替换泛型变量为实际类型
+                    valueType = new Typed(actualTypeArguments, tmp.getOwnerType(), tmp.getRawType());
+                }
+            }
+        } else if (valueType instanceof TypeVariable) {
+            // 参数为泛型，查找其真实类型(适用于泛型方法定义于泛型父类)
+            valueType = TypeKit.getActualType(destType, field.getDeclaringClass(), valueType);
+        }
+        return valueType;
+    }
+
+    private static String mappingKey(Map<String, String> mapping, String fieldName) {
+        if (MapKit.isEmpty(mapping)) {
+            return fieldName;
+        }
+        return ObjectKit.defaultIfNull(mapping.get(fieldName), fieldName);
+    }
+
+    /**
+     * 生成Getter函数
+     *
+     * @param method Getter方法
+     * @return 函数
+     */
+    private static Function<Object, Object> getter(Method method) {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final MethodHandle handle;
+        try {
+            handle = lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new InstrumentException(e);
+        }
+        if (isLinkable(method)) {
+            try {
+                final CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(BasicType.wrap(method.getReturnType()), method.getDeclaringClass()));
+                return (Function<Object, Object>) site.getTarget().invoke();
+            } catch (Throwable e) {
+                // 回退至MethodHandle
+            }
+        }
+        final MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+        return bean -> {
+            try {
+                return generic.invokeExact(bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new InstrumentException(e);
+            }
+        };
+    }
+
+    /**
+     * 生成Setter函数
+     *
+     * @param method Setter方法
+     * @return 函数
+     */
+    private static BiConsumer<Object, Object> setter(Method method) {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final MethodHandle handle;
+        try {
+            handle = lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new InstrumentException(e);
+        }
+        final Class<?> paramType = method.getParameterTypes()[0];
+        if (isLinkable(method) && isVisible(paramType)) {
+            try {
+                final CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(void.class, method.getDeclaringClass(), BasicType.wrap(paramType)));
+                return (BiConsumer<Object, Object>) site.getTarget().invoke();
+            } catch (Throwable e) {
+                // 回退至MethodHandle
+            }
+        }
+        return setter(handle);
+    }
+
+    /**
+     * 生成public字段的赋值函数
+     *
+     * @param field 字段
+     * @return 函数
+     */
+    private static BiConsumer<Object, Object> setter(Field field) {
+        try {
+            return setter(MethodHandles.lookup().unreflectSetter(ReflectKit.setAccessible(field)));
+        } catch (IllegalAccessException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    private static BiConsumer<Object, Object> setter(MethodHandle handle) {
+        final MethodHandle generic = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (bean, value) -> {
+            try {
+                generic.invokeExact(bean, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new InstrumentException(e);
+            }
+        };
+    }
+
+    /**
+     * 方法是否可由{@link LambdaMetafactory}直接链接：
+     * 方法及所在类为public,且所在类对当前类加载器可见
+     *
+     * @param method 方法
+     * @return 是否可链接
+     */
+    private static boolean isLinkable(Method method) {
+        final Class<?> declaringClass = method.getDeclaringClass();
+        return Modifier.isPublic(method.getModifiers())
+                && Modifier.isPublic(declaringClass.getModifiers())
+                && isVisible(declaringClass);
+    }
+
+    private static boolean isVisible(Class<?> clazz) {
+        final ClassLoader loader = clazz.getClassLoader();
+        if (clazz.isPrimitive() || null == loader) {
+            return true;
+        }
+        for (ClassLoader current = CopyPlan.class.getClassLoader(); null != current; current = current.getParent()) {
+            if (current == loader) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 编译后的属性
+     */
+    private static final class Prop {
+
+        /**
+         * 字段名
+         */
+        private String name;
+        /**
+         * 值提供者(Map或源Bean)中对应的键,Bean转Map时为目标Map的键
+         */
+        private String key;
+        /**
+         * 下划线形式的键
+         */
+        private String underlineKey;
+        private Function<Object, Object> getter;
+        private BiConsumer<Object, Object> setter;
+        /**
+         * 目标属性的实际类型
+         */
+        private Type valueType;
+        /**
+         * 目标属性类型为Class时的包装类型
+         */
+        private Class<?> valueClass;
+        private Class<?> propClass;
+        /**
+         * Setter参数或字段类型
+         */
+        private Class<?> paramType;
+        private Class<?> paramClass;
+        /**
+         * 是否无需类型转换
+         */
+        private boolean direct;
+
+    }
+
+    /**
+     * 缓存键,Bean类型由缓存本身区分,此处只记录拷贝类型、Bean转Bean时的源类型及拷贝选项
+     * 查询时直接引用拷贝选项中的数组和Map,仅在缓存未命中时复制一份保存,避免后续修改影响缓存
+     */
+    private static final class Key {
+
+        private final int kind;
+        private final Class<?> sourceClass;
+        private final Class<?> editable;
+        private final boolean ignoreNullValue;
+        private final boolean ignoreError;
+        private final boolean ignoreCase;
+        private final String[] ignoreProperties;
+        private final Map<String, String> fieldMapping;
+        private final int hash;
+
+        Key(int kind, Class<?> sourceClass, CopyOptions copyOptions) {
+            this(kind, sourceClass, copyOptions.editable, copyOptions.ignoreNullValue, copyOptions.ignoreError,
+                    copyOptions.ignoreCase, copyOptions.ignoreProperties, copyOptions.fieldMapping);
+        }
+
+        private Key(int kind, Class<?> sourceClass, Class<?> editable, boolean ignoreNullValue, boolean ignoreError,
+                    boolean ignoreCase, String[] ignoreProperties, Map<String, String> fieldMapping) {
+            this.kind = kind;
+            this.sourceClass = sourceClass;
+            this.editable = editable;
+            this.ignoreNullValue = ignoreNullValue;
+            this.ignoreError = ignoreError;
+            this.ignoreCase = ignoreCase;
+            this.ignoreProperties = ignoreProperties;
+            this.fieldMapping = fieldMapping;
+            int hash = kind;
+            hash = 31 * hash + System.identityHashCode(sourceClass);
+            hash = 31 * hash + System.identityHashCode(editable);
+            hash = 31 * hash + (ignoreNullValue ? 1 : 0);
+            hash = 31 * hash + (ignoreError ? 1 : 0);
+            hash = 31 * hash + (ignoreCase ? 1 : 0);
+            hash = 31 * hash + Arrays.hashCode(ignoreProperties);
+            hash = 31 * hash + (null == fieldMapping ? 0 : fieldMapping.hashCode());
+            this.hash = hash;
+        }
+
+        /**
+         * 复制拷贝选项中的可变部分,作为缓存中保存的键
+         *
+         * @return 缓存键
+         */
+        Key snapshot() {
+            return new Key(kind, sourceClass, editable, ignoreNullValue, ignoreError, ignoreCase,
+                    null == ignoreProperties ? null : ignoreProperties.clone(),
+                    null == fieldMapping ? null : new HashMap<>(fieldMapping));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return kind == key.kind
+                    && sourceClass == key.sourceClass
+                    && editable == key.editable
+                    && ignoreNullValue == key.ignoreNullValue
+                    && ignoreError == key.ignoreError
+                    && ignoreCase == key.ignoreCase
+                    && Arrays.equals(ignoreProperties, key.ignoreProperties)
+                    && Objects.equals(fieldMapping, key.fieldMapping);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+}
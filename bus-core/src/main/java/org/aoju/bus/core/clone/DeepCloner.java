@@ -0,0 +1,684 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.clone;
+
+import org.aoju.bus.core.lang.ClassCache;
+import org.aoju.bus.core.lang.exception.InstrumentException;
+import org.aoju.bus.core.toolkit.ClassKit;
+import org.aoju.bus.core.toolkit.ObjectKit;
+import org.aoju.bus.core.toolkit.StringKit;
+
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 深度克隆
+ * <p>
+ * 首次克隆某个类时生成该类的复制计划并缓存,之后按计划逐字段复制,不经过序列化或JSON:
+ * <ul>
+ *     <li>不可变类型(字符串、包装类、枚举、{@code java.time}等)直接共享</li>
+ *     <li>数组按元素复制,基本类型及不可变元素类型的数组整体复制</li>
+ *     <li>JDK集合和Map新建同类型实例后逐个复制元素,保留比较器及LinkedHashMap的访问顺序</li>
+ *     <li>其它对象不调用构造方法创建实例后复制字段,与序列化一致,可序列化对象的transient字段不复制</li>
+ * </ul>
+ * 同一次克隆中同一个对象只复制一次,对象图中的共享引用和循环引用保持不变
+ * 无法按字段复制的JDK类型,以及声明了readObject/writeObject/readResolve/writeReplace的类型,退回序列化方式复制
+ * 既不能克隆也不能序列化的JDK类型(如线程、日志)直接共享
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public class DeepCloner {
+
+    /**
+     * 不调用构造方法创建实例,不可用时为null
+     */
+    private static final Object UNSAFE;
+    private static final Method ALLOCATE_INSTANCE;
+
+    static {
+        Object unsafe = null;
+        Method allocate = null;
+        try {
+            final Class<?> clazz = Class.forName("sun.misc.Unsafe");
+            final Field field = clazz.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            allocate = clazz.getMethod("allocateInstance", Class.class);
+        } catch (Throwable e) {
+            // 不支持时使用无参构造方法
+        }
+        UNSAFE = unsafe;
+        ALLOCATE_INSTANCE = allocate;
+    }
+
+    /**
+     * 直接共享的类型
+     */
+    private final Set<Class<?>> immutables = ConcurrentHashMap.newKeySet();
+    /**
+     * 自定义的复制方式
+     */
+    private final Map<Class<?>, Copier<?>> copiers = new ConcurrentHashMap<>();
+    /**
+     * 每个类的复制计划
+     */
+    private final ClassCache<Plan> plans = new ClassCache<>(this::compile);
+
+    /**
+     * 构造
+     */
+    public DeepCloner() {
+        Collections.addAll(immutables, String.class, BigInteger.class, BigDecimal.class,
+                UUID.class, URI.class, URL.class, Locale.class, Currency.class,
+                Pattern.class, File.class, DateTimeFormatter.class, Class.class, Object.class);
+        register(StringBuilder.class, (original, graph) -> new StringBuilder(original));
+        register(StringBuffer.class, (original, graph) -> new StringBuffer(original));
+        register(AtomicBoolean.class, (original, graph) -> new AtomicBoolean(original.get()));
+        register(AtomicInteger.class, (original, graph) -> new AtomicInteger(original.get()));
+        register(AtomicLong.class, (original, graph) -> new AtomicLong(original.get()));
+    }
+
+    /**
+     * 获得默认的克隆器
+     *
+     * @return {@link DeepCloner}
+     */
+    public static DeepCloner getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * 深度克隆对象
+     *
+     * @param <T> 对象类型
+     * @param obj 被克隆对象
+     * @return 克隆后的对象
+     * @throws InstrumentException 对象无法复制
+     */
+    public <T> T clone(T obj) {
+        if (null == obj) {
+            return null;
+        }
+        final Plan plan = plans.get(obj.getClass());
+        if (Plan.SHARED == plan) {
+            return obj;
+        }
+        return (T) plan.copy(obj, new Graph(this));
+    }
+
+    /**
+     * 注册不可变类型,克隆时直接共享,只对指定的类本身生效
+     *
+     * @param types 类型
+     * @return this
+     */
+    public DeepCloner registerImmutable(Class<?>... types) {
+        for (Class<?> type : types) {
+            immutables.add(type);
+            plans.remove(type);
+        }
+        return this;
+    }
+
+    /**
+     * 注册自定义的复制方式,只对指定的类本身生效
+     *
+     * @param <T>    对象类型
+     * @param type   类型
+     * @param copier 复制方式
+     * @return this
+     */
+    public <T> DeepCloner register(Class<T> type, Copier<T> copier) {
+        copiers.put(type, copier);
+        plans.remove(type);
+        return this;
+    }
+
+    /**
+     * 生成类的复制计划
+     *
+     * @param type 类
+     * @return 复制计划
+     */
+    private Plan compile(Class<?> type) {
+        final Copier<Object> copier = (Copier<Object>) copiers.get(type);
+        if (null != copier) {
+            return (original, graph) -> {
+                final Object copy = copier.copy(original, graph);
+                graph.put(original, copy);
+                return copy;
+            };
+        }
+        if (isImmutable(type)) {
+            return Plan.SHARED;
+        }
+        if (type.isArray()) {
+            final Class<?> component = type.getComponentType();
+            return component.isPrimitive() || (Modifier.isFinal(component.getModifiers()) && isImmutable(component))
+                    ? Plan.ARRAY_COPY : Plan.ARRAY;
+        }
+        if (EnumSet.class.isAssignableFrom(type)) {
+            return (original, graph) -> graph.put(original, ((EnumSet<?>) original).clone());
+        }
+        if (EnumMap.class.isAssignableFrom(type)) {
+            return (original, graph) -> {
+                final Map<Object, Object> copy = new EnumMap<>((EnumMap) original);
+                graph.put(original, copy);
+                for (Map.Entry<Object, Object> entry : copy.entrySet()) {
+                    entry.setValue(graph.copy(entry.getValue()));
+                }
+                return copy;
+            };
+        }
+
+        final boolean serializable = Serializable.class.isAssignableFrom(type);
+        try {
+            if (Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) {
+                final Plan plan = compileContainer(type);
+                if (null != plan) {
+                    return plan;
+                }
+            }
+            if (isJdk(type)) {
+                final Method clone = getPublicClone(type);
+                if (null != clone) {
+                    return (original, graph) -> graph.put(original, invoke(clone, original));
+                }
+                // 线程、日志等资源类型无法复制,直接共享
+                return serializable ? Plan.SERIALIZE : Plan.SHARED;
+            } else if (serializable && hasCustomSerialization(type)) {
+                return Plan.SERIALIZE;
+            }
+            return new FieldPlan(null == UNSAFE ? getDefaultConstructor(type) : null, type, getFields(type, false), serializable);
+        } catch (RuntimeException e) {
+            // 新版本JDK中无法访问JDK内部字段
+            if (serializable) {
+                return Plan.SERIALIZE;
+            }
+            throw new InstrumentException(StringKit.format("Can not clone {}: {}", type.getName(), e.getMessage()));
+        }
+    }
+
+    /**
+     * 生成集合和Map的复制计划,新建实例后逐个复制元素
+     *
+     * @param type 集合或Map类型
+     * @return 复制计划, 无法新建实例时返回null
+     */
+    private Plan compileContainer(Class<?> type) {
+        // 最近的JDK父类需有公开的构造方法,否则其内容保存在自定义字段中
+        Class<?> base = type;
+        while (false == isJdk(base)) {
+            base = base.getSuperclass();
+        }
+        final boolean sorted = SortedSet.class.isAssignableFrom(type)
+                || SortedMap.class.isAssignableFrom(type)
+                || PriorityQueue.class.isAssignableFrom(type);
+        final Class<?>[] parameterTypes = sorted ? new Class<?>[]{Comparator.class} : new Class<?>[0];
+        final Constructor<?> constructor;
+        try {
+            if (false == Modifier.isPublic(base.getConstructor(parameterTypes).getModifiers())
+                    || Modifier.isAbstract(base.getModifiers())) {
+                return null;
+            }
+            constructor = type.getDeclaredConstructor(parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        constructor.setAccessible(true);
+        return new ContainerPlan(constructor, sorted, getFields(type, true), Serializable.class.isAssignableFrom(type));
+    }
+
+    /**
+     * 获取无参构造方法,仅在无法不调用构造方法创建实例时使用
+     *
+     * @param type 类型
+     * @return 构造方法
+     */
+    private static Constructor<?> getDefaultConstructor(Class<?> type) {
+        try {
+            final Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException e) {
+            throw new InstrumentException(StringKit.format("No default constructor for {}", type.getName()));
+        }
+    }
+
+    /**
+     * 是否为直接共享的类型
+     *
+     * @param type 类型
+     * @return 是否共享
+     */
+    private boolean isImmutable(Class<?> type) {
+        if (type.isPrimitive() || ClassKit.isPrimitiveWrapper(type) || immutables.contains(type)) {
+            return true;
+        }
+        if (type.isEnum() || (null != type.getSuperclass() && type.getSuperclass().isEnum())) {
+            return true;
+        }
+        if (null != type.getPackage() && "java.time".equals(type.getPackage().getName())) {
+            return true;
+        }
+        // lambda表达式、路径、字符集
+        return type.isSynthetic() || Path.class.isAssignableFrom(type) || Charset.class.isAssignableFrom(type);
+    }
+
+    /**
+     * 获取JDK类型公开的clone方法,如{@link Date}、{@link Calendar}
+     *
+     * @param type JDK类型
+     * @return clone方法, 不存在时返回null
+     */
+    private static Method getPublicClone(Class<?> type) {
+        if (false == java.lang.Cloneable.class.isAssignableFrom(type)) {
+            return null;
+        }
+        try {
+            return type.getMethod("clone");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static boolean isJdk(Class<?> type) {
+        final String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.");
+    }
+
+    /**
+     * 是否声明了readObject、writeObject、readResolve或writeReplace,此类对象需要序列化机制决定复制结果
+     *
+     * @param type 类型
+     * @return 是否声明
+     */
+    private static boolean hasCustomSerialization(Class<?> type) {
+        for (Class<?> clazz = type; null != clazz && false == isJdk(clazz); clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                final String name = method.getName();
+                if (0 == method.getParameterCount() && ("readResolve".equals(name) || "writeReplace".equals(name))) {
+                    return true;
+                }
+                if (1 == method.getParameterCount() && (("readObject".equals(name)
+                        && ObjectInputStream.class == method.getParameterTypes()[0])
+                        || ("writeObject".equals(name) && ObjectOutputStream.class == method.getParameterTypes()[0]))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取需要复制的实例字段
+     *
+     * @param type    类型
+     * @param skipJdk 是否跳过JDK父类中的字段
+     * @return 字段
+     */
+    private static List<Field> getFields(Class<?> type, boolean skipJdk) {
+        final List<Field> fields = new ArrayList<>();
+        for (Class<?> clazz = type; null != clazz && Object.class != clazz; clazz = clazz.getSuperclass()) {
+            if (skipJdk && isJdk(clazz)) {
+                break;
+            }
+            for (Field field : clazz.getDeclaredFields()) {
+                if (false == Modifier.isStatic(field.getModifiers())) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static Object invoke(Method method, Object target) {
+        try {
+            return method.invoke(target);
+        } catch (InvocationTargetException e) {
+            throw new InstrumentException(e.getTargetException());
+        } catch (IllegalAccessException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    /**
+     * 自定义的复制方式
+     *
+     * @param <T> 对象类型
+     */
+    @FunctionalInterface
+    public interface Copier<T> {
+
+        /**
+         * 复制对象,其中引用的其它对象可通过{@link Graph#copy(Object)}深度复制
+         * 对象可能被自身引用时,需在复制引用前调用{@link Graph#put(Object, Object)}
+         *
+         * @param original 原始对象
+         * @param graph    当前克隆的对象图
+         * @return 复制后的对象
+         */
+        T copy(T original, Graph graph);
+
+    }
+
+    /**
+     * 复制计划
+     */
+    private interface Plan {
+
+        /**
+         * 直接共享
+         */
+        Plan SHARED = (original, graph) -> original;
+
+        /**
+         * 基本类型及不可变元素的数组
+         */
+        Plan ARRAY_COPY = (original, graph) -> {
+            final int length = Array.getLength(original);
+            final Object copy = Array.newInstance(original.getClass().getComponentType(), length);
+            System.arraycopy(original, 0, copy, 0, length);
+            return graph.put(original, copy);
+        };
+
+        /**
+         * 对象数组
+         */
+        Plan ARRAY = (original, graph) -> {
+            final Object[] array = (Object[]) original;
+            final Object[] copy = (Object[]) Array.newInstance(original.getClass().getComponentType(), array.length);
+            graph.put(original, copy);
+            for (int i = 0; i < array.length; i++) {
+                copy[i] = graph.copy(array[i]);
+            }
+            return copy;
+        };
+
+        /**
+         * 序列化方式复制
+         */
+        Plan SERIALIZE = (original, graph) -> graph.put(original, ObjectKit.cloneByStream(original));
+
+        /**
+         * 复制对象
+         *
+         * @param original 原始对象
+         * @param graph    当前克隆的对象图
+         * @return 复制后的对象
+         */
+        Object copy(Object original, Graph graph);
+
+    }
+
+    /**
+     * 逐字段复制的计划
+     */
+    private static class FieldPlan implements Plan {
+
+        private final Class<?> type;
+        /**
+         * 构造方法,为null时不调用构造方法创建实例
+         */
+        private final Constructor<?> constructor;
+        private final Field[] primitives;
+        private final Field[] references;
+        /**
+         * 引用字段的值是否需要深度复制,声明类型为final的不可变类型时直接共享
+         */
+        private final boolean[] deep;
+        /**
+         * 不复制的transient字段,通过构造方法创建实例时需重置为默认值
+         */
+        private final Field[] transients;
+
+        FieldPlan(Constructor<?> constructor, Class<?> type, List<Field> fields, boolean serializable) {
+            this.type = type;
+            this.constructor = constructor;
+            final List<Field> primitives = new ArrayList<>();
+            final List<Field> references = new ArrayList<>();
+            final List<Field> transients = new ArrayList<>();
+            for (Field field : fields) {
+                if (serializable && Modifier.isTransient(field.getModifiers())) {
+                    transients.add(field);
+                } else {
+                    (field.getType().isPrimitive() ? primitives : references).add(field);
+                }
+            }
+            this.transients = null == constructor ? new Field[0] : transients.toArray(new Field[0]);
+            this.primitives = primitives.toArray(new Field[0]);
+            this.references = references.toArray(new Field[0]);
+            this.deep = new boolean[this.references.length];
+            for (int i = 0; i < this.references.length; i++) {
+                final Class<?> fieldType = this.references[i].getType();
+                deep[i] = false == (Modifier.isFinal(fieldType.getModifiers())
+                        && (String.class == fieldType || ClassKit.isPrimitiveWrapper(fieldType) || fieldType.isEnum()));
+            }
+        }
+
+        @Override
+        public Object copy(Object original, Graph graph) {
+            final Object copy = newInstance(original);
+            graph.put(original, copy);
+            try {
+                copyFields(original, copy, graph);
+            } catch (IllegalAccessException e) {
+                throw new InstrumentException(e);
+            }
+            return copy;
+        }
+
+        void copyFields(Object original, Object copy, Graph graph) throws IllegalAccessException {
+            for (Field field : primitives) {
+                final Class<?> fieldType = field.getType();
+                if (int.class == fieldType) {
+                    field.setInt(copy, field.getInt(original));
+                } else if (long.class == fieldType) {
+                    field.setLong(copy, field.getLong(original));
+                } else if (boolean.class == fieldType) {
+                    field.setBoolean(copy, field.getBoolean(original));
+                } else if (double.class == fieldType) {
+                    field.setDouble(copy, field.getDouble(original));
+                } else if (float.class == fieldType) {
+                    field.setFloat(copy, field.getFloat(original));
+                } else if (byte.class == fieldType) {
+                    field.setByte(copy, field.getByte(original));
+                } else if (char.class == fieldType) {
+                    field.setChar(copy, field.getChar(original));
+                } else {
+                    field.setShort(copy, field.getShort(original));
+                }
+            }
+            for (int i = 0; i < references.length; i++) {
+                final Object value = references[i].get(original);
+                references[i].set(copy, deep[i] ? graph.copy(value) : value);
+            }
+            for (Field field : transients) {
+                field.set(copy, ClassKit.getDefaultValue(field.getType()));
+            }
+        }
+
+        /**
+         * 创建实例
+         *
+         * @param original 原始对象
+         * @return 新实例
+         */
+        Object newInstance(Object original) {
+            try {
+                return null == constructor ? ALLOCATE_INSTANCE.invoke(UNSAFE, type) : constructor.newInstance();
+            } catch (InvocationTargetException e) {
+                throw new InstrumentException(e.getTargetException());
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new InstrumentException(e);
+            }
+        }
+
+    }
+
+    /**
+     * 集合和Map的复制计划,复制自定义子类的字段后逐个复制元素
+     */
+    private static class ContainerPlan extends FieldPlan {
+
+        private final Constructor<?> constructor;
+        /**
+         * 是否通过比较器创建实例
+         */
+        private final boolean sorted;
+
+        ContainerPlan(Constructor<?> constructor, boolean sorted, List<Field> fields, boolean serializable) {
+            super(constructor, constructor.getDeclaringClass(), fields, serializable);
+            this.constructor = constructor;
+            this.sorted = sorted;
+        }
+
+        @Override
+        Object newInstance(Object original) {
+            if (original instanceof LinkedHashMap) {
+                // 复制后清空,保留访问顺序和负载因子
+                final Map<?, ?> copy = (Map<?, ?>) ((LinkedHashMap<?, ?>) original).clone();
+                copy.clear();
+                return copy;
+            }
+            if (false == sorted) {
+                return super.newInstance(original);
+            }
+            try {
+                return constructor.newInstance(comparator(original));
+            } catch (InvocationTargetException e) {
+                throw new InstrumentException(e.getTargetException());
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new InstrumentException(e);
+            }
+        }
+
+        @Override
+        public Object copy(Object original, Graph graph) {
+            final Object copy = super.copy(original, graph);
+            if (original instanceof Map) {
+                final Map<Object, Object> map = (Map<Object, Object>) copy;
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) original).entrySet()) {
+                    map.put(graph.copy(entry.getKey()), graph.copy(entry.getValue()));
+                }
+            } else {
+                final Collection<Object> collection = (Collection<Object>) copy;
+                for (Object element : (Collection<?>) original) {
+                    collection.add(graph.copy(element));
+                }
+            }
+            return copy;
+        }
+
+        private static Comparator<?> comparator(Object original) {
+            if (original instanceof SortedSet) {
+                return ((SortedSet<?>) original).comparator();
+            }
+            if (original instanceof SortedMap) {
+                return ((SortedMap<?, ?>) original).comparator();
+            }
+            return ((PriorityQueue<?>) original).comparator();
+        }
+
+    }
+
+    /**
+     * 一次克隆中的对象图,记录已复制的对象以保持共享引用和循环引用
+     */
+    public static final class Graph {
+
+        private final DeepCloner cloner;
+        private final Map<Object, Object> copies = new IdentityHashMap<>();
+
+        private Graph(DeepCloner cloner) {
+            this.cloner = cloner;
+        }
+
+        /**
+         * 深度复制对象,同一个对象在本次克隆中只复制一次
+         *
+         * @param <T>   对象类型
+         * @param value 原始对象
+         * @return 复制后的对象
+         */
+        public <T> T copy(T value) {
+            if (null == value) {
+                return null;
+            }
+            final Plan plan = cloner.plans.get(value.getClass());
+            if (Plan.SHARED == plan) {
+                return value;
+            }
+            final Object copied = copies.get(value);
+            if (null != copied) {
+                return (T) copied;
+            }
+            return (T) plan.copy(value, this);
+        }
+
+        /**
+         * 记录已复制的对象
+         *
+         * @param original 原始对象
+         * @param copy     复制后的对象
+         * @return 复制后的对象
+         */
+        public Object put(Object original, Object copy) {
+            copies.put(original, copy);
+            return copy;
+        }
+
+    }
+
+    /**
+     * 类级的内部类，也就是静态的成员式内部类，该内部类的实例与外部类的实例 没有绑定关系，而且只有被调用到才会装载，从而实现了延迟加载
+     */
+    private static class SingletonHolder {
+        /**
+         * 静态初始化器，由JVM来保证线程安全
+         */
+        private static final DeepCloner INSTANCE = new DeepCloner();
+    }
+
+}
@@ -32,9 +32,14 @@ import org.aoju.bus.core.toolkit.StringKit;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 
 /**
  * Base64解码实现
+ * <p>
+ * 解码时跳过非Base64字符,除返回新数组的方法外,还提供解码到调用方提供的byte[]
+ * 及{@link ByteBuffer}中的方法
  *
  * @author Kimi Liu
  * @version 6.0.2
@@ -42,8 +47,6 @@ import java.io.OutputStream;
  */
 public class Base64Decoder {
 
-    private static final byte PADDING = -2;
-
     /**
      * base64解码
      *
@@ -72,7 +75,12 @@ public class Base64Decoder {
      * @return 被加密后的字符串
      */
     public static byte[] decode(CharSequence source) {
-        return decode(StringKit.bytes(source, Charset.UTF_8));
+        if (null == source) {
+            return null;
+        }
+        final byte[] octet = new byte[decodedLength(source.length())];
+        final int octetId = decode(source, octet, 0);
+        return octetId == octet.length ? octet : (byte[]) ArrayKit.copy(octet, new byte[octetId], octetId);
     }
 
     /**
@@ -101,38 +109,147 @@ public class Base64Decoder {
             return in;
         }
 
-        final IntWrapper offset = new IntWrapper(pos);
+        byte[] octet = new byte[decodedLength(length)];// over-estimated if non-base64 characters present
+        int octetId = decode(in, pos, length, octet, 0);
+
+        if (octetId == octet.length) {
+            return octet;
+        } else {
+            // 如果有非Base64字符混入，则实际结果比解析的要短，截取之
+            return (byte[]) ArrayKit.copy(octet, new byte[octetId], octetId);
+        }
+    }
 
-        byte sestet0;
-        byte sestet1;
-        byte sestet2;
-        byte sestet3;
-        int maxPos = pos + length - 1;
-        int octetId = 0;
-        byte[] octet = new byte[length * 3 / 4];// over-estimated if non-base64 characters present
-        while (offset.value <= maxPos) {
-            sestet0 = getNextValidDecodeByte(in, offset, maxPos);
-            sestet1 = getNextValidDecodeByte(in, offset, maxPos);
-            sestet2 = getNextValidDecodeByte(in, offset, maxPos);
-            sestet3 = getNextValidDecodeByte(in, offset, maxPos);
+    /**
+     * 计算解码后的最大长度,输入中混有非Base64字符或补位时实际长度更短
+     *
+     * @param length 被解码的长度
+     * @return 解码后的最大长度
+     */
+    public static int decodedLength(int length) {
+        return length <= 0 ? 0 : (int) (length * 3L / 4);
+    }
 
-            if (PADDING != sestet1) {
-                octet[octetId++] = (byte) ((sestet0 << 2) | (sestet1 >>> 4));
+    /**
+     * 解码Base64,结果写入调用方提供的数组
+     * 目标数组剩余空间需不小于{@link #decodedLength(int)}
+     *
+     * @param in      输入
+     * @param pos     开始位置
+     * @param length  长度
+     * @param dest    目标数组
+     * @param destPos 目标数组开始位置
+     * @return 写入的字节数
+     */
+    public static int decode(byte[] in, int pos, int length, byte[] dest, int destPos) {
+        if (pos < 0 || length < 0 || length > in.length - pos) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (destPos < 0 || decodedLength(length) > dest.length - destPos) {
+            throw new IndexOutOfBoundsException();
+        }
+        final int end = pos + length;
+        int bits = 0;
+        int count = 0;
+        int d = destPos;
+        for (int i = pos; i < end; i++) {
+            final int sestet = decodeSestet(in[i]);
+            if (sestet < 0) {
+                continue;
+            }
+            bits = bits << 6 | sestet;
+            if (++count == 4) {
+                dest[d++] = (byte) (bits >> 16);
+                dest[d++] = (byte) (bits >> 8);
+                dest[d++] = (byte) bits;
+                bits = 0;
+                count = 0;
             }
-            if (PADDING != sestet2) {
-                octet[octetId++] = (byte) (((sestet1 & 0xf) << 4) | (sestet2 >>> 2));
+        }
+        return d - destPos + finish(bits, count, dest, d);
+    }
+
+    /**
+     * 解码Base64字符序列,结果写入调用方提供的数组,不产生中间字符串或数组
+     * 目标数组剩余空间需不小于{@link #decodedLength(int)}
+     *
+     * @param source  被解码的base64字符序列
+     * @param dest    目标数组
+     * @param destPos 目标数组开始位置
+     * @return 写入的字节数
+     */
+    public static int decode(CharSequence source, byte[] dest, int destPos) {
+        final int length = source.length();
+        if (destPos < 0 || decodedLength(length) > dest.length - destPos) {
+            throw new IndexOutOfBoundsException();
+        }
+        int bits = 0;
+        int count = 0;
+        int d = destPos;
+        for (int i = 0; i < length; i++) {
+            final char c = source.charAt(i);
+            final int sestet = c < Normal.DECODE_64_TABLE.length ? Normal.DECODE_64_TABLE[c] : -1;
+            if (sestet < 0) {
+                continue;
             }
-            if (PADDING != sestet3) {
-                octet[octetId++] = (byte) (((sestet2 & 3) << 6) | sestet3);
+            bits = bits << 6 | sestet;
+            if (++count == 4) {
+                dest[d++] = (byte) (bits >> 16);
+                dest[d++] = (byte) (bits >> 8);
+                dest[d++] = (byte) bits;
+                bits = 0;
+                count = 0;
             }
         }
+        return d - destPos + finish(bits, count, dest, d);
+    }
 
-        if (octetId == octet.length) {
-            return octet;
-        } else {
-            // 如果有非Base64字符混入，则实际结果比解析的要短，截取之
-            return (byte[]) ArrayKit.copy(octet, new byte[octetId], octetId);
+    /**
+     * 解码Base64,读取src中剩余的全部字节,结果写入dest当前位置,支持堆外(direct)缓冲区
+     * 调用后src的position移动到limit,dest的position后移写入的字节数
+     *
+     * @param src  被解码的缓冲区
+     * @param dest 目标缓冲区,剩余空间需不小于{@link #decodedLength(int)}
+     * @return 写入的字节数
+     * @throws BufferOverflowException 目标缓冲区剩余空间不足
+     */
+    public static int decode(ByteBuffer src, ByteBuffer dest) {
+        final int length = src.remaining();
+        if (dest.remaining() < decodedLength(length)) {
+            throw new BufferOverflowException();
         }
+        if (src.hasArray() && dest.hasArray()) {
+            final int written = decode(src.array(), src.arrayOffset() + src.position(), length,
+                    dest.array(), dest.arrayOffset() + dest.position());
+            src.position(src.limit());
+            dest.position(dest.position() + written);
+            return written;
+        }
+
+        final int start = dest.position();
+        int bits = 0;
+        int count = 0;
+        while (src.hasRemaining()) {
+            final int sestet = decodeSestet(src.get());
+            if (sestet < 0) {
+                continue;
+            }
+            bits = bits << 6 | sestet;
+            if (++count == 4) {
+                dest.put((byte) (bits >> 16));
+                dest.put((byte) (bits >> 8));
+                dest.put((byte) bits);
+                bits = 0;
+                count = 0;
+            }
+        }
+        if (count == 2) {
+            dest.put((byte) (bits >> 4));
+        } else if (count == 3) {
+            dest.put((byte) (bits >> 10));
+            dest.put((byte) (bits >> 2));
+        }
+        return dest.position() - start;
     }
 
     /**
@@ -161,37 +278,35 @@ public class Base64Decoder {
     }
 
     /**
-     * 获取下一个有效的byte字符
+     * 将Base64字符转换为6位值
      *
-     * @param in     输入
-     * @param pos    当前位置，调用此方法后此位置保持在有效字符的下一个位置
-     * @param maxPos 最大位置
-     * @return 有效字符，如果达到末尾返回
+     * @param b Base64字符
+     * @return 6位值, 非Base64字符(包括补位的=)返回负数
      */
-    private static byte getNextValidDecodeByte(byte[] in, IntWrapper pos, int maxPos) {
-        byte base64Byte;
-        byte decodeByte;
-        while (pos.value <= maxPos) {
-            base64Byte = in[pos.value++];
-            if (base64Byte > -1) {
-                decodeByte = Normal.DECODE_64_TABLE[base64Byte];
-                if (decodeByte > -1) {
-                    return decodeByte;
-                }
-            }
-        }
-        return PADDING;
+    private static int decodeSestet(byte b) {
+        return b > -1 && b < Normal.DECODE_64_TABLE.length ? Normal.DECODE_64_TABLE[b] : -1;
     }
 
     /**
-     * int包装,使之可变
+     * 写出末尾不完整的一组,不足2个有效字符时忽略
+     *
+     * @param bits  已累积的位
+     * @param count 已累积的有效字符数
+     * @param dest  目标数组
+     * @param pos   写入位置
+     * @return 写入的字节数
      */
-    private static class IntWrapper {
-        int value;
-
-        IntWrapper(int value) {
-            this.value = value;
+    private static int finish(int bits, int count, byte[] dest, int pos) {
+        if (count == 2) {
+            dest[pos] = (byte) (bits >> 4);
+            return 1;
+        }
+        if (count == 3) {
+            dest[pos] = (byte) (bits >> 10);
+            dest[pos + 1] = (byte) (bits >> 2);
+            return 2;
         }
+        return 0;
     }
 
 }
@@ -27,11 +27,17 @@ package org.aoju.bus.core.codec;
 import org.aoju.bus.core.lang.Charset;
 import org.aoju.bus.core.lang.Normal;
 import org.aoju.bus.core.lang.Symbol;
-import org.aoju.bus.core.toolkit.CharKit;
+import org.aoju.bus.core.text.StrBuilder;
 import org.aoju.bus.core.toolkit.StringKit;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
 /**
  * Base64编码
+ * <p>
+ * 除返回新数组或字符串的方法外,还提供编码到调用方提供的byte[]、char[]、{@link ByteBuffer}
+ * 及{@link StrBuilder}中的方法,编码过程不产生中间对象
  *
  * @author Kimi Liu
  * @version 6.0.2
@@ -39,6 +45,15 @@ import org.aoju.bus.core.toolkit.StringKit;
  */
 public class Base64Encoder {
 
+    /**
+     * base64编码字符表
+     */
+    private static final char[] ENCODE_64_CHARS = toChars(Normal.ENCODE_64_TABLE);
+    /**
+     * URL安全的base64编码字符表
+     */
+    private static final char[] ENCODE_URL_CHARS = toChars(Normal.ENCODE_URL_TABLE);
+
     /**
      * 编码为Base64，非URL安全的
      *
@@ -110,7 +125,7 @@ public class Base64Encoder {
      * @return 被加密后的字符串
      */
     public static String encode(byte[] source) {
-        return StringKit.toString(encode(source, false), Charset.UTF_8);
+        return encodeToString(source, false);
     }
 
     /**
@@ -120,7 +135,7 @@ public class Base64Encoder {
      * @return 被加密后的字符串
      */
     public static String encodeUrlSafe(byte[] source) {
-        return StringKit.toString(encodeUrlSafe(source, false), Charset.UTF_8);
+        return encodeToString(source, true);
     }
 
     /**
@@ -142,48 +157,185 @@ public class Base64Encoder {
             return Normal.EMPTY_BYTE_ARRAY;
         }
 
-        int evenlen = (len / 3) * 3;
-        int cnt = ((len - 1) / 3 + 1) << 2;
-        int destlen = cnt + (isMultiLine ? (cnt - 1) / 76 << 1 : 0);
-        byte[] dest = new byte[destlen];
+        byte[] dest = new byte[encodedLength(len, isMultiLine, isUrlSafe)];
+        encode(arr, 0, len, dest, 0, isMultiLine, isUrlSafe);
+        return dest;
+    }
+
+    /**
+     * 计算编码后的长度
+     *
+     * @param srcLen      被编码的字节数
+     * @param isMultiLine 在76个char之后是CRLF还是EOF
+     * @param isUrlSafe   是否使用URL安全字符,URL安全模式下不补充=
+     * @return 编码后的长度
+     */
+    public static int encodedLength(int srcLen, boolean isMultiLine, boolean isUrlSafe) {
+        if (srcLen <= 0) {
+            return 0;
+        }
+        int cnt = ((srcLen - 1) / 3 + 1) << 2;
+        int len = cnt + (isMultiLine ? (cnt - 1) / 76 << 1 : 0);
+        int left = srcLen % 3;
+        if (isUrlSafe && left > 0) {
+            len -= 3 - left;
+        }
+        return len;
+    }
+
+    /**
+     * 编码为Base64,结果写入调用方提供的数组
+     * 目标数组剩余空间需不小于{@link #encodedLength(int, boolean, boolean)}
+     *
+     * @param src         被编码的数组
+     * @param srcPos      开始位置
+     * @param srcLen      长度
+     * @param dest        目标数组
+     * @param destPos     目标数组开始位置
+     * @param isMultiLine 在76个char之后是CRLF还是EOF
+     * @param isUrlSafe   是否使用URL安全字符,一般为<code>false</code>
+     * @return 写入的字节数
+     */
+    public static int encode(byte[] src, int srcPos, int srcLen, byte[] dest, int destPos,
+                             boolean isMultiLine, boolean isUrlSafe) {
+        if (srcPos < 0 || srcLen < 0 || srcLen > src.length - srcPos) {
+            throw new IndexOutOfBoundsException();
+        }
+        int destLen = encodedLength(srcLen, isMultiLine, isUrlSafe);
+        if (destPos < 0 || destLen > dest.length - destPos) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (srcLen == 0) {
+            return 0;
+        }
 
         byte[] encodeTable = isUrlSafe ? Normal.ENCODE_URL_TABLE : Normal.ENCODE_64_TABLE;
+        // 补充=之后的完整长度,用于判断是否已到末尾
+        int cnt = ((srcLen - 1) / 3 + 1) << 2;
+        int destEnd = destPos + cnt + (isMultiLine ? (cnt - 1) / 76 << 1 : 0);
+        int srcEnd = srcPos + (srcLen / 3) * 3;
 
-        for (int s = 0, d = 0, cc = 0; s < evenlen; ) {
-            int i = (arr[s++] & 0xff) << 16 | (arr[s++] & 0xff) << 8 | (arr[s++] & 0xff);
+        int s = srcPos;
+        int d = destPos;
+        for (int cc = 0; s < srcEnd; ) {
+            int i = (src[s++] & 0xff) << 16 | (src[s++] & 0xff) << 8 | (src[s++] & 0xff);
 
             dest[d++] = encodeTable[(i >>> 18) & 0x3f];
             dest[d++] = encodeTable[(i >>> 12) & 0x3f];
             dest[d++] = encodeTable[(i >>> 6) & 0x3f];
             dest[d++] = encodeTable[i & 0x3f];
 
-            if (isMultiLine && ++cc == 19 && d < destlen - 2) {
+            if (isMultiLine && ++cc == 19 && d < destEnd - 2) {
                 dest[d++] = Symbol.C_CR;
                 dest[d++] = Symbol.C_LF;
                 cc = 0;
             }
         }
 
-        int left = len - evenlen;// 剩余位数
+        int left = srcLen - (srcEnd - srcPos);// 剩余位数
+        if (left > 0) {
+            int i = ((src[srcEnd] & 0xff) << 10) | (left == 2 ? ((src[srcEnd + 1] & 0xff) << 2) : 0);
+
+            dest[d++] = encodeTable[i >> 12];
+            dest[d++] = encodeTable[(i >>> 6) & 0x3f];
+            if (left == 2) {
+                dest[d++] = encodeTable[i & 0x3f];
+            } else if (false == isUrlSafe) {
+                dest[d++] = Symbol.C_EQUAL;
+            }
+            // 在URL Safe模式下,=为URL中的关键字符,不需要补充
+            if (false == isUrlSafe) {
+                dest[d++] = Symbol.C_EQUAL;
+            }
+        }
+        return d - destPos;
+    }
+
+    /**
+     * 编码为Base64,读取src中剩余的全部字节,结果写入dest当前位置,支持堆外(direct)缓冲区
+     * 调用后src的position移动到limit,dest的position后移写入的字节数
+     *
+     * @param src       被编码的缓冲区
+     * @param dest      目标缓冲区
+     * @param isUrlSafe 是否使用URL安全字符,一般为<code>false</code>
+     * @return 写入的字节数
+     * @throws BufferOverflowException 目标缓冲区剩余空间不足
+     */
+    public static int encode(ByteBuffer src, ByteBuffer dest, boolean isUrlSafe) {
+        int srcLen = src.remaining();
+        int destLen = encodedLength(srcLen, false, isUrlSafe);
+        if (dest.remaining() < destLen) {
+            throw new BufferOverflowException();
+        }
+        if (src.hasArray() && dest.hasArray()) {
+            encode(src.array(), src.arrayOffset() + src.position(), srcLen,
+                    dest.array(), dest.arrayOffset() + dest.position(), false, isUrlSafe);
+            src.position(src.limit());
+            dest.position(dest.position() + destLen);
+            return destLen;
+        }
+
+        byte[] encodeTable = isUrlSafe ? Normal.ENCODE_URL_TABLE : Normal.ENCODE_64_TABLE;
+        for (int n = srcLen / 3; n > 0; n--) {
+            int i = (src.get() & 0xff) << 16 | (src.get() & 0xff) << 8 | (src.get() & 0xff);
+            dest.put(encodeTable[(i >>> 18) & 0x3f]);
+            dest.put(encodeTable[(i >>> 12) & 0x3f]);
+            dest.put(encodeTable[(i >>> 6) & 0x3f]);
+            dest.put(encodeTable[i & 0x3f]);
+        }
+        int left = srcLen % 3;
+        if (left > 0) {
+            int i = ((src.get() & 0xff) << 10) | (left == 2 ? ((src.get() & 0xff) << 2) : 0);
+            dest.put(encodeTable[i >> 12]);
+            dest.put(encodeTable[(i >>> 6) & 0x3f]);
+            if (left == 2) {
+                dest.put(encodeTable[i & 0x3f]);
+            } else if (false == isUrlSafe) {
+                dest.put((byte) Symbol.C_EQUAL);
+            }
+            if (false == isUrlSafe) {
+                dest.put((byte) Symbol.C_EQUAL);
+            }
+        }
+        return destLen;
+    }
+
+    /**
+     * 编码为Base64,结果追加到{@link StrBuilder}
+     *
+     * @param src       被编码的数组
+     * @param srcPos    开始位置
+     * @param srcLen    长度
+     * @param dest      目标{@link StrBuilder}
+     * @param isUrlSafe 是否使用URL安全字符,一般为<code>false</code>
+     * @return 目标{@link StrBuilder}
+     */
+    public static StrBuilder encode(byte[] src, int srcPos, int srcLen, StrBuilder dest, boolean isUrlSafe) {
+        if (srcPos < 0 || srcLen < 0 || srcLen > src.length - srcPos) {
+            throw new IndexOutOfBoundsException();
+        }
+        char[] encodeTable = isUrlSafe ? ENCODE_URL_CHARS : ENCODE_64_CHARS;
+        dest.ensureCapacity(dest.length() + encodedLength(srcLen, false, isUrlSafe));
+
+        int s = srcPos;
+        for (int n = srcLen / 3; n > 0; n--) {
+            int i = (src[s++] & 0xff) << 16 | (src[s++] & 0xff) << 8 | (src[s++] & 0xff);
+            dest.append(encodeTable[(i >>> 18) & 0x3f])
+                    .append(encodeTable[(i >>> 12) & 0x3f])
+                    .append(encodeTable[(i >>> 6) & 0x3f])
+                    .append(encodeTable[i & 0x3f]);
+        }
+        int left = srcLen % 3;
         if (left > 0) {
-            int i = ((arr[evenlen] & 0xff) << 10) | (left == 2 ? ((arr[len - 1] & 0xff) << 2) : 0);
-
-            dest[destlen - 4] = encodeTable[i >> 12];
-            dest[destlen - 3] = encodeTable[(i >>> 6) & 0x3f];
-
-            if (isUrlSafe) {
-                // 在URL Safe模式下,=为URL中的关键字符,不需要补充 空余的byte位要去掉
-                int urlSafeLen = destlen - 2;
-                if (2 == left) {
-                    dest[destlen - 2] = encodeTable[i & 0x3f];
-                    urlSafeLen += 1;
-                }
-                byte[] urlSafeDest = new byte[urlSafeLen];
-                System.arraycopy(dest, 0, urlSafeDest, 0, urlSafeLen);
-                return urlSafeDest;
-            } else {
-                dest[destlen - 2] = (left == 2) ? encodeTable[i & 0x3f] : (byte) Symbol.C_EQUAL;
-                dest[destlen - 1] = Symbol.C_EQUAL;
+            int i = ((src[s] & 0xff) << 10) | (left == 2 ? ((src[s + 1] & 0xff) << 2) : 0);
+            dest.append(encodeTable[i >> 12]).append(encodeTable[(i >>> 6) & 0x3f]);
+            if (left == 2) {
+                dest.append(encodeTable[i & 0x3f]);
+            } else if (false == isUrlSafe) {
+                dest.append(Symbol.C_EQUAL);
+            }
+            if (false == isUrlSafe) {
+                dest.append(Symbol.C_EQUAL);
             }
         }
         return dest;
@@ -200,35 +352,75 @@ public class Base64Encoder {
      */
     public static void encode(byte[] src, int srcPos, int srcLen, char[] dest,
                               int destPos) {
+        encode(src, srcPos, srcLen, dest, destPos, false);
+    }
+
+    /**
+     * 编码为Base64
+     *
+     * @param src       源字符信息
+     * @param srcPos    开始位置
+     * @param srcLen    长度
+     * @param dest      字符信息
+     * @param destPos   开始位置
+     * @param isUrlSafe 是否使用URL安全字符,一般为<code>false</code>
+     * @return 写入的字符数
+     */
+    public static int encode(byte[] src, int srcPos, int srcLen, char[] dest,
+                             int destPos, boolean isUrlSafe) {
         if (srcPos < 0 || srcLen < 0 || srcLen > src.length - srcPos)
             throw new IndexOutOfBoundsException();
-        int destLen = (srcLen * 4 / 3 + 3) & ~3;
+        int destLen = encodedLength(srcLen, false, isUrlSafe);
         if (destPos < 0 || destLen > dest.length - destPos)
             throw new IndexOutOfBoundsException();
-        byte b1, b2, b3;
-        int n = srcLen / 3;
-        int r = srcLen - 3 * n;
-        while (n-- > 0) {
-            dest[destPos++] = CharKit.getChars(Normal.ENCODE_64_TABLE)[((b1 = src[srcPos++]) >>> 2) & 0x3F];
-            dest[destPos++] = CharKit.getChars(Normal.ENCODE_64_TABLE)[((b1 & 0x03) << 4)
-                    | (((b2 = src[srcPos++]) >>> 4) & 0x0F)];
-            dest[destPos++] = CharKit.getChars(Normal.ENCODE_64_TABLE)[((b2 & 0x0F) << 2)
-                    | (((b3 = src[srcPos++]) >>> 6) & 0x03)];
-            dest[destPos++] = CharKit.getChars(Normal.ENCODE_64_TABLE)[b3 & 0x3F];
-        }
-        if (r > 0)
-            if (r == 1) {
-                dest[destPos++] = CharKit.getChars(Normal.ENCODE_64_TABLE)[((b1 = src[srcPos]) >>> 2) & 0x3F];
-                dest[destPos++] = CharKit.getChars(Normal.ENCODE_64_TABLE)[((b1 & 0x03) << 4)];
-                dest[destPos++] = Symbol.C_EQUAL;
-                dest[destPos++] = Symbol.C_EQUAL;
-            } else {
-                dest[destPos++] = CharKit.getChars(Normal.ENCODE_64_TABLE)[((b1 = src[srcPos++]) >>> 2) & 0x3F];
-                dest[destPos++] = CharKit.getChars(Normal.ENCODE_64_TABLE)[((b1 & 0x03) << 4)
-                        | (((b2 = src[srcPos]) >>> 4) & 0x0F)];
-                dest[destPos++] = CharKit.getChars(Normal.ENCODE_64_TABLE)[(b2 & 0x0F) << 2];
-                dest[destPos++] = Symbol.C_EQUAL;
+        char[] encodeTable = isUrlSafe ? ENCODE_URL_CHARS : ENCODE_64_CHARS;
+        int d = destPos;
+        for (int n = srcLen / 3; n > 0; n--) {
+            int i = (src[srcPos++] & 0xff) << 16 | (src[srcPos++] & 0xff) << 8 | (src[srcPos++] & 0xff);
+            dest[d++] = encodeTable[(i >>> 18) & 0x3f];
+            dest[d++] = encodeTable[(i >>> 12) & 0x3f];
+            dest[d++] = encodeTable[(i >>> 6) & 0x3f];
+            dest[d++] = encodeTable[i & 0x3f];
+        }
+        int left = srcLen % 3;
+        if (left > 0) {
+            int i = ((src[srcPos] & 0xff) << 10) | (left == 2 ? ((src[srcPos + 1] & 0xff) << 2) : 0);
+            dest[d++] = encodeTable[i >> 12];
+            dest[d++] = encodeTable[(i >>> 6) & 0x3f];
+            if (left == 2) {
+                dest[d++] = encodeTable[i & 0x3f];
+            } else if (false == isUrlSafe) {
+                dest[d++] = Symbol.C_EQUAL;
             }
+            if (false == isUrlSafe) {
+                dest[d++] = Symbol.C_EQUAL;
+            }
+        }
+        return d - destPos;
+    }
+
+    /**
+     * 编码为Base64字符串,直接由字符表生成,不经过字符集解码
+     *
+     * @param source    被编码的数组
+     * @param isUrlSafe 是否使用URL安全字符
+     * @return 编码后的字符串
+     */
+    private static String encodeToString(byte[] source, boolean isUrlSafe) {
+        if (null == source) {
+            return null;
+        }
+        char[] dest = new char[encodedLength(source.length, false, isUrlSafe)];
+        encode(source, 0, source.length, dest, 0, isUrlSafe);
+        return new String(dest);
+    }
+
+    private static char[] toChars(byte[] table) {
+        char[] chars = new char[table.length];
+        for (int i = 0; i < table.length; i++) {
+            chars[i] = (char) table[i];
+        }
+        return chars;
     }
 
 }
@@ -61,6 +61,11 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 public class ConverterRegistry {
 
+    /**
+     * 已解析缓存中表示需要完整转换流程的占位转换器
+     */
+    private static final Converter<?> UNRESOLVED = (value, defaultValue) -> defaultValue;
+
     /**
      * 默认类型转换器
      */
@@ -69,6 +74,11 @@ public class ConverterRegistry {
      * 用户自定义类型转换器
      */
     private volatile Map<Type, Converter<?>> customConverterMap;
+    /**
+     * 按目标类型和被转换值类型缓存的转换器,登记自定义转换器时重建
+     * 转换器引用当前实例,故不保存在{@link ClassValue}中,以免JDK类上的值使实例及其类加载器无法回收
+     */
+    private volatile Map<Type, Map<Class<?>, Converter<?>>> resolvedConverterCache = new ConcurrentHashMap<>();
 
     public ConverterRegistry() {
         defaultConverter();
@@ -110,6 +120,7 @@ public class ConverterRegistry {
             }
         }
         customConverterMap.put(type, converter);
+        resolvedConverterCache = new ConcurrentHashMap<>();
         return this;
     }
 
@@ -186,6 +197,14 @@ public class ConverterRegistry {
             type = ((Types<?>) type).getType();
         }
 
+        // 已解析的转换器
+        if (isCustomFirst && type instanceof Class) {
+            final Converter<T> converter = (Converter<T>) getResolvedConverter((Class<?>) type, value.getClass());
+            if (UNRESOLVED != converter) {
+                return converter.convert(value, defaultValue);
+            }
+        }
+
         // 标准转换器
         final Converter<T> converter = getConverter(type, isCustomFirst);
         if (null != converter) {
@@ -245,6 +264,66 @@ public class ConverterRegistry {
         return convert(type, value, null);
     }
 
+    /**
+     * 获取已解析的转换器,首次访问时解析并缓存
+     *
+     * @param type       目标类型
+     * @param valueClass 被转换值的类型
+     * @return 转换器, 无法预先确定时返回{@link #UNRESOLVED}
+     */
+    private Converter<?> getResolvedConverter(Class<?> type, Class<?> valueClass) {
+        final Map<Type, Map<Class<?>, Converter<?>>> cache = resolvedConverterCache;
+        Map<Class<?>, Converter<?>> converters = cache.get(type);
+        if (null == converters) {
+            converters = cache.computeIfAbsent(type, key -> new ConcurrentHashMap<>());
+        }
+        Converter<?> converter = converters.get(valueClass);
+        if (null == converter) {
+            converter = resolveConverter(type, valueClass);
+            if (null == converter) {
+                converter = UNRESOLVED;
+            }
+            converters.putIfAbsent(valueClass, converter);
+        }
+        return converter;
+    }
+
+    /**
+     * 解析自定义转换器优先时,指定类型的值转换为目标类型所使用的转换器
+     * 仅解析结果不依赖具体值的情况,其它情况返回{@code null},由完整的转换流程处理
+     *
+     * @param type       目标类型
+     * @param valueClass 被转换值的类型
+     * @return 转换器, 无法预先确定时返回{@code null}
+     */
+    private Converter<?> resolveConverter(Class<?> type, Class<?> valueClass) {
+        final Converter<?> converter = getConverter(type, true);
+        if (null != converter) {
+            if (null == getCustomConverter(type)) {
+                final Converter<?> fastConverter = FastConverter.of(type, valueClass, converter);
+                if (null != fastConverter) {
+                    return fastConverter;
+                }
+            }
+            return converter;
+        }
+
+        // 与convertSpecial的判断顺序保持一致,集合、Map、枚举和数组的转换结果需要完整流程处理
+        if (Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) {
+            return null;
+        }
+        if (type.isAssignableFrom(valueClass)) {
+            return (value, defaultValue) -> value;
+        }
+        if (type.isEnum() || type.isArray()) {
+            return null;
+        }
+        if (BeanKit.isBean(type)) {
+            return new BeanConverter<>((Type) type);
+        }
+        return null;
+    }
+
     /**
      * 特殊类型转换
      * 包括：
@@ -382,6 +461,168 @@ public class ConverterRegistry {
         return this;
     }
 
+    /**
+     * 数字和字符串转换为整数、长整数、浮点数的快速转换器
+     * 直接读取数字值或解析简单的十进制字符串,不生成中间字符串,
+     * 其它情况交给原转换器处理,转换结果与原转换器一致
+     */
+    private static class FastConverter implements Converter<Object> {
+
+        private static final int INT = 0;
+        private static final int LONG = 1;
+        private static final int DOUBLE = 2;
+        /**
+         * 字符串无法快速解析
+         */
+        private static final long INVALID = Long.MIN_VALUE;
+
+        /**
+         * 目标类型
+         */
+        private final int kind;
+        /**
+         * 目标类型是否为原始类型
+         */
+        private final boolean primitive;
+        /**
+         * 目标类型的包装类型
+         */
+        private final Class<?> wrapperType;
+        /**
+         * 被转换值的类型与目标包装类型相同
+         */
+        private final boolean same;
+        /**
+         * 被转换值是否为字符串
+         */
+        private final boolean string;
+        /**
+         * 原转换器
+         */
+        private final Converter<Object> converter;
+
+        private FastConverter(int kind, Class<?> type, Class<?> wrapperType, Class<?> valueClass, Converter<?> converter) {
+            this.kind = kind;
+            this.primitive = type.isPrimitive();
+            this.wrapperType = wrapperType;
+            this.same = wrapperType == valueClass;
+            this.string = String.class == valueClass;
+            this.converter = (Converter<Object>) converter;
+        }
+
+        /**
+         * 创建快速转换器
+         *
+         * @param type       目标类型
+         * @param valueClass 被转换值的类型
+         * @param converter  原转换器
+         * @return 快速转换器, 不支持的类型返回{@code null}
+         */
+        static Converter<?> of(Class<?> type, Class<?> valueClass, Converter<?> converter) {
+            if (String.class != valueClass && false == Number.class.isAssignableFrom(valueClass)) {
+                return null;
+            }
+            if (int.class == type || Integer.class == type) {
+                return new FastConverter(INT, type, Integer.class, valueClass, converter);
+            } else if (long.class == type || Long.class == type) {
+                return new FastConverter(LONG, type, Long.class, valueClass, converter);
+            } else if (double.class == type || Double.class == type) {
+                return new FastConverter(DOUBLE, type, Double.class, valueClass, converter);
+            }
+            return null;
+        }
+
+        /**
+         * 解析可选符号加十进制数字的字符串,超出位数或包含其它字符时返回{@link #INVALID}
+         *
+         * @param text      字符串
+         * @param maxDigits 最大位数,保证不溢出
+         * @return 数值
+         */
+        private static long parseDecimal(String text, int maxDigits) {
+            final int length = text.length();
+            int i = 0;
+            if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+                i = 1;
+            }
+            if (i == length || length - i > maxDigits) {
+                return INVALID;
+            }
+            long result = 0;
+            for (; i < length; i++) {
+                final char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    return INVALID;
+                }
+                result = result * 10 + (c - '0');
+            }
+            return text.charAt(0) == '-' ? -result : result;
+        }
+
+        /**
+         * 首尾均为可见ASCII字符时,去除空白不改变字符串
+         *
+         * @param text 字符串
+         * @return 是否无需去除空白
+         */
+        private static boolean isTrimmed(String text) {
+            final int length = text.length();
+            return length > 0 && isVisible(text.charAt(0)) && isVisible(text.charAt(length - 1));
+        }
+
+        private static boolean isVisible(char c) {
+            return c > ' ' && c < 0x7f;
+        }
+
+        @Override
+        public Object convert(Object value, Object defaultValue) {
+            // 默认值类型不符时由原转换器处理
+            if (null != defaultValue && (primitive || false == wrapperType.isInstance(defaultValue))) {
+                return converter.convert(value, defaultValue);
+            }
+            if (same) {
+                return value;
+            }
+            if (false == string) {
+                final Number number = (Number) value;
+                switch (kind) {
+                    case INT:
+                        return number.intValue();
+                    case LONG:
+                        return number.longValue();
+                    default:
+                        return number.doubleValue();
+                }
+            }
+
+            final String text = (String) value;
+            switch (kind) {
+                case INT:
+                    final long intValue = parseDecimal(text, 9);
+                    if (INVALID != intValue) {
+                        return (int) intValue;
+                    }
+                    break;
+                case LONG:
+                    final long longValue = parseDecimal(text, 18);
+                    if (INVALID != longValue) {
+                        return longValue;
+                    }
+                    break;
+                default:
+                    if (isTrimmed(text)) {
+                        try {
+                            return Double.valueOf(text);
+                        } catch (NumberFormatException e) {
+                            return defaultValue;
+                        }
+                    }
+            }
+            return converter.convert(value, defaultValue);
+        }
+
+    }
+
     /**
      * 类级的内部类，也就是静态的成员式内部类，该内部类的实例与外部类的实例 没有绑定关系，而且只有被调用到才会装载，从而实现了延迟加载
      */
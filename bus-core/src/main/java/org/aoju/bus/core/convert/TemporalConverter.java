@@ -130,7 +130,7 @@ public class TemporalConverter extends AbstractConverter<TemporalAccessor> {
         final Instant instant;
         ZoneId zoneId;
         if (null != this.format) {
-            final DateTimeFormatter formatter = DateTimeFormatter.ofPattern(this.format);
+            final DateTimeFormatter formatter = DateKit.getFormatter(this.format);
             instant = formatter.parse(value, Instant::from);
             zoneId = formatter.getZone();
         } else {
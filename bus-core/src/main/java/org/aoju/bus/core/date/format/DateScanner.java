@@ -0,0 +1,538 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.date.format;
+
+import org.aoju.bus.core.date.DateTime;
+import org.aoju.bus.core.lang.Fields;
+
+import java.time.LocalDate;
+import java.util.TimeZone;
+
+/**
+ * 日期字符串单次扫描解析器
+ * <p>
+ * 不借助正则及中间字符串,逐字符识别{@link org.aoju.bus.core.toolkit.DateKit#parse(CharSequence)}
+ * 支持的常用格式并直接计算毫秒数,包括:
+ * <ol>
+ * <li>纯数字:yyyyMMddHHmmss、yyyyMMddHHmmssSSS、yyyyMMdd、HHmmss</li>
+ * <li>标准格式:yyyy-MM-dd、yyyy-MM-dd HH:mm、yyyy-MM-dd HH:mm:ss、yyyy-MM-dd HH:mm:ss.SSS,
+ * 分隔符可为-/.及年月日时分秒,月日时分秒可为单个数字</li>
+ * <li>当天时间:HH:mm、HH:mm:ss</li>
+ * <li>UTC格式:yyyy-MM-dd'T'HH:mm:ss[.SSS]带Z、+HHmm或+HH:mm</li>
+ * <li>JDK格式:EEE MMM dd HH:mm:ss Z yyyy,时区为数字偏移、GMT或GMT+HH:mm</li>
+ * </ol>
+ * 无法识别、字段越界(原解析器宽松处理)或早于1582-10-15时返回{@code null},由调用方回退到原有解析流程
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public final class DateScanner {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    private static final String[] WEEKS = {"sun", "mon", "tue", "wed", "thu", "fri", "sat"};
+
+    private static final String[] MONTHS = {"jan", "feb", "mar", "apr", "may", "jun",
+            "jul", "aug", "sep", "oct", "nov", "dec"};
+
+    private final CharSequence text;
+    private final int end;
+    private int pos;
+
+    private int year = 1970;
+    private int month = 1;
+    private int day = 1;
+    private int hour;
+    private int minute;
+    private int second;
+    private int millis;
+
+    private DateScanner(CharSequence text, int start, int end) {
+        this.text = text;
+        this.pos = start;
+        this.end = end;
+    }
+
+    /**
+     * 解析日期字符串,忽略两边空白
+     *
+     * @param text 日期字符串
+     * @return 日期, 无法识别时返回{@code null}
+     */
+    public static DateTime parse(CharSequence text) {
+        if (null == text) {
+            return null;
+        }
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return null;
+        }
+        return new DateScanner(text, start, end).scan();
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        if (month == 2) {
+            return ((year & 3) == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+        }
+        return (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+    }
+
+    private DateTime scan() {
+        final char first = text.charAt(pos);
+        if (isDigit(first)) {
+            final int digits = digits();
+            if (pos + digits == end) {
+                return pure(digits);
+            }
+            if (digits == 4) {
+                return norm();
+            }
+            if (digits <= 2 && text.charAt(pos + digits) == ':') {
+                return today();
+            }
+            return null;
+        }
+        return Character.isLetter(first) ? jdk() : null;
+    }
+
+    /**
+     * 纯数字格式
+     */
+    private DateTime pure(int digits) {
+        switch (digits) {
+            case 14:
+            case 17:
+                year = fixed(4);
+                month = fixed(2);
+                day = fixed(2);
+                hour = fixed(2);
+                minute = fixed(2);
+                second = fixed(2);
+                if (digits == 17) {
+                    millis = fixed(3);
+                }
+                break;
+            case 8:
+                year = fixed(4);
+                month = fixed(2);
+                day = fixed(2);
+                break;
+            case 6:
+                hour = fixed(2);
+                minute = fixed(2);
+                second = fixed(2);
+                break;
+            default:
+                return null;
+        }
+        return local(zone());
+    }
+
+    /**
+     * 标准格式及UTC格式,年份已确认为4位数字
+     */
+    private DateTime norm() {
+        year = fixed(4);
+        final char separator = text.charAt(pos);
+        if (!isDateSeparator(separator)) {
+            return null;
+        }
+        pos++;
+        final int monthStart = pos;
+        month = variable();
+        if (month < 0 || pos == end || !isDateSeparator(text.charAt(pos))) {
+            return null;
+        }
+        pos++;
+        final int dayStart = pos;
+        day = variable();
+        if (day < 0) {
+            return null;
+        }
+        if (pos < end && text.charAt(pos) == '日') {
+            pos++;
+        }
+        if (pos == end) {
+            return local(zone());
+        }
+        final char c = text.charAt(pos);
+        if (c == 'T') {
+            // UTC格式要求严格的两位月份和日
+            if (separator != '-' || dayStart - monthStart != 3 || pos - dayStart != 2) {
+                return null;
+            }
+            pos++;
+            return iso();
+        }
+        if (c != ' ') {
+            return null;
+        }
+        while (pos < end && text.charAt(pos) == ' ') {
+            pos++;
+        }
+        return time() ? local(zone()) : null;
+    }
+
+    /**
+     * 当天时间:HH:mm或HH:mm:ss
+     */
+    private DateTime today() {
+        hour = variable();
+        if (pos == end || text.charAt(pos) != ':') {
+            return null;
+        }
+        pos++;
+        minute = variable();
+        if (minute < 0) {
+            return null;
+        }
+        final TimeZone zone = zone();
+        // HH:mm格式原先按当前默认时区解析
+        TimeZone target = TimeZone.getDefault();
+        if (pos < end) {
+            if (text.charAt(pos) != ':') {
+                return null;
+            }
+            pos++;
+            second = variable();
+            if (second < 0 || pos != end) {
+                return null;
+            }
+            target = zone;
+        }
+        final LocalDate today = LocalDate.now(zone.toZoneId());
+        year = today.getYear();
+        month = today.getMonthValue();
+        day = today.getDayOfMonth();
+        return local(target);
+    }
+
+    /**
+     * 标准格式的时间部分:HH:mm[:ss[.SSS]],分隔符可为时分秒
+     */
+    private boolean time() {
+        hour = variable();
+        if (hour < 0 || pos == end || !isTimeSeparator(text.charAt(pos))) {
+            return false;
+        }
+        pos++;
+        minute = variable();
+        if (minute < 0) {
+            return false;
+        }
+        if (pos == end) {
+            return true;
+        }
+        char c = text.charAt(pos);
+        if (c == '分' && pos + 1 == end) {
+            return true;
+        }
+        if (!isTimeSeparator(c) || c == '时') {
+            return false;
+        }
+        pos++;
+        second = variable();
+        if (second < 0) {
+            return false;
+        }
+        if (pos < end && (text.charAt(pos) == '.' || text.charAt(pos) == ',')) {
+            pos++;
+            if (pos + 3 > end) {
+                return false;
+            }
+            millis = fixed(3);
+        }
+        if (pos < end && text.charAt(pos) == '秒') {
+            pos++;
+        }
+        return pos == end;
+    }
+
+    /**
+     * UTC格式,'T'之后的部分:HH:mm:ss[.SSS](Z|+HHmm|+HH:mm)
+     */
+    private DateTime iso() {
+        if (pos + 8 > end || text.charAt(pos + 2) != ':' || text.charAt(pos + 5) != ':') {
+            return null;
+        }
+        hour = fixed(2);
+        pos++;
+        minute = fixed(2);
+        pos++;
+        second = fixed(2);
+        if (pos < end && text.charAt(pos) == '.') {
+            pos++;
+            if (pos + 3 > end) {
+                return null;
+            }
+            millis = fixed(3);
+        }
+        if (pos == end) {
+            return null;
+        }
+        final int offset;
+        if (text.charAt(pos) == 'Z') {
+            pos++;
+            offset = 0;
+        } else {
+            offset = offset(true);
+        }
+        if (offset == Integer.MIN_VALUE || pos != end || !valid()) {
+            return null;
+        }
+        return new DateTime(local() - offset, UTC);
+    }
+
+    /**
+     * JDK格式:EEE MMM dd HH:mm:ss Z yyyy
+     */
+    private DateTime jdk() {
+        if (indexOf(WEEKS) < 0 || !space()) {
+            return null;
+        }
+        final int monthIndex = indexOf(MONTHS);
+        if (monthIndex < 0 || !space()) {
+            return null;
+        }
+        month = monthIndex + 1;
+        if (pos + 9 > end || text.charAt(pos + 5) != ':' || text.charAt(pos + 8) != ':') {
+            return null;
+        }
+        day = fixed(2);
+        if (!space()) {
+            return null;
+        }
+        hour = fixed(2);
+        pos++;
+        minute = fixed(2);
+        pos++;
+        second = fixed(2);
+        if (!space()) {
+            return null;
+        }
+        int offset;
+        if (pos < end && (text.charAt(pos) == '+' || text.charAt(pos) == '-')) {
+            offset = offset(false);
+        } else if (regionMatches("GMT")) {
+            pos += 3;
+            if (pos < end && text.charAt(pos) != ' ') {
+                // 与原有解析流程一致,GMT后的偏移只接受+HH:mm
+                if (pos + 3 >= end || text.charAt(pos + 3) != ':') {
+                    return null;
+                }
+                offset = offset(true);
+            } else {
+                offset = 0;
+            }
+        } else {
+            // 名称形式的时区(包括UTC)交由原有解析流程处理
+            return null;
+        }
+        if (offset == Integer.MIN_VALUE || !space() || pos + 4 != end) {
+            return null;
+        }
+        year = fixed(4);
+        if (year < 0 || !valid()) {
+            return null;
+        }
+        return new DateTime(local() - offset, Fields.JDK_DATETIME_FORMAT.getTimeZone());
+    }
+
+    /**
+     * 与{@link Fields}中预置格式化器一致的时区
+     */
+    private static TimeZone zone() {
+        return Fields.NORM_DATETIME_FORMAT.getTimeZone();
+    }
+
+    /**
+     * 以给定时区的本地时间计算结果,夏令时切换处与{@link java.util.Calendar}保持一致
+     */
+    private DateTime local(TimeZone zone) {
+        if (!valid()) {
+            return null;
+        }
+        final long local = local();
+        final int raw = zone.getRawOffset();
+        final int offset = zone.getOffset(local - raw);
+        long time = local - raw;
+        if (offset != raw && zone.getOffset(local - offset) == offset) {
+            time = local - offset;
+        }
+        return new DateTime(time, zone);
+    }
+
+    private long local() {
+        return LocalDate.of(year, month, day).toEpochDay() * MILLIS_PER_DAY
+                + ((hour * 60L + minute) * 60L + second) * 1000L + millis;
+    }
+
+    /**
+     * 字段是否合法,早于格里高利历切换日(1582-10-15)的日期按儒略历计算,交由原有解析流程处理
+     */
+    private boolean valid() {
+        return (year > 1582 || (year == 1582 && (month > 10 || (month == 10 && day >= 15))))
+                && month >= 1 && month <= 12 && day >= 1 && day <= lengthOfMonth(year, month)
+                && hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59
+                && second >= 0 && second <= 59 && millis >= 0;
+    }
+
+    /**
+     * 解析时区偏移:+HHmm,允许冒号时也接受+HH:mm
+     *
+     * @return 偏移毫秒数, 非法时返回{@link Integer#MIN_VALUE}
+     */
+    private int offset(boolean colon) {
+        if (pos == end) {
+            return Integer.MIN_VALUE;
+        }
+        final char sign = text.charAt(pos);
+        if (sign != '+' && sign != '-') {
+            return Integer.MIN_VALUE;
+        }
+        pos++;
+        if (pos + 4 > end) {
+            return Integer.MIN_VALUE;
+        }
+        final int hours = fixed(2);
+        if (colon && pos < end && text.charAt(pos) == ':') {
+            pos++;
+        }
+        if (pos + 2 > end) {
+            return Integer.MIN_VALUE;
+        }
+        final int minutes = fixed(2);
+        if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+            return Integer.MIN_VALUE;
+        }
+        final int offset = (hours * 60 + minutes) * 60000;
+        return sign == '-' ? -offset : offset;
+    }
+
+    /**
+     * 从当前位置起连续数字的个数
+     */
+    private int digits() {
+        int i = pos;
+        while (i < end && isDigit(text.charAt(i))) {
+            i++;
+        }
+        return i - pos;
+    }
+
+    /**
+     * 读取固定位数的数字
+     *
+     * @return 数值, 含非数字字符时返回-1
+     */
+    private int fixed(int width) {
+        int value = 0;
+        for (int i = 0; i < width; i++) {
+            final char c = text.charAt(pos++);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * 读取1到2位数字
+     *
+     * @return 数值, 无数字或超过2位时返回-1
+     */
+    private int variable() {
+        final int digits = digits();
+        if (digits < 1 || digits > 2) {
+            return -1;
+        }
+        return fixed(digits);
+    }
+
+    private boolean space() {
+        if (pos < end && text.charAt(pos) == ' ') {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean regionMatches(String word) {
+        if (pos + word.length() > end) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.toUpperCase(text.charAt(pos + i)) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 匹配3个字母的英文简写,忽略大小写
+     *
+     * @return 下标, 不匹配时返回-1
+     */
+    private int indexOf(String[] names) {
+        if (pos + 3 > end) {
+            return -1;
+        }
+        for (int i = 0; i < names.length; i++) {
+            final String name = names[i];
+            if (Character.toLowerCase(text.charAt(pos)) == name.charAt(0)
+                    && Character.toLowerCase(text.charAt(pos + 1)) == name.charAt(1)
+                    && Character.toLowerCase(text.charAt(pos + 2)) == name.charAt(2)) {
+                pos += 3;
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isDateSeparator(char c) {
+        return c == '-' || c == '/' || c == '.' || c == '年' || c == '月';
+    }
+
+    private static boolean isTimeSeparator(char c) {
+        return c == ':' || c == '时' || c == '分';
+    }
+
+}
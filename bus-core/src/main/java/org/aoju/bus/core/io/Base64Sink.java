@@ -0,0 +1,174 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.io;
+
+import org.aoju.bus.core.lang.Normal;
+import org.aoju.bus.core.lang.Symbol;
+import org.aoju.bus.core.toolkit.IoKit;
+
+import java.io.IOException;
+
+/**
+ * 将写入的字节编码为Base64后写入下游的接收器
+ * 编码结果直接写入下游缓冲区的段中,不足3个字节的剩余部分在{@link #close()}时补位写出,
+ * 因此{@link #flush()}只输出已完成的分组
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public class Base64Sink implements Sink {
+
+    private final BufferSink sink;
+    private final byte[] encodeTable;
+    private final boolean isUrlSafe;
+    /**
+     * 尚未编码的字节
+     */
+    private int bits;
+    /**
+     * 尚未编码的字节数
+     */
+    private int count;
+    private boolean closed;
+
+    public Base64Sink(Sink sink) {
+        this(sink, false);
+    }
+
+    /**
+     * 构造
+     *
+     * @param sink      下游接收器
+     * @param isUrlSafe 是否使用URL安全字符,URL安全模式下不补充=
+     */
+    public Base64Sink(Sink sink, boolean isUrlSafe) {
+        if (sink == null) throw new IllegalArgumentException("sink == null");
+        this.sink = IoKit.buffer(sink);
+        this.isUrlSafe = isUrlSafe;
+        this.encodeTable = isUrlSafe ? Normal.ENCODE_URL_TABLE : Normal.ENCODE_64_TABLE;
+    }
+
+    @Override
+    public void write(Buffer source, long byteCount) throws IOException {
+        if (closed) throw new IllegalStateException("closed");
+        IoKit.checkOffsetAndCount(source.size, 0, byteCount);
+
+        final Buffer buffer = sink.buffer();
+        Segment tail = null;
+        while (byteCount > 0) {
+            Segment head = source.head;
+            int toEncode = (int) Math.min(byteCount, head.limit - head.pos);
+            final byte[] data = head.data;
+            for (int i = head.pos, end = head.pos + toEncode; i < end; i++) {
+                bits = bits << 8 | (data[i] & 0xff);
+                if (++count == 3) {
+                    if (null == tail || tail.limit + 4 > Segment.SIZE) {
+                        tail = buffer.writableSegment(4);
+                    }
+                    final byte[] out = tail.data;
+                    final int limit = tail.limit;
+                    out[limit] = encodeTable[(bits >>> 18) & 0x3f];
+                    out[limit + 1] = encodeTable[(bits >>> 12) & 0x3f];
+                    out[limit + 2] = encodeTable[(bits >>> 6) & 0x3f];
+                    out[limit + 3] = encodeTable[bits & 0x3f];
+                    tail.limit = limit + 4;
+                    buffer.size += 4;
+                    bits = 0;
+                    count = 0;
+                }
+            }
+
+            source.size -= toEncode;
+            head.pos += toEncode;
+            byteCount -= toEncode;
+            if (head.pos == head.limit) {
+                source.head = head.pop();
+                LifeCycle.recycle(head);
+            }
+        }
+        sink.emitCompleteSegments();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        sink.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+
+        Throwable thrown = null;
+        try {
+            finishEncode();
+        } catch (Throwable e) {
+            thrown = e;
+        }
+
+        try {
+            sink.close();
+        } catch (Throwable e) {
+            if (thrown == null) thrown = e;
+        }
+        closed = true;
+
+        if (thrown != null) IoKit.sneakyRethrow(thrown);
+    }
+
+    @Override
+    public Timeout timeout() {
+        return sink.timeout();
+    }
+
+    @Override
+    public String toString() {
+        return "Base64Sink(" + sink + ")";
+    }
+
+    /**
+     * 写出剩余不足3个字节的分组
+     */
+    private void finishEncode() {
+        if (count == 0) {
+            return;
+        }
+        final Buffer buffer = sink.buffer();
+        int i = count == 1 ? bits << 10 : bits << 2;
+        buffer.writeByte(encodeTable[i >> 12]);
+        buffer.writeByte(encodeTable[(i >>> 6) & 0x3f]);
+        if (count == 2) {
+            buffer.writeByte(encodeTable[i & 0x3f]);
+        } else if (false == isUrlSafe) {
+            buffer.writeByte(Symbol.C_EQUAL);
+        }
+        if (false == isUrlSafe) {
+            buffer.writeByte(Symbol.C_EQUAL);
+        }
+        bits = 0;
+        count = 0;
+    }
+
+}
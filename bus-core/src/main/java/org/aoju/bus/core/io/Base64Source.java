@@ -0,0 +1,143 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.io;
+
+import org.aoju.bus.core.lang.Normal;
+import org.aoju.bus.core.toolkit.IoKit;
+
+import java.io.IOException;
+
+/**
+ * 从上游读取Base64字符并解码的数据源
+ * 解码时跳过非Base64字符(如换行和补位的=),同时支持标准和URL安全的字符表
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public class Base64Source implements Source {
+
+    private final BufferSource source;
+    /**
+     * 已解码尚未读取的数据
+     */
+    private final Buffer decoded = new Buffer();
+    /**
+     * 尚未解码的6位值
+     */
+    private int bits;
+    /**
+     * 尚未解码的有效字符数
+     */
+    private int count;
+    private boolean finished;
+
+    public Base64Source(Source source) {
+        if (source == null) throw new IllegalArgumentException("source == null");
+        this.source = IoKit.buffer(source);
+    }
+
+    @Override
+    public long read(Buffer sink, long byteCount) throws IOException {
+        if (byteCount < 0) throw new IllegalArgumentException("byteCount < 0: " + byteCount);
+        if (byteCount == 0) return 0;
+
+        while (decoded.size == 0) {
+            if (finished) return -1;
+            refill();
+        }
+        long toRead = Math.min(byteCount, decoded.size);
+        sink.write(decoded, toRead);
+        return toRead;
+    }
+
+    @Override
+    public Timeout timeout() {
+        return source.timeout();
+    }
+
+    @Override
+    public void close() throws IOException {
+        decoded.clear();
+        source.close();
+    }
+
+    @Override
+    public String toString() {
+        return "Base64Source(" + source + ")";
+    }
+
+    /**
+     * 从上游读取一段数据并解码,上游结束时写出剩余不完整的分组
+     */
+    private void refill() throws IOException {
+        if (false == source.request(1)) {
+            if (count == 2) {
+                decoded.writeByte(bits >> 4);
+            } else if (count == 3) {
+                decoded.writeByte(bits >> 10);
+                decoded.writeByte(bits >> 2);
+            }
+            bits = 0;
+            count = 0;
+            finished = true;
+            return;
+        }
+
+        final Buffer buffer = source.buffer();
+        Segment tail = null;
+        while (buffer.size > 0) {
+            Segment head = buffer.head;
+            final byte[] data = head.data;
+            for (int i = head.pos; i < head.limit; i++) {
+                final byte b = data[i];
+                final int sestet = b > -1 && b < Normal.DECODE_64_TABLE.length ? Normal.DECODE_64_TABLE[b] : -1;
+                if (sestet < 0) {
+                    continue;
+                }
+                bits = bits << 6 | sestet;
+                if (++count == 4) {
+                    if (null == tail || tail.limit + 3 > Segment.SIZE) {
+                        tail = decoded.writableSegment(3);
+                    }
+                    final byte[] out = tail.data;
+                    final int limit = tail.limit;
+                    out[limit] = (byte) (bits >> 16);
+                    out[limit + 1] = (byte) (bits >> 8);
+                    out[limit + 2] = (byte) bits;
+                    tail.limit = limit + 3;
+                    decoded.size += 3;
+                    bits = 0;
+                    count = 0;
+                }
+            }
+
+            buffer.size -= head.limit - head.pos;
+            buffer.head = head.pop();
+            LifeCycle.recycle(head);
+        }
+    }
+
+}
@@ -24,12 +24,15 @@
  ********************************************************************************/
 package org.aoju.bus.core.io;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import org.aoju.bus.core.lang.Symbol;
+
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ByteBuffer内存池
+ * <p>
+ * 内存页的回收由申请压力驱动(见{@link PageBuffer}),不再为每个内存池注册定时清理任务
+ * </p>
  *
  * @author Kimi Liu
  * @version 6.0.2
@@ -37,7 +40,6 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class BufferPool {
 
-    private static Timer timer = new Timer("BufferPoolClean", true);
     private PageBuffer[] pageBufferList;
     /**
      * 内存页游标
@@ -54,14 +56,6 @@ public class BufferPool {
         for (int i = 0; i < poolSize; i++) {
             pageBufferList[i] = new PageBuffer(pageSize, isDirect);
         }
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                for (PageBuffer pageBuffer : pageBufferList) {
-                    pageBuffer.tryClean();
-                }
-            }
-        }, 500, 1000);
     }
 
     /**
@@ -71,7 +65,52 @@ public class BufferPool {
      */
     public PageBuffer allocateBufferPage() {
         //轮训游标,均衡分配内存页
-        return pageBufferList[cursor.getAndIncrement() % pageBufferList.length];
+        return pageBufferList[(cursor.getAndIncrement() & Integer.MAX_VALUE) % pageBufferList.length];
+    }
+
+    /**
+     * 内存池总容量
+     *
+     * @return 字节数
+     */
+    public long capacity() {
+        long size = 0;
+        for (PageBuffer pageBuffer : pageBufferList) {
+            size += pageBuffer.capacity();
+        }
+        return size;
+    }
+
+    /**
+     * 内存池当前空闲的字节数
+     *
+     * @return 字节数
+     */
+    public long available() {
+        long size = 0;
+        for (PageBuffer pageBuffer : pageBufferList) {
+            size += pageBuffer.available();
+        }
+        return size;
+    }
+
+    /**
+     * 内存池中的内存页
+     *
+     * @return 内存页
+     */
+    public PageBuffer[] getPageBuffers() {
+        return pageBufferList.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("BufferPool{capacity=").append(capacity())
+                .append(", available=").append(available()).append('}');
+        for (PageBuffer pageBuffer : pageBufferList) {
+            builder.append(Symbol.CRLF).append(pageBuffer);
+        }
+        return builder.toString();
     }
 
 }
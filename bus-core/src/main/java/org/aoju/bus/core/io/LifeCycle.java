@@ -24,9 +24,16 @@
  ********************************************************************************/
 package org.aoju.bus.core.io;
 
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * 这是避免GC搅动和零填充所必需的
  * 这个池是一个线程安全的静态单例
+ * <p>
+ * 池按线程哈希分为若干桶(CPU核数的2倍向下取2的幂),每个桶是一个无锁的单链表,
+ * 桶被其他线程占用时直接放弃本次复用/回收,不会阻塞;
+ * 每个桶的容量可通过系统属性{@code bus.io.pool.size}设置,默认64KB
  *
  * @author Kimi Liu
  * @version 6.0.2
@@ -34,39 +41,154 @@ package org.aoju.bus.core.io;
  */
 public final class LifeCycle {
 
-    static final long MAX_SIZE = 64 * 1024;
+    /**
+     * 每个桶最多缓存的字节数
+     */
+    static final int MAX_SIZE = Math.max(Segment.SIZE, Integer.getInteger("bus.io.pool.size", 64 * 1024));
+
+    /**
+     * 桶数量
+     */
+    private static final int HASH_BUCKET_COUNT = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+
+    /**
+     * 标记桶正在被使用的哨兵,不会被返回给调用方
+     */
+    private static final Segment LOCK = new Segment(new byte[0], 0, 0, false, false);
+
+    /**
+     * 各桶的链表头,头部片段的limit记录该桶已缓存的字节数
+     */
+    private static final AtomicReference<Segment>[] HASH_BUCKETS;
 
-    static Segment next;
+    private static final LongAdder HIT_COUNT = new LongAdder();
+    private static final LongAdder MISS_COUNT = new LongAdder();
+    private static final LongAdder RECYCLE_COUNT = new LongAdder();
+    private static final LongAdder DISCARD_COUNT = new LongAdder();
 
-    static long byteCount;
+    static {
+        HASH_BUCKETS = new AtomicReference[HASH_BUCKET_COUNT];
+        for (int i = 0; i < HASH_BUCKET_COUNT; i++) {
+            HASH_BUCKETS[i] = new AtomicReference<>();
+        }
+    }
 
     private LifeCycle() {
 
     }
 
     public static Segment take() {
-        synchronized (LifeCycle.class) {
-            if (next != null) {
-                Segment result = next;
-                next = result.next;
-                result.next = null;
-                byteCount -= Segment.SIZE;
-                return result;
-            }
+        AtomicReference<Segment> firstRef = firstRef();
+
+        Segment first = firstRef.getAndSet(LOCK);
+        if (first == LOCK) {
+            // 桶正在被其他线程使用,直接分配
+            MISS_COUNT.increment();
+            return new Segment();
         }
-        return new Segment();
+        if (first == null) {
+            firstRef.set(null);
+            MISS_COUNT.increment();
+            return new Segment();
+        }
+
+        firstRef.set(first.next);
+        first.next = null;
+        first.limit = 0;
+        HIT_COUNT.increment();
+        return first;
     }
 
     public static void recycle(Segment segment) {
         if (segment.next != null || segment.prev != null) throw new IllegalArgumentException();
         if (segment.shared) return;
-        synchronized (LifeCycle.class) {
-            if (byteCount + Segment.SIZE > MAX_SIZE) return;
-            byteCount += Segment.SIZE;
-            segment.next = next;
-            segment.pos = segment.limit = 0;
-            next = segment;
+
+        AtomicReference<Segment> firstRef = firstRef();
+
+        Segment first = firstRef.getAndSet(LOCK);
+        if (first == LOCK) {
+            DISCARD_COUNT.increment();
+            return;
+        }
+        int firstLimit = first != null ? first.limit : 0;
+        if (firstLimit >= MAX_SIZE) {
+            firstRef.set(first);
+            DISCARD_COUNT.increment();
+            return;
+        }
+
+        segment.next = first;
+        segment.pos = 0;
+        segment.limit = firstLimit + Segment.SIZE;
+        firstRef.set(segment);
+        RECYCLE_COUNT.increment();
+    }
+
+    /**
+     * 当前池中缓存的字节数,为各桶的近似值之和
+     *
+     * @return 字节数
+     */
+    public static long getByteCount() {
+        long byteCount = 0;
+        for (AtomicReference<Segment> ref : HASH_BUCKETS) {
+            Segment first = ref.get();
+            if (first != null && first != LOCK) {
+                byteCount += first.limit;
+            }
         }
+        return byteCount;
+    }
+
+    /**
+     * 池的总容量
+     *
+     * @return 字节数
+     */
+    public static long getMaxSize() {
+        return (long) MAX_SIZE * HASH_BUCKET_COUNT;
+    }
+
+    /**
+     * 从池中取得片段的次数
+     *
+     * @return 命中次数
+     */
+    public static long getHitCount() {
+        return HIT_COUNT.sum();
+    }
+
+    /**
+     * 池中无可用片段而新建的次数
+     *
+     * @return 未命中次数
+     */
+    public static long getMissCount() {
+        return MISS_COUNT.sum();
+    }
+
+    /**
+     * 片段回收入池的次数
+     *
+     * @return 回收次数
+     */
+    public static long getRecycleCount() {
+        return RECYCLE_COUNT.sum();
+    }
+
+    /**
+     * 因池已满或桶被占用而丢弃片段的次数
+     *
+     * @return 丢弃次数
+     */
+    public static long getDiscardCount() {
+        return DISCARD_COUNT.sum();
+    }
+
+    private static AtomicReference<Segment> firstRef() {
+        // 桶数量为2的幂,按位与即可取模
+        int hashBucket = (int) (Thread.currentThread().getId() & (HASH_BUCKET_COUNT - 1L));
+        return HASH_BUCKETS[hashBucket];
     }
 
 }
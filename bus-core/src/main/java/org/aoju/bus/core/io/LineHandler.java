@@ -24,6 +24,8 @@
  ********************************************************************************/
 package org.aoju.bus.core.io;
 
+import java.util.List;
+
 /**
  * 行处理器
  *
@@ -40,4 +42,13 @@ public interface LineHandler {
      */
     void handle(String line);
 
+    /**
+     * 批量处理多行数据,默认逐行调用{@link #handle(String)}
+     *
+     * @param lines 行列表
+     */
+    default void handle(List<String> lines) {
+        lines.forEach(this::handle);
+    }
+
 }
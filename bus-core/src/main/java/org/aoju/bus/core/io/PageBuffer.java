@@ -31,10 +31,18 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * ByteBuffer内存页
+ * <p>
+ * 不超过页容量1/8的申请按2的幂划分尺寸等级,释放后进入对应等级的空闲队列直接复用,
+ * 避免大小不一的小块在页内交错造成碎片；其余申请按首次适配从空闲链表中切分
+ * 已释放的内存在待回收数量超过阈值或页内空间不足时才合并回空闲链表,不依赖定时任务
+ * </p>
  *
  * @author Kimi Liu
  * @version 6.0.2
@@ -42,6 +50,19 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public class PageBuffer {
 
+    /**
+     * 最小尺寸等级 64B
+     */
+    private static final int MIN_SIZE_CLASS_SHIFT = 6;
+    /**
+     * 最大尺寸等级 64KB
+     */
+    private static final int MAX_SIZE_CLASS_SHIFT = 16;
+    /**
+     * 待回收的虚拟Buffer超过该数量时,由释放方顺带完成合并
+     */
+    private static final int CLEAN_THRESHOLD = 64;
+
     /**
      * 当前空闲的虚拟Buffer
      */
@@ -50,6 +71,18 @@ public class PageBuffer {
      * 待回收的虚拟Buffer
      */
     private ConcurrentLinkedQueue<VirtualBuffer> cleanBuffers = new ConcurrentLinkedQueue<>();
+    /**
+     * 待回收的虚拟Buffer数量
+     */
+    private AtomicInteger cleanCount = new AtomicInteger();
+    /**
+     * 各尺寸等级已释放可直接复用的虚拟Buffer
+     */
+    private ConcurrentLinkedQueue<VirtualBuffer>[] sizeClassBuffers;
+    /**
+     * 可使用尺寸等级的最大值
+     */
+    private int maxSizeClass;
 
     /**
      * 当前缓存页的物理缓冲区
@@ -57,7 +90,26 @@ public class PageBuffer {
     private ByteBuffer buffer;
     private ReentrantLock lock = new ReentrantLock();
 
-    private long lastAllocateTime;
+    /**
+     * 已分配出去的字节数
+     */
+    private AtomicLong usedBytes = new AtomicLong();
+    /**
+     * 申请次数
+     */
+    private LongAdder allocateCount = new LongAdder();
+    /**
+     * 直接复用已释放Buffer的次数
+     */
+    private LongAdder reuseCount = new LongAdder();
+    /**
+     * 页内空间不足而退化为堆内存的次数
+     */
+    private LongAdder fallbackCount = new LongAdder();
+    /**
+     * 因空间不足触发回收的次数
+     */
+    private LongAdder reclaimCount = new LongAdder();
 
     /**
      * @param size   缓存页大小
@@ -67,6 +119,11 @@ public class PageBuffer {
         availableBuffers = new LinkedList<>();
         this.buffer = allocate0(size, direct);
         availableBuffers.add(new VirtualBuffer(this, null, buffer.position(), buffer.limit()));
+        this.maxSizeClass = Math.min(1 << MAX_SIZE_CLASS_SHIFT, size >> 3);
+        this.sizeClassBuffers = new ConcurrentLinkedQueue[MAX_SIZE_CLASS_SHIFT - MIN_SIZE_CLASS_SHIFT + 1];
+        for (int i = 0; i < sizeClassBuffers.length; i++) {
+            sizeClassBuffers[i] = new ConcurrentLinkedQueue<>();
+        }
     }
 
     /**
@@ -80,13 +137,40 @@ public class PageBuffer {
         return direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
     }
 
+    /**
+     * 获取申请大小对应的尺寸等级
+     *
+     * @param size 申请大小
+     * @return 尺寸等级下标, 不适用尺寸等级时返回-1
+     */
+    private int sizeClassIndex(int size) {
+        if (size <= 0 || size > maxSizeClass) {
+            return -1;
+        }
+        int shift = 32 - Integer.numberOfLeadingZeros(size - 1);
+        return Math.max(shift, MIN_SIZE_CLASS_SHIFT) - MIN_SIZE_CLASS_SHIFT;
+    }
+
     public VirtualBuffer allocate(final int size) {
-        lastAllocateTime = System.currentTimeMillis();
+        allocateCount.increment();
+        int classIndex = sizeClassIndex(size);
+        int chunkSize = size;
+        if (classIndex >= 0) {
+            VirtualBuffer classBuffer = sizeClassBuffers[classIndex].poll();
+            if (classBuffer != null) {
+                reuseCount.increment();
+                return reuse(classBuffer);
+            }
+            chunkSize = 1 << (classIndex + MIN_SIZE_CLASS_SHIFT);
+        }
+        // 尺寸等级内的申请不复用大块,避免小块长期占用大块空间
         VirtualBuffer cleanBuffer = cleanBuffers.poll();
-        if (cleanBuffer != null && cleanBuffer.getParentLimit() - cleanBuffer.getParentPosition() >= size) {
-            cleanBuffer.buffer().clear();
-            cleanBuffer.buffer(cleanBuffer.buffer());
-            return cleanBuffer;
+        if (cleanBuffer != null) {
+            cleanCount.decrementAndGet();
+            if (classIndex < 0 && cleanBuffer.getParentLimit() - cleanBuffer.getParentPosition() >= chunkSize) {
+                reuseCount.increment();
+                return reuse(cleanBuffer);
+            }
         }
         lock.lock();
         try {
@@ -94,70 +178,124 @@ public class PageBuffer {
                 clean0(cleanBuffer);
             }
             while ((cleanBuffer = cleanBuffers.poll()) != null) {
-                if (cleanBuffer.getParentLimit() - cleanBuffer.getParentPosition() >= size) {
-                    cleanBuffer.buffer().clear();
-                    cleanBuffer.buffer(cleanBuffer.buffer());
-                    return cleanBuffer;
+                cleanCount.decrementAndGet();
+                if (classIndex < 0 && cleanBuffer.getParentLimit() - cleanBuffer.getParentPosition() >= chunkSize) {
+                    reuseCount.increment();
+                    return reuse(cleanBuffer);
                 } else {
                     clean0(cleanBuffer);
                 }
             }
-            Iterator<VirtualBuffer> iterator = availableBuffers.iterator();
-            VirtualBuffer bufferChunk;
-            while (iterator.hasNext()) {
-                VirtualBuffer freeChunk = iterator.next();
-                final int remaining = freeChunk.getParentLimit() - freeChunk.getParentPosition();
-                if (remaining < size) {
-                    continue;
-                }
-                if (remaining == size) {
-                    iterator.remove();
-                    buffer.limit(freeChunk.getParentLimit());
-                    buffer.position(freeChunk.getParentPosition());
-                    freeChunk.buffer(buffer.slice());
-                    bufferChunk = freeChunk;
-                } else {
-                    buffer.limit(freeChunk.getParentPosition() + size);
-                    buffer.position(freeChunk.getParentPosition());
-                    bufferChunk = new VirtualBuffer(this, buffer.slice(), buffer.position(), buffer.limit());
-                    freeChunk.setParentPosition(buffer.limit());
-                }
-                if (bufferChunk.buffer().remaining() != size) {
-                    throw new RuntimeException("allocate " + size + ", buffer:" + bufferChunk);
-                }
+            VirtualBuffer bufferChunk = split(chunkSize);
+            if (bufferChunk == null && reclaim()) {
+                bufferChunk = split(chunkSize);
+            }
+            if (bufferChunk != null) {
+                usedBytes.addAndGet(chunkSize);
                 return bufferChunk;
             }
         } finally {
             lock.unlock();
         }
+        fallbackCount.increment();
         return new VirtualBuffer(null, allocate0(size, false), 0, 0);
     }
 
+    /**
+     * 复用已释放的虚拟Buffer
+     *
+     * @param virtualBuffer 虚拟Buffer
+     * @return 虚拟Buffer
+     */
+    private VirtualBuffer reuse(VirtualBuffer virtualBuffer) {
+        virtualBuffer.buffer().clear();
+        virtualBuffer.buffer(virtualBuffer.buffer());
+        usedBytes.addAndGet(virtualBuffer.getParentLimit() - virtualBuffer.getParentPosition());
+        return virtualBuffer;
+    }
+
+    /**
+     * 从空闲链表中按首次适配切分指定大小的空间,需持有锁
+     *
+     * @param size 大小
+     * @return 虚拟Buffer, 空间不足时返回null
+     */
+    private VirtualBuffer split(int size) {
+        Iterator<VirtualBuffer> iterator = availableBuffers.iterator();
+        VirtualBuffer bufferChunk;
+        while (iterator.hasNext()) {
+            VirtualBuffer freeChunk = iterator.next();
+            final int remaining = freeChunk.getParentLimit() - freeChunk.getParentPosition();
+            if (remaining < size) {
+                continue;
+            }
+            if (remaining == size) {
+                iterator.remove();
+                buffer.limit(freeChunk.getParentLimit());
+                buffer.position(freeChunk.getParentPosition());
+                freeChunk.buffer(buffer.slice());
+                bufferChunk = freeChunk;
+            } else {
+                buffer.limit(freeChunk.getParentPosition() + size);
+                buffer.position(freeChunk.getParentPosition());
+                bufferChunk = new VirtualBuffer(this, buffer.slice(), buffer.position(), buffer.limit());
+                freeChunk.setParentPosition(buffer.limit());
+            }
+            if (bufferChunk.buffer().remaining() != size) {
+                throw new RuntimeException("allocate " + size + ", buffer:" + bufferChunk);
+            }
+            return bufferChunk;
+        }
+        return null;
+    }
+
+    /**
+     * 空间不足时将各尺寸等级中闲置的虚拟Buffer合并回空闲链表,需持有锁
+     *
+     * @return 是否有空间被回收
+     */
+    private boolean reclaim() {
+        boolean reclaimed = false;
+        VirtualBuffer cleanBuffer;
+        for (ConcurrentLinkedQueue<VirtualBuffer> queue : sizeClassBuffers) {
+            while ((cleanBuffer = queue.poll()) != null) {
+                clean0(cleanBuffer);
+                reclaimed = true;
+            }
+        }
+        if (reclaimed) {
+            reclaimCount.increment();
+        }
+        return reclaimed;
+    }
+
     void clean(VirtualBuffer cleanBuffer) {
-        if (cleanBuffers.offer(cleanBuffer)) {
+        int size = cleanBuffer.getParentLimit() - cleanBuffer.getParentPosition();
+        usedBytes.addAndGet(-size);
+        int classIndex = sizeClassIndex(size);
+        if (classIndex >= 0 && size == 1 << (classIndex + MIN_SIZE_CLASS_SHIFT)) {
+            sizeClassBuffers[classIndex].offer(cleanBuffer);
             return;
         }
-        lock.lock();
-        try {
-            clean0(cleanBuffer);
-        } finally {
-            lock.unlock();
+        cleanBuffers.offer(cleanBuffer);
+        if (cleanCount.incrementAndGet() > CLEAN_THRESHOLD) {
+            tryClean();
         }
     }
 
     void tryClean() {
-        if (System.currentTimeMillis() - lastAllocateTime < 1000 || !lock.tryLock()) {
+        if (!lock.tryLock()) {
             return;
         }
         try {
             VirtualBuffer cleanBuffer;
             while ((cleanBuffer = cleanBuffers.poll()) != null) {
+                cleanCount.decrementAndGet();
                 clean0(cleanBuffer);
             }
         } finally {
             lock.unlock();
         }
-
     }
 
     private void clean0(VirtualBuffer cleanBuffer) {
@@ -194,4 +332,77 @@ public class PageBuffer {
         availableBuffers.add(cleanBuffer);
     }
 
+    /**
+     * 内存页容量
+     *
+     * @return 字节数
+     */
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * 当前未被占用的字节数,包含已释放待复用的虚拟Buffer
+     *
+     * @return 字节数
+     */
+    public int available() {
+        return (int) (buffer.capacity() - usedBytes.get());
+    }
+
+    /**
+     * 已分配出去的字节数
+     *
+     * @return 字节数
+     */
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    /**
+     * 申请次数
+     *
+     * @return 次数
+     */
+    public long getAllocateCount() {
+        return allocateCount.sum();
+    }
+
+    /**
+     * 直接复用已释放Buffer的次数
+     *
+     * @return 次数
+     */
+    public long getReuseCount() {
+        return reuseCount.sum();
+    }
+
+    /**
+     * 页内空间不足而退化为堆内存的次数
+     *
+     * @return 次数
+     */
+    public long getFallbackCount() {
+        return fallbackCount.sum();
+    }
+
+    /**
+     * 因空间不足触发回收的次数
+     *
+     * @return 次数
+     */
+    public long getReclaimCount() {
+        return reclaimCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "PageBuffer{capacity=" + capacity()
+                + ", used=" + getUsedBytes()
+                + ", allocate=" + getAllocateCount()
+                + ", reuse=" + getReuseCount()
+                + ", fallback=" + getFallbackCount()
+                + ", reclaim=" + getReclaimCount() + '}';
+    }
+
 }
@@ -0,0 +1,276 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.io.file;
+
+import org.aoju.bus.core.io.LineHandler;
+import org.aoju.bus.core.io.watchers.SimpleWatcher;
+import org.aoju.bus.core.lang.Symbol;
+import org.aoju.bus.core.lang.exception.InstrumentException;
+import org.aoju.bus.core.toolkit.IoKit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按块读取的行处理Watcher实现
+ * <p>
+ * 使用{@link FileChannel}按块读取新增内容,解码到复用的缓冲区后切分为行,
+ * 以批量的方式交给{@link LineHandler#handle(List)}处理,未以换行结束的行等待后续内容
+ * 文件被截断时从头读取,文件被轮转(重命名后新建)时先读完原文件再从新文件开头读取
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public class BlockReadWatcher extends SimpleWatcher implements Runnable, Closeable {
+
+    /**
+     * 每次读取的块大小
+     */
+    private static final int BLOCK_SIZE = 64 * 1024;
+    /**
+     * 每批最多的行数
+     */
+    private static final int MAX_BATCH = 1024;
+
+    private final Path path;
+    private final LineHandler lineHandler;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BLOCK_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(BLOCK_SIZE);
+    /**
+     * 未结束的行
+     */
+    private final StringBuilder partial = new StringBuilder();
+    private List<String> batch = new ArrayList<>();
+
+    private FileChannel channel;
+    /**
+     * 当前打开文件的标识,用于识别轮转
+     */
+    private Object fileKey;
+    /**
+     * 已读取的位置
+     */
+    private long position;
+    /**
+     * 上一个字符是否为\r
+     */
+    private boolean lastCr;
+
+    /**
+     * 构造
+     *
+     * @param path        文件路径
+     * @param charset     编码
+     * @param lineHandler 行处理器{@link LineHandler}实现
+     * @param position    开始读取的位置
+     */
+    public BlockReadWatcher(Path path, Charset charset, LineHandler lineHandler, long position) {
+        this.path = path;
+        this.lineHandler = lineHandler;
+        this.position = position;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    @Override
+    public void run() {
+        read();
+    }
+
+    @Override
+    public void onCreate(WatchEvent<?> event, Path currentPath) {
+        read();
+    }
+
+    @Override
+    public void onModify(WatchEvent<?> event, Path currentPath) {
+        read();
+    }
+
+    @Override
+    public void onDelete(WatchEvent<?> event, Path currentPath) {
+        read();
+    }
+
+    @Override
+    public void onOverflow(WatchEvent<?> event, Path currentPath) {
+        read();
+    }
+
+    /**
+     * 读取新增内容并处理
+     */
+    public synchronized void read() {
+        try {
+            if (null == channel && false == open()) {
+                return;
+            }
+            final Object currentKey = fileKey();
+            if (null != currentKey && null != fileKey && false == currentKey.equals(fileKey)) {
+                // 文件已轮转,读完原文件剩余内容后切换到新文件
+                drain();
+                if (partial.length() > 0) {
+                    emit();
+                }
+                reopen();
+            } else if (channel.size() < position) {
+                // 文件被截断,从头读取
+                reopen();
+            }
+            drain();
+            flush();
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        IoKit.close(channel);
+        channel = null;
+    }
+
+    private boolean open() throws IOException {
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        fileKey = fileKey();
+        if (position > channel.size()) {
+            position = channel.size();
+        }
+        return true;
+    }
+
+    private void reopen() throws IOException {
+        IoKit.close(channel);
+        channel = null;
+        position = 0;
+        bytes.clear();
+        decoder.reset();
+        partial.setLength(0);
+        lastCr = false;
+        open();
+    }
+
+    /**
+     * 当前路径对应文件的标识
+     *
+     * @return 文件标识, 文件不存在或系统不支持时返回null
+     */
+    private Object fileKey() throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 读取到当前文件末尾
+     */
+    private void drain() throws IOException {
+        while (null != channel) {
+            final int read = channel.read(bytes, position);
+            if (read <= 0) {
+                return;
+            }
+            position += read;
+            bytes.flip();
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, chars, false);
+                chars.flip();
+                split();
+                chars.clear();
+            } while (result.isOverflow());
+            // 不完整的字符保留到下次读取
+            bytes.compact();
+        }
+    }
+
+    /**
+     * 将解码后的字符切分为行
+     */
+    private void split() {
+        final char[] array = chars.array();
+        final int end = chars.limit();
+        int start = 0;
+        for (int i = 0; i < end; i++) {
+            final char c = array[i];
+            if (c == Symbol.C_LF || c == Symbol.C_CR) {
+                if (c == Symbol.C_LF && lastCr && i == start && partial.length() == 0) {
+                    // \r\n视为一个换行
+                    start = i + 1;
+                    lastCr = false;
+                    continue;
+                }
+                partial.append(array, start, i - start);
+                emit();
+                start = i + 1;
+                lastCr = c == Symbol.C_CR;
+            } else {
+                lastCr = false;
+            }
+        }
+        partial.append(array, start, end - start);
+    }
+
+    private void emit() {
+        batch.add(partial.toString());
+        partial.setLength(0);
+        if (batch.size() >= MAX_BATCH) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (false == batch.isEmpty()) {
+            final List<String> lines = batch;
+            batch = new ArrayList<>();
+            lineHandler.handle(lines);
+        }
+    }
+
+}
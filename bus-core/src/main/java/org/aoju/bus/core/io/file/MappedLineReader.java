@@ -0,0 +1,497 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.io.file;
+
+import org.aoju.bus.core.io.CharLineHandler;
+import org.aoju.bus.core.io.LineHandler;
+import org.aoju.bus.core.lang.Assert;
+import org.aoju.bus.core.lang.Symbol;
+import org.aoju.bus.core.lang.exception.InstrumentException;
+import org.aoju.bus.core.thread.BatchExecutor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 基于内存映射的按行读取
+ * <p>
+ * 文件在换行符处切分为块,每块通过{@link FileChannel#map}映射后逐行解码,块之间可并行处理
+ * 行以{@link CharSequence}视图的形式传递,ASCII及UTF-8字符直接解码到复用的缓冲区,其它编码使用解码器,不为每行创建字符串
+ * 换行符支持\n、\r\n和\r,编码需以单字节0x0A表示换行(如UTF-8、GBK、ISO-8859-1),不支持UTF-16等编码
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public class MappedLineReader extends FileWrapper {
+
+    /**
+     * 默认块大小:32M
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 32 * 1024 * 1024;
+    /**
+     * 按字符串处理时每批最多的行数
+     */
+    private static final int MAX_BATCH = 1024;
+
+    /**
+     * 块大小,实际块在此位置之后的第一个换行符处结束
+     */
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    /**
+     * 是否并行处理
+     */
+    private boolean parallel = true;
+    /**
+     * 并行处理的执行器
+     */
+    private Executor executor = ForkJoinPool.commonPool();
+
+    /**
+     * 构造
+     *
+     * @param file    文件
+     * @param charset 编码
+     */
+    public MappedLineReader(File file, Charset charset) {
+        super(file, charset);
+        if (false == file.exists()) {
+            throw new InstrumentException("File not exist : " + file);
+        }
+        if (false == file.isFile()) {
+            throw new InstrumentException("Not a file :" + file);
+        }
+    }
+
+    /**
+     * 创建 MappedLineReader
+     *
+     * @param file    文件
+     * @param charset 编码
+     * @return {@link MappedLineReader}
+     */
+    public static MappedLineReader create(File file, Charset charset) {
+        return new MappedLineReader(file, charset);
+    }
+
+    /**
+     * 创建 MappedLineReader, 编码:{@link FileWrapper#DEFAULT_CHARSET}
+     *
+     * @param file 文件
+     * @return {@link MappedLineReader}
+     */
+    public static MappedLineReader create(File file) {
+        return new MappedLineReader(file, DEFAULT_CHARSET);
+    }
+
+    /**
+     * 设置块大小,默认32M
+     *
+     * @param chunkSize 块大小
+     * @return this
+     */
+    public MappedLineReader setChunkSize(int chunkSize) {
+        Assert.isTrue(chunkSize > 0, "Chunk size must be positive!");
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * 设置是否并行处理,为false时在调用线程上按顺序处理
+     *
+     * @param parallel 是否并行
+     * @return this
+     */
+    public MappedLineReader setParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * 设置并行处理的执行器,默认{@link ForkJoinPool#commonPool()}
+     *
+     * @param executor 执行器
+     * @return this
+     */
+    public MappedLineReader setExecutor(Executor executor) {
+        Assert.notNull(executor, "Executor must be not null!");
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * 按行处理文件内容,行为{@link CharSequence}视图
+     * 并行处理时处理器会被多个线程同时调用,且行的顺序只在块内保证
+     *
+     * @param handler {@link CharLineHandler}行处理器
+     * @return 行数
+     * @throws InstrumentException IO异常
+     */
+    public long read(CharLineHandler handler) throws InstrumentException {
+        return read((channel, chunk) -> read(channel, chunk[0], chunk[1], handler));
+    }
+
+    /**
+     * 按行处理文件内容,每块的行以字符串形式分批交给{@link LineHandler#handle(List)}
+     * 并行处理时处理器会被多个线程同时调用,且行的顺序只在块内保证
+     *
+     * @param lineHandler {@link LineHandler}行处理器
+     * @return 行数
+     * @throws InstrumentException IO异常
+     */
+    public long readLines(LineHandler lineHandler) throws InstrumentException {
+        return read((channel, chunk) -> {
+            final LineBatch batch = new LineBatch(lineHandler);
+            final long count = read(channel, chunk[0], chunk[1], batch);
+            batch.flush();
+            return count;
+        });
+    }
+
+    /**
+     * 切分文件并按块处理
+     *
+     * @param reader 块处理器
+     * @return 行数
+     */
+    private long read(ChunkReader reader) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final List<long[]> chunks = split(channel);
+            if (false == parallel || chunks.size() < 2) {
+                long count = 0;
+                for (long[] chunk : chunks) {
+                    count += reader.read(channel, chunk);
+                }
+                return count;
+            }
+            final long[] count = new long[1];
+            BatchExecutor.create()
+                    .setExecutor(executor)
+                    .setChunkSize(1, 1)
+                    .map(chunks, list -> {
+                        try {
+                            return reader.read(channel, list.get(0));
+                        } catch (IOException e) {
+                            throw new InstrumentException(e);
+                        }
+                    }, lines -> count[0] += lines);
+            return count[0];
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    /**
+     * 在换行符处将文件切分为块
+     *
+     * @param channel 文件通道
+     * @return 每块的开始和结束位置
+     */
+    private List<long[]> split(FileChannel channel) throws IOException {
+        final long size = channel.size();
+        final List<long[]> chunks = new ArrayList<>();
+        final ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkSize;
+            if (end >= size) {
+                end = size;
+            } else {
+                // 移动到下一个换行符之后
+                end = nextLine(channel, buffer, end, size);
+            }
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static long nextLine(FileChannel channel, ByteBuffer buffer, long position, long size) throws IOException {
+        while (position < size) {
+            buffer.clear();
+            final int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == Symbol.C_LF) {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * 映射并处理一块
+     *
+     * @param channel 文件通道
+     * @param start   开始位置
+     * @param end     结束位置
+     * @param handler 行处理器
+     * @return 行数
+     */
+    private long read(FileChannel channel, long start, long end, CharLineHandler handler) throws IOException {
+        final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        final CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        final Line line = new Line();
+        final boolean utf8 = StandardCharsets.UTF_8.equals(charset);
+        final int limit = buffer.limit();
+        long count = 0;
+        int lineStart = 0;
+        int length = 0;
+        // 当前行是否已直接解码到行缓冲区,ASCII及合法的UTF-8直接解码,其它情况整行交给解码器
+        boolean direct = true;
+        char[] chars = line.chars;
+        for (int i = 0; i < limit; i++) {
+            final byte b = buffer.get(i);
+            if (b == Symbol.C_LF || b == Symbol.C_CR) {
+                line.set(buffer, lineStart, i, direct ? length : -1, decoder);
+                handler.handle(line);
+                count++;
+                if (b == Symbol.C_CR && i + 1 < limit && buffer.get(i + 1) == Symbol.C_LF) {
+                    i++;
+                }
+                lineStart = i + 1;
+                length = 0;
+                direct = true;
+                chars = line.chars;
+            } else if (direct) {
+                if (length + 1 >= chars.length) {
+                    chars = line.grow(length + 2);
+                }
+                if (b >= 0) {
+                    chars[length++] = (char) b;
+                } else if (utf8) {
+                    final int read = decodeUtf8(buffer, i, limit, chars, length);
+                    if (read > 0) {
+                        // 4字节序列解码为代理对
+                        length += read == 4 ? 2 : 1;
+                        i += read - 1;
+                    } else {
+                        direct = false;
+                    }
+                } else {
+                    direct = false;
+                }
+            }
+        }
+        if (lineStart < limit) {
+            line.set(buffer, lineStart, limit, direct ? length : -1, decoder);
+            handler.handle(line);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 解码一个UTF-8多字节序列
+     *
+     * @param buffer 缓冲区
+     * @param index  序列开始位置
+     * @param limit  缓冲区结束位置
+     * @param chars  目标字符数组,至少有2个字符的剩余空间
+     * @param offset 目标位置
+     * @return 序列的字节数, 序列不合法时返回0
+     */
+    private static int decodeUtf8(ByteBuffer buffer, int index, int limit, char[] chars, int offset) {
+        final int b0 = buffer.get(index) & 0xFF;
+        if (b0 >= 0xC2 && b0 <= 0xDF) {
+            if (index + 1 >= limit) {
+                return 0;
+            }
+            final int b1 = buffer.get(index + 1);
+            if ((b1 & 0xC0) != 0x80) {
+                return 0;
+            }
+            chars[offset] = (char) (((b0 & 0x1F) << 6) | (b1 & 0x3F));
+            return 2;
+        }
+        if (b0 >= 0xE0 && b0 <= 0xEF) {
+            if (index + 2 >= limit) {
+                return 0;
+            }
+            final int b1 = buffer.get(index + 1) & 0xFF;
+            final int b2 = buffer.get(index + 2);
+            if ((b1 & 0xC0) != 0x80 || (b2 & 0xC0) != 0x80
+                    || (b0 == 0xE0 && b1 < 0xA0) || (b0 == 0xED && b1 > 0x9F)) {
+                return 0;
+            }
+            chars[offset] = (char) (((b0 & 0x0F) << 12) | ((b1 & 0x3F) << 6) | (b2 & 0x3F));
+            return 3;
+        }
+        if (b0 >= 0xF0 && b0 <= 0xF4) {
+            if (index + 3 >= limit) {
+                return 0;
+            }
+            final int b1 = buffer.get(index + 1) & 0xFF;
+            final int b2 = buffer.get(index + 2);
+            final int b3 = buffer.get(index + 3);
+            if ((b1 & 0xC0) != 0x80 || (b2 & 0xC0) != 0x80 || (b3 & 0xC0) != 0x80
+                    || (b0 == 0xF0 && b1 < 0x90) || (b0 == 0xF4 && b1 > 0x8F)) {
+                return 0;
+            }
+            final int codePoint = ((b0 & 0x07) << 18) | ((b1 & 0x3F) << 12) | ((b2 & 0x3F) << 6) | (b3 & 0x3F);
+            chars[offset] = Character.highSurrogate(codePoint);
+            chars[offset + 1] = Character.lowSurrogate(codePoint);
+            return 4;
+        }
+        return 0;
+    }
+
+    /**
+     * 块处理器
+     */
+    @FunctionalInterface
+    private interface ChunkReader {
+
+        /**
+         * 处理一块
+         *
+         * @param channel 文件通道
+         * @param chunk   块的开始和结束位置
+         * @return 行数
+         * @throws IOException IO异常
+         */
+        long read(FileChannel channel, long[] chunk) throws IOException;
+
+    }
+
+    /**
+     * 将行收集为字符串并分批交给{@link LineHandler}
+     */
+    private static class LineBatch implements CharLineHandler {
+
+        private final LineHandler lineHandler;
+        private List<String> batch = new ArrayList<>();
+
+        LineBatch(LineHandler lineHandler) {
+            this.lineHandler = lineHandler;
+        }
+
+        @Override
+        public void handle(CharSequence line) {
+            batch.add(line.toString());
+            if (batch.size() >= MAX_BATCH) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (false == batch.isEmpty()) {
+                final List<String> lines = batch;
+                batch = new ArrayList<>();
+                lineHandler.handle(lines);
+            }
+        }
+
+    }
+
+    /**
+     * 复用的行缓冲区
+     */
+    private static class Line implements CharSequence {
+
+        private char[] chars = new char[256];
+        private int length;
+
+        /**
+         * 设置当前行
+         *
+         * @param buffer  映射的缓冲区
+         * @param from    行开始位置
+         * @param to      行结束位置
+         * @param length  已复制的ASCII字符数,-1表示需要解码
+         * @param decoder 解码器
+         */
+        void set(ByteBuffer buffer, int from, int to, int length, CharsetDecoder decoder) {
+            if (length >= 0) {
+                this.length = length;
+                return;
+            }
+            final ByteBuffer in = buffer.duplicate();
+            in.limit(to).position(from);
+            final int capacity = (int) ((to - from) * (double) decoder.maxCharsPerByte()) + 1;
+            if (capacity > chars.length) {
+                grow(capacity);
+            }
+            final CharBuffer out = CharBuffer.wrap(chars);
+            decoder.reset();
+            decoder.decode(in, out, true);
+            decoder.flush(out);
+            this.length = out.position();
+        }
+
+        char[] grow(int capacity) {
+            chars = Arrays.copyOf(chars, Math.max(capacity, chars.length << 1));
+            return chars;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new StringIndexOutOfBoundsException(index);
+            }
+            return chars[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new StringIndexOutOfBoundsException();
+            }
+            return new String(chars, start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, 0, length);
+        }
+
+    }
+
+}
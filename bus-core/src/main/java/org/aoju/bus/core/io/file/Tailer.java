@@ -25,22 +25,26 @@
 package org.aoju.bus.core.io.file;
 
 import org.aoju.bus.core.io.LineHandler;
+import org.aoju.bus.core.io.watchers.WatchMonitor;
 import org.aoju.bus.core.lang.Charset;
 import org.aoju.bus.core.lang.Console;
 import org.aoju.bus.core.lang.Fields;
 import org.aoju.bus.core.lang.Symbol;
 import org.aoju.bus.core.lang.exception.InstrumentException;
-import org.aoju.bus.core.toolkit.FileKit;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.io.Serializable;
-import java.util.Stack;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.concurrent.*;
 
 /**
  * 文件内容跟随器，实现类似Linux下"tail -f"命令功能
+ * <p>
+ * 默认按固定间隔轮询文件变化，也可以由{@link WatchMonitor}的文件变化通知驱动，
+ * 此时轮询仅作为兜底。两种方式均使用{@link BlockReadWatcher}按块读取并批量处理新增的行
  *
  * @author Kimi Liu
  * @version 6.0.2
@@ -50,6 +54,15 @@ public class Tailer implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * 反向查找行时每次读取的块大小
+     */
+    private static final int BLOCK_SIZE = 8192;
+
+    /**
+     * 文件
+     */
+    private final File file;
     /**
      * 编码
      */
@@ -63,12 +76,17 @@ public class Tailer implements Serializable {
      */
     private final int initReadLine;
     /**
-     * 定时任务检查间隔时长
+     * 定时任务检查间隔时长，由文件变化通知驱动时为兜底检查的间隔
      */
     private final long period;
+    /**
+     * 是否由文件变化通知驱动
+     */
+    private final boolean watch;
 
-    private final RandomAccessFile randomAccessFile;
     private final ScheduledExecutorService executorService;
+    private transient BlockReadWatcher watcher;
+    private transient WatchMonitor monitor;
 
     /**
      * 构造，默认UTF-8编码
@@ -112,12 +130,27 @@ public class Tailer implements Serializable {
      * @param period       检查间隔
      */
     public Tailer(File file, java.nio.charset.Charset charset, LineHandler lineHandler, int initReadLine, long period) {
+        this(file, charset, lineHandler, initReadLine, period, false);
+    }
+
+    /**
+     * 构造
+     *
+     * @param file         文件
+     * @param charset      编码
+     * @param lineHandler  行处理器
+     * @param initReadLine 启动时预读取的行数
+     * @param period       检查间隔，由文件变化通知驱动时为兜底检查的间隔
+     * @param watch        是否由文件变化通知驱动
+     */
+    public Tailer(File file, java.nio.charset.Charset charset, LineHandler lineHandler, int initReadLine, long period, boolean watch) {
         checkFile(file);
+        this.file = file;
         this.charset = charset;
         this.lineHandler = lineHandler;
         this.period = period;
         this.initReadLine = initReadLine;
-        this.randomAccessFile = FileKit.createRandomAccessFile(file, FileMode.r);
+        this.watch = watch;
         this.executorService = Executors.newSingleThreadScheduledExecutor();
     }
 
@@ -149,82 +182,84 @@ public class Tailer implements Serializable {
      */
     public void start(boolean async) {
         // 初始读取
+        final long position;
         try {
-            this.readTail();
+            position = this.tailPosition();
         } catch (IOException e) {
             throw new InstrumentException(e);
         }
+        this.watcher = new BlockReadWatcher(this.file.toPath(), this.charset, this.lineHandler, position);
+        this.watcher.run();
 
-        final LineReadWatcher lineReadWatcher = new LineReadWatcher(this.randomAccessFile, this.charset, this.lineHandler);
         final ScheduledFuture<?> scheduledFuture = this.executorService.scheduleAtFixedRate(//
-                lineReadWatcher,
-                0,
+                this.watcher,
+                this.watch ? this.period : 0,
                 this.period, TimeUnit.MILLISECONDS
         );
 
-        if (false == async) {
+        if (this.watch) {
+            this.monitor = WatchMonitor.createAll(this.file, this.watcher);
+            if (async) {
+                this.monitor.start();
+            } else {
+                this.monitor.watch();
+            }
+        } else if (false == async) {
             try {
                 scheduledFuture.get();
-            } catch (ExecutionException | InterruptedException e) {
+            } catch (ExecutionException | InterruptedException | CancellationException e) {
                 throw new InstrumentException(e);
             }
         }
     }
 
     /**
-     * 预读取行
+     * 停止监听
+     */
+    public void stop() {
+        this.executorService.shutdownNow();
+        if (null != this.monitor) {
+            this.monitor.close();
+        }
+        if (null != this.watcher) {
+            this.watcher.close();
+        }
+    }
+
+    /**
+     * 按块从文件末尾向前查找预读取的起始位置
      *
+     * @return 开始读取的位置
      * @throws IOException IO异常
      */
-    private void readTail() throws IOException {
-        final long len = this.randomAccessFile.length();
-
-        if (initReadLine > 0) {
-            Stack<String> stack = new Stack<>();
-
-            long start = this.randomAccessFile.getFilePointer();
-            long nextEnd = len - 1;
-            this.randomAccessFile.seek(nextEnd);
-            int c;
-            int currentLine = 0;
-            while (nextEnd > start) {
-                // 满
-                if (currentLine > initReadLine) {
-                    break;
-                }
-
-                c = this.randomAccessFile.read();
-                if (c == Symbol.C_LF || c == Symbol.C_CR) {
-                    final String line = FileKit.readLine(this.randomAccessFile, this.charset);
-                    if (null != line) {
-                        stack.push(line);
-                    }
-                    currentLine++;
-                    nextEnd--;
+    private long tailPosition() throws IOException {
+        try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ)) {
+            final long len = channel.size();
+            if (initReadLine <= 0 || len == 0) {
+                return len;
+            }
+            final ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+            int lines = 0;
+            byte next = 0;
+            long end = len;
+            while (end > 0) {
+                final long start = Math.max(0, end - BLOCK_SIZE);
+                buffer.clear().limit((int) (end - start));
+                while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) > 0) {
+                    // 读满本块
                 }
-                nextEnd--;
-                this.randomAccessFile.seek(nextEnd);
-                if (nextEnd == 0) {
-                    // 当文件指针退至文件开始处，输出第一行
-                    final String line = FileKit.readLine(this.randomAccessFile, this.charset);
-                    if (null != line) {
-                        stack.push(line);
+                for (int i = buffer.position() - 1; i >= 0; i--) {
+                    final byte b = buffer.get(i);
+                    // \r\n视为一个换行，文件末尾的换行不计入行数
+                    if ((b == Symbol.C_LF || (b == Symbol.C_CR && next != Symbol.C_LF))
+                            && start + i != len - 1 && ++lines >= initReadLine) {
+                        return start + i + 1;
                     }
-                    break;
+                    next = b;
                 }
+                end = start;
             }
-
-            // 输出缓存栈中的内容
-            while (false == stack.isEmpty()) {
-                this.lineHandler.handle(stack.pop());
-            }
-        }
-
-        // 将指针置于末尾
-        try {
-            this.randomAccessFile.seek(len);
-        } catch (IOException e) {
-            throw new InstrumentException(e);
+            return 0;
         }
     }
 
@@ -0,0 +1,635 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.io.file;
+
+import org.aoju.bus.core.lang.Assert;
+import org.aoju.bus.core.lang.Symbol;
+import org.aoju.bus.core.lang.exception.InstrumentException;
+import org.aoju.bus.core.toolkit.FileKit;
+import org.aoju.bus.core.toolkit.IoKit;
+import org.aoju.bus.core.toolkit.ObjectKit;
+import org.aoju.bus.core.toolkit.StringKit;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 并行Zip写出器
+ * <p>
+ * 每个条目按固定大小分块,各块在{@link ForkJoinPool}上独立压缩(非最后一块以SYNC_FLUSH结束),
+ * 按顺序拼接为一个完整的DEFLATE流,CRC分块计算后合并
+ * 条目使用数据描述符记录大小及CRC,写出时无需回写,因此可直接写出到任意流,不产生临时文件
+ * 同时在途的块数受限,内存占用与条目数量及大小无关
+ * <p>
+ * 生成的文件为标准zip格式,条目数或偏移超出限制时自动使用ZIP64扩展
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public final class ZipWriter implements Closeable {
+
+    /**
+     * 分块大小
+     */
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+
+    private static final int LOCSIG = 0x04034b50;
+    private static final int EXTSIG = 0x08074b50;
+    private static final int CENSIG = 0x02014b50;
+    private static final int ENDSIG = 0x06054b50;
+    private static final int ZIP64_ENDSIG = 0x06064b50;
+    private static final int ZIP64_LOCSIG = 0x07064b50;
+
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    private static final int FLAG_DATA_DESCRIPTOR = 0x08;
+    private static final int FLAG_UTF8 = 0x800;
+
+    /**
+     * 每个线程复用的压缩器
+     */
+    private static final ThreadLocal<Deflater[]> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater[Deflater.BEST_COMPRESSION + 2]);
+
+    private final CountingOutputStream out;
+    private final Charset charset;
+    private final ForkJoinPool pool;
+    private final int level;
+    /**
+     * 同时在途的最大块数
+     */
+    private final int maxPending;
+    private final Deque<Chunk> pending = new ArrayDeque<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private final byte[] readBuffer = new byte[CHUNK_SIZE];
+    private boolean finished;
+    /**
+     * 写入过程中是否出错,出错后压缩文件已不完整,关闭时不再写出中央目录
+     */
+    private boolean failed;
+
+    /**
+     * 构造,使用公共{@link ForkJoinPool}及默认压缩级别
+     *
+     * @param out     输出流
+     * @param charset 条目名称编码,null表示UTF-8
+     */
+    public ZipWriter(OutputStream out, Charset charset) {
+        this(out, charset, null, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * 构造
+     *
+     * @param out     输出流
+     * @param charset 条目名称编码,null表示UTF-8
+     * @param pool    压缩使用的线程池,null表示公共线程池
+     * @param level   压缩级别,-1~9
+     */
+    public ZipWriter(OutputStream out, Charset charset, ForkJoinPool pool, int level) {
+        Assert.notNull(out, "OutputStream must not be null");
+        Assert.isTrue(level >= Deflater.DEFAULT_COMPRESSION && level <= Deflater.BEST_COMPRESSION, "Invalid compression level: {}", level);
+        this.out = new CountingOutputStream(out);
+        this.charset = ObjectKit.defaultIfNull(charset, StandardCharsets.UTF_8);
+        this.pool = ObjectKit.defaultIfNull(pool, ForkJoinPool.commonPool());
+        this.level = level;
+        this.maxPending = Math.max(2, this.pool.getParallelism() * 2);
+    }
+
+    /**
+     * 添加文件,修改时间取自文件
+     *
+     * @param path 在压缩文件中的路径
+     * @param file 文件
+     * @return this
+     * @throws InstrumentException IO异常
+     */
+    public ZipWriter add(String path, File file) throws InstrumentException {
+        try (InputStream in = FileKit.getInputStream(file)) {
+            return add(path, in, file.lastModified());
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    /**
+     * 添加流中的数据,不关闭输入流
+     *
+     * @param path 在压缩文件中的路径
+     * @param in   输入流
+     * @return this
+     * @throws InstrumentException IO异常
+     */
+    public ZipWriter add(String path, InputStream in) throws InstrumentException {
+        return add(path, in, System.currentTimeMillis());
+    }
+
+    /**
+     * 添加流中的数据,不关闭输入流
+     * 读取在当前线程进行,压缩在线程池中并行进行
+     *
+     * @param path 在压缩文件中的路径
+     * @param in   输入流
+     * @param time 修改时间
+     * @return this
+     * @throws InstrumentException IO异常
+     */
+    public ZipWriter add(String path, InputStream in, long time) throws InstrumentException {
+        checkNotFinished();
+        final Entry entry = new Entry(path, time, DEFLATED);
+        try {
+            byte[] data = readChunk(in);
+            boolean first = true;
+            while (true) {
+                // 预读下一块以确定当前块是否为最后一块
+                final byte[] next = data.length < CHUNK_SIZE ? null : readChunk(in);
+                final boolean last = null == next || next.length == 0;
+                submit(new Chunk(entry, data, first, last));
+                if (last) {
+                    break;
+                }
+                first = false;
+                data = next;
+            }
+        } catch (IOException e) {
+            fail();
+            throw new InstrumentException(e);
+        } catch (RuntimeException | Error e) {
+            fail();
+            throw e;
+        }
+        return this;
+    }
+
+    /**
+     * 添加目录
+     *
+     * @param path 在压缩文件中的路径
+     * @return this
+     * @throws InstrumentException IO异常
+     */
+    public ZipWriter addDir(String path) throws InstrumentException {
+        checkNotFinished();
+        path = StringKit.addSuffixIfNot(path, Symbol.SLASH);
+        final Entry entry = new Entry(path, System.currentTimeMillis(), STORED);
+        try {
+            drain(0);
+            writeLocalHeader(entry);
+        } catch (IOException e) {
+            fail();
+            throw new InstrumentException(e);
+        } catch (RuntimeException | Error e) {
+            fail();
+            throw e;
+        }
+        entries.add(entry);
+        return this;
+    }
+
+    /**
+     * 写出所有在途数据及中央目录,不关闭输出流
+     *
+     * @throws InstrumentException   IO异常
+     * @throws IllegalStateException 此前的写入已出错
+     */
+    public void finish() throws InstrumentException {
+        if (finished) {
+            return;
+        }
+        if (failed) {
+            throw new IllegalStateException("ZipWriter failed, the archive is incomplete");
+        }
+        try {
+            drain(0);
+            writeCentral();
+            out.flush();
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        } finally {
+            finished = true;
+        }
+    }
+
+    /**
+     * 写出中央目录并关闭输出流,此前的写入已出错时仅关闭输出流
+     *
+     * @throws IOException IO异常
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (false == failed) {
+                finish();
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private void checkNotFinished() {
+        if (failed) {
+            throw new IllegalStateException("ZipWriter failed, the archive is incomplete");
+        }
+        if (finished) {
+            throw new IllegalStateException("ZipWriter has been finished");
+        }
+    }
+
+    /**
+     * 标记为出错并取消在途的压缩任务
+     */
+    private void fail() {
+        failed = true;
+        pending.forEach(c -> c.task.cancel(false));
+        pending.clear();
+    }
+
+    /**
+     * 读取一块数据,读满一块或读到流末尾为止
+     * 先读入复用的缓冲区再按实际长度复制,避免小文件占用整块内存
+     */
+    private byte[] readChunk(InputStream in) throws IOException {
+        final byte[] buf = this.readBuffer;
+        int len = 0;
+        int read;
+        while (len < CHUNK_SIZE && (read = in.read(buf, len, CHUNK_SIZE - len)) >= 0) {
+            len += read;
+        }
+        return Arrays.copyOf(buf, len);
+    }
+
+    /**
+     * 提交压缩任务,在途块数超过上限时按顺序写出已完成的块
+     */
+    private void submit(Chunk chunk) throws IOException {
+        drain(maxPending - 1);
+        chunk.task = pool.submit(chunk::deflate);
+        pending.addLast(chunk);
+    }
+
+    /**
+     * 按顺序写出块,直到在途块数不超过给定值
+     */
+    private void drain(int remain) throws IOException {
+        while (pending.size() > remain) {
+            final Chunk chunk = pending.removeFirst();
+            try {
+                chunk.task.join();
+            } catch (RuntimeException e) {
+                pending.forEach(c -> c.task.cancel(false));
+                pending.clear();
+                throw e;
+            }
+            write(chunk);
+        }
+    }
+
+    private void write(Chunk chunk) throws IOException {
+        final Entry entry = chunk.entry;
+        if (chunk.first) {
+            writeLocalHeader(entry);
+        }
+        out.write(chunk.compressed, 0, chunk.compressedLength);
+        entry.crc = chunk.first ? chunk.crc : combine(entry.crc, chunk.crc, chunk.length);
+        entry.size += chunk.length;
+        entry.csize += chunk.compressedLength;
+        if (chunk.last) {
+            writeDataDescriptor(entry);
+            entries.add(entry);
+        }
+    }
+
+    private void writeLocalHeader(Entry entry) throws IOException {
+        entry.offset = out.count;
+        writeInt(LOCSIG);
+        writeShort(20);
+        writeShort(entry.flag);
+        writeShort(entry.method);
+        writeInt(entry.dosTime);
+        // 压缩条目的CRC及大小写在数据描述符中
+        writeInt(0);
+        writeInt(0);
+        writeInt(0);
+        writeShort(entry.name.length);
+        writeShort(0);
+        out.write(entry.name);
+    }
+
+    private void writeDataDescriptor(Entry entry) throws IOException {
+        writeInt(EXTSIG);
+        writeInt(entry.crc);
+        if (entry.csize >= ZIP64_MAGIC || entry.size >= ZIP64_MAGIC) {
+            writeLong(entry.csize);
+            writeLong(entry.size);
+        } else {
+            writeInt(entry.csize);
+            writeInt(entry.size);
+        }
+    }
+
+    private void writeCentral() throws IOException {
+        final long start = out.count;
+        for (Entry entry : entries) {
+            final boolean size64 = entry.size >= ZIP64_MAGIC;
+            final boolean csize64 = entry.csize >= ZIP64_MAGIC;
+            final boolean offset64 = entry.offset >= ZIP64_MAGIC;
+            final int extraLength = (size64 ? 8 : 0) + (csize64 ? 8 : 0) + (offset64 ? 8 : 0);
+            final int version = extraLength > 0 ? 45 : 20;
+            writeInt(CENSIG);
+            writeShort(version);
+            writeShort(version);
+            writeShort(entry.flag);
+            writeShort(entry.method);
+            writeInt(entry.dosTime);
+            writeInt(entry.crc);
+            writeInt(csize64 ? ZIP64_MAGIC : entry.csize);
+            writeInt(size64 ? ZIP64_MAGIC : entry.size);
+            writeShort(entry.name.length);
+            writeShort(extraLength > 0 ? extraLength + 4 : 0);
+            // 注释长度、磁盘号、内部属性、外部属性
+            writeShort(0);
+            writeShort(0);
+            writeShort(0);
+            writeInt(0);
+            writeInt(offset64 ? ZIP64_MAGIC : entry.offset);
+            out.write(entry.name);
+            if (extraLength > 0) {
+                writeShort(0x0001);
+                writeShort(extraLength);
+                if (size64) {
+                    writeLong(entry.size);
+                }
+                if (csize64) {
+                    writeLong(entry.csize);
+                }
+                if (offset64) {
+                    writeLong(entry.offset);
+                }
+            }
+        }
+        final long size = out.count - start;
+        final int count = entries.size();
+        if (count >= ZIP64_MAGIC_COUNT || start >= ZIP64_MAGIC || size >= ZIP64_MAGIC) {
+            final long end64 = out.count;
+            writeInt(ZIP64_ENDSIG);
+            writeLong(44);
+            writeShort(45);
+            writeShort(45);
+            writeInt(0);
+            writeInt(0);
+            writeLong(count);
+            writeLong(count);
+            writeLong(size);
+            writeLong(start);
+            writeInt(ZIP64_LOCSIG);
+            writeInt(0);
+            writeLong(end64);
+            writeInt(1);
+        }
+        writeInt(ENDSIG);
+        writeShort(0);
+        writeShort(0);
+        writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+        writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+        writeInt(Math.min(size, ZIP64_MAGIC));
+        writeInt(Math.min(start, ZIP64_MAGIC));
+        writeShort(0);
+    }
+
+    private void writeShort(int v) throws IOException {
+        out.write(v & 0xff);
+        out.write((v >>> 8) & 0xff);
+    }
+
+    private void writeInt(long v) throws IOException {
+        writeShort((int) (v & 0xffff));
+        writeShort((int) ((v >>> 16) & 0xffff));
+    }
+
+    private void writeLong(long v) throws IOException {
+        writeInt(v & 0xffffffffL);
+        writeInt(v >>> 32);
+    }
+
+    /**
+     * 转换为DOS格式的日期时间
+     */
+    private static long dosTime(long time) {
+        final LocalDateTime date = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+        if (date.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (date.getYear() - 1980) << 25 | date.getMonthValue() << 21 | date.getDayOfMonth() << 16
+                | date.getHour() << 11 | date.getMinute() << 5 | date.getSecond() >> 1;
+    }
+
+    /**
+     * 合并两段数据的CRC32,算法来自zlib的crc32_combine
+     *
+     * @param crc1 第一段的CRC
+     * @param crc2 第二段的CRC
+     * @param len2 第二段的长度
+     * @return 连接后数据的CRC
+     */
+    static long combine(long crc1, long crc2, long len2) {
+        if (len2 <= 0) {
+            return crc1;
+        }
+        final long[] even = new long[32];
+        final long[] odd = new long[32];
+        // 奇数次幂的算子,对应一个0比特
+        odd[0] = 0xedb88320L;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        // 对应两个0比特
+        square(even, odd);
+        // 对应四个0比特
+        square(odd, even);
+        do {
+            // 第一次平方后对应一个0字节
+            square(even, odd);
+            if ((len2 & 1) != 0) {
+                crc1 = times(even, crc1);
+            }
+            len2 >>= 1;
+            if (len2 == 0) {
+                break;
+            }
+            square(odd, even);
+            if ((len2 & 1) != 0) {
+                crc1 = times(odd, crc1);
+            }
+            len2 >>= 1;
+        } while (len2 != 0);
+        return crc1 ^ crc2;
+    }
+
+    private static long times(long[] mat, long vec) {
+        long sum = 0;
+        int i = 0;
+        while (vec != 0) {
+            if ((vec & 1) != 0) {
+                sum ^= mat[i];
+            }
+            vec >>= 1;
+            i++;
+        }
+        return sum;
+    }
+
+    private static void square(long[] square, long[] mat) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = times(mat, mat[n]);
+        }
+    }
+
+    /**
+     * 条目信息
+     */
+    private final class Entry {
+
+        final byte[] name;
+        final long dosTime;
+        final int method;
+        final int flag;
+        long crc;
+        long size;
+        long csize;
+        long offset;
+
+        Entry(String path, long time, int method) {
+            Assert.notBlank(path, "Entry path must not be blank");
+            this.name = path.getBytes(charset);
+            this.dosTime = dosTime(time);
+            this.method = method;
+            final int utf8 = StandardCharsets.UTF_8.equals(charset) ? FLAG_UTF8 : 0;
+            this.flag = method == DEFLATED ? FLAG_DATA_DESCRIPTOR | utf8 : utf8;
+        }
+
+    }
+
+    /**
+     * 条目中的一块数据
+     */
+    private final class Chunk {
+
+        final Entry entry;
+        final boolean first;
+        final boolean last;
+        final int length;
+        byte[] data;
+        byte[] compressed;
+        int compressedLength;
+        long crc;
+        ForkJoinTask<?> task;
+
+        Chunk(Entry entry, byte[] data, boolean first, boolean last) {
+            this.entry = entry;
+            this.data = data;
+            this.length = data.length;
+            this.first = first;
+            this.last = last;
+        }
+
+        /**
+         * 压缩本块,非最后一块以SYNC_FLUSH结束,保证拼接后仍为合法的DEFLATE流
+         */
+        void deflate() {
+            final CRC32 crc32 = new CRC32();
+            crc32.update(data, 0, length);
+            this.crc = crc32.getValue();
+
+            final Deflater[] deflaters = DEFLATERS.get();
+            Deflater deflater = deflaters[level + 1];
+            if (null == deflater) {
+                deflater = new Deflater(level, true);
+                deflaters[level + 1] = deflater;
+            }
+            deflater.reset();
+            deflater.setInput(data, 0, length);
+            if (last) {
+                deflater.finish();
+            }
+            byte[] buf = new byte[Math.max(64, length + (length >>> 10) + 64)];
+            int len = 0;
+            while (true) {
+                len += deflater.deflate(buf, len, buf.length - len, last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+                if (last ? deflater.finished() : len < buf.length) {
+                    break;
+                }
+                buf = Arrays.copyOf(buf, buf.length << 1);
+            }
+            this.compressed = buf;
+            this.compressedLength = len;
+            this.data = null;
+        }
+
+    }
+
+    /**
+     * 统计写出字节数的输出流
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out, IoKit.DEFAULT_LARGE_BUFFER_SIZE));
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+    }
+
+}
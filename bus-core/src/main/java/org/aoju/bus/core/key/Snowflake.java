@@ -29,6 +29,9 @@ import org.aoju.bus.core.toolkit.StringKit;
 
 import java.io.Serializable;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * 0 - 0000000000 0000000000 0000000000 0000000000 0 - 00000 - 00000 - 000000000000
@@ -40,6 +43,8 @@ import java.util.Date;
  * 加起来刚好64位,为一个Long型
  * SnowFlake的优点是,整体上按照时间自增排序,并且整个分布式系统内不会产生ID碰撞
  * (由数据中心ID和机器ID作区分),并且效率较高,经测试,SnowFlake每秒能够产生26万ID左右
+ * 时间截和序列号合并保存在一个原子变量中,通过CAS无锁生成,序列号用尽时顺延借用下一毫秒,
+ * 生成的时间截超前当前时间超过容忍范围时,若仅因序列号借用过多则等待时钟追上,时钟回拨超过容忍范围时按{@link Rollback}策略处理
  *
  * @author Kimi Liu
  * @version 6.0.2
@@ -68,9 +73,23 @@ public class Snowflake implements Serializable {
 
     private long workerId;
     private long dataCenterId;
-    private long sequence = 0L;
-    private long lastTimestamp = -1L;
     private boolean useSystemClock;
+    /**
+     * 允许生成的时间截超前当前时间的毫秒数
+     */
+    private final long timeOffset;
+    /**
+     * 时钟回拨超过容忍范围时的处理策略
+     */
+    private final Rollback rollback;
+    /**
+     * 最后分配的时间截差值和序列号,即{@code (时间截 - 开始时间截) << 12 | 序列号}
+     */
+    private final AtomicLong state = new AtomicLong(-1L);
+    /**
+     * 观察到的最大时钟时间差值,用于区分时钟回拨和序列号用尽造成的超前
+     */
+    private final AtomicLong clock = new AtomicLong(-1L);
 
     /**
      * 构造
@@ -100,6 +119,18 @@ public class Snowflake implements Serializable {
      * @param isUseSystemClock 是否使用{@link SystemClock} 获取当前时间戳
      */
     public Snowflake(Date epochDate, long workerId, long dataCenterId, boolean isUseSystemClock) {
+        this(epochDate, workerId, dataCenterId, isUseSystemClock, 2000L, Rollback.THROW);
+    }
+
+    /**
+     * @param epochDate        初始化时间起点(null表示默认起始日期),后期修改会导致id重复,如果要修改连workerId dataCenterId，慎用
+     * @param workerId         工作机器节点id
+     * @param dataCenterId     数据中心id
+     * @param isUseSystemClock 是否使用{@link SystemClock} 获取当前时间戳
+     * @param timeOffset       允许生成的时间截超前当前时间的毫秒数,用于容忍时钟回拨和突发时借用后续的时间截
+     * @param rollback         时钟回拨超过容忍范围时的处理策略
+     */
+    public Snowflake(Date epochDate, long workerId, long dataCenterId, boolean isUseSystemClock, long timeOffset, Rollback rollback) {
         if (null != epochDate) {
             this.twepoch = epochDate.getTime();
         } else {
@@ -111,9 +142,14 @@ public class Snowflake implements Serializable {
         if (dataCenterId > maxDataCenterId || dataCenterId < 0) {
             throw new IllegalArgumentException(StringKit.format("datacenter Id can't be greater than {} or less than 0", maxDataCenterId));
         }
+        if (timeOffset < 0) {
+            throw new IllegalArgumentException("time offset can't be less than 0");
+        }
         this.workerId = workerId;
         this.dataCenterId = dataCenterId;
         this.useSystemClock = isUseSystemClock;
+        this.timeOffset = timeOffset;
+        this.rollback = null == rollback ? Rollback.THROW : rollback;
     }
 
     /**
@@ -151,30 +187,26 @@ public class Snowflake implements Serializable {
      *
      * @return ID
      */
-    public synchronized long nextId() {
-        long timestamp = genTime();
-        if (timestamp < lastTimestamp) {
-            if (lastTimestamp - timestamp < 2000) {
-                // 容忍2秒内的回拨，避免NTP校时造成的异常
-                timestamp = lastTimestamp;
-            } else {
-                // 如果服务器时间有问题(时钟后退) 报错。
-                throw new IllegalStateException(StringKit.format("Clock moved backwards. Refusing to generate id for {}ms", lastTimestamp - timestamp));
-            }
-        }
+    public long nextId() {
+        return toId(reserve(1));
+    }
 
-        if (timestamp == lastTimestamp) {
-            sequence = (sequence + 1) & sequenceMask;
-            if (sequence == 0) {
-                timestamp = tilNextMillis(lastTimestamp);
-            }
-        } else {
-            sequence = 0L;
+    /**
+     * 一次预留连续的多个ID,只需一次原子操作
+     *
+     * @param n ID数量
+     * @return ID, 按生成顺序递增
+     */
+    public long[] nextIds(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("count must be greater than 0");
         }
-
-        lastTimestamp = timestamp;
-
-        return ((timestamp - twepoch) << timestampLeftShift) | (dataCenterId << dataCenterIdShift) | (workerId << workerIdShift) | sequence;
+        final long first = reserve(n);
+        final long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = toId(first + i);
+        }
+        return ids;
     }
 
     /**
@@ -187,17 +219,66 @@ public class Snowflake implements Serializable {
     }
 
     /**
-     * 循环等待下一个时间
+     * 预留连续的n个时间截和序列号,序列号用尽时顺延到下一毫秒
      *
-     * @param lastTimestamp 上次记录的时间
-     * @return 下一个时间
+     * @param n 数量
+     * @return 第一个预留的{@code 时间截差值 << 12 | 序列号}
      */
-    private long tilNextMillis(long lastTimestamp) {
-        long timestamp = genTime();
-        while (timestamp <= lastTimestamp) {
-            timestamp = genTime();
+    private long reserve(int n) {
+        final long span = n - 1;
+        if (rollback != Rollback.CONTINUE && (span >> sequenceBits) > timeOffset) {
+            throw new IllegalArgumentException(StringKit.format("Can't reserve {} ids within {}ms", n, timeOffset));
+        }
+        while (true) {
+            final long now = tick();
+            final long last = state.get();
+            final long first = Math.max(last + 1, now << sequenceBits);
+            final long end = first + span;
+            final long ahead = (end >> sequenceBits) - now;
+            if (ahead > timeOffset && rollback != Rollback.CONTINUE) {
+                final long backwards = clock.get() - now;
+                if (backwards <= timeOffset) {
+                    // 序列号用尽造成的超前,等待下一毫秒
+                    Thread.yield();
+                    continue;
+                }
+                if (rollback == Rollback.THROW) {
+                    // 时钟后退超过容忍范围 报错。
+                    throw new IllegalStateException(StringKit.format("Clock moved backwards. Refusing to generate id for {}ms", backwards));
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(ahead - timeOffset));
+                continue;
+            }
+            if (state.compareAndSet(last, end)) {
+                return first;
+            }
+        }
+    }
+
+    /**
+     * 读取当前时间差值,并记录观察到的最大值
+     *
+     * @return 当前时间截差值
+     */
+    private long tick() {
+        final long now = genTime() - twepoch;
+        long max;
+        while (now > (max = clock.get())) {
+            if (clock.compareAndSet(max, now)) {
+                break;
+            }
         }
-        return timestamp;
+        return now;
+    }
+
+    /**
+     * 组装ID
+     *
+     * @param stamp {@code 时间截差值 << 12 | 序列号}
+     * @return ID
+     */
+    private long toId(long stamp) {
+        return ((stamp >> sequenceBits) << timestampLeftShift) | (dataCenterId << dataCenterIdShift) | (workerId << workerIdShift) | (stamp & sequenceMask);
     }
 
     /**
@@ -209,4 +290,24 @@ public class Snowflake implements Serializable {
         return this.useSystemClock ? SystemClock.now() : System.currentTimeMillis();
     }
 
-}  
+    /**
+     * 时钟回拨超过容忍范围时的处理策略
+     */
+    public enum Rollback {
+
+        /**
+         * 抛出异常,序列号借用过多时仍等待时钟追上
+         */
+        THROW,
+        /**
+         * 等待时钟追上
+         */
+        WAIT,
+        /**
+         * 继续顺延时间截生成,ID仍唯一且递增,但其中的时间截会超前
+         */
+        CONTINUE
+
+    }
+
+}
@@ -0,0 +1,80 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.lang;
+
+import java.util.function.Function;
+
+/**
+ * 以{@link Class}为键的缓存
+ * <p>
+ * 基于{@link ClassValue}实现,值保存在对应的Class上,读取无锁且不需要计算哈希,
+ * 类卸载时值随之回收,值引用其所属类也不会造成泄漏
+ * 值不能直接或间接引用缓存本身(或持有缓存的对象),否则值保存在JDK类等长期存在的类上时,
+ * 缓存及其类加载器将无法回收(JDK-8136353)
+ * </p>
+ *
+ * @param <V> 值类型
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public class ClassCache<V> {
+
+    private final ClassValue<V> cache;
+
+    /**
+     * 构造
+     *
+     * @param function 首次访问某个类时创建值的函数
+     */
+    public ClassCache(final Function<Class<?>, V> function) {
+        this.cache = new ClassValue<V>() {
+            @Override
+            protected V computeValue(Class<?> type) {
+                return function.apply(type);
+            }
+        };
+    }
+
+    /**
+     * 获取类对应的值,不存在时创建
+     *
+     * @param clazz 类
+     * @return 值
+     */
+    public V get(Class<?> clazz) {
+        return cache.get(clazz);
+    }
+
+    /**
+     * 移除类对应的值,下次访问时重新创建
+     *
+     * @param clazz 类
+     */
+    public void remove(Class<?> clazz) {
+        cache.remove(clazz);
+    }
+
+}
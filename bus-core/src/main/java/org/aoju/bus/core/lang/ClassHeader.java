@@ -0,0 +1,308 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.lang;
+
+import org.aoju.bus.core.toolkit.ArrayKit;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 类文件头信息
+ * <p>
+ * 直接解析class字节码中的类名、父类、接口及类上的注解,不加载类,
+ * 用于在类扫描时提前过滤,避免加载大量无关的类
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public final class ClassHeader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+    private static final int ACC_ANNOTATION = 0x2000;
+    private static final int ACC_ENUM = 0x4000;
+
+    /**
+     * 访问标志
+     */
+    private final int access;
+    /**
+     * 类名
+     */
+    private final String name;
+    /**
+     * 父类名,java.lang.Object及module-info为null
+     */
+    private final String superName;
+    /**
+     * 直接实现的接口
+     */
+    private final String[] interfaces;
+    /**
+     * 类上直接标注的注解(包括RUNTIME及CLASS级别)
+     */
+    private final String[] annotations;
+
+    public ClassHeader(int access, String name, String superName, String[] interfaces, String[] annotations) {
+        this.access = access;
+        this.name = name;
+        this.superName = superName;
+        this.interfaces = interfaces;
+        this.annotations = annotations;
+    }
+
+    /**
+     * 从class字节码中读取类信息,读取后不关闭流
+     *
+     * @param in class文件流
+     * @return 类信息
+     * @throws IOException 非法的class文件或读取失败
+     */
+    public static ClassHeader read(InputStream in) throws IOException {
+        final DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        // minor_version, major_version
+        data.skipBytes(4);
+
+        final int count = data.readUnsignedShort();
+        final String[] utf8 = new String[count];
+        final int[] classes = new int[count];
+        for (int i = 1; i < count; i++) {
+            final int tag = data.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    utf8[i] = data.readUTF();
+                    break;
+                case 7:
+                    classes[i] = data.readUnsignedShort();
+                    break;
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    data.skipBytes(2);
+                    break;
+                case 15:
+                    data.skipBytes(3);
+                    break;
+                case 3:
+                case 4:
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    data.skipBytes(4);
+                    break;
+                case 5:
+                case 6:
+                    // long及double占用两个常量池位置
+                    data.skipBytes(8);
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag: " + tag);
+            }
+        }
+
+        final int access = data.readUnsignedShort();
+        final String name = className(utf8, classes, data.readUnsignedShort());
+        final String superName = className(utf8, classes, data.readUnsignedShort());
+        final String[] interfaces = new String[data.readUnsignedShort()];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaces[i] = className(utf8, classes, data.readUnsignedShort());
+        }
+
+        // fields及methods
+        for (int n = 0; n < 2; n++) {
+            int members = data.readUnsignedShort();
+            while (members-- > 0) {
+                data.skipBytes(6);
+                skipAttributes(data);
+            }
+        }
+
+        final List<String> annotations = new ArrayList<>();
+        int attributes = data.readUnsignedShort();
+        while (attributes-- > 0) {
+            final String attribute = utf8[data.readUnsignedShort()];
+            final int length = data.readInt();
+            if ("RuntimeVisibleAnnotations".equals(attribute) || "RuntimeInvisibleAnnotations".equals(attribute)) {
+                int num = data.readUnsignedShort();
+                while (num-- > 0) {
+                    annotations.add(readAnnotation(data, utf8));
+                }
+            } else {
+                skipFully(data, length);
+            }
+        }
+        return new ClassHeader(access, name, superName, interfaces, annotations.toArray(new String[0]));
+    }
+
+    private static String className(String[] utf8, int[] classes, int index) {
+        if (index == 0) {
+            return null;
+        }
+        return utf8[classes[index]].replace(Symbol.C_SLASH, Symbol.C_DOT);
+    }
+
+    private static String readAnnotation(DataInputStream data, String[] utf8) throws IOException {
+        // 类型描述符形如Lcom/example/Annotation;
+        final String descriptor = utf8[data.readUnsignedShort()];
+        int pairs = data.readUnsignedShort();
+        while (pairs-- > 0) {
+            data.skipBytes(2);
+            skipElementValue(data, utf8);
+        }
+        return descriptor.substring(1, descriptor.length() - 1).replace(Symbol.C_SLASH, Symbol.C_DOT);
+    }
+
+    private static void skipElementValue(DataInputStream data, String[] utf8) throws IOException {
+        final int tag = data.readUnsignedByte();
+        switch (tag) {
+            case 'e':
+                data.skipBytes(4);
+                break;
+            case '@':
+                readAnnotation(data, utf8);
+                break;
+            case '[':
+                int num = data.readUnsignedShort();
+                while (num-- > 0) {
+                    skipElementValue(data, utf8);
+                }
+                break;
+            default:
+                data.skipBytes(2);
+        }
+    }
+
+    private static void skipAttributes(DataInputStream data) throws IOException {
+        int attributes = data.readUnsignedShort();
+        while (attributes-- > 0) {
+            data.skipBytes(2);
+            skipFully(data, data.readInt());
+        }
+    }
+
+    private static void skipFully(DataInputStream data, int length) throws IOException {
+        while (length > 0) {
+            final int skipped = data.skipBytes(length);
+            if (skipped <= 0) {
+                throw new IOException("Unexpected end of class file");
+            }
+            length -= skipped;
+        }
+    }
+
+    public int getAccess() {
+        return access;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSuperName() {
+        return superName;
+    }
+
+    public String[] getInterfaces() {
+        return interfaces.clone();
+    }
+
+    public String[] getAnnotations() {
+        return annotations.clone();
+    }
+
+    /**
+     * 类上是否直接标注了指定注解,不包括从父类继承的注解
+     *
+     * @param annotationName 注解类名
+     * @return 是否标注
+     */
+    public boolean hasAnnotation(String annotationName) {
+        return ArrayKit.contains(annotations, annotationName);
+    }
+
+    /**
+     * 是否直接实现了指定接口
+     *
+     * @param interfaceName 接口类名
+     * @return 是否实现
+     */
+    public boolean hasInterface(String interfaceName) {
+        return ArrayKit.contains(interfaces, interfaceName);
+    }
+
+    public boolean isInterface() {
+        return (access & ACC_INTERFACE) != 0;
+    }
+
+    public boolean isAbstract() {
+        return (access & ACC_ABSTRACT) != 0;
+    }
+
+    public boolean isAnnotation() {
+        return (access & ACC_ANNOTATION) != 0;
+    }
+
+    public boolean isEnum() {
+        return (access & ACC_ENUM) != 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return name.equals(((ClassHeader) o).name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+}
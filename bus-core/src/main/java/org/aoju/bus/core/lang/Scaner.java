@@ -28,18 +28,39 @@ import org.aoju.bus.core.collection.EnumerationIter;
 import org.aoju.bus.core.lang.exception.InstrumentException;
 import org.aoju.bus.core.toolkit.*;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
 
 /**
  * 类扫描器
+ * <p>
+ * 除加载类后过滤外,还支持通过{@link #scan(Filter)}先读取class文件头({@link ClassHeader})过滤,
+ * 仅加载通过过滤的类;jar中的条目并行解析,解析结果可通过{@link #setIndexFile(File)}
+ * 持久化为索引文件,jar未变化(校验值一致)时直接复用
+ * </p>
  *
  * @author Kimi Liu
  * @version 6.0.2
@@ -75,8 +96,28 @@ public class Scaner {
      * 是否初始化类
      */
     private boolean initialize;
+    /**
+     * 索引文件,默认取系统属性bus.scaner.index
+     */
+    private File indexFile;
 
     private Set<Class<?>> classes = new HashSet<>();
+    /**
+     * 扫描到的类文件头,为null表示当前以加载类的方式扫描
+     */
+    private Map<String, ClassHeader> headers;
+    /**
+     * 已扫描的类文件头
+     */
+    private Set<ClassHeader> scannedHeaders;
+    /**
+     * 索引：jar路径及包路径 - 校验值及类文件头
+     */
+    private Map<String, Index> index;
+    /**
+     * 索引是否有变化
+     */
+    private boolean indexChanged;
 
     /**
      * 构造,默认UTF-8编码
@@ -119,6 +160,10 @@ public class Scaner {
         this.packagePath = packageName.replace(Symbol.C_DOT, Symbol.C_SLASH);
         this.classFilter = classFilter;
         this.charset = charset;
+        final String indexPath = java.lang.System.getProperty("bus.scaner.index");
+        if (StringKit.isNotBlank(indexPath)) {
+            this.indexFile = new File(indexPath);
+        }
     }
 
     /**
@@ -129,7 +174,13 @@ public class Scaner {
      * @return 类集合
      */
     public static Set<Class<?>> scanPackageByAnnotation(String packageName, final Class<? extends Annotation> annotationClass) {
-        return scanPackage(packageName, clazz -> clazz.isAnnotationPresent(annotationClass));
+        final Scaner scaner = new Scaner(packageName, clazz -> clazz.isAnnotationPresent(annotationClass));
+        if (annotationClass.isAnnotationPresent(Inherited.class)) {
+            // 可继承的注解无法仅通过类文件头判断
+            return scaner.scan();
+        }
+        final String annotationName = annotationClass.getName();
+        return scaner.scan(header -> header.hasAnnotation(annotationName));
     }
 
     /**
@@ -140,7 +191,48 @@ public class Scaner {
      * @return 类集合
      */
     public static Set<Class<?>> scanPackageBySuper(String packageName, final Class<?> superClass) {
-        return scanPackage(packageName, clazz -> superClass.isAssignableFrom(clazz) && !superClass.equals(clazz));
+        final Scaner scaner = new Scaner(packageName, clazz -> superClass.isAssignableFrom(clazz) && !superClass.equals(clazz));
+        final Map<String, ClassHeader> headers = new HashMap<>();
+        for (ClassHeader header : scaner.scanHeaders()) {
+            headers.put(header.getName(), header);
+        }
+        final String superName = superClass.getName();
+        return scaner.scan(header -> !superName.equals(header.getName())
+                && isAssignable(headers, header.getName(), superName, new HashSet<>()));
+    }
+
+    /**
+     * 根据已扫描的类文件头判断类是否可能为指定类型的子类,
+     * 继承链中出现扫描范围外的类时无法判断,视为可能,由加载后的过滤器确认
+     *
+     * @param headers 已扫描的类文件头
+     * @param name    类名
+     * @param target  父类或接口名
+     * @param visited 已检查的类
+     * @return 是否可能为子类
+     */
+    private static boolean isAssignable(Map<String, ClassHeader> headers, String name, String target, Set<String> visited) {
+        if (null == name || !visited.add(name)) {
+            return false;
+        }
+        if (target.equals(name)) {
+            return true;
+        }
+        final ClassHeader header = headers.get(name);
+        if (null == header) {
+            // JDK中的类不会继承JDK以外的类
+            return !Object.class.getName().equals(name)
+                    && !(name.startsWith("java.") && !target.startsWith("java."));
+        }
+        if (isAssignable(headers, header.getSuperName(), target, visited)) {
+            return true;
+        }
+        for (String interfaceName : header.getInterfaces()) {
+            if (isAssignable(headers, interfaceName, target, visited)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -199,6 +291,64 @@ public class Scaner {
         return Collections.unmodifiableSet(this.classes);
     }
 
+    /**
+     * 先通过类文件头过滤,仅加载满足条件的类,再经过类过滤器
+     *
+     * @param headerFilter 类文件头过滤器
+     * @return 类集合
+     */
+    public Set<Class<?>> scan(Filter<ClassHeader> headerFilter) {
+        for (ClassHeader header : scanHeaders()) {
+            if (null == headerFilter || headerFilter.accept(header)) {
+                addIfAccept(loadClass(header.getName()));
+            }
+        }
+        return Collections.unmodifiableSet(this.classes);
+    }
+
+    /**
+     * 扫描包路径下所有class文件头,不加载类
+     *
+     * @return 类文件头集合
+     */
+    public Set<ClassHeader> scanHeaders() {
+        if (null != this.scannedHeaders) {
+            return this.scannedHeaders;
+        }
+        this.headers = new ConcurrentHashMap<>();
+        try {
+            loadIndex();
+            for (URL url : FileKit.getResourceIter(this.packagePath)) {
+                switch (url.getProtocol()) {
+                    case "file":
+                        scanFile(new File(UriKit.decode(url.getFile(), this.charset.name())), null);
+                        break;
+                    case "jar":
+                        scanJar(UriKit.getJarFile(url));
+                        break;
+                }
+            }
+
+            if (this.headers.isEmpty()) {
+                scanJavaClassPaths();
+            }
+            storeIndex();
+            this.scannedHeaders = Collections.unmodifiableSet(new HashSet<>(this.headers.values()));
+        } finally {
+            this.headers = null;
+        }
+        return this.scannedHeaders;
+    }
+
+    /**
+     * 设置索引文件,jar的扫描结果会写入此文件,jar未变化时直接复用
+     *
+     * @param indexFile 索引文件,为null时不使用索引
+     */
+    public void setIndexFile(File indexFile) {
+        this.indexFile = indexFile;
+    }
+
     /**
      * 设置是否在扫描到类时初始化类
      *
@@ -237,8 +387,12 @@ public class Scaner {
                         // 8为classes长度,fileName.length() - 6为".class"的长度
                         .substring(rootDir.length(), fileName.length() - 6)
                         .replace(File.separatorChar, Symbol.C_DOT);
-                //加入满足条件的类
-                addIfAccept(className);
+                if (null != this.headers) {
+                    addHeader(className, file);
+                } else {
+                    //加入满足条件的类
+                    addIfAccept(className);
+                }
             } else if (fileName.endsWith(FileType.JAR)) {
                 try {
                     scanJar(new JarFile(file));
@@ -263,6 +417,10 @@ public class Scaner {
      * @param jar jar包
      */
     private void scanJar(JarFile jar) {
+        if (null != this.headers) {
+            scanJarHeaders(jar);
+            return;
+        }
         String name;
         for (JarEntry entry : new EnumerationIter<>(jar.entries())) {
             name = StringKit.removePrefix(entry.getName(), Symbol.SLASH);
@@ -277,6 +435,162 @@ public class Scaner {
         }
     }
 
+    /**
+     * 并行读取jar包中的类文件头,jar未变化时使用索引中的结果
+     *
+     * @param jar jar包
+     */
+    private void scanJarHeaders(JarFile jar) {
+        final List<JarEntry> entries = new ArrayList<>();
+        final CRC32 crc = new CRC32();
+        final File file = new File(jar.getName());
+        update(crc, file.length());
+        update(crc, file.lastModified());
+        for (JarEntry entry : new EnumerationIter<>(jar.entries())) {
+            // 中央目录中已记录各条目的CRC,无需解压即可得到jar的校验值
+            crc.update(entry.getName().getBytes(Charset.UTF_8));
+            update(crc, entry.getCrc());
+            final String name = StringKit.removePrefix(entry.getName(), Symbol.SLASH);
+            if (name.startsWith(this.packagePath) && name.endsWith(FileType.CLASS) && false == entry.isDirectory()) {
+                entries.add(entry);
+            }
+        }
+
+        final String key = file.getAbsolutePath() + Symbol.C_TAB + this.packagePath;
+        final String checksum = Long.toHexString(crc.getValue());
+        final Index cached = null == this.index ? null : this.index.get(key);
+        if (null != cached && checksum.equals(cached.checksum)) {
+            for (ClassHeader header : cached.headers) {
+                this.headers.put(header.getName(), header);
+            }
+            return;
+        }
+
+        final List<ClassHeader> list = entries.parallelStream()
+                .map(entry -> {
+                    final String name = StringKit.removePrefix(entry.getName(), Symbol.SLASH);
+                    final String className = name.substring(0, name.length() - 6).replace(Symbol.C_SLASH, Symbol.C_DOT);
+                    if (!accept(className)) {
+                        return null;
+                    }
+                    try (InputStream in = new BufferedInputStream(jar.getInputStream(entry))) {
+                        return ClassHeader.read(in);
+                    } catch (IOException e) {
+                        // 无法解析的class文件,跳过
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        for (ClassHeader header : list) {
+            this.headers.put(header.getName(), header);
+        }
+        if (null != this.index) {
+            this.index.put(key, new Index(checksum, list));
+            this.indexChanged = true;
+        }
+    }
+
+    private static void update(CRC32 crc, long value) {
+        for (int i = 0; i < 8; i++) {
+            crc.update((int) (value >>> (i << 3)));
+        }
+    }
+
+    /**
+     * 读取class文件头
+     *
+     * @param className 类名
+     * @param file      class文件
+     */
+    private void addHeader(String className, File file) {
+        if (!accept(className)) {
+            return;
+        }
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            final ClassHeader header = ClassHeader.read(in);
+            this.headers.put(header.getName(), header);
+        } catch (IOException e) {
+            // 无法解析的class文件,跳过
+        }
+    }
+
+    /**
+     * 读取索引文件,格式为：
+     * <pre>
+     * #jar路径\t包路径\t校验值
+     * 类名\t父类\t接口(逗号分隔)\t注解(逗号分隔)\t访问标志
+     * </pre>
+     */
+    private void loadIndex() {
+        if (null == this.indexFile) {
+            return;
+        }
+        this.index = new HashMap<>();
+        if (!this.indexFile.isFile()) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(this.indexFile.toPath(), Charset.UTF_8)) {
+            List<ClassHeader> list = null;
+            String line;
+            while (null != (line = reader.readLine())) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                final String[] parts = line.split(Symbol.TAB, -1);
+                if (line.charAt(0) == Symbol.C_SHAPE) {
+                    list = new ArrayList<>();
+                    this.index.put(parts[0].substring(1) + Symbol.C_TAB + parts[1], new Index(parts[2], list));
+                } else if (null != list && parts.length == 5) {
+                    list.add(new ClassHeader(Integer.parseInt(parts[4]), parts[0],
+                            parts[1].isEmpty() ? null : parts[1], split(parts[2]), split(parts[3])));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // 索引损坏时重新生成
+            this.index.clear();
+        }
+    }
+
+    /**
+     * 将索引写入文件,索引仅用于加速扫描,写入失败时忽略并删除未完成的文件
+     */
+    private void storeIndex() {
+        if (null == this.index || !this.indexChanged) {
+            return;
+        }
+        final File temp = new File(this.indexFile.getPath() + ".tmp");
+        try {
+            final File parent = this.indexFile.getAbsoluteFile().getParentFile();
+            if (null != parent) {
+                parent.mkdirs();
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(temp.toPath(), Charset.UTF_8)) {
+                for (Map.Entry<String, Index> entry : this.index.entrySet()) {
+                    writer.write(Symbol.C_SHAPE + entry.getKey() + Symbol.C_TAB + entry.getValue().checksum);
+                    writer.newLine();
+                    for (ClassHeader header : entry.getValue().headers) {
+                        writer.write(header.getName() + Symbol.C_TAB
+                                + StringKit.nullToEmpty(header.getSuperName()) + Symbol.C_TAB
+                                + String.join(Symbol.COMMA, header.getInterfaces()) + Symbol.C_TAB
+                                + String.join(Symbol.COMMA, header.getAnnotations()) + Symbol.C_TAB
+                                + header.getAccess());
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(temp.toPath(), this.indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            this.indexChanged = false;
+        } catch (IOException e) {
+            Console.error(e, "Store class index [{}] failed, ignored", this.indexFile);
+            temp.delete();
+        }
+    }
+
+    private static String[] split(String value) {
+        return value.isEmpty() ? new String[0] : value.split(Symbol.COMMA);
+    }
+
     /**
      * 加载类
      *
@@ -305,22 +619,31 @@ public class Scaner {
      * @return 是否接受
      */
     private void addIfAccept(String className) {
+        if (accept(className)) {
+            addIfAccept(loadClass(className));
+        }
+    }
+
+    /**
+     * 类名是否属于扫描的包
+     *
+     * @param className 类名
+     * @return 是否属于
+     */
+    private boolean accept(String className) {
         if (StringKit.isBlank(className)) {
-            return;
+            return false;
         }
         int classLen = className.length();
         int packageLen = this.packageName.length();
         if (classLen == packageLen) {
             //类名和包名长度一致,用户可能传入的包名是类名
-            if (className.equals(this.packageName)) {
-                addIfAccept(loadClass(className));
-            }
+            return className.equals(this.packageName);
         } else if (classLen > packageLen) {
             //检查类名是否以指定包名为前缀,包名后加.
-            if (className.startsWith(this.packageNameWithDot)) {
-                addIfAccept(loadClass(className));
-            }
+            return className.startsWith(this.packageNameWithDot);
         }
+        return false;
     }
 
     /**
@@ -352,4 +675,19 @@ public class Scaner {
         return StringKit.addSuffixIfNot(filePath, File.separator);
     }
 
+    /**
+     * 索引项
+     */
+    private static class Index {
+
+        private final String checksum;
+        private final List<ClassHeader> headers;
+
+        Index(String checksum, List<ClassHeader> headers) {
+            this.checksum = checksum;
+            this.headers = headers;
+        }
+
+    }
+
 }
@@ -25,15 +25,21 @@
 package org.aoju.bus.core.lang;
 
 import java.io.Serializable;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.WeakHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * 简单缓存,无超时实现,使用{@link WeakHashMap}实现缓存自动清理
+ * 简单缓存,无超时实现,键为弱引用,键被回收后缓存自动清理
+ * <p>
+ * 基于{@link ConcurrentHashMap}实现,读取无锁,
+ * {@link #get(Object, Func.Func0)}保证同一个键的值只创建一次
+ * </p>
  *
  * @param <K> 键类型
  * @param <V> 值类型
@@ -46,11 +52,11 @@ public class SimpleCache<K, V> implements Iterable<Map.Entry<K, V>>, Serializabl
     /**
      * 池
      */
-    private final Map<K, V> cache = new WeakHashMap<>();
-
-    private final ReentrantReadWriteLock cacheLock = new ReentrantReadWriteLock();
-    private final ReadLock readLock = cacheLock.readLock();
-    private final WriteLock writeLock = cacheLock.writeLock();
+    private final transient Map<Ref<K>, V> cache = new ConcurrentHashMap<>();
+    /**
+     * 已被回收的键
+     */
+    private final transient ReferenceQueue<K> queue = new ReferenceQueue<>();
 
     /**
      * 从缓存池中查找值
@@ -59,13 +65,22 @@ public class SimpleCache<K, V> implements Iterable<Map.Entry<K, V>>, Serializabl
      * @return 值
      */
     public V get(K key) {
-        // 尝试读取缓存
-        readLock.lock();
-        V value;
-        try {
-            value = cache.get(key);
-        } finally {
-            readLock.unlock();
+        return cache.get(new StrongKey<>(key));
+    }
+
+    /**
+     * 从缓存中获得对象,当对象不在缓存中时创建并放入缓存,
+     * 并发调用时同一个键只会创建一次
+     *
+     * @param key      键
+     * @param supplier 如果不存在回调方法,用于生产值对象
+     * @return 值对象
+     */
+    public V get(K key, Func.Func0<V> supplier) {
+        V value = cache.get(new StrongKey<>(key));
+        if (null == value && null != supplier) {
+            purge();
+            value = cache.computeIfAbsent(new WeakKey<>(key, queue), k -> supplier.callWithRuntimeException());
         }
         return value;
     }
@@ -78,12 +93,8 @@ public class SimpleCache<K, V> implements Iterable<Map.Entry<K, V>>, Serializabl
      * @return 值
      */
     public V put(K key, V value) {
-        writeLock.lock();
-        try {
-            cache.put(key, value);
-        } finally {
-            writeLock.unlock();
-        }
+        purge();
+        cache.put(new WeakKey<>(key, queue), value);
         return value;
     }
 
@@ -94,29 +105,176 @@ public class SimpleCache<K, V> implements Iterable<Map.Entry<K, V>>, Serializabl
      * @return 移除的值
      */
     public V remove(K key) {
-        writeLock.lock();
-        try {
-            return cache.remove(key);
-        } finally {
-            writeLock.unlock();
-        }
+        purge();
+        return cache.remove(new StrongKey<>(key));
     }
 
     /**
      * 清空缓存池
      */
     public void clear() {
-        writeLock.lock();
-        try {
-            this.cache.clear();
-        } finally {
-            writeLock.unlock();
-        }
+        this.cache.clear();
+        purge();
+    }
+
+    /**
+     * 缓存的键值对数量,包括键已被回收但尚未清理的
+     *
+     * @return 数量
+     */
+    public int size() {
+        return this.cache.size();
     }
 
     @Override
     public Iterator<Map.Entry<K, V>> iterator() {
-        return this.cache.entrySet().iterator();
+        final Iterator<Map.Entry<Ref<K>, V>> iterator = this.cache.entrySet().iterator();
+        return new Iterator<Map.Entry<K, V>>() {
+
+            private Map.Entry<K, V> next;
+
+            @Override
+            public boolean hasNext() {
+                while (null == next && iterator.hasNext()) {
+                    final Map.Entry<Ref<K>, V> entry = iterator.next();
+                    final K key = entry.getKey().get();
+                    // 跳过已被回收的键
+                    if (null != key || entry.getKey().isNull()) {
+                        next = new AbstractMap.SimpleImmutableEntry<>(key, entry.getValue());
+                    }
+                }
+                return null != next;
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+                if (false == hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final Map.Entry<K, V> result = next;
+                next = null;
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+            }
+        };
+    }
+
+    /**
+     * 清理键已被回收的缓存项
+     */
+    private void purge() {
+        Object ref;
+        while (null != (ref = queue.poll())) {
+            cache.remove(ref);
+        }
+    }
+
+    /**
+     * 键引用
+     *
+     * @param <K> 键类型
+     */
+    private interface Ref<K> {
+
+        K get();
+
+        /**
+         * 键本身是否为null
+         *
+         * @return 是否为null
+         */
+        boolean isNull();
+
+    }
+
+    /**
+     * 查找用的强引用键
+     *
+     * @param <K> 键类型
+     */
+    private static final class StrongKey<K> implements Ref<K> {
+
+        private final K key;
+        private final int hash;
+
+        StrongKey(K key) {
+            this.key = key;
+            this.hash = Objects.hashCode(key);
+        }
+
+        @Override
+        public K get() {
+            return key;
+        }
+
+        @Override
+        public boolean isNull() {
+            return null == key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof Ref && matches(key, (Ref<?>) o));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+    /**
+     * 存储用的弱引用键
+     *
+     * @param <K> 键类型
+     */
+    private static final class WeakKey<K> extends WeakReference<K> implements Ref<K> {
+
+        private final int hash;
+        private final boolean isNull;
+
+        WeakKey(K key, ReferenceQueue<K> queue) {
+            super(key, null == key ? null : queue);
+            this.hash = Objects.hashCode(key);
+            this.isNull = null == key;
+        }
+
+        @Override
+        public boolean isNull() {
+            return isNull;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Ref)) {
+                return false;
+            }
+            final K key = get();
+            // 已被回收的键只与自身相等
+            return (null != key || isNull) && matches(key, (Ref<?>) o);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+    private static boolean matches(Object key, Ref<?> other) {
+        final Object otherKey = other.get();
+        if (null == key) {
+            return null == otherKey && other.isNull();
+        }
+        return key.equals(otherKey);
     }
 
 }
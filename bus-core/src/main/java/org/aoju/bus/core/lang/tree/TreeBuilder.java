@@ -0,0 +1,226 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.lang.tree;
+
+import org.aoju.bus.core.builder.Builder;
+import org.aoju.bus.core.lang.Assert;
+import org.aoju.bus.core.lang.tree.parser.NodeParser;
+import org.aoju.bus.core.toolkit.ObjectKit;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 树构建器
+ * <p>
+ * 节点加入时即按父ID建立索引,不保留全部节点的列表,构建时逐层为节点挂载子节点,
+ * 每组兄弟节点只排序一次,整体复杂度与节点数量线性相关(不含排序)
+ * 支持最大深度配置,可选按层并行挂载子节点
+ * </p>
+ *
+ * @param <E> ID类型
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public class TreeBuilder<E> implements Builder<List<TreeMap<E>>> {
+
+    /**
+     * 并行处理时每层的最少节点数,节点较少时并行的开销大于收益
+     */
+    private static final int PARALLEL_THRESHOLD = 1024;
+
+    /**
+     * 最顶层父ID
+     */
+    private final E rootId;
+    /**
+     * 配置
+     */
+    private final TreeEntity treeEntity;
+    /**
+     * 按父ID索引的子节点
+     */
+    private final Map<E, List<TreeMap<E>>> childrenMap = new HashMap<>();
+    /**
+     * 是否并行挂载
+     */
+    private boolean parallel;
+    /**
+     * 是否已构建
+     */
+    private boolean built;
+
+    /**
+     * 构造
+     *
+     * @param rootId     最顶层父ID值,一般为 0 之类
+     * @param treeEntity 配置
+     */
+    public TreeBuilder(E rootId, TreeEntity treeEntity) {
+        Assert.notNull(rootId, "Root id must be not null !");
+        this.rootId = rootId;
+        this.treeEntity = ObjectKit.defaultIfNull(treeEntity, TreeEntity.DEFAULT);
+    }
+
+    /**
+     * 创建树构建器
+     *
+     * @param <E>    ID类型
+     * @param rootId 最顶层父ID值,一般为 0 之类
+     * @return this
+     */
+    public static <E> TreeBuilder<E> of(E rootId) {
+        return of(rootId, null);
+    }
+
+    /**
+     * 创建树构建器
+     *
+     * @param <E>        ID类型
+     * @param rootId     最顶层父ID值,一般为 0 之类
+     * @param treeEntity 配置
+     * @return this
+     */
+    public static <E> TreeBuilder<E> of(E rootId, TreeEntity treeEntity) {
+        return new TreeBuilder<>(rootId, treeEntity);
+    }
+
+    /**
+     * 设置是否并行挂载子节点,同一层节点较多时按层并行处理
+     *
+     * @param parallel 是否并行
+     * @return this
+     */
+    public TreeBuilder<E> setParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * 加入节点,父ID为{@code null}的节点无法挂载,直接忽略
+     *
+     * @param node 节点
+     * @return this
+     */
+    public TreeBuilder<E> append(TreeMap<E> node) {
+        checkBuilt();
+        final E parentId = node.getParentId();
+        if (null != parentId) {
+            childrenMap.computeIfAbsent(parentId, key -> new ArrayList<>()).add(node);
+        }
+        return this;
+    }
+
+    /**
+     * 加入节点
+     *
+     * @param <T>        源数据类型
+     * @param objects    源数据,可以是逐条读取的数据
+     * @param nodeParser 转换器
+     * @return this
+     */
+    public <T> TreeBuilder<E> append(Iterable<T> objects, NodeParser<T, E> nodeParser) {
+        for (T object : objects) {
+            final TreeMap<E> node = new TreeMap<>(this.treeEntity);
+            nodeParser.parse(object, node);
+            append(node);
+        }
+        return this;
+    }
+
+    /**
+     * 构建树,构建器只能构建一次
+     *
+     * @return 顶层节点列表
+     */
+    @Override
+    public List<TreeMap<E>> build() {
+        checkBuilt();
+        this.built = true;
+
+        final List<TreeMap<E>> roots = childrenMap.remove(this.rootId);
+        if (null == roots) {
+            return new ArrayList<>();
+        }
+        roots.sort(null);
+
+        // 并行时每组子节点只能被一个线程取走
+        final Map<E, List<TreeMap<E>>> index = this.parallel ? new ConcurrentHashMap<>(childrenMap) : childrenMap;
+        final Integer maxDeep = this.treeEntity.getDeep();
+        List<TreeMap<E>> level = roots;
+        for (int deep = 0; false == level.isEmpty() && (null == maxDeep || deep < maxDeep); deep++) {
+            if (this.parallel && level.size() >= PARALLEL_THRESHOLD) {
+                level = level.parallelStream()
+                        .map(node -> mount(index, node))
+                        .filter(Objects::nonNull)
+                        .flatMap(List::stream)
+                        .collect(Collectors.toList());
+            } else {
+                final List<TreeMap<E>> next = new ArrayList<>();
+                for (TreeMap<E> node : level) {
+                    final List<TreeMap<E>> children = mount(index, node);
+                    if (null != children) {
+                        next.addAll(children);
+                    }
+                }
+                level = next;
+            }
+        }
+        this.childrenMap.clear();
+        return roots;
+    }
+
+    /**
+     * 为节点挂载子节点,每组子节点只挂载一次,避免ID重复或成环时无限循环
+     *
+     * @param index 子节点索引
+     * @param node  节点
+     * @return 挂载的子节点, 无子节点返回{@code null}
+     */
+    private List<TreeMap<E>> mount(Map<E, List<TreeMap<E>>> index, TreeMap<E> node) {
+        final E id = node.getId();
+        if (null == id) {
+            return null;
+        }
+        final List<TreeMap<E>> children = index.remove(id);
+        if (null == children) {
+            return null;
+        }
+        // 兄弟节点排序 TreeMap 实现了Comparable接口
+        children.sort(null);
+        node.setChildren(children);
+        for (TreeMap<E> child : children) {
+            child.setParent(node);
+        }
+        return children;
+    }
+
+    private void checkBuilt() {
+        Assert.isFalse(this.built, "Current tree has been built.");
+    }
+
+}
@@ -0,0 +1,248 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.sketch;
+
+import org.aoju.bus.core.lang.exception.InstrumentException;
+import org.aoju.bus.core.toolkit.StringKit;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * 概率数据结构的基础实现
+ * <p>
+ * 数据保存在{@link ByteBuffer}中,可选择堆内或堆外(direct)内存,
+ * 参数相同的实例可以合并,序列化格式为:类型标识(int) + 参数 + 数据长度(int) + 数据
+ * 写入、合并和序列化方法在实例上同步,合并时按固定顺序获取两个实例的锁
+ * </p>
+ *
+ * @param <T> 具体类型
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public abstract class AbstractSketch<T extends AbstractSketch<T>> {
+
+    /**
+     * 序列化时每次复制的字节数
+     */
+    private static final int COPY_SIZE = 8192;
+    /**
+     * 两个实例的identityHashCode相同时,合并前先获取此锁
+     */
+    private static final Object TIE_LOCK = new Object();
+
+    /**
+     * 数据
+     */
+    protected final ByteBuffer buffer;
+
+    /**
+     * 构造
+     *
+     * @param buffer 数据
+     */
+    protected AbstractSketch(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * 分配数据空间
+     *
+     * @param size   字节数
+     * @param direct 是否使用堆外内存
+     * @return 数据空间
+     */
+    protected static ByteBuffer allocate(long size, boolean direct) {
+        if (size <= 0 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Sketch size must be between 1 and " + Integer.MAX_VALUE + " bytes, but was " + size);
+        }
+        return direct ? ByteBuffer.allocateDirect((int) size) : ByteBuffer.allocate((int) size);
+    }
+
+    /**
+     * 读取并校验类型标识
+     *
+     * @param in    输入
+     * @param magic 类型标识
+     * @throws IOException IO异常
+     */
+    protected static void readMagic(DataInput in, int magic) throws IOException {
+        final int actual = in.readInt();
+        if (actual != magic) {
+            throw new InstrumentException(StringKit.format("Invalid sketch type: {}, expected: {}",
+                    Integer.toHexString(actual), Integer.toHexString(magic)));
+        }
+    }
+
+    /**
+     * 校验读取的参数
+     *
+     * @param valid 参数是否合法
+     * @param name  参数名
+     * @param value 参数值
+     */
+    protected static void checkHeader(boolean valid, String name, Object value) {
+        if (false == valid) {
+            throw new InstrumentException(StringKit.format("Invalid sketch header, {}: {}", name, value));
+        }
+    }
+
+    /**
+     * 读取数据,数据长度需与参数计算出的长度一致
+     *
+     * @param in       输入
+     * @param expected 参数计算出的数据长度
+     * @param direct   是否使用堆外内存
+     * @return 数据
+     * @throws IOException IO异常
+     */
+    protected static ByteBuffer readBuffer(DataInput in, long expected, boolean direct) throws IOException {
+        final int size = in.readInt();
+        checkHeader(size == expected, "data length", size);
+        final ByteBuffer buffer = allocate(size, direct);
+        final byte[] bytes = new byte[Math.min(COPY_SIZE, buffer.capacity())];
+        while (buffer.hasRemaining()) {
+            final int length = Math.min(bytes.length, buffer.remaining());
+            in.readFully(bytes, 0, length);
+            buffer.put(bytes, 0, length);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * 是否使用堆外内存
+     *
+     * @return 是否使用堆外内存
+     */
+    public boolean isDirect() {
+        return this.buffer.isDirect();
+    }
+
+    /**
+     * 占用的字节数
+     *
+     * @return 字节数
+     */
+    public int byteSize() {
+        return this.buffer.capacity();
+    }
+
+    /**
+     * 合并另一个参数相同的实例,合并后的结果等同于两者的数据都写入当前实例
+     *
+     * @param other 另一个实例
+     * @throws IllegalArgumentException 参数不同
+     */
+    public void merge(T other) {
+        if (this == other) {
+            return;
+        }
+        if (false == isCompatible(other)) {
+            throw new IllegalArgumentException("Cannot merge sketches with different parameters");
+        }
+        // 按identityHashCode顺序加锁,避免a.merge(b)与b.merge(a)并发时死锁
+        final int hash = System.identityHashCode(this);
+        final int otherHash = System.identityHashCode(other);
+        if (hash < otherHash) {
+            synchronized (this) {
+                synchronized (other) {
+                    doMerge(other);
+                }
+            }
+        } else if (hash > otherHash) {
+            synchronized (other) {
+                synchronized (this) {
+                    doMerge(other);
+                }
+            }
+        } else {
+            synchronized (TIE_LOCK) {
+                synchronized (this) {
+                    synchronized (other) {
+                        doMerge(other);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 序列化,调用方负责关闭流
+     *
+     * @param out 输出流
+     */
+    public synchronized void write(OutputStream out) {
+        try {
+            final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+            data.writeInt(magic());
+            writeParams(data);
+            data.writeInt(this.buffer.capacity());
+            final ByteBuffer source = this.buffer.duplicate();
+            source.clear();
+            final byte[] bytes = new byte[Math.min(COPY_SIZE, source.capacity())];
+            while (source.hasRemaining()) {
+                final int length = Math.min(bytes.length, source.remaining());
+                source.get(bytes, 0, length);
+                data.write(bytes, 0, length);
+            }
+            data.flush();
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    /**
+     * 类型标识
+     *
+     * @return 类型标识
+     */
+    protected abstract int magic();
+
+    /**
+     * 写出参数
+     *
+     * @param out 输出
+     * @throws IOException IO异常
+     */
+    protected abstract void writeParams(DataOutput out) throws IOException;
+
+    /**
+     * 参数是否相同
+     *
+     * @param other 另一个实例
+     * @return 是否相同
+     */
+    protected abstract boolean isCompatible(T other);
+
+    /**
+     * 合并数据,调用时已持有两个实例的锁
+     *
+     * @param other 另一个实例
+     */
+    protected abstract void doMerge(T other);
+
+}
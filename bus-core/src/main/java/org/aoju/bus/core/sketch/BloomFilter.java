@@ -0,0 +1,275 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.sketch;
+
+import org.aoju.bus.core.lang.Murmur;
+import org.aoju.bus.core.lang.exception.InstrumentException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * 布隆过滤器
+ * <p>
+ * 判断元素是否可能存在:返回false时一定不存在,返回true时可能存在,误判率由容量和期望误判率决定
+ * 以Murmur3 128位Hash的两部分组合出多个位置(Kirsch-Mitzenmacher),写入同步,
+ * 判断不加锁,位只会被置位,并发判断不会产生误判以外的错误
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public class BloomFilter extends AbstractSketch<BloomFilter> {
+
+    private static final int MAGIC = 0x424c4f4d;
+
+    /**
+     * 位数,为64的倍数
+     */
+    private final long bitSize;
+    /**
+     * Hash函数个数
+     */
+    private final int hashCount;
+
+    /**
+     * 构造,使用堆内存
+     *
+     * @param expected 预期元素个数
+     * @param fpp      期望误判率,(0, 1)
+     */
+    public BloomFilter(long expected, double fpp) {
+        this(expected, fpp, false);
+    }
+
+    /**
+     * 构造
+     *
+     * @param expected 预期元素个数
+     * @param fpp      期望误判率,(0, 1)
+     * @param direct   是否使用堆外内存
+     */
+    public BloomFilter(long expected, double fpp, boolean direct) {
+        this(optimalBitSize(expected, fpp), optimalHashCount(expected, optimalBitSize(expected, fpp)), direct);
+    }
+
+    private BloomFilter(long bitSize, int hashCount, boolean direct) {
+        this(bitSize, hashCount, allocate(bitSize >>> 3, direct));
+    }
+
+    private BloomFilter(long bitSize, int hashCount, ByteBuffer buffer) {
+        super(buffer);
+        this.bitSize = bitSize;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * 反序列化{@link #write(OutputStream)}写出的数据,使用堆内存,调用方负责关闭流
+     *
+     * @param in 输入流
+     * @return 布隆过滤器
+     */
+    public static BloomFilter read(InputStream in) {
+        return read(in, false);
+    }
+
+    /**
+     * 反序列化{@link #write(OutputStream)}写出的数据,调用方负责关闭流
+     *
+     * @param in     输入流
+     * @param direct 是否使用堆外内存
+     * @return 布隆过滤器
+     */
+    public static BloomFilter read(InputStream in, boolean direct) {
+        try {
+            final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+            readMagic(data, MAGIC);
+            final long bitSize = data.readLong();
+            checkHeader(bitSize > 0 && (bitSize & 63) == 0, "bitSize", bitSize);
+            final int hashCount = data.readInt();
+            checkHeader(hashCount > 0, "hashCount", hashCount);
+            return new BloomFilter(bitSize, hashCount, readBuffer(data, bitSize >>> 3, direct));
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    /**
+     * 计算位数,向上取整到64的倍数
+     *
+     * @param expected 预期元素个数
+     * @param fpp      期望误判率
+     * @return 位数
+     */
+    static long optimalBitSize(long expected, double fpp) {
+        if (expected <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be greater than 0");
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("False positive probability must be between 0 and 1");
+        }
+        final long bits = (long) Math.ceil(-expected * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        return Math.max(64, (bits + 63) & ~63L);
+    }
+
+    /**
+     * 计算Hash函数个数
+     *
+     * @param expected 预期元素个数
+     * @param bitSize  位数
+     * @return 个数
+     */
+    static int optimalHashCount(long expected, long bitSize) {
+        return Math.max(1, (int) Math.round((double) bitSize / expected * Math.log(2)));
+    }
+
+    /**
+     * 加入元素
+     *
+     * @param value 元素
+     * @return 是否有位被改变, false表示元素可能已存在
+     */
+    public boolean add(CharSequence value) {
+        return add(Murmur.hash128(value));
+    }
+
+    /**
+     * 加入元素
+     *
+     * @param value 元素
+     * @return 是否有位被改变, false表示元素可能已存在
+     */
+    public boolean add(byte[] value) {
+        return add(Murmur.hash128(value));
+    }
+
+    /**
+     * 元素是否可能存在
+     *
+     * @param value 元素
+     * @return false表示一定不存在
+     */
+    public boolean contains(CharSequence value) {
+        return contains(Murmur.hash128(value));
+    }
+
+    /**
+     * 元素是否可能存在
+     *
+     * @param value 元素
+     * @return false表示一定不存在
+     */
+    public boolean contains(byte[] value) {
+        return contains(Murmur.hash128(value));
+    }
+
+    /**
+     * 位数
+     *
+     * @return 位数
+     */
+    public long bitSize() {
+        return this.bitSize;
+    }
+
+    /**
+     * Hash函数个数
+     *
+     * @return 个数
+     */
+    public int hashCount() {
+        return this.hashCount;
+    }
+
+    /**
+     * 按已置位的位数估算加入的不同元素个数
+     *
+     * @return 元素个数
+     */
+    public synchronized long approximateCount() {
+        long bitCount = 0;
+        for (int i = 0; i < this.buffer.capacity(); i += 8) {
+            bitCount += Long.bitCount(this.buffer.getLong(i));
+        }
+        if (bitCount == this.bitSize) {
+            return Long.MAX_VALUE;
+        }
+        return Math.round(-Math.log1p(-(double) bitCount / this.bitSize) * this.bitSize / this.hashCount);
+    }
+
+    private synchronized boolean add(long[] hash) {
+        boolean changed = false;
+        long combined = hash[0];
+        for (int i = 0; i < this.hashCount; i++) {
+            final long bit = (combined & Long.MAX_VALUE) % this.bitSize;
+            final int index = (int) (bit >>> 6) << 3;
+            final long word = this.buffer.getLong(index);
+            final long mask = 1L << bit;
+            if ((word & mask) == 0) {
+                this.buffer.putLong(index, word | mask);
+                changed = true;
+            }
+            combined += hash[1];
+        }
+        return changed;
+    }
+
+    private boolean contains(long[] hash) {
+        long combined = hash[0];
+        for (int i = 0; i < this.hashCount; i++) {
+            final long bit = (combined & Long.MAX_VALUE) % this.bitSize;
+            if ((this.buffer.getLong((int) (bit >>> 6) << 3) & (1L << bit)) == 0) {
+                return false;
+            }
+            combined += hash[1];
+        }
+        return true;
+    }
+
+    @Override
+    protected int magic() {
+        return MAGIC;
+    }
+
+    @Override
+    protected void writeParams(DataOutput out) throws IOException {
+        out.writeLong(this.bitSize);
+        out.writeInt(this.hashCount);
+    }
+
+    @Override
+    protected boolean isCompatible(BloomFilter other) {
+        return this.bitSize == other.bitSize && this.hashCount == other.hashCount;
+    }
+
+    @Override
+    protected void doMerge(BloomFilter other) {
+        for (int i = 0; i < this.buffer.capacity(); i += 8) {
+            this.buffer.putLong(i, this.buffer.getLong(i) | other.buffer.getLong(i));
+        }
+    }
+
+}
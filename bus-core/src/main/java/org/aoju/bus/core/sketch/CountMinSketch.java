@@ -0,0 +1,267 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.sketch;
+
+import org.aoju.bus.core.lang.Murmur;
+import org.aoju.bus.core.lang.exception.InstrumentException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * Count-Min Sketch频率估算
+ * <p>
+ * 以固定的内存估算元素出现的次数,估算值不小于真实值,
+ * 以概率1-delta保证高估不超过epsilon乘以总次数
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public class CountMinSketch extends AbstractSketch<CountMinSketch> {
+
+    private static final int MAGIC = 0x434d534b;
+
+    /**
+     * 行数,即Hash函数个数
+     */
+    private final int depth;
+    /**
+     * 每行的计数器个数
+     */
+    private final int width;
+    /**
+     * 总次数
+     */
+    private long totalCount;
+
+    /**
+     * 构造,使用堆内存
+     *
+     * @param epsilon 相对总次数的误差,(0, 1)
+     * @param delta   误差超出的概率,(0, 1)
+     */
+    public CountMinSketch(double epsilon, double delta) {
+        this(epsilon, delta, false);
+    }
+
+    /**
+     * 构造
+     *
+     * @param epsilon 相对总次数的误差,(0, 1)
+     * @param delta   误差超出的概率,(0, 1)
+     * @param direct  是否使用堆外内存
+     */
+    public CountMinSketch(double epsilon, double delta, boolean direct) {
+        this(depth(delta), width(epsilon), direct);
+    }
+
+    /**
+     * 构造
+     *
+     * @param depth  行数
+     * @param width  每行的计数器个数
+     * @param direct 是否使用堆外内存
+     */
+    public CountMinSketch(int depth, int width, boolean direct) {
+        this(depth, width, 0, allocate(8L * depth * width, direct));
+    }
+
+    private CountMinSketch(int depth, int width, long totalCount, ByteBuffer buffer) {
+        super(buffer);
+        if (depth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("Depth and width must be greater than 0");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.totalCount = totalCount;
+    }
+
+    /**
+     * 反序列化{@link #write(OutputStream)}写出的数据,使用堆内存,调用方负责关闭流
+     *
+     * @param in 输入流
+     * @return Count-Min Sketch
+     */
+    public static CountMinSketch read(InputStream in) {
+        return read(in, false);
+    }
+
+    /**
+     * 反序列化{@link #write(OutputStream)}写出的数据,调用方负责关闭流
+     *
+     * @param in     输入流
+     * @param direct 是否使用堆外内存
+     * @return Count-Min Sketch
+     */
+    public static CountMinSketch read(InputStream in, boolean direct) {
+        try {
+            final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+            readMagic(data, MAGIC);
+            final int depth = data.readInt();
+            checkHeader(depth > 0, "depth", depth);
+            final int width = data.readInt();
+            checkHeader(width > 0, "width", width);
+            final long totalCount = data.readLong();
+            checkHeader(totalCount >= 0, "totalCount", totalCount);
+            return new CountMinSketch(depth, width, totalCount, readBuffer(data, 8L * depth * width, direct));
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    private static int depth(double delta) {
+        if (delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("Delta must be between 0 and 1");
+        }
+        return (int) Math.ceil(Math.log(1 / delta));
+    }
+
+    private static int width(double epsilon) {
+        if (epsilon <= 0 || epsilon >= 1) {
+            throw new IllegalArgumentException("Epsilon must be between 0 and 1");
+        }
+        return (int) Math.ceil(Math.E / epsilon);
+    }
+
+    /**
+     * 元素出现一次
+     *
+     * @param value 元素
+     */
+    public void add(CharSequence value) {
+        add(Murmur.hash128(value), 1);
+    }
+
+    /**
+     * 元素出现多次
+     *
+     * @param value 元素
+     * @param count 次数,不小于0
+     */
+    public void add(CharSequence value, long count) {
+        add(Murmur.hash128(value), count);
+    }
+
+    /**
+     * 元素出现多次
+     *
+     * @param value 元素
+     * @param count 次数,不小于0
+     */
+    public void add(byte[] value, long count) {
+        add(Murmur.hash128(value), count);
+    }
+
+    /**
+     * 估算元素出现的次数
+     *
+     * @param value 元素
+     * @return 次数, 不小于真实值
+     */
+    public long estimate(CharSequence value) {
+        return estimate(Murmur.hash128(value));
+    }
+
+    /**
+     * 估算元素出现的次数
+     *
+     * @param value 元素
+     * @return 次数, 不小于真实值
+     */
+    public long estimate(byte[] value) {
+        return estimate(Murmur.hash128(value));
+    }
+
+    /**
+     * 总次数
+     *
+     * @return 总次数
+     */
+    public synchronized long totalCount() {
+        return this.totalCount;
+    }
+
+    private synchronized void add(long[] hash, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative");
+        }
+        long combined = hash[0];
+        for (int i = 0; i < this.depth; i++) {
+            final int index = index(i, combined);
+            this.buffer.putLong(index, this.buffer.getLong(index) + count);
+            combined += hash[1];
+        }
+        this.totalCount += count;
+    }
+
+    private synchronized long estimate(long[] hash) {
+        long result = Long.MAX_VALUE;
+        long combined = hash[0];
+        for (int i = 0; i < this.depth; i++) {
+            result = Math.min(result, this.buffer.getLong(index(i, combined)));
+            combined += hash[1];
+        }
+        return result;
+    }
+
+    /**
+     * 计数器在数据中的字节位置
+     *
+     * @param row  行
+     * @param hash Hash值
+     * @return 字节位置
+     */
+    private int index(int row, long hash) {
+        return (row * this.width + (int) ((hash & Long.MAX_VALUE) % this.width)) << 3;
+    }
+
+    @Override
+    protected int magic() {
+        return MAGIC;
+    }
+
+    @Override
+    protected void writeParams(DataOutput out) throws IOException {
+        out.writeInt(this.depth);
+        out.writeInt(this.width);
+        out.writeLong(this.totalCount);
+    }
+
+    @Override
+    protected boolean isCompatible(CountMinSketch other) {
+        return this.depth == other.depth && this.width == other.width;
+    }
+
+    @Override
+    protected void doMerge(CountMinSketch other) {
+        for (int i = 0; i < this.buffer.capacity(); i += 8) {
+            this.buffer.putLong(i, this.buffer.getLong(i) + other.buffer.getLong(i));
+        }
+        this.totalCount += other.totalCount;
+    }
+
+}
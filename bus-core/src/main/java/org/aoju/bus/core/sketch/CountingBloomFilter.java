@@ -0,0 +1,258 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.sketch;
+
+import org.aoju.bus.core.lang.Murmur;
+import org.aoju.bus.core.lang.exception.InstrumentException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * 计数布隆过滤器
+ * <p>
+ * 以4位计数器代替布隆过滤器的位,支持删除元素,内存占用为同等布隆过滤器的4倍
+ * 计数器达到上限15后不再增减,避免删除导致误判为不存在
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public class CountingBloomFilter extends AbstractSketch<CountingBloomFilter> {
+
+    private static final int MAGIC = 0x43424c4d;
+    /**
+     * 计数器上限
+     */
+    private static final int MAX_COUNT = 15;
+
+    /**
+     * 计数器个数,为16的倍数
+     */
+    private final long counterSize;
+    /**
+     * Hash函数个数
+     */
+    private final int hashCount;
+
+    /**
+     * 构造,使用堆内存
+     *
+     * @param expected 预期元素个数
+     * @param fpp      期望误判率,(0, 1)
+     */
+    public CountingBloomFilter(long expected, double fpp) {
+        this(expected, fpp, false);
+    }
+
+    /**
+     * 构造
+     *
+     * @param expected 预期元素个数
+     * @param fpp      期望误判率,(0, 1)
+     * @param direct   是否使用堆外内存
+     */
+    public CountingBloomFilter(long expected, double fpp, boolean direct) {
+        this(BloomFilter.optimalBitSize(expected, fpp),
+                BloomFilter.optimalHashCount(expected, BloomFilter.optimalBitSize(expected, fpp)), direct);
+    }
+
+    private CountingBloomFilter(long counterSize, int hashCount, boolean direct) {
+        this(counterSize, hashCount, allocate(counterSize >>> 1, direct));
+    }
+
+    private CountingBloomFilter(long counterSize, int hashCount, ByteBuffer buffer) {
+        super(buffer);
+        this.counterSize = counterSize;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * 反序列化{@link #write(OutputStream)}写出的数据,使用堆内存,调用方负责关闭流
+     *
+     * @param in 输入流
+     * @return 计数布隆过滤器
+     */
+    public static CountingBloomFilter read(InputStream in) {
+        return read(in, false);
+    }
+
+    /**
+     * 反序列化{@link #write(OutputStream)}写出的数据,调用方负责关闭流
+     *
+     * @param in     输入流
+     * @param direct 是否使用堆外内存
+     * @return 计数布隆过滤器
+     */
+    public static CountingBloomFilter read(InputStream in, boolean direct) {
+        try {
+            final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+            readMagic(data, MAGIC);
+            final long counterSize = data.readLong();
+            checkHeader(counterSize > 0 && (counterSize & 15) == 0, "counterSize", counterSize);
+            final int hashCount = data.readInt();
+            checkHeader(hashCount > 0, "hashCount", hashCount);
+            return new CountingBloomFilter(counterSize, hashCount, readBuffer(data, counterSize >>> 1, direct));
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    /**
+     * 加入元素
+     *
+     * @param value 元素
+     */
+    public void add(CharSequence value) {
+        add(Murmur.hash128(value));
+    }
+
+    /**
+     * 加入元素
+     *
+     * @param value 元素
+     */
+    public void add(byte[] value) {
+        add(Murmur.hash128(value));
+    }
+
+    /**
+     * 删除元素,只应删除加入过的元素
+     *
+     * @param value 元素
+     * @return 元素可能存在并已删除返回true, 一定不存在返回false
+     */
+    public boolean remove(CharSequence value) {
+        return remove(Murmur.hash128(value));
+    }
+
+    /**
+     * 删除元素,只应删除加入过的元素
+     *
+     * @param value 元素
+     * @return 元素可能存在并已删除返回true, 一定不存在返回false
+     */
+    public boolean remove(byte[] value) {
+        return remove(Murmur.hash128(value));
+    }
+
+    /**
+     * 元素是否可能存在
+     *
+     * @param value 元素
+     * @return false表示一定不存在
+     */
+    public boolean contains(CharSequence value) {
+        return contains(Murmur.hash128(value));
+    }
+
+    /**
+     * 元素是否可能存在
+     *
+     * @param value 元素
+     * @return false表示一定不存在
+     */
+    public boolean contains(byte[] value) {
+        return contains(Murmur.hash128(value));
+    }
+
+    private synchronized void add(long[] hash) {
+        long combined = hash[0];
+        for (int i = 0; i < this.hashCount; i++) {
+            final long counter = (combined & Long.MAX_VALUE) % this.counterSize;
+            final int count = get(counter);
+            if (count < MAX_COUNT) {
+                set(counter, count + 1);
+            }
+            combined += hash[1];
+        }
+    }
+
+    private synchronized boolean remove(long[] hash) {
+        if (false == contains(hash)) {
+            return false;
+        }
+        long combined = hash[0];
+        for (int i = 0; i < this.hashCount; i++) {
+            final long counter = (combined & Long.MAX_VALUE) % this.counterSize;
+            final int count = get(counter);
+            if (count < MAX_COUNT) {
+                set(counter, count - 1);
+            }
+            combined += hash[1];
+        }
+        return true;
+    }
+
+    private synchronized boolean contains(long[] hash) {
+        long combined = hash[0];
+        for (int i = 0; i < this.hashCount; i++) {
+            if (get((combined & Long.MAX_VALUE) % this.counterSize) == 0) {
+                return false;
+            }
+            combined += hash[1];
+        }
+        return true;
+    }
+
+    private int get(long counter) {
+        return (int) (this.buffer.getLong((int) (counter >>> 4) << 3) >>> ((counter & 15) << 2)) & MAX_COUNT;
+    }
+
+    private void set(long counter, int count) {
+        final int index = (int) (counter >>> 4) << 3;
+        final long shift = (counter & 15) << 2;
+        final long word = this.buffer.getLong(index) & ~((long) MAX_COUNT << shift);
+        this.buffer.putLong(index, word | ((long) count << shift));
+    }
+
+    @Override
+    protected int magic() {
+        return MAGIC;
+    }
+
+    @Override
+    protected void writeParams(DataOutput out) throws IOException {
+        out.writeLong(this.counterSize);
+        out.writeInt(this.hashCount);
+    }
+
+    @Override
+    protected boolean isCompatible(CountingBloomFilter other) {
+        return this.counterSize == other.counterSize && this.hashCount == other.hashCount;
+    }
+
+    @Override
+    protected void doMerge(CountingBloomFilter other) {
+        for (long i = 0; i < this.counterSize; i++) {
+            final int count = other.get(i);
+            if (count > 0) {
+                set(i, Math.min(MAX_COUNT, get(i) + count));
+            }
+        }
+    }
+
+}
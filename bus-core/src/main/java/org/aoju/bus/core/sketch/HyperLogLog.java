@@ -0,0 +1,223 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.sketch;
+
+import org.aoju.bus.core.lang.Murmur;
+import org.aoju.bus.core.lang.exception.InstrumentException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * HyperLogLog基数估算
+ * <p>
+ * 以固定的内存估算不同元素的个数,精度p对应2^p个寄存器,标准误差约为1.04/sqrt(2^p),
+ * 如p=14时占用16KB,误差约0.8%,基数较小时使用线性计数修正
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public class HyperLogLog extends AbstractSketch<HyperLogLog> {
+
+    private static final int MAGIC = 0x48594c4c;
+
+    /**
+     * 精度,寄存器个数为2^precision
+     */
+    private final int precision;
+
+    /**
+     * 构造,使用堆内存
+     *
+     * @param precision 精度,[4, 18]
+     */
+    public HyperLogLog(int precision) {
+        this(precision, false);
+    }
+
+    /**
+     * 构造
+     *
+     * @param precision 精度,[4, 18]
+     * @param direct    是否使用堆外内存
+     */
+    public HyperLogLog(int precision, boolean direct) {
+        this(checkPrecision(precision), allocate(1L << precision, direct));
+    }
+
+    private HyperLogLog(int precision, ByteBuffer buffer) {
+        super(buffer);
+        this.precision = precision;
+    }
+
+    /**
+     * 反序列化{@link #write(OutputStream)}写出的数据,使用堆内存,调用方负责关闭流
+     *
+     * @param in 输入流
+     * @return HyperLogLog
+     */
+    public static HyperLogLog read(InputStream in) {
+        return read(in, false);
+    }
+
+    /**
+     * 反序列化{@link #write(OutputStream)}写出的数据,调用方负责关闭流
+     *
+     * @param in     输入流
+     * @param direct 是否使用堆外内存
+     * @return HyperLogLog
+     */
+    public static HyperLogLog read(InputStream in, boolean direct) {
+        try {
+            final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+            readMagic(data, MAGIC);
+            final int precision = checkPrecision(data.readInt());
+            return new HyperLogLog(precision, readBuffer(data, 1L << precision, direct));
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    private static int checkPrecision(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision must be between 4 and 18, but was " + precision);
+        }
+        return precision;
+    }
+
+    /**
+     * 加入元素
+     *
+     * @param value 元素
+     */
+    public void add(CharSequence value) {
+        addHash(Murmur.hash64(value));
+    }
+
+    /**
+     * 加入元素
+     *
+     * @param value 元素
+     */
+    public void add(byte[] value) {
+        addHash(Murmur.hash64(value));
+    }
+
+    /**
+     * 加入元素
+     *
+     * @param value 元素
+     */
+    public void add(long value) {
+        // Murmur3的fmix64,将连续的数值打散
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        addHash(value);
+    }
+
+    /**
+     * 估算不同元素的个数
+     *
+     * @return 个数
+     */
+    public synchronized long cardinality() {
+        final int count = 1 << this.precision;
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < count; i++) {
+            final int register = this.buffer.get(i);
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        final double estimate = alpha(count) * count * count / sum;
+        if (estimate <= 2.5 * count && zeros > 0) {
+            return Math.round(count * Math.log((double) count / zeros));
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * 精度
+     *
+     * @return 精度
+     */
+    public int precision() {
+        return this.precision;
+    }
+
+    private synchronized void addHash(long hash) {
+        final int index = (int) (hash >>> (64 - this.precision));
+        // 末位补1,保证余下的位全为0时排名有上限
+        final int rank = Long.numberOfLeadingZeros((hash << this.precision) | (1L << (this.precision - 1))) + 1;
+        if (rank > this.buffer.get(index)) {
+            this.buffer.put(index, (byte) rank);
+        }
+    }
+
+    private static double alpha(int count) {
+        switch (count) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / count);
+        }
+    }
+
+    @Override
+    protected int magic() {
+        return MAGIC;
+    }
+
+    @Override
+    protected void writeParams(DataOutput out) throws IOException {
+        out.writeInt(this.precision);
+    }
+
+    @Override
+    protected boolean isCompatible(HyperLogLog other) {
+        return this.precision == other.precision;
+    }
+
+    @Override
+    protected void doMerge(HyperLogLog other) {
+        for (int i = 0; i < this.buffer.capacity(); i++) {
+            if (other.buffer.get(i) > this.buffer.get(i)) {
+                this.buffer.put(i, other.buffer.get(i));
+            }
+        }
+    }
+
+}
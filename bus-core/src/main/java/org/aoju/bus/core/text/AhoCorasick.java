@@ -0,0 +1,672 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.text;
+
+import org.aoju.bus.core.lang.Filter;
+import org.aoju.bus.core.lang.Func;
+import org.aoju.bus.core.lang.exception.InstrumentException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 多关键词匹配自动机(Aho-Corasick)
+ * <p>
+ * 一次扫描即可找出文本中出现的全部关键词,耗时与关键词数量无关,适合敏感词过滤和高亮等场景
+ * 支持忽略大小写、忽略全角半角以及跳过指定字符(如夹在关键词中间的符号),
+ * 匹配结果的位置对应原始文本,包含被跳过的字符
+ * 自动机构建后只读,线程安全;增删关键词通过{@link #with(Collection)}和{@link #without(Collection)}
+ * 生成新的自动机,构建期间原有实例可继续使用,构建完成后替换引用即可
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public final class AhoCorasick {
+
+    /**
+     * 流式读取的缓冲大小
+     */
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * 构建时为一个状态查找位置的尝试次数超过该值后,后续从更靠后的位置开始查找
+     */
+    private static final int MAX_TRIALS = 64;
+
+    /**
+     * 关键词,下标即编号
+     */
+    private final String[] words;
+    private final boolean ignoreCase;
+    private final boolean ignoreWidth;
+    private final Filter<Character> skipFilter;
+    /**
+     * 需要跳过的字符,按位存储
+     */
+    private final long[] skip;
+    /**
+     * 状态的转移基址,状态s经字符c转移到base[s] + c,状态即其在双数组中的位置,根状态为0
+     */
+    private final int[] base;
+    /**
+     * 位置所属的父状态,用于校验转移是否有效,空闲位置为-1
+     */
+    private final int[] check;
+    /**
+     * 失败转移
+     */
+    private final int[] fail;
+    /**
+     * 状态的深度,即匹配的字符数(不含跳过的字符)
+     */
+    private final int[] depth;
+    /**
+     * 以状态结尾的关键词编号,没有则为-1
+     */
+    private final int[] output;
+    /**
+     * 沿失败转移链最近的有关键词的状态(含自身),没有则为0
+     */
+    private final int[] report;
+    /**
+     * 记录匹配字符位置的环形缓冲掩码,缓冲大小为不小于最长关键词长度的2的幂
+     */
+    private final int mask;
+
+    /**
+     * 构造,区分大小写和全角半角,不跳过任何字符
+     *
+     * @param words 关键词,空词被忽略
+     */
+    public AhoCorasick(Collection<String> words) {
+        this(words, false, false, null);
+    }
+
+    /**
+     * 构造
+     *
+     * @param words       关键词,空词被忽略,规范化后相同的关键词保留第一个
+     * @param ignoreCase  是否忽略大小写
+     * @param ignoreWidth 是否忽略全角半角
+     * @param skipFilter  需要跳过的字符,{@code null}表示不跳过
+     */
+    public AhoCorasick(Collection<String> words, boolean ignoreCase, boolean ignoreWidth, Filter<Character> skipFilter) {
+        this.words = words.toArray(new String[0]);
+        this.ignoreCase = ignoreCase;
+        this.ignoreWidth = ignoreWidth;
+        this.skipFilter = skipFilter;
+        this.skip = new long[(Character.MAX_VALUE + 1) >>> 6];
+        if (null != skipFilter) {
+            for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; c++) {
+                if (skipFilter.accept((char) c)) {
+                    this.skip[c >>> 6] |= 1L << c;
+                }
+            }
+        }
+
+        // 规范化并排序,相同的关键词保留下标较小的
+        final String[] keys = new String[this.words.length];
+        final List<Integer> order = new ArrayList<>(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            if (null != this.words[i]) {
+                keys[i] = normalize(this.words[i]);
+                if (false == keys[i].isEmpty()) {
+                    order.add(i);
+                }
+            }
+        }
+        order.sort(Comparator.comparing((Integer i) -> keys[i]).thenComparingInt(i -> i));
+
+        // 按广度优先构建状态,每个状态对应排序后关键词中具有相同前缀的一段
+        final List<int[]> ranges = new ArrayList<>();
+        final StringBuilder labels = new StringBuilder();
+        final List<Integer> parents = new ArrayList<>();
+        final List<Integer> firsts = new ArrayList<>();
+        ranges.add(new int[]{0, order.size(), 0});
+        labels.append(Character.MIN_VALUE);
+        parents.add(0);
+        for (int s = 0; s < ranges.size(); s++) {
+            final int[] range = ranges.get(s);
+            final int d = range[2];
+            firsts.add(ranges.size());
+            for (int i = range[0]; i < range[1]; ) {
+                final String key = keys[order.get(i)];
+                if (key.length() == d) {
+                    i++;
+                    continue;
+                }
+                final char c = key.charAt(d);
+                int j = i + 1;
+                while (j < range[1] && keys[order.get(j)].charAt(d) == c) {
+                    j++;
+                }
+                ranges.add(new int[]{i, j, d + 1});
+                labels.append(c);
+                parents.add(s);
+                i = j;
+            }
+        }
+        firsts.add(ranges.size());
+
+        // 按广度优先将状态放入双数组,每个状态的子状态相对其基址按字符偏移
+        final int size = ranges.size();
+        final char[] label = labels.toString().toCharArray();
+        final int[] position = new int[size];
+        final Placement placement = new Placement();
+        // 多个子状态的查找起点,已扫描区域难以放下时前移,留下的空位由单个子状态的状态填充
+        int hint = 0;
+        for (int s = 0; s < size; s++) {
+            final int from = firsts.get(s);
+            final int to = firsts.get(s + 1);
+            if (from == to) {
+                continue;
+            }
+            final int lowest = label[from];
+            final int highest = label[to - 1];
+            int begin;
+            int trials = 0;
+            outer:
+            for (int pos = placement.free(to - from > 1 ? Math.max(lowest, hint) : lowest); ; pos = placement.free(pos + 1)) {
+                begin = pos - lowest;
+                if (++trials == MAX_TRIALS) {
+                    hint = pos;
+                }
+                placement.ensure(begin + highest + 1);
+                for (int t = from + 1; t < to; t++) {
+                    if (placement.check[begin + label[t]] >= 0) {
+                        continue outer;
+                    }
+                }
+                break;
+            }
+            placement.base[position[s]] = begin;
+            for (int t = from; t < to; t++) {
+                position[t] = begin + label[t];
+                placement.occupy(position[t], position[s]);
+            }
+        }
+        final int used = placement.used;
+        this.base = Arrays.copyOf(placement.base, used);
+        this.check = Arrays.copyOf(placement.check, used);
+
+        this.fail = new int[used];
+        this.depth = new int[used];
+        this.output = new int[used];
+        this.report = new int[used];
+        Arrays.fill(this.output, -1);
+        int max = 0;
+        for (int s = 1; s < size; s++) {
+            final int[] range = ranges.get(s);
+            this.depth[position[s]] = range[2];
+            max = Math.max(max, range[2]);
+            // 排序后前缀相同的一段中,恰好等于前缀的关键词排在最前
+            if (keys[order.get(range[0])].length() == range[2]) {
+                this.output[position[s]] = order.get(range[0]);
+            }
+        }
+        this.mask = max <= 1 ? 0 : (Integer.highestOneBit(max - 1) << 1) - 1;
+
+        // 按广度优先计算失败转移,父状态的失败转移总是先于子状态计算
+        for (int s = 1; s < size; s++) {
+            final int t = position[s];
+            final int parent = position[parents.get(s)];
+            this.fail[t] = parent == 0 ? 0 : next(this.fail[parent], label[s]);
+            this.report[t] = this.output[t] >= 0 ? t : this.report[this.fail[t]];
+        }
+    }
+
+    /**
+     * 关键词数量,不含空词和规范化后重复的词
+     *
+     * @return 数量
+     */
+    public int size() {
+        int count = 0;
+        for (int output : this.output) {
+            if (output >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 文本中是否包含任意关键词
+     *
+     * @param text 文本
+     * @return 是否包含
+     */
+    public boolean contains(CharSequence text) {
+        return null != findFirst(text);
+    }
+
+    /**
+     * 查找文本中最先结束的关键词
+     *
+     * @param text 文本
+     * @return 匹配结果, 没有返回{@code null}
+     */
+    public Hit findFirst(CharSequence text) {
+        final Hit[] result = new Hit[1];
+        scan(text, (start, end, word) -> {
+            result[0] = new Hit(start, end, this.words[word]);
+            return false;
+        });
+        return result[0];
+    }
+
+    /**
+     * 查找文本中出现的全部关键词,包括相互重叠的,按结束位置排序
+     *
+     * @param text 文本
+     * @return 匹配结果
+     */
+    public List<Hit> findAll(CharSequence text) {
+        final List<Hit> hits = new ArrayList<>();
+        scan(text, (start, end, word) -> hits.add(new Hit(start, end, this.words[word])));
+        return hits;
+    }
+
+    /**
+     * 查找文本中的关键词,从左到右优先取最长的且互不重叠,按位置排序
+     *
+     * @param text 文本
+     * @return 匹配结果
+     */
+    public List<Hit> findLongest(CharSequence text) {
+        final List<Hit> hits = findAll(text);
+        hits.sort((a, b) -> a.start != b.start ? Long.compare(a.start, b.start) : Long.compare(b.end, a.end));
+        final List<Hit> result = new ArrayList<>();
+        long last = 0;
+        for (Hit hit : hits) {
+            if (hit.start >= last) {
+                result.add(hit);
+                last = hit.end;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 流式查找全部关键词,包括相互重叠的,按结束位置依次回调,
+     * 位置为从读取开始计算的字符偏移,调用方负责关闭{@link Reader}
+     *
+     * @param reader  字符流
+     * @param handler 匹配结果处理器
+     */
+    public void findAll(Reader reader, Consumer<Hit> handler) {
+        final Cursor cursor = new Cursor();
+        final Handler callback = (start, end, word) -> {
+            handler.accept(new Hit(start, end, this.words[word]));
+            return true;
+        };
+        final char[] buffer = new char[BUFFER_SIZE];
+        long offset = 0;
+        try {
+            int read;
+            while ((read = reader.read(buffer)) >= 0) {
+                for (int i = 0; i < read; i++) {
+                    cursor.feed(buffer[i], offset + i, callback);
+                }
+                offset += read;
+            }
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    /**
+     * 将匹配到的关键词(按{@link #findLongest(CharSequence)})逐字符替换为指定字符
+     *
+     * @param text        文本
+     * @param replacement 替换字符,如*
+     * @return 替换后的文本
+     */
+    public String replace(CharSequence text, char replacement) {
+        final char[] chars = text.toString().toCharArray();
+        for (Hit hit : findLongest(text)) {
+            Arrays.fill(chars, (int) hit.start, (int) hit.end, replacement);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 将匹配到的关键词(按{@link #findLongest(CharSequence)})替换为自定义内容,可用于高亮
+     *
+     * @param text     文本
+     * @param replacer 根据匹配结果生成替换内容
+     * @return 替换后的文本
+     */
+    public String replace(CharSequence text, Func.Func1<Hit, CharSequence> replacer) {
+        final StringBuilder sb = new StringBuilder(text.length() + 16);
+        int last = 0;
+        for (Hit hit : findLongest(text)) {
+            sb.append(text, last, (int) hit.start);
+            sb.append(replacer.callWithRuntimeException(hit));
+            last = (int) hit.end;
+        }
+        return sb.append(text, last, text.length()).toString();
+    }
+
+    /**
+     * 在当前关键词基础上增加关键词,生成新的自动机,当前实例不变
+     *
+     * @param words 增加的关键词
+     * @return 新的自动机
+     */
+    public AhoCorasick with(Collection<String> words) {
+        final List<String> all = new ArrayList<>(this.words.length + words.size());
+        Collections.addAll(all, this.words);
+        all.addAll(words);
+        return new AhoCorasick(all, this.ignoreCase, this.ignoreWidth, this.skipFilter);
+    }
+
+    /**
+     * 在当前关键词基础上移除关键词,生成新的自动机,当前实例不变
+     *
+     * @param words 移除的关键词
+     * @return 新的自动机
+     */
+    public AhoCorasick without(Collection<String> words) {
+        final Set<String> removed = new HashSet<>(words);
+        final List<String> all = new ArrayList<>(this.words.length);
+        for (String word : this.words) {
+            if (false == removed.contains(word)) {
+                all.add(word);
+            }
+        }
+        return new AhoCorasick(all, this.ignoreCase, this.ignoreWidth, this.skipFilter);
+    }
+
+    /**
+     * 扫描文本
+     *
+     * @param text    文本
+     * @param handler 匹配结果处理器
+     */
+    private void scan(CharSequence text, Handler handler) {
+        final Cursor cursor = new Cursor();
+        for (int i = 0, length = text.length(); i < length; i++) {
+            if (false == cursor.feed(text.charAt(i), i, handler)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 是否为跳过的字符
+     *
+     * @param c 字符
+     * @return 是否跳过
+     */
+    private boolean isSkip(char c) {
+        return (this.skip[c >>> 6] & (1L << c)) != 0;
+    }
+
+    /**
+     * 规范化字符,全角转半角及转小写,逐字符映射保证位置不变
+     *
+     * @param c 字符
+     * @return 规范化后的字符
+     */
+    private char normalize(char c) {
+        if (this.ignoreWidth) {
+            if (c == '　') {
+                c = ' ';
+            } else if (c >= '！' && c <= '～') {
+                c -= 0xfee0;
+            }
+        }
+        return this.ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+    }
+
+    /**
+     * 规范化关键词,并去除其中跳过的字符
+     *
+     * @param word 关键词
+     * @return 规范化后的关键词
+     */
+    private String normalize(String word) {
+        final StringBuilder sb = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            final char c = word.charAt(i);
+            if (false == isSkip(c)) {
+                sb.append(normalize(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 子状态
+     *
+     * @param s 状态
+     * @param c 字符
+     * @return 子状态, 不存在返回-1
+     */
+    private int child(int s, char c) {
+        final int t = this.base[s] + c;
+        return t < this.check.length && this.check[t] == s ? t : -1;
+    }
+
+    /**
+     * 状态转移,无法转移时沿失败转移回退
+     *
+     * @param s 状态
+     * @param c 字符
+     * @return 下一状态
+     */
+    private int next(int s, char c) {
+        while (true) {
+            final int t = child(s, c);
+            if (t >= 0) {
+                return t;
+            }
+            if (s == 0) {
+                return 0;
+            }
+            s = this.fail[s];
+        }
+    }
+
+    /**
+     * 构建双数组时的空间分配
+     */
+    private static class Placement {
+
+        private int[] base = new int[0];
+        private int[] check = new int[0];
+        /**
+         * 不小于该位置的下一个空闲位置,按并查集方式压缩路径
+         */
+        private int[] next = new int[0];
+        private int used = 1;
+
+        Placement() {
+            ensure(Character.MAX_VALUE + 2);
+            occupy(0, 0);
+        }
+
+        /**
+         * 确保数组容量,并保留末尾的空闲位置作为查找的边界
+         *
+         * @param size 需要的容量
+         */
+        void ensure(int size) {
+            if (size < this.check.length) {
+                return;
+            }
+            final int length = this.check.length;
+            final int newLength = Math.max(size + 1, length + (length >> 1));
+            this.base = Arrays.copyOf(this.base, newLength);
+            this.check = Arrays.copyOf(this.check, newLength);
+            this.next = Arrays.copyOf(this.next, newLength);
+            Arrays.fill(this.check, length, newLength, -1);
+            for (int i = length; i < newLength; i++) {
+                this.next[i] = i;
+            }
+        }
+
+        /**
+         * 不小于指定位置的第一个空闲位置
+         *
+         * @param from 开始位置
+         * @return 空闲位置
+         */
+        int free(int from) {
+            ensure(from + 1);
+            int root = from;
+            while (this.next[root] != root) {
+                root = this.next[root];
+            }
+            while (this.next[from] != root) {
+                final int n = this.next[from];
+                this.next[from] = root;
+                from = n;
+            }
+            return root;
+        }
+
+        /**
+         * 占用位置
+         *
+         * @param pos    位置
+         * @param parent 父状态
+         */
+        void occupy(int pos, int parent) {
+            ensure(pos + 2);
+            this.check[pos] = parent;
+            this.next[pos] = pos + 1;
+            this.used = Math.max(this.used, pos + 1);
+        }
+
+    }
+
+    /**
+     * 匹配结果处理器
+     */
+    @FunctionalInterface
+    private interface Handler {
+
+        /**
+         * 处理匹配结果
+         *
+         * @param start 开始位置(包含)
+         * @param end   结束位置(不包含)
+         * @param word  关键词编号
+         * @return 是否继续匹配
+         */
+        boolean onHit(long start, long end, int word);
+
+    }
+
+    /**
+     * 匹配结果
+     */
+    public static final class Hit {
+
+        private final long start;
+        private final long end;
+        private final String keyword;
+
+        Hit(long start, long end, String keyword) {
+            this.start = start;
+            this.end = end;
+            this.keyword = keyword;
+        }
+
+        /**
+         * 开始位置(包含)
+         *
+         * @return 开始位置
+         */
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         * 结束位置(不包含)
+         *
+         * @return 结束位置
+         */
+        public long getEnd() {
+            return end;
+        }
+
+        /**
+         * 匹配的关键词,为构造时传入的原始关键词
+         *
+         * @return 关键词
+         */
+        public String getKeyword() {
+            return keyword;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + ") " + keyword;
+        }
+
+    }
+
+    /**
+     * 扫描的状态,记录最近匹配字符的位置用于还原关键词的开始位置
+     */
+    private final class Cursor {
+
+        private final long[] positions = new long[mask + 1];
+        private int state;
+        private int count;
+
+        /**
+         * 读入一个字符
+         *
+         * @param c       字符
+         * @param index   字符的位置
+         * @param handler 匹配结果处理器
+         * @return 是否继续匹配
+         */
+        boolean feed(char c, long index, Handler handler) {
+            if (isSkip(c)) {
+                return true;
+            }
+            this.positions[this.count & mask] = index;
+            this.count++;
+            this.state = next(this.state, normalize(c));
+            for (int r = report[this.state]; r > 0; r = report[fail[r]]) {
+                final long start = this.positions[(this.count - depth[r]) & mask];
+                if (false == handler.onHit(start, index + 1, output[r])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
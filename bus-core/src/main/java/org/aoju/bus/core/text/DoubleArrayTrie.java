@@ -0,0 +1,312 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 双数组字典树
+ * <p>
+ * 构建后只读,以两个int数组表示全部状态转移,查找一个字符只需一次数组访问,
+ * 适合词典类的精确查找和最长匹配,线程安全
+ * 每个词的值为其在构建时传入列表中的下标,重复的词保留第一个
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public final class DoubleArrayTrie {
+
+    /**
+     * 每次扩容额外预留的空间,字符编码跨度较大,避免频繁扩容
+     */
+    private static final int GROW_SIZE = 65536;
+
+    /**
+     * 状态的转移基址,叶子节点为-(值+1)
+     */
+    private int[] base;
+    /**
+     * 状态的父基址,用于校验转移是否有效
+     */
+    private int[] check;
+    /**
+     * 词数量
+     */
+    private final int size;
+
+    private transient boolean[] used;
+    private transient int allocSize;
+    private transient int usedSize;
+    private transient int nextCheckPos;
+    private transient String[] keys;
+    private transient int[] values;
+
+    /**
+     * 构造
+     *
+     * @param words 词列表,空词被忽略
+     */
+    public DoubleArrayTrie(List<String> words) {
+        final List<Integer> order = new ArrayList<>(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            final String word = words.get(i);
+            if (null != word && false == word.isEmpty()) {
+                order.add(i);
+            }
+        }
+        // 排序并去重,相同的词保留下标较小的
+        order.sort(Comparator.comparing((Integer i) -> words.get(i)).thenComparingInt(i -> i));
+        final List<Integer> unique = new ArrayList<>(order.size());
+        for (Integer index : order) {
+            if (unique.isEmpty() || false == words.get(unique.get(unique.size() - 1)).equals(words.get(index))) {
+                unique.add(index);
+            }
+        }
+        this.size = unique.size();
+        this.keys = new String[this.size];
+        this.values = new int[this.size];
+        for (int i = 0; i < this.size; i++) {
+            this.keys[i] = words.get(unique.get(i));
+            this.values[i] = unique.get(i);
+        }
+
+        resize(GROW_SIZE);
+        this.base[0] = 1;
+        if (this.size > 0) {
+            insert(fetch(new Node(0, 0, 0, this.size)));
+        }
+        // 去除未使用的空间,查找时检查数组边界
+        this.base = Arrays.copyOf(this.base, Math.max(1, this.usedSize));
+        this.check = Arrays.copyOf(this.check, Math.max(1, this.usedSize));
+        this.used = null;
+        this.keys = null;
+        this.values = null;
+    }
+
+    /**
+     * 词数量
+     *
+     * @return 词数量
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * 精确查找
+     *
+     * @param key 词
+     * @return 词的值, 不存在返回-1
+     */
+    public int get(CharSequence key) {
+        int b = this.base[0];
+        for (int i = 0, length = key.length(); i < length; i++) {
+            b = transition(b, key.charAt(i));
+            if (b < 0) {
+                return -1;
+            }
+        }
+        return valueOf(b);
+    }
+
+    /**
+     * 从指定位置开始查找最长的词
+     *
+     * @param text  文本
+     * @param start 开始位置(包含)
+     * @param end   结束位置(不包含)
+     * @return 最长词的值, 不存在返回-1
+     */
+    public int longestMatch(CharSequence text, int start, int end) {
+        int result = -1;
+        int b = this.base[0];
+        for (int i = start; i < end; i++) {
+            b = transition(b, text.charAt(i));
+            if (b < 0) {
+                break;
+            }
+            final int value = valueOf(b);
+            if (value >= 0) {
+                result = value;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 状态转移
+     *
+     * @param b 当前状态的基址
+     * @param c 字符
+     * @return 下一状态的基址, 无法转移返回-1
+     */
+    private int transition(int b, char c) {
+        final int p = b + c + 1;
+        if (p < this.check.length && this.check[p] == b) {
+            final int next = this.base[p];
+            // 叶子节点没有后续转移
+            return next > 0 ? next : -1;
+        }
+        return -1;
+    }
+
+    /**
+     * 状态对应的值
+     *
+     * @param b 状态的基址
+     * @return 值, 非词尾返回-1
+     */
+    private int valueOf(int b) {
+        if (b < this.check.length && this.check[b] == b && this.base[b] < 0) {
+            return -this.base[b] - 1;
+        }
+        return -1;
+    }
+
+    private void resize(int newSize) {
+        this.base = null == this.base ? new int[newSize] : Arrays.copyOf(this.base, newSize);
+        this.check = null == this.check ? new int[newSize] : Arrays.copyOf(this.check, newSize);
+        this.used = null == this.used ? new boolean[newSize] : Arrays.copyOf(this.used, newSize);
+        this.allocSize = newSize;
+    }
+
+    /**
+     * 取出节点的全部子节点,词尾以编码0表示
+     *
+     * @param parent 父节点
+     * @return 子节点
+     */
+    private List<Node> fetch(Node parent) {
+        final List<Node> siblings = new ArrayList<>();
+        int prev = -1;
+        for (int i = parent.left; i < parent.right; i++) {
+            final String key = this.keys[i];
+            if (key.length() < parent.depth) {
+                continue;
+            }
+            final int code = key.length() == parent.depth ? 0 : key.charAt(parent.depth) + 1;
+            if (code != prev) {
+                if (false == siblings.isEmpty()) {
+                    siblings.get(siblings.size() - 1).right = i;
+                }
+                siblings.add(new Node(code, parent.depth + 1, i, 0));
+                prev = code;
+            }
+        }
+        if (false == siblings.isEmpty()) {
+            siblings.get(siblings.size() - 1).right = parent.right;
+        }
+        return siblings;
+    }
+
+    /**
+     * 为一组兄弟节点寻找可用的基址并递归插入子节点
+     *
+     * @param siblings 兄弟节点
+     * @return 基址
+     */
+    private int insert(List<Node> siblings) {
+        final int firstCode = siblings.get(0).code;
+        final int lastCode = siblings.get(siblings.size() - 1).code;
+        int begin;
+        int pos = Math.max(firstCode + 1, this.nextCheckPos) - 1;
+        int nonZero = 0;
+        boolean first = true;
+
+        outer:
+        while (true) {
+            pos++;
+            if (this.allocSize <= pos) {
+                resize(pos + GROW_SIZE);
+            }
+            if (this.check[pos] != 0) {
+                nonZero++;
+                continue;
+            } else if (first) {
+                this.nextCheckPos = pos;
+                first = false;
+            }
+
+            begin = pos - firstCode;
+            if (this.allocSize <= begin + lastCode + 1) {
+                resize(begin + lastCode + 1 + GROW_SIZE);
+            }
+            if (this.used[begin]) {
+                continue;
+            }
+            for (int i = 1; i < siblings.size(); i++) {
+                if (this.check[begin + siblings.get(i).code] != 0) {
+                    continue outer;
+                }
+            }
+            break;
+        }
+
+        // 已扫描区域基本被占满时,下次从当前位置开始查找
+        if (1.0 * nonZero / (pos - this.nextCheckPos + 1) >= 0.95) {
+            this.nextCheckPos = pos;
+        }
+        this.used[begin] = true;
+        this.usedSize = Math.max(this.usedSize, begin + lastCode + 1);
+
+        for (Node node : siblings) {
+            this.check[begin + node.code] = begin;
+        }
+        for (Node node : siblings) {
+            final List<Node> children = fetch(node);
+            if (children.isEmpty()) {
+                this.base[begin + node.code] = -this.values[node.left] - 1;
+            } else {
+                this.base[begin + node.code] = insert(children);
+            }
+        }
+        return begin;
+    }
+
+    /**
+     * 构建时的节点
+     */
+    private static class Node {
+
+        private final int code;
+        private final int depth;
+        private final int left;
+        private int right;
+
+        Node(int code, int depth, int left, int right) {
+            this.code = code;
+            this.depth = depth;
+            this.left = left;
+            this.right = right;
+        }
+
+    }
+
+}
@@ -25,17 +25,22 @@
 package org.aoju.bus.core.text;
 
 import org.aoju.bus.core.lang.Murmur;
+import org.aoju.bus.core.lang.exception.InstrumentException;
 import org.aoju.bus.core.toolkit.MathKit;
 import org.aoju.bus.core.toolkit.StringKit;
 
-import java.math.BigInteger;
-import java.util.*;
+import java.io.*;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * 局部敏感hash,用于海量文本去重
  * 局部敏感hash定义：假定两个字符串具有一定的相似性,
  * 在hash之后,仍然能保持这种相似性,就称之为局部敏感hash
+ * simhash按段分别建立索引,每段为以段值为键的开放寻址表,并拆分为多个分别加锁的分片,
+ * 查找时只需在段值相同的simhash中比较汉明距离
  *
  * @author Kimi Liu
  * @version 6.0.2
@@ -55,10 +60,18 @@ public class Similarity {
     private final int hammingThresh;
 
     /**
-     * 按照分段存储simhash,查找更快速
+     * 每段索引的分片数,必须为2的幂
      */
-    private List<Map<String, List<Long>>> storage;
-    private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private static final int SEGMENT_COUNT = 16;
+
+    /**
+     * 按照分段存储simhash,查找更快速,storage[段][分片]
+     */
+    private final Segment[][] storage;
+    /**
+     * 已存储的simhash数量
+     */
+    private final AtomicLong size = new AtomicLong();
 
     /**
      * 构造
@@ -77,9 +90,11 @@ public class Similarity {
         this.fracCount = fracCount;
         this.fracBitNum = bitNum / fracCount;
         this.hammingThresh = hammingThresh;
-        this.storage = new ArrayList<>(fracCount);
+        this.storage = new Segment[fracCount][SEGMENT_COUNT];
         for (int i = 0; i < fracCount; i++) {
-            storage.add(new HashMap<>());
+            for (int j = 0; j < SEGMENT_COUNT; j++) {
+                this.storage[i][j] = new Segment();
+            }
         }
     }
 
@@ -223,13 +238,14 @@ public class Similarity {
             }
         }
 
-        // 计算得到Simhash值
-        final StringBuilder sb = new StringBuilder();
+        // 计算得到Simhash值,第i位权重对应结果的第(bitNum - 1 - i)位
+        long simhash = 0;
         for (int i = 0; i < bitNum; i++) {
-            sb.append((weight[i] > 0) ? 1 : 0);
+            if (weight[i] > 0) {
+                simhash |= 1L << (bitNum - 1 - i);
+            }
         }
-
-        return new BigInteger(sb.toString(), 2).longValue();
+        return simhash;
     }
 
     /**
@@ -239,29 +255,21 @@ public class Similarity {
      * @return 是否重复
      */
     public boolean equals(Collection<? extends CharSequence> segList) {
-        long simhash = hash(segList);
-        final List<String> fracList = splitSimhash(simhash);
-        final int hammingThresh = this.hammingThresh;
-
-        String frac;
-        Map<String, List<Long>> fracMap;
-        final ReentrantReadWriteLock.ReadLock readLock = this.lock.readLock();
-        readLock.lock();
-        try {
-            for (int i = 0; i < fracCount; i++) {
-                frac = fracList.get(i);
-                fracMap = storage.get(i);
-                if (fracMap.containsKey(frac)) {
-                    for (Long simhash2 : fracMap.get(frac)) {
-                        // 当汉明距离小于标准时相似
-                        if (hamming(simhash, simhash2) < hammingThresh) {
-                            return true;
-                        }
-                    }
-                }
+        return equals(hash(segList));
+    }
+
+    /**
+     * 判断simhash是否与已存储的数据重复
+     *
+     * @param simhash Simhash值
+     * @return 是否重复
+     */
+    public boolean equals(long simhash) {
+        for (int i = 0; i < fracCount; i++) {
+            final long frac = frac(simhash, i);
+            if (segment(i, frac).contains(frac, simhash, hammingThresh)) {
+                return true;
             }
-        } finally {
-            readLock.unlock();
         }
         return false;
     }
@@ -272,28 +280,116 @@ public class Similarity {
      * @param simhash Simhash值
      */
     public void store(Long simhash) {
-        final int fracCount = this.fracCount;
-        final List<Map<String, List<Long>>> storage = this.storage;
-        final List<String> lFrac = splitSimhash(simhash);
-
-        String frac;
-        Map<String, List<Long>> fracMap;
-        final ReentrantReadWriteLock.WriteLock writeLock = this.lock.writeLock();
-        writeLock.lock();
+        final long value = simhash;
+        for (int i = 0; i < fracCount; i++) {
+            final long frac = frac(value, i);
+            segment(i, frac).add(frac, value);
+        }
+        size.incrementAndGet();
+    }
+
+    /**
+     * 批量存储,每个分片只加锁一次
+     *
+     * @param simhashes Simhash值
+     */
+    public void storeAll(long[] simhashes) {
+        final int[] segments = new int[simhashes.length];
+        for (int i = 0; i < fracCount; i++) {
+            for (int k = 0; k < simhashes.length; k++) {
+                segments[k] = segmentIndex(frac(simhashes[k], i));
+            }
+            for (int j = 0; j < SEGMENT_COUNT; j++) {
+                final Segment segment = storage[i][j];
+                segment.lock.writeLock().lock();
+                try {
+                    for (int k = 0; k < simhashes.length; k++) {
+                        if (segments[k] == j) {
+                            segment.put(frac(simhashes[k], i), simhashes[k]);
+                        }
+                    }
+                } finally {
+                    segment.lock.writeLock().unlock();
+                }
+            }
+        }
+        size.addAndGet(simhashes.length);
+    }
+
+    /**
+     * 移除一个已存储的simhash,多次存储的需多次移除
+     *
+     * @param simhash Simhash值
+     * @return 是否存在并移除
+     */
+    public boolean remove(long simhash) {
+        for (int i = 0; i < fracCount; i++) {
+            final long frac = frac(simhash, i);
+            if (false == segment(i, frac).remove(frac, simhash)) {
+                // 各段同步存储,第一段不存在则其它段也不存在
+                return false;
+            }
+        }
+        size.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * 已存储的simhash数量
+     *
+     * @return 数量
+     */
+    public long size() {
+        return size.get();
+    }
+
+    /**
+     * 将已存储的simhash写出,格式为数量(long)及各simhash(long),可通过{@link #read(InputStream)}加载
+     * 调用方负责关闭流
+     *
+     * @param out 输出流
+     */
+    public void write(OutputStream out) {
         try {
-            for (int i = 0; i < fracCount; i++) {
-                frac = lFrac.get(i);
-                fracMap = storage.get(i);
-                if (fracMap.containsKey(frac)) {
-                    fracMap.get(frac).add(simhash);
-                } else {
-                    final List<Long> ls = new ArrayList<>();
-                    ls.add(simhash);
-                    fracMap.put(frac, ls);
+            final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+            final long[][] values = new long[SEGMENT_COUNT][];
+            long count = 0;
+            for (int j = 0; j < SEGMENT_COUNT; j++) {
+                values[j] = storage[0][j].values();
+                count += values[j].length;
+            }
+            data.writeLong(count);
+            for (long[] segmentValues : values) {
+                for (long value : segmentValues) {
+                    data.writeLong(value);
+                }
+            }
+            data.flush();
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    /**
+     * 加载{@link #write(OutputStream)}写出的simhash并存储,调用方负责关闭流
+     *
+     * @param in 输入流
+     */
+    public void read(InputStream in) {
+        try {
+            final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+            long remain = data.readLong();
+            final long[] batch = new long[(int) Math.min(remain, 1 << 20)];
+            while (remain > 0) {
+                final int length = (int) Math.min(remain, batch.length);
+                for (int i = 0; i < length; i++) {
+                    batch[i] = data.readLong();
                 }
+                storeAll(length == batch.length ? batch : Arrays.copyOf(batch, length));
+                remain -= length;
             }
-        } finally {
-            writeLock.unlock();
+        } catch (IOException e) {
+            throw new InstrumentException(e);
         }
     }
 
@@ -304,36 +400,199 @@ public class Similarity {
      * @param s2 值2
      * @return 汉明距离
      */
-    private int hamming(Long s1, Long s2) {
-        final int bitNum = this.bitNum;
-        int dis = 0;
-        for (int i = 0; i < bitNum; i++) {
-            if ((s1 >> i & 1) != (s2 >> i & 1))
-                dis++;
-        }
-        return dis;
+    private static int hamming(long s1, long s2) {
+        return Long.bitCount(s1 ^ s2);
     }
 
     /**
-     * 将simhash分成n段
+     * 获取simhash的第n段,第0段为最低位
      *
      * @param simhash Simhash值
-     * @return N段Simhash
+     * @param index   段序号
+     * @return 段值
      */
-    private List<String> splitSimhash(Long simhash) {
-        final int bitNum = this.bitNum;
-        final int fracBitNum = this.fracBitNum;
+    private long frac(long simhash, int index) {
+        return (simhash >>> (index * fracBitNum)) & (-1L >>> (bitNum - fracBitNum));
+    }
 
-        final List<String> ls = new ArrayList<>();
-        final StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < bitNum; i++) {
-            sb.append(simhash >> i & 1);
-            if ((i + 1) % fracBitNum == 0) {
-                ls.add(sb.toString());
-                sb.setLength(0);
+    /**
+     * 段值所在的分片
+     *
+     * @param index 段序号
+     * @param frac  段值
+     * @return 分片
+     */
+    private Segment segment(int index, long frac) {
+        return storage[index][segmentIndex(frac)];
+    }
+
+    private static int segmentIndex(long frac) {
+        return (int) (mix(frac) >>> 60) & (SEGMENT_COUNT - 1);
+    }
+
+    /**
+     * 打散段值,用于分片和开放寻址
+     *
+     * @param key 段值
+     * @return 打散后的值
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * 一个分片,以段值为键、simhash数组为值的开放寻址表
+     */
+    private static final class Segment {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private long[] keys = new long[16];
+        private long[][] values = new long[16][];
+        private int[] counts = new int[16];
+        /**
+         * 已使用的槽数,simhash全部移除后槽位保留,再次存储相同段值时复用
+         */
+        private int used;
+
+        boolean contains(long key, long simhash, int hammingThresh) {
+            lock.readLock().lock();
+            try {
+                final int slot = find(key);
+                if (slot < 0) {
+                    return false;
+                }
+                final long[] bucket = values[slot];
+                for (int i = 0, count = counts[slot]; i < count; i++) {
+                    // 当汉明距离小于标准时相似
+                    if (hamming(simhash, bucket[i]) < hammingThresh) {
+                        return true;
+                    }
+                }
+                return false;
+            } finally {
+                lock.readLock().unlock();
             }
         }
-        return ls;
+
+        void add(long key, long simhash) {
+            lock.writeLock().lock();
+            try {
+                put(key, simhash);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        boolean remove(long key, long simhash) {
+            lock.writeLock().lock();
+            try {
+                final int slot = find(key);
+                if (slot < 0) {
+                    return false;
+                }
+                final long[] bucket = values[slot];
+                final int count = counts[slot];
+                for (int i = 0; i < count; i++) {
+                    if (bucket[i] == simhash) {
+                        System.arraycopy(bucket, i + 1, bucket, i, count - i - 1);
+                        counts[slot] = count - 1;
+                        return true;
+                    }
+                }
+                return false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        long[] values() {
+            lock.readLock().lock();
+            try {
+                int total = 0;
+                for (int i = 0; i < keys.length; i++) {
+                    total += counts[i];
+                }
+                final long[] result = new long[total];
+                int offset = 0;
+                for (int i = 0; i < keys.length; i++) {
+                    if (counts[i] > 0) {
+                        System.arraycopy(values[i], 0, result, offset, counts[i]);
+                        offset += counts[i];
+                    }
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * 存储,调用方需持有写锁
+         *
+         * @param key     段值
+         * @param simhash Simhash值
+         */
+        void put(long key, long simhash) {
+            int slot = find(key);
+            if (slot < 0) {
+                if ((used + 1) << 1 > keys.length) {
+                    resize();
+                    slot = find(key);
+                }
+                slot = -slot - 1;
+                keys[slot] = key;
+                values[slot] = new long[2];
+                used++;
+            }
+            long[] bucket = values[slot];
+            final int count = counts[slot];
+            if (count == bucket.length) {
+                bucket = values[slot] = Arrays.copyOf(bucket, count << 1);
+            }
+            bucket[count] = simhash;
+            counts[slot] = count + 1;
+        }
+
+        /**
+         * 查找段值所在的槽
+         *
+         * @param key 段值
+         * @return 槽位置, 不存在时返回-(可插入位置 + 1)
+         */
+        private int find(long key) {
+            final int mask = keys.length - 1;
+            int slot = (int) mix(key) & mask;
+            while (null != values[slot]) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -slot - 1;
+        }
+
+        private void resize() {
+            final long[] oldKeys = keys;
+            final long[][] oldValues = values;
+            final int[] oldCounts = counts;
+            keys = new long[oldKeys.length << 1];
+            values = new long[oldKeys.length << 1][];
+            counts = new int[oldKeys.length << 1];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (null != oldValues[i]) {
+                    final int slot = -find(oldKeys[i]) - 1;
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
     }
 
 }
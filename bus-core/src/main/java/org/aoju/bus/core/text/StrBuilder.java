@@ -829,7 +829,7 @@ public class StrBuilder implements CharSequence, Appendable, Serializable, Build
      * @return this
      */
     public StrBuilder append(final int value) {
-        return append(String.valueOf(value));
+        return append((long) value);
     }
 
     /**
@@ -839,7 +839,27 @@ public class StrBuilder implements CharSequence, Appendable, Serializable, Build
      * @return this
      */
     public StrBuilder append(final long value) {
-        return append(String.valueOf(value));
+        if (value == Long.MIN_VALUE) {
+            return append(String.valueOf(value));
+        }
+        // 直接写入字符,不生成中间字符串
+        long remain = value < 0 ? -value : value;
+        int digits = 1;
+        for (long bound = 10; digits < 19 && remain >= bound; bound *= 10) {
+            digits++;
+        }
+        final int length = value < 0 ? digits + 1 : digits;
+        ensureCapacity(size + length);
+        int index = size + length;
+        do {
+            buffer[--index] = (char) ('0' + remain % 10);
+            remain /= 10;
+        } while (remain > 0);
+        if (value < 0) {
+            buffer[--index] = '-';
+        }
+        size += length;
+        return this;
     }
 
     /**
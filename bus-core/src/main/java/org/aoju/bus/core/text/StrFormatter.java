@@ -0,0 +1,226 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.text;
+
+import org.aoju.bus.core.lang.Normal;
+import org.aoju.bus.core.lang.SimpleCache;
+import org.aoju.bus.core.lang.Symbol;
+import org.aoju.bus.core.toolkit.ArrayKit;
+import org.aoju.bus.core.toolkit.StringKit;
+
+import java.util.Arrays;
+
+/**
+ * 预编译的文本模板, {} 表示占位符
+ * <p>
+ * 模板只解析一次,拆分为字面量和占位符片段并按模板缓存,
+ * 格式化时直接拼接到线程复用的{@link StrBuilder}中,整数类参数直接写入字符,不再生成中间字符串
+ * 转义规则与{@link StringKit#format(String, Object...)}一致
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public final class StrFormatter {
+
+    /**
+     * 已编译模板缓存,键为弱引用,模板字符串被回收后自动清理
+     */
+    private static final SimpleCache<String, StrFormatter> CACHE = new SimpleCache<>();
+    /**
+     * 线程复用的构建器,使用中时为null
+     */
+    private static final ThreadLocal<StrBuilder> BUILDER = new ThreadLocal<>();
+    /**
+     * 复用构建器保留的最大容量,超出后丢弃避免长期占用内存
+     */
+    private static final int MAX_CAPACITY = 8192;
+
+    /**
+     * 模板原始字符,参数少于占位符时剩余部分原样输出
+     */
+    private final char[] raw;
+    /**
+     * 每个占位符之后在原始模板中的位置
+     */
+    private final int[] rawEnds;
+    /**
+     * 处理转义后的字面量字符
+     */
+    private final char[] literal;
+    /**
+     * 每段字面量在{@link #literal}中的结束位置,共占位符数+1段
+     */
+    private final int[] literalEnds;
+    /**
+     * 模板中是否没有占位符和转义
+     */
+    private final boolean plain;
+
+    private StrFormatter(String template) {
+        final int length = template.length();
+        final StringBuilder builder = new StringBuilder(length);
+        int[] ends = new int[4];
+        int[] positions = new int[4];
+        int slots = 0;
+
+        int handledPosition = 0;
+        int delimIndex;
+        while ((delimIndex = template.indexOf(Symbol.DELIM, handledPosition)) != -1) {
+            if (delimIndex > 0 && template.charAt(delimIndex - 1) == Symbol.C_BACKSLASH) {
+                if (delimIndex > 1 && template.charAt(delimIndex - 2) == Symbol.C_BACKSLASH) {
+                    // 双转义符,占位符依旧有效
+                    builder.append(template, handledPosition, delimIndex - 1);
+                } else {
+                    // 占位符被转义
+                    builder.append(template, handledPosition, delimIndex - 1).append(Symbol.C_BRACE_LEFT);
+                    handledPosition = delimIndex + 1;
+                    continue;
+                }
+            } else {
+                builder.append(template, handledPosition, delimIndex);
+            }
+            handledPosition = delimIndex + 2;
+            if (slots == ends.length) {
+                ends = Arrays.copyOf(ends, slots << 1);
+                positions = Arrays.copyOf(positions, slots << 1);
+            }
+            ends[slots] = builder.length();
+            positions[slots] = handledPosition;
+            slots++;
+        }
+        builder.append(template, handledPosition, length);
+
+        this.raw = template.toCharArray();
+        this.rawEnds = Arrays.copyOf(positions, slots);
+        this.literalEnds = Arrays.copyOf(ends, slots + 1);
+        this.literalEnds[slots] = builder.length();
+        this.literal = new char[builder.length()];
+        builder.getChars(0, builder.length(), this.literal, 0);
+        this.plain = slots == 0 && builder.length() == length;
+    }
+
+    /**
+     * 编译模板,相同的模板只解析一次
+     *
+     * @param template 文本模板,被替换的部分用 {} 表示
+     * @return 编译后的模板
+     */
+    public static StrFormatter compile(String template) {
+        return CACHE.get(template, () -> new StrFormatter(template));
+    }
+
+    /**
+     * 使用编译缓存格式化文本
+     * 如果想输出 {} 使用 \\转义 { 即可,如果想输出 {} 之前的 \ 使用双转义符 \\\\ 即可
+     *
+     * @param template 文本模板,被替换的部分用 {} 表示
+     * @param params   参数值
+     * @return 格式化后的文本
+     */
+    public static String format(String template, Object... params) {
+        if (StringKit.isBlank(template) || ArrayKit.isEmpty(params)) {
+            return template;
+        }
+        final StrFormatter formatter = compile(template);
+        return formatter.plain ? template : formatter.format(params);
+    }
+
+    /**
+     * 占位符数量
+     *
+     * @return 占位符数量
+     */
+    public int size() {
+        return this.rawEnds.length;
+    }
+
+    /**
+     * 格式化文本
+     * 参数多于占位符时忽略多余参数,少于占位符时剩余部分按原模板输出
+     *
+     * @param params 参数值
+     * @return 格式化后的文本
+     */
+    public String format(Object... params) {
+        final StrBuilder cached = BUILDER.get();
+        // 参数的toString中可能再次格式化,使用中的构建器不可复用
+        final StrBuilder builder = null == cached ? StrBuilder.create(this.raw.length + 50) : cached;
+        BUILDER.set(null);
+        try {
+            return appendTo(builder, params).toString();
+        } finally {
+            if (builder.capacity() <= MAX_CAPACITY) {
+                builder.clear();
+                BUILDER.set(builder);
+            }
+        }
+    }
+
+    /**
+     * 将格式化结果追加到指定的构建器
+     *
+     * @param builder 构建器
+     * @param params  参数值
+     * @return 构建器
+     */
+    public StrBuilder appendTo(StrBuilder builder, Object... params) {
+        final int slots = this.rawEnds.length;
+        final int count = null == params ? 0 : Math.min(params.length, slots);
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            builder.append(this.literal, start, this.literalEnds[i] - start);
+            start = this.literalEnds[i];
+            appendParam(builder, params[i]);
+        }
+        if (null != params && params.length > slots) {
+            builder.append(this.literal, start, this.literalEnds[slots] - start);
+        } else if (count > 0) {
+            final int rawStart = this.rawEnds[count - 1];
+            builder.append(this.raw, rawStart, this.raw.length - rawStart);
+        } else {
+            builder.append(this.raw);
+        }
+        return builder;
+    }
+
+    /**
+     * 追加参数,整数类直接写入字符,其它按{@link StringKit#toString(Object)}转换
+     *
+     * @param builder 构建器
+     * @param param   参数
+     */
+    private static void appendParam(StrBuilder builder, Object param) {
+        if (param instanceof Integer || param instanceof Long
+                || param instanceof Short || param instanceof Byte) {
+            builder.append(((Number) param).longValue());
+        } else {
+            final String value = StringKit.toString(param);
+            builder.append(null == value ? Normal.NULL : value);
+        }
+    }
+
+}
@@ -49,6 +49,14 @@ public class CsvReadConfig extends CsvConfig implements Serializable {
      * 每行字段个数不同时是否抛出异常,默认false
      */
     protected boolean errorOnDifferentFieldCount;
+    /**
+     * 按标题名投影的列,仅{@link CsvScanner}使用
+     */
+    protected String[] columns;
+    /**
+     * 按序号投影的列,仅{@link CsvScanner}使用
+     */
+    protected int[] columnIndexes;
 
     /**
      * 默认配置
@@ -86,4 +94,24 @@ public class CsvReadConfig extends CsvConfig implements Serializable {
         this.errorOnDifferentFieldCount = errorOnDifferentFieldCount;
     }
 
+    /**
+     * 设置按标题名投影的列,需包含标题行,{@link CsvRecord}中的下标为列在此处的顺序
+     *
+     * @param columns 标题名
+     */
+    public void setColumns(String... columns) {
+        this.columns = columns;
+        this.columnIndexes = null;
+    }
+
+    /**
+     * 设置按序号投影的列,{@link CsvRecord}中的下标为列在此处的顺序
+     *
+     * @param columnIndexes 原始列序号,从0开始
+     */
+    public void setColumnIndexes(int... columnIndexes) {
+        this.columnIndexes = columnIndexes;
+        this.columns = null;
+    }
+
 }
@@ -30,6 +30,7 @@ import org.aoju.bus.core.lang.exception.InstrumentException;
 import org.aoju.bus.core.toolkit.FileKit;
 import org.aoju.bus.core.toolkit.IoKit;
 import org.aoju.bus.core.toolkit.ObjectKit;
+import org.aoju.bus.core.toolkit.ThreadKit;
 
 import java.io.File;
 import java.io.IOException;
@@ -39,6 +40,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * CSV文件读取器,参考：FastCSV
@@ -241,6 +245,81 @@ public final class CsvReader {
         return result;
     }
 
+    /**
+     * 流式扫描CSV数据，读取后关闭Reader
+     * 每条记录以复用的{@link CsvRecord}视图交给处理器，不在内存中保留数据
+     *
+     * @param reader        Reader
+     * @param recordHandler 记录处理器
+     */
+    public void scan(Reader reader, CsvRecordHandler recordHandler) {
+        scan(new CsvScanner(reader, config), recordHandler);
+    }
+
+    /**
+     * 以内存映射的方式流式扫描CSV文件
+     *
+     * @param path          CSV文件
+     * @param charset       文件编码
+     * @param recordHandler 记录处理器
+     */
+    public void scan(Path path, java.nio.charset.Charset charset, CsvRecordHandler recordHandler) {
+        scan(new CsvScanner(path, charset, config), recordHandler);
+    }
+
+    /**
+     * 在记录边界上切分CSV文件并多线程并行扫描，处理器需线程安全
+     * 各段内记录按顺序处理，段之间无顺序保证
+     *
+     * @param path          CSV文件
+     * @param charset       文件编码，需兼容ASCII
+     * @param parallelism   并行数
+     * @param recordHandler 记录处理器
+     */
+    public void scan(Path path, java.nio.charset.Charset charset, int parallelism, CsvRecordHandler recordHandler) {
+        final List<CsvScanner> scanners = CsvScanner.split(path, charset, config, parallelism);
+        if (scanners.size() == 1) {
+            scan(scanners.get(0), recordHandler);
+            return;
+        }
+        final ExecutorService executor = ThreadKit.newExecutor(scanners.size());
+        try {
+            final List<Future<?>> futures = new ArrayList<>(scanners.size());
+            for (CsvScanner scanner : scanners) {
+                futures.add(executor.submit(() -> scan(scanner, recordHandler)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InstrumentException(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new InstrumentException(cause);
+        } finally {
+            executor.shutdownNow();
+            scanners.forEach(IoKit::close);
+        }
+    }
+
+    /**
+     * 扫描CSV数据，读取后关闭Scanner
+     *
+     * @param scanner       CSV扫描器
+     * @param recordHandler 记录处理器
+     */
+    private void scan(CsvScanner scanner, CsvRecordHandler recordHandler) {
+        try {
+            CsvRecord record;
+            while ((record = scanner.next()) != null) {
+                recordHandler.handle(record);
+            }
+        } finally {
+            IoKit.close(scanner);
+        }
+    }
+
     /**
      * 构建 {@link CsvParser}
      *
@@ -0,0 +1,343 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.text.csv;
+
+import org.aoju.bus.core.date.DateTime;
+import org.aoju.bus.core.date.format.DateScanner;
+import org.aoju.bus.core.lang.exception.InstrumentException;
+import org.aoju.bus.core.toolkit.DateKit;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV记录视图,由{@link CsvScanner}复用
+ * <p>
+ * 只持有字段在扫描器字符缓冲区中的区间,字段在访问时才转换为字符串,
+ * 数值及日期直接从字符区间解析,不产生中间字符串
+ * 视图内容仅在下一次{@link CsvScanner#next()}调用前有效,需要保留时使用{@link #toRow()}复制
+ * <p>
+ * 配置了列投影时,下标为投影后的列序号
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public final class CsvRecord {
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * 不超过此值的尾数可精确表示为double
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final CsvScanner scanner;
+
+    CsvRecord(CsvScanner scanner) {
+        this.scanner = scanner;
+    }
+
+    /**
+     * 获取原始行号,多行情况下为首行行号
+     *
+     * @return 行号
+     */
+    public long getLineNo() {
+        return scanner.recordLineNo;
+    }
+
+    /**
+     * 字段数量,投影时为投影的列数
+     *
+     * @return 字段数量
+     */
+    public int size() {
+        return null == scanner.projection ? scanner.fieldCount : scanner.projection.length;
+    }
+
+    /**
+     * 获取标题对应的列序号,投影时为投影后的序号
+     *
+     * @param name 标题名
+     * @return 列序号, 无此列返回-1
+     * @throws IllegalStateException CSV文件无标题行抛出此异常
+     */
+    public int indexOf(String name) {
+        if (null == scanner.headerMap) {
+            throw new IllegalStateException("No header available");
+        }
+        final Integer index = (null == scanner.projection ? scanner.headerMap : scanner.projectedHeaderMap).get(name);
+        return null == index ? -1 : index;
+    }
+
+    /**
+     * 指定字段是否为空,不存在的字段也视为空
+     *
+     * @param index 列序号
+     * @return 是否为空
+     */
+    public boolean isEmpty(int index) {
+        final int field = field(index);
+        return field < 0 || start(field) >= end(field);
+    }
+
+    /**
+     * 获取字段内容的视图,不复制字符
+     *
+     * @param index 列序号
+     * @return 字段内容, 字段不存在返回null
+     */
+    public CharSequence get(int index) {
+        final int field = field(index);
+        if (field < 0) {
+            return null;
+        }
+        final int start = start(field);
+        return CharBuffer.wrap(scanner.buf, start, end(field) - start);
+    }
+
+    /**
+     * 获取字段字符串
+     *
+     * @param index 列序号
+     * @return 字段字符串, 字段不存在返回null
+     */
+    public String getString(int index) {
+        final int field = field(index);
+        return field < 0 ? null : string(field);
+    }
+
+    /**
+     * 获取标题对应的字段字符串
+     *
+     * @param name 标题名
+     * @return 字段字符串, 无此字段返回null
+     */
+    public String getString(String name) {
+        final int index = indexOf(name);
+        return index < 0 ? null : getString(index);
+    }
+
+    /**
+     * 将字段解析为int
+     *
+     * @param index 列序号
+     * @return 数值
+     * @throws InstrumentException 字段不存在或不是合法的数字
+     */
+    public int getInt(int index) {
+        final long value = getLong(index);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw error(index, "int");
+        }
+        return (int) value;
+    }
+
+    /**
+     * 将字段解析为long
+     *
+     * @param index 列序号
+     * @return 数值
+     * @throws InstrumentException 字段不存在或不是合法的数字
+     */
+    public long getLong(int index) {
+        final int field = field(index);
+        if (field < 0) {
+            throw error(index, "long");
+        }
+        final char[] buf = scanner.buf;
+        int i = start(field);
+        final int end = end(field);
+        final boolean negative = i < end && buf[i] == '-';
+        if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+            i++;
+        }
+        if (i == end) {
+            throw error(index, "long");
+        }
+        // 以负数累加,避免Long.MIN_VALUE溢出
+        long value = 0;
+        final long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        for (; i < end; i++) {
+            final int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9 || value < limit / 10) {
+                throw error(index, "long");
+            }
+            value *= 10;
+            if (value < limit + digit) {
+                throw error(index, "long");
+            }
+            value -= digit;
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * 将字段解析为double,常见的十进制小数直接计算,其它形式交由{@link Double#parseDouble(String)}
+     *
+     * @param index 列序号
+     * @return 数值
+     * @throws InstrumentException 字段不存在或不是合法的数字
+     */
+    public double getDouble(int index) {
+        final int field = field(index);
+        if (field < 0) {
+            throw error(index, "double");
+        }
+        final char[] buf = scanner.buf;
+        final int start = start(field);
+        final int end = end(field);
+        int i = start;
+        final boolean negative = i < end && buf[i] == '-';
+        if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            final char c = buf[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+                if (mantissa >= MAX_EXACT_MANTISSA) {
+                    break;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == end && digits > 0 && scale < POW10.length) {
+            // 尾数与10的幂均可精确表示,一次除法即得到正确舍入的结果
+            final double value = scale > 0 ? mantissa / POW10[scale] : mantissa;
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(new String(buf, start, end - start));
+        } catch (NumberFormatException e) {
+            throw error(index, "double");
+        }
+    }
+
+    /**
+     * 将字段解析为日期,支持格式见{@link DateKit#parse(CharSequence)}
+     *
+     * @param index 列序号
+     * @return 日期, 字段不存在或为空返回null
+     */
+    public DateTime getDate(int index) {
+        final int field = field(index);
+        if (field < 0 || start(field) >= end(field)) {
+            return null;
+        }
+        final CharSequence value = get(index);
+        final DateTime date = DateScanner.parse(value);
+        return null == date ? DateKit.parse(value.toString()) : date;
+    }
+
+    /**
+     * 复制为{@link CsvRow},可在视图失效后继续使用
+     *
+     * @return {@link CsvRow}
+     */
+    public CsvRow toRow() {
+        final int size = size();
+        final List<String> fields = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            fields.add(getString(i));
+        }
+        return new CsvRow(getLineNo(), null == scanner.projection ? scanner.headerMap : scanner.projectedHeaderMap, fields);
+    }
+
+    @Override
+    public String toString() {
+        return toRow().toString();
+    }
+
+    /**
+     * 未投影的原始字段字符串
+     *
+     * @param field 原始列序号
+     * @return 字段字符串
+     */
+    String raw(int field) {
+        return string(field);
+    }
+
+    /**
+     * 列序号转换为原始列序号
+     *
+     * @param index 列序号
+     * @return 原始列序号, 不存在返回-1
+     */
+    private int field(int index) {
+        final int[] projection = scanner.projection;
+        if (null != projection) {
+            if (index < 0 || index >= projection.length) {
+                return -1;
+            }
+            index = projection[index];
+        }
+        return index < 0 || index >= scanner.fieldCount ? -1 : index;
+    }
+
+    private String string(int field) {
+        final int start = start(field);
+        return new String(scanner.buf, start, end(field) - start);
+    }
+
+    /**
+     * 字段起始位置,与{@link CsvParser}一致,去掉两边的包装符
+     */
+    private int start(int field) {
+        return isWrapped(field) ? scanner.starts[field] + 1 : scanner.starts[field];
+    }
+
+    private int end(int field) {
+        return isWrapped(field) ? scanner.ends[field] - 1 : scanner.ends[field];
+    }
+
+    private boolean isWrapped(int field) {
+        final int start = scanner.starts[field];
+        final int end = scanner.ends[field];
+        final char delimiter = scanner.config.textDelimiter;
+        return end - start >= 2 && scanner.buf[start] == delimiter && scanner.buf[end - 1] == delimiter;
+    }
+
+    private InstrumentException error(int index, String type) {
+        return new InstrumentException("Line {} column {} value [{}] is not a valid {}", getLineNo(), index, getString(index), type);
+    }
+
+}
@@ -0,0 +1,621 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.text.csv;
+
+import org.aoju.bus.core.lang.Assert;
+import org.aoju.bus.core.lang.Symbol;
+import org.aoju.bus.core.lang.exception.InstrumentException;
+import org.aoju.bus.core.toolkit.IoKit;
+import org.aoju.bus.core.toolkit.ObjectKit;
+import org.aoju.bus.core.toolkit.StringKit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * CSV流式扫描器
+ * <p>
+ * 与{@link CsvParser}解析规则一致,但不为每行创建字段列表:
+ * 每次{@link #next()}返回同一个{@link CsvRecord}视图,只记录各字段在字符缓冲区中的区间,
+ * 字段在访问时才转换为字符串或直接解析为数值/日期
+ * <p>
+ * 文件以内存映射窗口的方式读取并直接解码到字符缓冲区,
+ * 通过{@link #split(Path, Charset, CsvReadConfig, int)}可在记录边界上将文件切分为多段并行扫描
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public final class CsvScanner implements Closeable {
+
+    /**
+     * 每次映射的文件窗口大小
+     */
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final int DEFAULT_ROW_CAPACITY = 10;
+
+    final CsvReadConfig config;
+    private final CsvRecord record;
+
+    /**
+     * 字符来源为Reader时使用
+     */
+    private Reader reader;
+    /**
+     * 字符来源为文件区间时使用
+     */
+    private FileChannel channel;
+    private CharsetDecoder decoder;
+    private ByteBuffer window;
+    /**
+     * 已映射部分的结束位置
+     */
+    private long mappedEnd;
+    /**
+     * 文件区间的结束位置
+     */
+    private long limit;
+    /**
+     * 解码器是否已输出全部字符
+     */
+    private boolean drained;
+
+    char[] buf = new char[IoKit.DEFAULT_LARGE_BUFFER_SIZE];
+    int[] starts = new int[DEFAULT_ROW_CAPACITY];
+    int[] ends = new int[DEFAULT_ROW_CAPACITY];
+    int fieldCount;
+    /**
+     * 当前位置
+     */
+    private int pos;
+    /**
+     * 缓冲区中有效字符长度
+     */
+    private int len;
+    /**
+     * 当前记录中引号包装内的换行数
+     */
+    private int quotedLines;
+    /**
+     * 数据不足时最后一个字段的起始位置,用于输入结束时补全
+     */
+    private int lastStart;
+    /**
+     * 上一行以\r结束,下一行开头的\n需跳过
+     */
+    private boolean pendingLf;
+    /**
+     * 是否读取结束
+     */
+    private boolean finished;
+    /**
+     * 当前行号
+     */
+    private long lineNo;
+    /**
+     * 当前记录的起始行号
+     */
+    long recordLineNo;
+    /**
+     * 第一行字段数,用于检查每行字段数是否一致
+     */
+    private int firstLineFieldCount = -1;
+    /**
+     * 标题
+     */
+    Map<String, Integer> headerMap;
+    List<String> header;
+    /**
+     * 投影后的列对应的原始列号,null表示不投影
+     */
+    int[] projection;
+    /**
+     * 投影后的标题
+     */
+    Map<String, Integer> projectedHeaderMap;
+
+    /**
+     * 构造,从Reader中扫描
+     *
+     * @param reader Reader
+     * @param config 配置,null则为默认配置
+     */
+    public CsvScanner(final Reader reader, CsvReadConfig config) {
+        this.reader = Objects.requireNonNull(reader, "reader must not be null");
+        this.config = ObjectKit.defaultIfNull(config, CsvReadConfig.defaultConfig());
+        this.record = new CsvRecord(this);
+        checkProjection();
+    }
+
+    /**
+     * 构造,以内存映射的方式扫描整个文件
+     *
+     * @param path    CSV文件
+     * @param charset 文件编码
+     * @param config  配置,null则为默认配置
+     */
+    public CsvScanner(final Path path, Charset charset, CsvReadConfig config) {
+        this(path, charset, config, 0, -1, 0);
+    }
+
+    /**
+     * 构造,扫描文件中的一段区间,区间起始位置须为记录开头
+     *
+     * @param path    CSV文件
+     * @param charset 文件编码
+     * @param config  配置,null则为默认配置
+     * @param start   起始位置
+     * @param end     结束位置,-1表示文件末尾
+     * @param lineNo  起始位置之前的行数
+     */
+    private CsvScanner(final Path path, Charset charset, CsvReadConfig config, long start, long end, long lineNo) {
+        Assert.notNull(path, "path must not be null");
+        this.config = ObjectKit.defaultIfNull(config, CsvReadConfig.defaultConfig());
+        this.record = new CsvRecord(this);
+        try {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.limit = end < 0 ? channel.size() : end;
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+        this.decoder = ObjectKit.defaultIfNull(charset, org.aoju.bus.core.lang.Charset.UTF_8).newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.mappedEnd = start;
+        this.lineNo = lineNo;
+        checkProjection();
+    }
+
+    /**
+     * 在记录边界上将文件切分为多个扫描器,用于多线程并行扫描
+     * <p>
+     * 切分前对文件字节做一次顺序扫描以跟踪引号状态,保证切分点不落在引号包装的多行字段中,
+     * 因此要求编码兼容ASCII(如UTF-8、GBK),分隔符与包装符为ASCII字符
+     * 如包含标题行,标题由第一个扫描器读取并共享给其它扫描器
+     *
+     * @param path    CSV文件
+     * @param charset 文件编码
+     * @param config  配置,null则为默认配置
+     * @param parts   期望切分的份数
+     * @return 扫描器列表, 数量可能少于期望份数
+     */
+    public static List<CsvScanner> split(final Path path, Charset charset, CsvReadConfig config, int parts) {
+        Assert.notNull(path, "path must not be null");
+        Assert.isTrue(parts > 0, "parts must be positive");
+        config = ObjectKit.defaultIfNull(config, CsvReadConfig.defaultConfig());
+        charset = ObjectKit.defaultIfNull(charset, org.aoju.bus.core.lang.Charset.UTF_8);
+        if (false == isAsciiCompatible(charset) || config.textDelimiter > 0x7F || config.fieldSeparator > 0x7F) {
+            throw new InstrumentException("Split requires an ASCII compatible charset and delimiters, but got [{}]", charset);
+        }
+
+        final long[][] ranges;
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ranges = boundaries(fileChannel, config, parts);
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+
+        final List<CsvScanner> scanners = new ArrayList<>(ranges.length);
+        try {
+            for (long[] range : ranges) {
+                scanners.add(new CsvScanner(path, charset, config, range[0], range[1], range[2]));
+            }
+            if (config.containsHeader) {
+                final CsvScanner first = scanners.get(0);
+                first.initHeader();
+                for (int i = 1; i < scanners.size(); i++) {
+                    scanners.get(i).shareHeader(first);
+                }
+            }
+        } catch (RuntimeException e) {
+            scanners.forEach(IoKit::close);
+            throw e;
+        }
+        return scanners;
+    }
+
+    /**
+     * 扫描文件字节,计算各段的起止位置及起始行数
+     */
+    private static long[][] boundaries(FileChannel fileChannel, CsvReadConfig config, int parts) throws IOException {
+        final long size = fileChannel.size();
+        final long step = Math.max(1, size / parts);
+        final byte quote = (byte) config.textDelimiter;
+        final List<long[]> ranges = new ArrayList<>(parts);
+
+        long start = 0;
+        long startLineNo = 0;
+        long target = step;
+        long lines = 0;
+        boolean inQuotes = false;
+        byte pre = 0;
+        for (long offset = 0; offset < size && ranges.size() < parts - 1; offset += WINDOW_SIZE) {
+            final ByteBuffer bytes = fileChannel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW_SIZE, size - offset));
+            final int count = bytes.limit();
+            for (int i = 0; i < count; i++) {
+                final byte b = bytes.get(i);
+                if (b == quote) {
+                    inQuotes = !inQuotes;
+                } else if (b == Symbol.C_CR || b == Symbol.C_LF) {
+                    if (b == Symbol.C_CR || pre != Symbol.C_CR) {
+                        lines++;
+                    }
+                    final long next = offset + i + 1;
+                    // 切分点位于行尾之后,\r\n视为一个整体
+                    if (false == inQuotes && next >= target && next < size
+                            && (b == Symbol.C_LF || (i + 1 < count ? bytes.get(i + 1) : next(fileChannel, next)) != Symbol.C_LF)) {
+                        ranges.add(new long[]{start, next, startLineNo});
+                        start = next;
+                        startLineNo = lines;
+                        target = start + step;
+                        if (ranges.size() == parts - 1) {
+                            break;
+                        }
+                    }
+                }
+                pre = b;
+            }
+        }
+        ranges.add(new long[]{start, size, startLineNo});
+        return ranges.toArray(new long[0][]);
+    }
+
+    private static byte next(FileChannel fileChannel, long position) throws IOException {
+        final ByteBuffer one = ByteBuffer.allocate(1);
+        return fileChannel.read(one, position) > 0 ? one.get(0) : 0;
+    }
+
+    private static boolean isAsciiCompatible(Charset charset) {
+        final byte[] bytes = "\r\n,\"".getBytes(charset);
+        return bytes.length == 4 && bytes[0] == Symbol.C_CR && bytes[1] == Symbol.C_LF;
+    }
+
+    /**
+     * 获取标题,如果containsHeader设置为false则抛出异常
+     *
+     * @return 标题列表
+     */
+    public List<String> getHeader() {
+        if (false == config.containsHeader) {
+            throw new IllegalStateException("No header available - header parsing is disabled");
+        }
+        if (null == header) {
+            initHeader();
+        }
+        return header;
+    }
+
+    /**
+     * 读取下一条记录
+     * 返回的{@link CsvRecord}在每次调用本方法时复用,其内容仅在下次调用前有效
+     *
+     * @return 记录, 读取结束返回null
+     * @throws InstrumentException IO读取异常
+     */
+    public CsvRecord next() throws InstrumentException {
+        if (config.containsHeader && null == header) {
+            initHeader();
+        }
+        return nextRecord() ? record : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (null != reader) {
+            reader.close();
+        }
+        if (null != channel) {
+            channel.close();
+        }
+        window = null;
+    }
+
+    /**
+     * 读取下一条非空记录并检查字段数
+     */
+    private boolean nextRecord() {
+        while (scanRecord()) {
+            // 跳过空行
+            if (config.skipEmptyRows && fieldCount == 1 && isEmptyField(0)) {
+                continue;
+            }
+            // 检查每行的字段数是否一致
+            if (config.errorOnDifferentFieldCount) {
+                if (firstLineFieldCount == -1) {
+                    firstLineFieldCount = fieldCount;
+                } else if (fieldCount != firstLineFieldCount) {
+                    throw new InstrumentException(String.format("Line %d has %d fields, but first line has %d fields", recordLineNo, fieldCount, firstLineFieldCount));
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 字段去掉两边的包装符后是否为空,与{@link CsvParser}一致
+     *
+     * @param field 原始列序号
+     * @return 是否为空
+     */
+    private boolean isEmptyField(int field) {
+        final int length = ends[field] - starts[field];
+        return length == 0 || (length == 2 && buf[starts[field]] == config.textDelimiter
+                && buf[starts[field] + 1] == config.textDelimiter);
+    }
+
+    /**
+     * 首条记录做为标题
+     */
+    private void initHeader() {
+        if (false == nextRecord()) {
+            header = Collections.emptyList();
+            headerMap = Collections.emptyMap();
+            return;
+        }
+        final List<String> fields = new ArrayList<>(fieldCount);
+        final Map<String, Integer> map = new LinkedHashMap<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            final String field = record.raw(i);
+            fields.add(field);
+            if (StringKit.isNotEmpty(field) && false == map.containsKey(field)) {
+                map.put(field, i);
+            }
+        }
+        header = Collections.unmodifiableList(fields);
+        headerMap = Collections.unmodifiableMap(map);
+        initProjection();
+    }
+
+    private void shareHeader(CsvScanner first) {
+        this.header = first.header;
+        this.headerMap = first.headerMap;
+        this.firstLineFieldCount = first.firstLineFieldCount;
+        this.projection = first.projection;
+        this.projectedHeaderMap = first.projectedHeaderMap;
+    }
+
+    private void checkProjection() {
+        if (null != config.columns && false == config.containsHeader) {
+            throw new InstrumentException("Column names projection requires a header row");
+        }
+        initProjection();
+    }
+
+    /**
+     * 根据配置的列计算投影,按列名投影时需在标题读取后计算
+     */
+    private void initProjection() {
+        if (null != config.columnIndexes) {
+            projection = config.columnIndexes.clone();
+        } else if (null != config.columns) {
+            if (null == headerMap) {
+                return;
+            }
+            projection = new int[config.columns.length];
+            for (int i = 0; i < projection.length; i++) {
+                final Integer index = headerMap.get(config.columns[i]);
+                if (null == index) {
+                    throw new InstrumentException("Column [{}] not found in header", config.columns[i]);
+                }
+                projection[i] = index;
+            }
+        }
+        if (null != projection && null != header) {
+            final Map<String, Integer> map = new LinkedHashMap<>(projection.length);
+            for (int i = 0; i < projection.length; i++) {
+                if (projection[i] < header.size()) {
+                    map.putIfAbsent(header.get(projection[i]), i);
+                }
+            }
+            projectedHeaderMap = Collections.unmodifiableMap(map);
+        }
+    }
+
+    /**
+     * 扫描一条记录,字段区间记录在starts/ends中
+     *
+     * @return 是否读取到记录
+     */
+    private boolean scanRecord() {
+        while (true) {
+            if (pos == len && false == fill()) {
+                return false;
+            }
+            if (pendingLf) {
+                pendingLf = false;
+                if (buf[pos] == Symbol.C_LF) {
+                    pos++;
+                    continue;
+                }
+            }
+            break;
+        }
+
+        recordLineNo = ++lineNo;
+        while (true) {
+            final int end = parse(pos);
+            if (end >= 0) {
+                pos = end;
+                break;
+            }
+            if (false == fill()) {
+                // 缓冲区可能已移动,重新解析后剩余部分作为最后一个字段
+                parse(pos);
+                addField(lastStart, len);
+                pos = len;
+                break;
+            }
+        }
+        lineNo += quotedLines;
+        return true;
+    }
+
+    /**
+     * 从指定位置解析一条记录
+     *
+     * @param start 记录开始位置
+     * @return 记录结束后的位置, 数据不足时返回-1
+     */
+    private int parse(final int start) {
+        final char[] localBuf = this.buf;
+        final char separator = config.fieldSeparator;
+        final char delimiter = config.textDelimiter;
+        final int localLen = this.len;
+        boolean inQuotes = false;
+        int lines = 0;
+        int fieldStart = start;
+        fieldCount = 0;
+        quotedLines = 0;
+        for (int i = start; i < localLen; i++) {
+            final char c = localBuf[i];
+            if (inQuotes) {
+                if (c == delimiter) {
+                    inQuotes = false;
+                } else if ((c == Symbol.C_CR || c == Symbol.C_LF) && (i == start || localBuf[i - 1] != Symbol.C_CR)) {
+                    lines++;
+                }
+            } else if (c == separator) {
+                addField(fieldStart, i);
+                fieldStart = i + 1;
+            } else if (c == delimiter) {
+                inQuotes = true;
+            } else if (c == Symbol.C_CR || c == Symbol.C_LF) {
+                addField(fieldStart, i);
+                pendingLf = c == Symbol.C_CR;
+                quotedLines = lines;
+                return i + 1;
+            }
+        }
+        quotedLines = lines;
+        lastStart = fieldStart;
+        return -1;
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount << 1);
+            ends = Arrays.copyOf(ends, fieldCount << 1);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        fieldCount++;
+    }
+
+    /**
+     * 读取更多字符,未处理的部分移动到缓冲区开头,缓冲区不足时扩容
+     *
+     * @return 是否读取到新的字符
+     */
+    private boolean fill() {
+        if (finished) {
+            return false;
+        }
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, len - pos);
+            len -= pos;
+            pos = 0;
+        }
+        // 至少保留两个字符的空间,以便解码代理对
+        if (buf.length - len < 2) {
+            buf = Arrays.copyOf(buf, buf.length << 1);
+        }
+        final int read;
+        try {
+            read = read(buf, len, buf.length - len);
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+        if (read < 0) {
+            finished = true;
+            return false;
+        }
+        len += read;
+        return true;
+    }
+
+    /**
+     * 从Reader或文件映射窗口中读取字符
+     */
+    private int read(char[] cbuf, int off, int length) throws IOException {
+        if (null != reader) {
+            int read;
+            do {
+                read = reader.read(cbuf, off, length);
+            } while (read == 0);
+            return read;
+        }
+        if (drained) {
+            return -1;
+        }
+        final CharBuffer out = CharBuffer.wrap(cbuf, off, length);
+        while (out.position() == off) {
+            final boolean endOfInput = mappedEnd == limit;
+            if (null == window || (false == window.hasRemaining() && false == endOfInput)) {
+                map();
+                continue;
+            }
+            final CoderResult result = decoder.decode(window, out, endOfInput);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (result.isUnderflow()) {
+                if (endOfInput) {
+                    decoder.flush(out);
+                    drained = true;
+                    window = null;
+                    break;
+                }
+                // 窗口末尾为不完整的字符,从该字符处重新映射
+                map();
+            }
+        }
+        final int read = out.position() - off;
+        return read == 0 && drained ? -1 : read;
+    }
+
+    /**
+     * 映射下一个文件窗口,从上一个窗口未解码的位置开始
+     */
+    private void map() throws IOException {
+        final long start = mappedEnd - (null == window ? 0 : window.remaining());
+        final long size = Math.min(WINDOW_SIZE, limit - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        mappedEnd = start + size;
+    }
+
+}
@@ -0,0 +1,446 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.core.thread;
+
+import org.aoju.bus.core.lang.Assert;
+import org.aoju.bus.core.lang.exception.InstrumentException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 分块并行的批处理执行器
+ * <p>
+ * 将{@link Iterable}或{@link Stream}中的数据切分为块,提交到执行器并行处理:
+ * <ul>
+ *     <li>块大小根据已完成块的耗时自动调整,使每块耗时接近目标时间</li>
+ *     <li>已提交未交付的块数不超过窗口大小,数据源按处理进度读取,内存占用有上限</li>
+ *     <li>结果在调用线程上按块的顺序(或完成顺序)交付</li>
+ *     <li>任一块失败时取消其余块,并抛出首个失败的异常</li>
+ * </ul>
+ * 默认使用{@link ForkJoinPool#commonPool()},其工作窃取可平衡各块耗时的差异,
+ * 也可指定其它执行器,如虚拟线程执行器
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public class BatchExecutor {
+
+    /**
+     * 执行器
+     */
+    private Executor executor = ForkJoinPool.commonPool();
+    /**
+     * 最多同时未交付的块数
+     */
+    private int window = ForkJoinPool.getCommonPoolParallelism() * 2;
+    /**
+     * 最小块大小
+     */
+    private int minChunkSize = 1;
+    /**
+     * 最大块大小
+     */
+    private int maxChunkSize = 8192;
+    /**
+     * 每块的目标耗时,单位纳秒
+     */
+    private long targetNanos = TimeUnit.MILLISECONDS.toNanos(10);
+    /**
+     * 是否按块的顺序交付结果
+     */
+    private boolean ordered = true;
+    /**
+     * 块完成时的回调
+     */
+    private Consumer<Report> listener;
+
+    /**
+     * 创建批处理执行器
+     *
+     * @return {@link BatchExecutor}
+     */
+    public static BatchExecutor create() {
+        return new BatchExecutor();
+    }
+
+    /**
+     * 设置执行器,默认{@link ForkJoinPool#commonPool()}
+     *
+     * @param executor 执行器
+     * @return this
+     */
+    public BatchExecutor setExecutor(Executor executor) {
+        Assert.notNull(executor, "Executor must be not null!");
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * 设置最多同时未交付的块数,包括正在执行和已完成等待按顺序交付的块
+     *
+     * @param window 窗口大小
+     * @return this
+     */
+    public BatchExecutor setWindow(int window) {
+        Assert.isTrue(window > 0, "Window must be positive!");
+        this.window = window;
+        return this;
+    }
+
+    /**
+     * 设置块大小的范围,两者相等时使用固定块大小
+     *
+     * @param minChunkSize 最小块大小
+     * @param maxChunkSize 最大块大小
+     * @return this
+     */
+    public BatchExecutor setChunkSize(int minChunkSize, int maxChunkSize) {
+        Assert.isTrue(minChunkSize > 0 && minChunkSize <= maxChunkSize, "Invalid chunk size range!");
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        return this;
+    }
+
+    /**
+     * 设置每块的目标耗时,默认10毫秒
+     *
+     * @param target 目标耗时
+     * @param unit   时间单位
+     * @return this
+     */
+    public BatchExecutor setTargetTime(long target, TimeUnit unit) {
+        Assert.isTrue(target > 0, "Target time must be positive!");
+        this.targetNanos = unit.toNanos(target);
+        return this;
+    }
+
+    /**
+     * 设置是否按块的顺序交付结果,为false时按完成顺序交付
+     *
+     * @param ordered 是否按顺序
+     * @return this
+     */
+    public BatchExecutor setOrdered(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * 设置块完成时的回调,在调用线程上执行
+     *
+     * @param listener 回调
+     * @return this
+     */
+    public BatchExecutor setListener(Consumer<Report> listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * 分块并行处理
+     *
+     * @param <T>     数据类型
+     * @param source  数据源
+     * @param handler 块处理器
+     * @return 处理的数据条数
+     * @throws InstrumentException 等待被中断,任一块处理失败时抛出其异常
+     */
+    public <T> long forEach(Iterable<T> source, Consumer<List<T>> handler) {
+        return execute(source.iterator(), chunk -> {
+            handler.accept(chunk);
+            return null;
+        }, null);
+    }
+
+    /**
+     * 分块并行处理,处理完毕后关闭{@link Stream}
+     *
+     * @param <T>     数据类型
+     * @param source  数据源
+     * @param handler 块处理器
+     * @return 处理的数据条数
+     * @throws InstrumentException 等待被中断,任一块处理失败时抛出其异常
+     */
+    public <T> long forEach(Stream<T> source, Consumer<List<T>> handler) {
+        try (Stream<T> stream = source) {
+            return forEach(stream::iterator, handler);
+        }
+    }
+
+    /**
+     * 分块并行处理,每块的结果在调用线程上交给consumer
+     *
+     * @param <T>      数据类型
+     * @param <R>      结果类型
+     * @param source   数据源
+     * @param handler  块处理器
+     * @param consumer 结果消费者
+     * @return 处理的数据条数
+     * @throws InstrumentException 等待被中断,任一块处理失败时抛出其异常
+     */
+    public <T, R> long map(Iterable<T> source, Function<List<T>, R> handler, Consumer<R> consumer) {
+        return execute(source.iterator(), handler, consumer);
+    }
+
+    /**
+     * 分块并行处理,每块的结果在调用线程上交给consumer,处理完毕后关闭{@link Stream}
+     *
+     * @param <T>      数据类型
+     * @param <R>      结果类型
+     * @param source   数据源
+     * @param handler  块处理器
+     * @param consumer 结果消费者
+     * @return 处理的数据条数
+     * @throws InstrumentException 等待被中断,任一块处理失败时抛出其异常
+     */
+    public <T, R> long map(Stream<T> source, Function<List<T>, R> handler, Consumer<R> consumer) {
+        try (Stream<T> stream = source) {
+            return map(stream::iterator, handler, consumer);
+        }
+    }
+
+    /**
+     * 在调用线程上读取数据源、提交块并交付结果
+     *
+     * @param <T>      数据类型
+     * @param <R>      结果类型
+     * @param iterator 数据源
+     * @param handler  块处理器
+     * @param consumer 结果消费者,可以为null
+     * @return 处理的数据条数
+     */
+    private <T, R> long execute(Iterator<T> iterator, Function<List<T>, R> handler, Consumer<R> consumer) {
+        final BlockingQueue<Chunk<T, R>> completed = new LinkedBlockingQueue<>();
+        final ArrayDeque<Chunk<T, R>> pending = new ArrayDeque<>();
+        int inFlight = 0;
+        int index = 0;
+        long count = 0;
+        int chunkSize = minChunkSize;
+        // 每条数据的平均耗时,单位纳秒
+        double perItem = -1;
+
+        try {
+            while (true) {
+                while (inFlight < window && iterator.hasNext()) {
+                    final List<T> items = new ArrayList<>(chunkSize);
+                    while (items.size() < chunkSize && iterator.hasNext()) {
+                        items.add(iterator.next());
+                    }
+                    final Chunk<T, R> chunk = new Chunk<>(index++, items, handler, completed);
+                    pending.add(chunk);
+                    inFlight++;
+                    executor.execute(chunk);
+                }
+                if (0 == inFlight) {
+                    return count;
+                }
+
+                final Chunk<T, R> done = completed.take();
+                final R result = done.get();
+                count += done.items.size();
+                if (null != listener) {
+                    listener.accept(done.report());
+                }
+
+                // 按最近的耗时调整块大小,每次最多增长一倍
+                final double sample = (double) done.elapsed / done.items.size();
+                perItem = perItem < 0 ? sample : perItem * 0.7 + sample * 0.3;
+                final long target = perItem > 0 ? (long) (targetNanos / perItem) : Long.MAX_VALUE;
+                chunkSize = (int) Math.max(minChunkSize, Math.min(Math.min(target, (long) chunkSize << 1), maxChunkSize));
+
+                if (ordered) {
+                    done.delivered = true;
+                    while (false == pending.isEmpty() && pending.peekFirst().delivered) {
+                        final Chunk<T, R> head = pending.pollFirst();
+                        inFlight--;
+                        if (null != consumer) {
+                            consumer.accept(head == done ? result : head.get());
+                        }
+                    }
+                } else {
+                    pending.remove(done);
+                    inFlight--;
+                    if (null != consumer) {
+                        consumer.accept(result);
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            cancel(pending);
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new InstrumentException(cause);
+        } catch (InterruptedException e) {
+            cancel(pending);
+            Thread.currentThread().interrupt();
+            throw new InstrumentException(e);
+        } catch (RuntimeException | Error e) {
+            cancel(pending);
+            throw e;
+        }
+    }
+
+    /**
+     * 取消未交付的块,正在执行的块会被中断
+     *
+     * @param pending 未交付的块
+     */
+    private static void cancel(ArrayDeque<? extends Future<?>> pending) {
+        for (Future<?> future : pending) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * 块的执行报告
+     */
+    public static class Report {
+
+        private final int index;
+        private final int size;
+        private final long elapsed;
+        private final String thread;
+
+        Report(int index, int size, long elapsed, String thread) {
+            this.index = index;
+            this.size = size;
+            this.elapsed = elapsed;
+            this.thread = thread;
+        }
+
+        /**
+         * 块的序号,从0开始
+         *
+         * @return 序号
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * 块中的数据条数
+         *
+         * @return 条数
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * 处理耗时
+         *
+         * @param unit 时间单位
+         * @return 耗时
+         */
+        public long getElapsed(TimeUnit unit) {
+            return unit.convert(elapsed, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * 执行的线程名
+         *
+         * @return 线程名
+         */
+        public String getThread() {
+            return thread;
+        }
+
+        @Override
+        public String toString() {
+            return "Report{index=" + index + ", size=" + size + ", elapsed=" + elapsed + "ns, thread=" + thread + "}";
+        }
+
+    }
+
+    /**
+     * 一个数据块,完成或取消时放入完成队列
+     *
+     * @param <T> 数据类型
+     * @param <R> 结果类型
+     */
+    private static class Chunk<T, R> extends FutureTask<R> {
+
+        private final int index;
+        private final List<T> items;
+        private final BlockingQueue<Chunk<T, R>> completed;
+        private long start;
+        private long elapsed;
+        private String thread;
+        /**
+         * 已完成等待按顺序交付,只在调用线程上访问
+         */
+        private boolean delivered;
+
+        Chunk(int index, List<T> items, Function<List<T>, R> handler, BlockingQueue<Chunk<T, R>> completed) {
+            super(() -> handler.apply(items));
+            this.index = index;
+            this.items = items;
+            this.completed = completed;
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread().getName();
+            start = System.nanoTime();
+            super.run();
+        }
+
+        @Override
+        protected void set(R result) {
+            elapsed = System.nanoTime() - start;
+            super.set(result);
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            elapsed = System.nanoTime() - start;
+            super.setException(t);
+        }
+
+        @Override
+        protected void done() {
+            completed.offer(this);
+        }
+
+        Report report() {
+            return new Report(index, items.size(), elapsed, thread);
+        }
+
+    }
+
+}
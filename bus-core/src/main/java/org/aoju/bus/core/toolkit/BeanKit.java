@@ -310,12 +310,7 @@ public class BeanKit {
      * @return {@link BeanDesc}
      */
     public static BeanDesc getBeanDesc(Class<?> clazz) {
-        BeanDesc beanDesc = BeanDescCache.INSTANCE.getBeanDesc(clazz);
-        if (null == beanDesc) {
-            beanDesc = new BeanDesc(clazz);
-            BeanDescCache.INSTANCE.putBeanDesc(clazz, beanDesc);
-        }
-        return beanDesc;
+        return BeanDescCache.INSTANCE.getBeanDesc(clazz, () -> new BeanDesc(clazz));
     }
 
     /**
@@ -346,12 +341,8 @@ public class BeanKit {
      * @return 字段名和字段描述Map
      */
     public static Map<String, PropertyDescriptor> getPropertyDescriptorMap(Class<?> clazz, boolean ignoreCase) {
-        Map<String, PropertyDescriptor> map = BeanInfoCache.INSTANCE.getPropertyDescriptorMap(clazz, ignoreCase);
-        if (null == map) {
-            map = internalGetPropertyDescriptorMap(clazz, ignoreCase);
-            BeanInfoCache.INSTANCE.putPropertyDescriptorMap(clazz, map, ignoreCase);
-        }
-        return map;
+        return BeanInfoCache.INSTANCE.getPropertyDescriptorMap(clazz, ignoreCase,
+                () -> internalGetPropertyDescriptorMap(clazz, ignoreCase));
     }
 
     /**
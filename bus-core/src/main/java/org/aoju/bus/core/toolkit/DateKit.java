@@ -31,6 +31,7 @@ import org.aoju.bus.core.date.DateTime;
 import org.aoju.bus.core.date.TimeInterval;
 import org.aoju.bus.core.date.format.DateParser;
 import org.aoju.bus.core.date.format.DatePeriod;
+import org.aoju.bus.core.date.format.DateScanner;
 import org.aoju.bus.core.date.format.DatePrinter;
 import org.aoju.bus.core.date.format.FormatBuilder;
 import org.aoju.bus.core.lang.*;
@@ -67,6 +68,11 @@ public class DateKit {
      */
     public final static int MAX_YEAR = 2150;
 
+    /**
+     * 已编译的{@link DateTimeFormatter}缓存
+     */
+    private static final SimpleCache<String, DateTimeFormatter> FORMATTER_CACHE = new SimpleCache<>();
+
     /**
      * 农历年，和公历是一样的
      */
@@ -757,8 +763,7 @@ public class DateKit {
         if (null == localDateTime || StringKit.isBlank(format)) {
             return null;
         }
-        DateTimeFormatter df = DateTimeFormatter.ofPattern(format);
-        return localDateTime.format(df);
+        return localDateTime.format(getFormatter(format));
     }
 
     /**
@@ -920,6 +925,11 @@ public class DateKit {
         if (StringKit.isBlank(dateCharSequence)) {
             return null;
         }
+        // 常用格式单次扫描直接解析，无法识别时再按格式逐一匹配
+        final DateTime dateTime = DateScanner.parse(dateCharSequence);
+        if (null != dateTime) {
+            return dateTime;
+        }
         String dateStr = dateCharSequence.toString();
         // 去掉两边空格并去掉中文日期中的“日”和“秒”，以规范长度
         dateStr = StringKit.removeAll(dateStr.trim(), '日', '秒');
@@ -984,7 +994,7 @@ public class DateKit {
      */
     public static LocalDateTime parse(CharSequence dateStr, String format) {
         dateStr = normalize(dateStr);
-        DateTimeFormatter df = DateTimeFormatter.ofPattern(format);
+        DateTimeFormatter df = getFormatter(format);
         try {
             return LocalDateTime.parse(dateStr, df);
         } catch (DateTimeParseException e) {
@@ -993,6 +1003,16 @@ public class DateKit {
         }
     }
 
+    /**
+     * 获取已编译的{@link DateTimeFormatter}，同一格式只编译一次
+     *
+     * @param format 日期格式，常用格式见： {@link Fields}
+     * @return {@link DateTimeFormatter}
+     */
+    public static DateTimeFormatter getFormatter(String format) {
+        return FORMATTER_CACHE.get(format, () -> DateTimeFormatter.ofPattern(format));
+    }
+
     /**
      * 构建DateTime对象
      *
@@ -25,6 +25,7 @@
 package org.aoju.bus.core.toolkit;
 
 import org.aoju.bus.core.collection.EnumerationIter;
+import org.aoju.bus.core.io.CharLineHandler;
 import org.aoju.bus.core.io.LineHandler;
 import org.aoju.bus.core.io.file.FileReader;
 import org.aoju.bus.core.io.file.FileWriter;
@@ -2526,6 +2527,36 @@ public class FileKit {
         FileReader.create(file, charset).readLines(lineHandler);
     }
 
+    /**
+     * 基于内存映射按行处理文件内容,文件按块并行处理,行为复用的{@link CharSequence}视图
+     * 编码需以单字节表示换行,如UTF-8、GBK等
+     *
+     * @param file    文件
+     * @param charset 编码
+     * @param handler {@link CharLineHandler}行处理器,可能被多个线程同时调用
+     * @return 行数
+     * @throws InstrumentException 异常
+     * @see MappedLineReader
+     */
+    public static long readMappedLines(File file, java.nio.charset.Charset charset, CharLineHandler handler) throws InstrumentException {
+        return MappedLineReader.create(file, charset).read(handler);
+    }
+
+    /**
+     * 基于内存映射按行处理文件内容,文件按块并行处理,每块的行分批交给{@link LineHandler#handle(List)}
+     * 编码需以单字节表示换行,如UTF-8、GBK等
+     *
+     * @param file        文件
+     * @param charset     编码
+     * @param lineHandler {@link LineHandler}行处理器,可能被多个线程同时调用
+     * @return 行数
+     * @throws InstrumentException 异常
+     * @see MappedLineReader
+     */
+    public static long readLinesParallel(File file, java.nio.charset.Charset charset, LineHandler lineHandler) throws InstrumentException {
+        return MappedLineReader.create(file, charset).readLines(lineHandler);
+    }
+
     /**
      * 按行处理文件内容
      *
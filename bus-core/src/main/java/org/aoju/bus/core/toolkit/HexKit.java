@@ -27,15 +27,21 @@ package org.aoju.bus.core.toolkit;
 import org.aoju.bus.core.lang.Charset;
 import org.aoju.bus.core.lang.Normal;
 import org.aoju.bus.core.lang.Symbol;
+import org.aoju.bus.core.text.StrBuilder;
 
 import java.awt.*;
 import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * 十六进制(简写为hex或下标16)在数学中是一种逢16进1的进位制,一般用数字0到9和字母A到F表示(其中:A~F即10~15)
  * 例如十进制数57,在二进制写作111001,在16进制写作39
  * 像java,c这样的语言为了区分十六进制和十进制数值,会在十六进制数的前面加上 0x,比如0x20是十进制的32,而不是十进制的20
  * <p>
+ * 编码和解码均使用查找表,并提供写入调用方提供的char[]、byte[]、{@link ByteBuffer}
+ * 及{@link StrBuilder}的方法
  *
  * @author Kimi Liu
  * @version 6.0.2
@@ -43,6 +49,27 @@ import java.math.BigInteger;
  */
 public class HexKit {
 
+    /**
+     * 每个字节对应的两位小写十六进制字符,下标为字节值的2倍
+     */
+    private static final char[] PAIRS_LOWER = toPairs(Normal.DIGITS_16_LOWER);
+    /**
+     * 每个字节对应的两位大写十六进制字符,下标为字节值的2倍
+     */
+    private static final char[] PAIRS_UPPER = toPairs(Normal.DIGITS_16_UPPER);
+    /**
+     * ASCII字符对应的十六进制值,非十六进制字符为-1
+     */
+    private static final byte[] DECODE_TABLE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE_TABLE, (byte) -1);
+        for (int i = 0; i < 16; i++) {
+            DECODE_TABLE[Normal.DIGITS_16_LOWER[i]] = (byte) i;
+            DECODE_TABLE[Normal.DIGITS_16_UPPER[i]] = (byte) i;
+        }
+    }
+
     /**
      * 判断给定字符串是否为16进制数
      * 如果是,需要使用对应数字类型对象的decode方法解码
@@ -85,7 +112,98 @@ public class HexKit {
      * @return 十六进制char[]
      */
     public static char[] encodeHex(byte[] data, boolean toLowerCase) {
-        return encodeHex(data, toLowerCase ? Normal.DIGITS_16_LOWER : Normal.DIGITS_16_UPPER);
+        final char[] out = new char[data.length << 1];
+        encodeHex(data, 0, data.length, out, 0, toLowerCase);
+        return out;
+    }
+
+    /**
+     * 将字节数组转换为十六进制字符,写入调用方提供的字符数组
+     *
+     * @param data        byte[]
+     * @param offset      开始位置
+     * @param length      长度
+     * @param dest        目标字符数组,剩余空间需不小于length的2倍
+     * @param destPos     目标数组开始位置
+     * @param toLowerCase true 传换成小写格式 , false 传换成大写格式
+     * @return 写入的字符数
+     */
+    public static int encodeHex(byte[] data, int offset, int length, char[] dest, int destPos, boolean toLowerCase) {
+        if (offset < 0 || length < 0 || length > data.length - offset) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (destPos < 0 || length > (dest.length - destPos) >> 1) {
+            throw new IndexOutOfBoundsException();
+        }
+        final char[] pairs = toLowerCase ? PAIRS_LOWER : PAIRS_UPPER;
+        final int end = offset + length;
+        for (int i = offset, j = destPos; i < end; i++) {
+            final int k = (data[i] & 0xFF) << 1;
+            dest[j++] = pairs[k];
+            dest[j++] = pairs[k + 1];
+        }
+        return length << 1;
+    }
+
+    /**
+     * 将字节数组转换为十六进制字符,追加到{@link StrBuilder}
+     *
+     * @param data        byte[]
+     * @param offset      开始位置
+     * @param length      长度
+     * @param dest        目标{@link StrBuilder}
+     * @param toLowerCase true 传换成小写格式 , false 传换成大写格式
+     * @return 目标{@link StrBuilder}
+     */
+    public static StrBuilder encodeHex(byte[] data, int offset, int length, StrBuilder dest, boolean toLowerCase) {
+        if (offset < 0 || length < 0 || length > data.length - offset) {
+            throw new IndexOutOfBoundsException();
+        }
+        final char[] pairs = toLowerCase ? PAIRS_LOWER : PAIRS_UPPER;
+        dest.ensureCapacity(dest.length() + (length << 1));
+        final int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            final int k = (data[i] & 0xFF) << 1;
+            dest.append(pairs[k]).append(pairs[k + 1]);
+        }
+        return dest;
+    }
+
+    /**
+     * 将src中剩余的全部字节转换为十六进制ASCII字节,写入dest当前位置,支持堆外(direct)缓冲区
+     * 调用后src的position移动到limit,dest的position后移写入的字节数
+     *
+     * @param src         被编码的缓冲区
+     * @param dest        目标缓冲区
+     * @param toLowerCase true 传换成小写格式 , false 传换成大写格式
+     * @return 写入的字节数
+     * @throws BufferOverflowException 目标缓冲区剩余空间不足
+     */
+    public static int encodeHex(ByteBuffer src, ByteBuffer dest, boolean toLowerCase) {
+        final int length = src.remaining();
+        if (dest.remaining() >> 1 < length) {
+            throw new BufferOverflowException();
+        }
+        final char[] pairs = toLowerCase ? PAIRS_LOWER : PAIRS_UPPER;
+        if (src.hasArray() && dest.hasArray()) {
+            final byte[] in = src.array();
+            final byte[] out = dest.array();
+            final int end = src.arrayOffset() + src.limit();
+            for (int i = src.arrayOffset() + src.position(), j = dest.arrayOffset() + dest.position(); i < end; i++) {
+                final int k = (in[i] & 0xFF) << 1;
+                out[j++] = (byte) pairs[k];
+                out[j++] = (byte) pairs[k + 1];
+            }
+            src.position(src.limit());
+            dest.position(dest.position() + (length << 1));
+        } else {
+            while (src.hasRemaining()) {
+                final int k = (src.get() & 0xFF) << 1;
+                dest.put((byte) pairs[k]);
+                dest.put((byte) pairs[k + 1]);
+            }
+        }
+        return length << 1;
     }
 
     /**
@@ -127,7 +245,7 @@ public class HexKit {
      * @return 十六进制String
      */
     public static String encodeHexStr(byte[] data, boolean toLowerCase) {
-        return encodeHexStr(data, toLowerCase ? Normal.DIGITS_16_LOWER : Normal.DIGITS_16_UPPER);
+        return new String(encodeHex(data, toLowerCase));
     }
 
     /**
@@ -194,6 +312,54 @@ public class HexKit {
         return out;
     }
 
+    /**
+     * 将十六进制字符序列转换为字节,写入调用方提供的数组
+     *
+     * @param hexData 十六进制字符序列
+     * @param dest    目标数组,剩余空间需不小于字符数的一半
+     * @param destPos 目标数组开始位置
+     * @return 写入的字节数
+     * @throws RuntimeException 如果源十六进制字符序列是一个奇怪的长度或包含非法字符,将抛出运行时异常
+     */
+    public static int decodeHex(CharSequence hexData, byte[] dest, int destPos) {
+        final int len = hexData.length();
+        if ((len & 0x01) != 0) {
+            throw new RuntimeException("Odd number of characters.");
+        }
+        if (destPos < 0 || len >> 1 > dest.length - destPos) {
+            throw new IndexOutOfBoundsException();
+        }
+        for (int i = destPos, j = 0; j < len; i++, j += 2) {
+            dest[i] = (byte) (toDigit(hexData.charAt(j), j) << 4 | toDigit(hexData.charAt(j + 1), j + 1));
+        }
+        return len >> 1;
+    }
+
+    /**
+     * 将src中剩余的十六进制ASCII字节转换为字节,写入dest当前位置,支持堆外(direct)缓冲区
+     * 调用后src的position移动到limit,dest的position后移写入的字节数
+     *
+     * @param src  十六进制ASCII字节
+     * @param dest 目标缓冲区
+     * @return 写入的字节数
+     * @throws BufferOverflowException 目标缓冲区剩余空间不足
+     * @throws RuntimeException        如果源是一个奇怪的长度或包含非法字符,将抛出运行时异常
+     */
+    public static int decodeHex(ByteBuffer src, ByteBuffer dest) {
+        final int len = src.remaining();
+        if ((len & 0x01) != 0) {
+            throw new RuntimeException("Odd number of characters.");
+        }
+        if (dest.remaining() < len >> 1) {
+            throw new BufferOverflowException();
+        }
+        for (int j = 0; j < len; j += 2) {
+            final int f = toDigit((char) (src.get() & 0xFF), j) << 4;
+            dest.put((byte) (f | toDigit((char) (src.get() & 0xFF), j + 1)));
+        }
+        return len >> 1;
+    }
+
     /**
      * 将十六进制字符串解码为byte[]
      *
@@ -302,35 +468,6 @@ public class HexKit {
         return sb.toString();
     }
 
-    /**
-     * 将字节数组转换为十六进制字符串
-     *
-     * @param data     byte[]
-     * @param toDigits 用于控制输出的char[]
-     * @return 十六进制String
-     */
-    private static String encodeHexStr(byte[] data, char[] toDigits) {
-        return new String(encodeHex(data, toDigits));
-    }
-
-    /**
-     * 将字节数组转换为十六进制字符数组
-     *
-     * @param data     byte[]
-     * @param toDigits 用于控制输出的char[]
-     * @return 十六进制char[]
-     */
-    private static char[] encodeHex(byte[] data, char[] toDigits) {
-        int l = data.length;
-        char[] out = new char[l << 1];
-        // two characters from the hex value.
-        for (int i = 0, j = 0; i < l; i++) {
-            out[j++] = toDigits[(0xF0 & data[i]) >>> 4];
-            out[j++] = toDigits[0x0F & data[i]];
-        }
-        return out;
-    }
-
     /**
      * 将十六进制字符转换成一个整数
      *
@@ -340,7 +477,7 @@ public class HexKit {
      * @throws RuntimeException 当ch不是一个合法的十六进制字符时,抛出运行时异常
      */
     private static int toDigit(char ch, int index) {
-        int digit = Character.digit(ch, 16);
+        int digit = ch < DECODE_TABLE.length ? DECODE_TABLE[ch] : Character.digit(ch, 16);
         if (digit == -1) {
             throw new RuntimeException("Illegal hexadecimal character " + ch + " at index " + index);
         }
@@ -360,4 +497,19 @@ public class HexKit {
         return new BigInteger(hexStr, 16);
     }
 
+    /**
+     * 生成每个字节对应两位十六进制字符的查找表
+     *
+     * @param digits 十六进制字符
+     * @return 查找表
+     */
+    private static char[] toPairs(char[] digits) {
+        final char[] pairs = new char[512];
+        for (int i = 0; i < 256; i++) {
+            pairs[i << 1] = digits[i >>> 4];
+            pairs[(i << 1) + 1] = digits[i & 0x0F];
+        }
+        return pairs;
+    }
+
 }
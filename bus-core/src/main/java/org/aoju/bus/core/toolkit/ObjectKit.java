@@ -24,6 +24,7 @@
  ********************************************************************************/
 package org.aoju.bus.core.toolkit;
 
+import org.aoju.bus.core.clone.DeepCloner;
 import org.aoju.bus.core.convert.Convert;
 import org.aoju.bus.core.io.streams.ByteArrayOutputStream;
 import org.aoju.bus.core.lang.Assert;
@@ -419,6 +420,20 @@ public class ObjectKit {
         return result;
     }
 
+    /**
+     * 深度克隆对象,按类的复制计划逐字段复制,不要求实现Serializable接口
+     * 对象图中的共享引用和循环引用在克隆后保持不变
+     *
+     * @param <T> 对象类型
+     * @param obj 被克隆对象
+     * @return 克隆后的对象
+     * @throws InstrumentException 对象无法复制
+     * @see DeepCloner
+     */
+    public static <T> T deepClone(T obj) {
+        return DeepCloner.getInstance().clone(obj);
+    }
+
     /**
      * 将Object转为String
      * 策略为：
@@ -28,6 +28,7 @@ import org.aoju.bus.core.lang.Charset;
 import org.aoju.bus.core.lang.Normal;
 import org.aoju.bus.core.lang.Symbol;
 import org.aoju.bus.core.lang.exception.InstrumentException;
+import org.aoju.bus.core.text.DoubleArrayTrie;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
@@ -54,6 +55,64 @@ public class PinyinKit {
     public static final Properties DICT_PINYIN = getDict("pinyin");
     public static final Properties DICT_POLYPHONE = getDict("polyphone");
 
+    /**
+     * 字典覆盖的字符范围,〇至最后一个基本汉字
+     */
+    private static final char DICT_START = '〇';
+    private static final char DICT_END = '\u9fa5';
+    /**
+     * 按字符下标索引的带声调拼音原文
+     */
+    private static final String[] PINYIN = new String[DICT_END - DICT_START + 1];
+    /**
+     * 按繁体字下标索引的简体字
+     */
+    private static final char[] SIMPLIFIED = new char[DICT_END - DICT_START + 1];
+    /**
+     * 按简体字下标索引的繁体字
+     */
+    private static final char[] TRADITIONAL = new char[DICT_END - DICT_START + 1];
+    /**
+     * 多音词及其拼音,只收录2至4个字的词
+     */
+    private static final List<String> PHRASES = new ArrayList<>();
+    private static final List<String> PHRASE_PINYIN = new ArrayList<>();
+    private static final DoubleArrayTrie PHRASE_TRIE;
+    /**
+     * 带声调的拼音,为默认格式,类初始化时转换
+     */
+    private static final String[][] TONE_MARK;
+
+    static {
+        for (Map.Entry<Object, Object> entry : DICT_PINYIN.entrySet()) {
+            final String key = entry.getKey().toString();
+            final String value = entry.getValue().toString();
+            if (key.length() == 1 && inDict(key.charAt(0)) && false == Normal.NULL.equals(value)) {
+                PINYIN[key.charAt(0) - DICT_START] = value;
+            }
+        }
+        // 多个繁体字对应同一简体字时,与字典的遍历顺序保持一致,取第一个
+        for (Map.Entry<Object, Object> entry : DICT_CHINESE.entrySet()) {
+            final String key = entry.getKey().toString();
+            final String value = entry.getValue().toString();
+            if (key.length() == 1 && inDict(key.charAt(0)) && false == value.isEmpty()) {
+                SIMPLIFIED[key.charAt(0) - DICT_START] = value.charAt(0);
+            }
+            if (value.length() == 1 && inDict(value.charAt(0)) && 0 == TRADITIONAL[value.charAt(0) - DICT_START]) {
+                TRADITIONAL[value.charAt(0) - DICT_START] = key.charAt(0);
+            }
+        }
+        for (Map.Entry<Object, Object> entry : DICT_POLYPHONE.entrySet()) {
+            final String key = entry.getKey().toString();
+            if (key.length() >= 2 && key.length() <= 4) {
+                PHRASES.add(key);
+                PHRASE_PINYIN.add(entry.getValue().toString());
+            }
+        }
+        PHRASE_TRIE = new DoubleArrayTrie(PHRASES);
+        TONE_MARK = formatAll(WITH_TONE_MARK);
+    }
+
     /**
      * 将单个汉字转换为相应格式的拼音
      *
@@ -65,11 +124,8 @@ public class PinyinKit {
      * @return 汉字的拼音
      */
     public static String[] convert(char c, String format) {
-        String pinyin = DICT_PINYIN.getProperty(String.valueOf(c));
-        if ((pinyin != null) && (!pinyin.equals(Normal.NULL))) {
-            return format(pinyin, format);
-        }
-        return null;
+        final String[] pinyin = pinyin(c, format);
+        return null == pinyin ? null : pinyin.clone();
     }
 
     /**
@@ -100,30 +156,23 @@ public class PinyinKit {
             char c = str.charAt(i);
 
             if (isChinese(c) || c == '〇') {
-                boolean isFoundFlag = false;
-                int rightMove = 3;
-
-                for (int rightIndex = (i + rightMove) < len ? (i + rightMove) : (len - 1); rightIndex > i; rightIndex--) {
-                    String cizu = str.substring(i, rightIndex + 1);
-                    if (DICT_POLYPHONE.containsKey(cizu)) {
-                        String[] pinyinArray = format(DICT_POLYPHONE.getProperty(cizu), format);
-                        for (int j = 0, l = pinyinArray.length; j < l; j++) {
-                            sb.append(pinyinArray[j]);
-                            if (j < l - 1) {
-                                sb.append(separator);
-                            }
+                // 最长匹配2至4个字的多音词
+                final int phrase = PHRASE_TRIE.size() == 0 ? -1 : PHRASE_TRIE.longestMatch(str, i, Math.min(i + 4, len));
+                if (phrase >= 0) {
+                    String[] pinyinArray = format(PHRASE_PINYIN.get(phrase), format);
+                    for (int j = 0, l = pinyinArray.length; j < l; j++) {
+                        sb.append(pinyinArray[j]);
+                        if (j < l - 1) {
+                            sb.append(separator);
                         }
-                        i = rightIndex;
-                        isFoundFlag = true;
-                        break;
                     }
-                }
-                if (!isFoundFlag) {
-                    String[] pinyinArray = convert(str.charAt(i), format);
+                    i += PHRASES.get(phrase).length() - 1;
+                } else {
+                    String[] pinyinArray = pinyin(c, format);
                     if (pinyinArray != null) {
                         sb.append(pinyinArray[0]);
                     } else {
-                        sb.append(str.charAt(i));
+                        sb.append(c);
                     }
                 }
                 if (i < len - 1) {
@@ -195,12 +244,11 @@ public class PinyinKit {
      * @return 转换后的简体体
      */
     public static String convertSimplified(String str) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0, len = str.length(); i < len; i++) {
-            char c = str.charAt(i);
-            sb.append(convertSimplified(c));
+        final char[] chars = str.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = convertSimplified(chars[i]);
         }
-        return sb.toString();
+        return new String(chars);
     }
 
     /**
@@ -211,7 +259,7 @@ public class PinyinKit {
      */
     public static char convertSimplified(char c) {
         if (isTraditional(c)) {
-            return DICT_CHINESE.getProperty(String.valueOf(c)).charAt(0);
+            return SIMPLIFIED[c - DICT_START];
         }
         return c;
     }
@@ -223,12 +271,11 @@ public class PinyinKit {
      * @return 转换后的繁字体
      */
     public static String convertTraditional(String str) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0, len = str.length(); i < len; i++) {
-            char c = str.charAt(i);
-            sb.append(convertTraditional(c));
+        final char[] chars = str.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = convertTraditional(chars[i]);
         }
-        return sb.toString();
+        return new String(chars);
     }
 
     /**
@@ -238,15 +285,8 @@ public class PinyinKit {
      * @return 转换后的繁字体
      */
     public static char convertTraditional(char c) {
-        String hanzi = String.valueOf(c);
-        if (DICT_CHINESE.containsValue(hanzi)) {
-            Iterator<Map.Entry<Object, Object>> itr = DICT_CHINESE.entrySet().iterator();
-            while (itr.hasNext()) {
-                Map.Entry<Object, Object> e = itr.next();
-                if (e.getValue().toString().equals(hanzi)) {
-                    return e.getKey().toString().charAt(0);
-                }
-            }
+        if (inDict(c) && 0 != TRADITIONAL[c - DICT_START]) {
+            return TRADITIONAL[c - DICT_START];
         }
         return c;
     }
@@ -331,7 +371,7 @@ public class PinyinKit {
      * @return 是繁体字返回true, 否则返回false
      */
     public static boolean isTraditional(char c) {
-        return DICT_CHINESE.containsKey(String.valueOf(c));
+        return inDict(c) && 0 != SIMPLIFIED[c - DICT_START];
     }
 
     /**
@@ -341,8 +381,7 @@ public class PinyinKit {
      * @return 是汉字返回true, 否则返回false
      */
     public static boolean isChinese(String c) {
-        String regex = "[\\u4e00-\\u9fa5]";
-        return String.valueOf(c).matches(regex);
+        return null != c && c.length() == 1 && isChinese(c.charAt(0));
     }
 
     /**
@@ -352,8 +391,7 @@ public class PinyinKit {
      * @return 是汉字返回true, 否则返回false
      */
     public static boolean isChinese(char c) {
-        String regex = "[\\u4e00-\\u9fa5]";
-        return String.valueOf(c).matches(regex);
+        return c >= '\u4e00' && c <= '\u9fa5';
     }
 
     /**
@@ -393,6 +431,56 @@ public class PinyinKit {
         return asc;
     }
 
+    /**
+     * 字符是否在字典覆盖的范围内
+     *
+     * @param c 字符
+     * @return 是否在范围内
+     */
+    private static boolean inDict(char c) {
+        return c >= DICT_START && c <= DICT_END;
+    }
+
+    /**
+     * 获取单个汉字相应格式的拼音,返回共享的数组,调用方不可修改
+     *
+     * @param c      汉字
+     * @param format 拼音格式
+     * @return 拼音, 不存在或格式不支持时返回{@code null}
+     */
+    private static String[] pinyin(char c, String format) {
+        if (false == inDict(c) || null == PINYIN[c - DICT_START]) {
+            return null;
+        }
+        final String[][] table;
+        if (WITH_TONE_MARK.equals(format)) {
+            table = TONE_MARK;
+        } else if (WITH_TONE_NUMBER.equals(format)) {
+            table = ToneNumberTable.TABLE;
+        } else if (WITH_OUT_TONE.equals(format)) {
+            table = WithoutToneTable.TABLE;
+        } else {
+            return null;
+        }
+        return table[c - DICT_START];
+    }
+
+    /**
+     * 将全部汉字的拼音按指定格式转换
+     *
+     * @param format 拼音格式
+     * @return 按字符下标索引的拼音
+     */
+    private static String[][] formatAll(String format) {
+        final String[][] table = new String[PINYIN.length][];
+        for (int i = 0; i < PINYIN.length; i++) {
+            if (null != PINYIN[i]) {
+                table[i] = format(PINYIN[i], format);
+            }
+        }
+        return table;
+    }
+
     private static Properties getDict(String type) {
         Properties p = new Properties();
         try {
@@ -412,4 +500,18 @@ public class PinyinKit {
         return p;
     }
 
+    /**
+     * 数字声调的拼音,首次使用时转换
+     */
+    private static class ToneNumberTable {
+        private static final String[][] TABLE = formatAll(WITH_TONE_NUMBER);
+    }
+
+    /**
+     * 不带声调的拼音,首次使用时转换
+     */
+    private static class WithoutToneTable {
+        private static final String[][] TABLE = formatAll(WITH_OUT_TONE);
+    }
+
 }
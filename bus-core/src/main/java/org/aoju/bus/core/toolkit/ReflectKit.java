@@ -47,15 +47,15 @@ public class ReflectKit {
     /**
      * 构造对象缓存
      */
-    private static final SimpleCache<Class<?>, Constructor<?>[]> CONSTRUCTORS_CACHE = new SimpleCache<>();
+    private static final ClassCache<Constructor<?>[]> CONSTRUCTORS_CACHE = new ClassCache<>(ReflectKit::getConstructorsDirectly);
     /**
      * 字段缓存
      */
-    private static final SimpleCache<Class<?>, Field[]> FIELDS_CACHE = new SimpleCache<>();
+    private static final ClassCache<Field[]> FIELDS_CACHE = new ClassCache<>(clazz -> getFields(clazz, true));
     /**
      * 方法缓存
      */
-    private static final SimpleCache<Class<?>, Method[]> METHODS_CACHE = new SimpleCache<>();
+    private static final ClassCache<Method[]> METHODS_CACHE = new ClassCache<>(clazz -> getMethodsDirectly(clazz, true));
 
     /**
      * 调用Getter方法.
@@ -400,13 +400,7 @@ public class ReflectKit {
      */
     public static <T> Constructor<T>[] getConstructors(Class<T> beanClass) throws SecurityException {
         Assert.notNull(beanClass);
-        Constructor<?>[] constructors = CONSTRUCTORS_CACHE.get(beanClass);
-        if (null != constructors) {
-            return (Constructor<T>[]) constructors;
-        }
-
-        constructors = getConstructorsDirectly(beanClass);
-        return (Constructor<T>[]) CONSTRUCTORS_CACHE.put(beanClass, constructors);
+        return (Constructor<T>[]) CONSTRUCTORS_CACHE.get(beanClass);
     }
 
     /**
@@ -449,13 +443,8 @@ public class ReflectKit {
      * @throws SecurityException 安全检查异常
      */
     public static Field[] getFields(Class<?> beanClass) throws SecurityException {
-        Field[] allFields = FIELDS_CACHE.get(beanClass);
-        if (null != allFields) {
-            return allFields;
-        }
-
-        allFields = getFields(beanClass, true);
-        return FIELDS_CACHE.put(beanClass, allFields);
+        Assert.notNull(beanClass);
+        return FIELDS_CACHE.get(beanClass);
     }
 
     /**
@@ -735,13 +724,8 @@ public class ReflectKit {
      * @throws SecurityException 安全检查异常
      */
     public static Method[] getMethods(Class<?> beanClass) throws SecurityException {
-        Method[] allMethods = METHODS_CACHE.get(beanClass);
-        if (null != allMethods) {
-            return allMethods;
-        }
-
-        allMethods = getMethodsDirectly(beanClass, true);
-        return METHODS_CACHE.put(beanClass, allMethods);
+        Assert.notNull(beanClass);
+        return METHODS_CACHE.get(beanClass);
     }
 
     /**
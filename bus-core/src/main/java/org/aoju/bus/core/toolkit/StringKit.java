@@ -31,6 +31,7 @@ import org.aoju.bus.core.lang.Normal;
 import org.aoju.bus.core.lang.Symbol;
 import org.aoju.bus.core.lang.exception.InstrumentException;
 import org.aoju.bus.core.text.StrBuilder;
+import org.aoju.bus.core.text.StrFormatter;
 
 import java.io.StringReader;
 import java.io.StringWriter;
@@ -1196,57 +1197,14 @@ public class StringKit {
      * 通常使用：format("this is {} for {}", "a", "b") =》 this is a for b
      * 转义{}： format("this is \\{} for {}", "a", "b") =》 this is \{} for a
      * 转义\：format("this is \\\\{} for {}", "a", "b") =》 this is \a for b
+     * 模板经{@link StrFormatter}解析后缓存,相同模板不再重复扫描
      *
      * @param val      字符串模板
      * @param argArray 参数列表
      * @return 结果
      */
     public static String format(final String val, final Object... argArray) {
-        if (isBlank(val) || ArrayKit.isEmpty(argArray)) {
-            return val;
-        }
-        final int strPatternLength = val.length();
-
-        //初始化定义好的长度以获得更好的性能
-        StringBuilder sbuf = new StringBuilder(strPatternLength + 50);
-
-        int handledPosition = 0;//记录已经处理到的位置
-        int delimIndex;//占位符所在位置
-        for (int argIndex = 0; argIndex < argArray.length; argIndex++) {
-            delimIndex = val.indexOf(Symbol.DELIM, handledPosition);
-            if (delimIndex == -1) {//剩余部分无占位符
-                if (handledPosition == 0) { //不带占位符的模板直接返回
-                    return val;
-                } else { //字符串模板剩余部分不再包含占位符,加入剩余部分后返回结果
-                    sbuf.append(val, handledPosition, strPatternLength);
-                    return sbuf.toString();
-                }
-            } else {
-                if (delimIndex > 0 && val.charAt(delimIndex - 1) == Symbol.C_BACKSLASH) {//转义符
-                    if (delimIndex > 1 && val.charAt(delimIndex - 2) == Symbol.C_BACKSLASH) {//双转义符
-                        //转义符之前还有一个转义符,占位符依旧有效
-                        sbuf.append(val, handledPosition, delimIndex - 1);
-                        sbuf.append(toString(argArray[argIndex]));
-                        handledPosition = delimIndex + 2;
-                    } else {
-                        //占位符被转义
-                        argIndex--;
-                        sbuf.append(val, handledPosition, delimIndex - 1);
-                        sbuf.append(Symbol.C_BRACE_LEFT);
-                        handledPosition = delimIndex + 1;
-                    }
-                } else {//正常占位符
-                    sbuf.append(val, handledPosition, delimIndex);
-                    sbuf.append(toString(argArray[argIndex]));
-                    handledPosition = delimIndex + 2;
-                }
-            }
-        }
-        // append the characters following the last {} pair.
-        //加入最后一个占位符后所有的字符
-        sbuf.append(val, handledPosition, val.length());
-
-        return sbuf.toString();
+        return StrFormatter.format(val, argArray);
     }
 
     /**
@@ -24,6 +24,7 @@
  ********************************************************************************/
 package org.aoju.bus.core.toolkit;
 
+import org.aoju.bus.core.lang.tree.TreeBuilder;
 import org.aoju.bus.core.lang.tree.TreeEntity;
 import org.aoju.bus.core.lang.tree.TreeMap;
 import org.aoju.bus.core.lang.tree.TreeNode;
@@ -32,7 +33,6 @@ import org.aoju.bus.core.lang.tree.parser.NodeParser;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * 树工具类
@@ -98,58 +98,26 @@ public class TreeKit {
      * @return List
      */
     public static <T, E> List<TreeMap<E>> build(List<T> list, E parentId, TreeEntity treeEntity, NodeParser<T, E> nodeParser) {
-        List<TreeMap<E>> treeMapNodes = CollKit.newArrayList();
-        TreeMap<E> treeMap;
-        for (T obj : list) {
-            treeMap = new TreeMap<>(treeEntity);
-            nodeParser.parse(obj, treeMap);
-            treeMapNodes.add(treeMap);
-        }
-
-        List<TreeMap<E>> finalTreeMapNodes = CollKit.newArrayList();
-        for (TreeMap<E> node : treeMapNodes) {
-            if (parentId.equals(node.getParentId())) {
-                finalTreeMapNodes.add(node);
-                innerBuild(treeMapNodes, node, 0, treeEntity.getDeep());
-            }
-        }
-        // 内存每层已经排过了 这是最外层排序
-        finalTreeMapNodes = finalTreeMapNodes.stream().sorted().collect(Collectors.toList());
-        return finalTreeMapNodes;
+        return build(list, parentId, treeEntity, nodeParser, false);
     }
 
     /**
-     * 递归处理
+     * 树构建
      *
-     * @param treeMapNodes 数据集合
-     * @param parentNode   当前节点
-     * @param deep         已递归深度
-     * @param maxDeep      最大递归深度 可能为null即不限制
+     * @param <T>        转换的实体 为数据源里的对象类型
+     * @param <E>        ID类型
+     * @param list       源数据集合
+     * @param parentId   最顶层父id值 一般为 0 之类
+     * @param treeEntity 配置
+     * @param nodeParser 转换器
+     * @param parallel   是否并行挂载子节点
+     * @return List
      */
-    private static <T> void innerBuild(List<TreeMap<T>> treeMapNodes, TreeMap<T> parentNode, int deep, Integer maxDeep) {
-
-        if (CollKit.isEmpty(treeMapNodes)) {
-            return;
-        }
-        //maxDeep 可能为空
-        if (maxDeep != null && deep >= maxDeep) {
-            return;
-        }
-
-        // 每层排序 TreeNodeMap 实现了Comparable接口
-        treeMapNodes = treeMapNodes.stream().sorted().collect(Collectors.toList());
-        for (TreeMap<T> childNode : treeMapNodes) {
-            if (parentNode.getId().equals(childNode.getParentId())) {
-                List<TreeMap<T>> children = parentNode.getChildren();
-                if (children == null) {
-                    children = CollKit.newArrayList();
-                    parentNode.setChildren(children);
-                }
-                children.add(childNode);
-                childNode.setParent(parentNode);
-                innerBuild(treeMapNodes, childNode, deep + 1, maxDeep);
-            }
-        }
+    public static <T, E> List<TreeMap<E>> build(Iterable<T> list, E parentId, TreeEntity treeEntity, NodeParser<T, E> nodeParser, boolean parallel) {
+        return TreeBuilder.of(parentId, treeEntity)
+                .setParallel(parallel)
+                .append(list, nodeParser)
+                .build();
     }
 
     /**
@@ -411,7 +411,8 @@ public class TypeKit {
      * @return 是否未知类型
      */
     public static boolean isUnknow(Type type) {
-        return null == type || type instanceof TypeVariable;
+        // Class为最常见的情况,先按final类判断,避免逐个比对接口
+        return null == type || (false == type instanceof Class && type instanceof TypeVariable);
     }
 
     /**
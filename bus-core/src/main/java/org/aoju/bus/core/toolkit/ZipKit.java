@@ -24,6 +24,8 @@
  ********************************************************************************/
 package org.aoju.bus.core.toolkit;
 
+import org.aoju.bus.core.io.file.ZipWriter;
+import org.aoju.bus.core.io.resource.Resource;
 import org.aoju.bus.core.io.streams.ByteArrayOutputStream;
 import org.aoju.bus.core.lang.Charset;
 import org.aoju.bus.core.lang.Console;
@@ -31,10 +33,9 @@ import org.aoju.bus.core.lang.Symbol;
 import org.aoju.bus.core.lang.exception.InstrumentException;
 
 import java.io.*;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Enumeration;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.zip.*;
 
 /**
@@ -193,6 +194,41 @@ public class ZipKit {
         return zipFile;
     }
 
+    /**
+     * 对文件或文件目录进行并行压缩
+     * 文件按块在{@link ForkJoinPool#commonPool()}中并行压缩后按顺序拼接,生成标准的zip文件
+     *
+     * @param zipFile    生成的Zip文件,包括文件名 注意：zipPath不能是srcPath路径下的子文件夹
+     * @param charset    编码
+     * @param withSrcDir 是否包含被打包目录,只针对压缩目录有效 若为false,则只压缩目录下的文件或目录,为true则将本目录也压缩
+     * @param filter     文件过滤器,通过实现此接口,自定义要过滤的文件(过滤掉哪些文件或文件夹不加入压缩)
+     * @param srcFiles   要压缩的源文件或目录 如果压缩一个文件,则为该文件的全路径；如果压缩一个目录,则为该目录的顶层目录路径
+     * @return 压缩文件
+     * @throws InstrumentException IO异常
+     */
+    public static File zipParallel(File zipFile, java.nio.charset.Charset charset, boolean withSrcDir, FileFilter filter, File... srcFiles) throws InstrumentException {
+        validateFiles(zipFile, srcFiles);
+
+        try (ZipWriter writer = new ZipWriter(FileKit.getOutputStream(zipFile), ObjectKit.defaultIfNull(charset, DEFAULT_CHARSET))) {
+            String srcRootDir;
+            for (File srcFile : srcFiles) {
+                if (null == srcFile) {
+                    continue;
+                }
+                // 如果只是压缩一个文件,则需要截取该文件的父目录
+                srcRootDir = srcFile.getCanonicalPath();
+                if (srcFile.isFile() || withSrcDir) {
+                    //若是文件,则将父目录完整路径都截取掉；若设置包含目录,则将上级目录全部截取掉,保留本目录名
+                    srcRootDir = srcFile.getCanonicalFile().getParentFile().getCanonicalPath();
+                }
+                zip(srcFile, srcRootDir, writer, filter);
+            }
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+        return zipFile;
+    }
+
     /**
      * 对文件或文件目录进行压缩
      *
@@ -269,6 +305,55 @@ public class ZipKit {
         }
     }
 
+    /**
+     * 递归并行压缩文件夹
+     *
+     * @param file       当前递归压缩的文件或目录对象
+     * @param srcRootDir 被压缩的文件夹根目录
+     * @param writer     并行Zip写出器
+     * @param filter     文件过滤器
+     */
+    private static void zip(File file, String srcRootDir, ZipWriter writer, FileFilter filter) {
+        if (null == file || (null != filter && false == filter.accept(file))) {
+            return;
+        }
+        final String subPath = FileKit.subPath(srcRootDir, file);
+        if (file.isDirectory()) {
+            final File[] files = file.listFiles();
+            if (ArrayKit.isEmpty(files) && StringKit.isNotEmpty(subPath)) {
+                // 只有空目录时才加入目录
+                writer.addDir(subPath);
+            }
+            for (File childFile : files) {
+                zip(childFile, srcRootDir, writer, filter);
+            }
+        } else {
+            writer.add(subPath, file);
+        }
+    }
+
+    /**
+     * 将资源流式压缩到输出流,边读取边并行压缩,不产生临时文件
+     * 资源名称作为条目在压缩文件中的路径,输出流写出完毕后不关闭
+     *
+     * @param out       输出流
+     * @param charset   编码
+     * @param resources 资源,如{@link org.aoju.bus.core.io.resource.InputStreamResource}
+     * @throws InstrumentException IO异常
+     */
+    public static void zip(OutputStream out, java.nio.charset.Charset charset, Iterator<? extends Resource> resources) throws InstrumentException {
+        final ZipWriter writer = new ZipWriter(out, ObjectKit.defaultIfNull(charset, DEFAULT_CHARSET));
+        while (resources.hasNext()) {
+            final Resource resource = resources.next();
+            try (InputStream in = resource.getStream()) {
+                writer.add(resource.getName(), in);
+            } catch (IOException e) {
+                throw new InstrumentException(e);
+            }
+        }
+        writer.finish();
+    }
+
     /**
      * 对流中的数据加入到压缩文件,使用默认UTF-8编码
      *
@@ -563,6 +648,72 @@ public class ZipKit {
         return outFile;
     }
 
+    /**
+     * 并行解压
+     * 条目按压缩后大小均分到{@link ForkJoinPool#commonPool()}的各个线程,每个线程使用独立的{@link ZipFile}读取
+     *
+     * @param zipFile zip文件
+     * @param outFile 解压到的目录
+     * @param charset 编码
+     * @return 解压的目录
+     * @throws InstrumentException IO异常
+     */
+    public static File unzipParallel(File zipFile, File outFile, java.nio.charset.Charset charset) throws InstrumentException {
+        final java.nio.charset.Charset encoding = ObjectKit.defaultIfNull(charset, DEFAULT_CHARSET);
+        final ForkJoinPool pool = ForkJoinPool.commonPool();
+        final int parallelism = pool.getParallelism();
+        final List<List<String>> groups = new ArrayList<>(parallelism);
+        final long[] loads = new long[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            groups.add(new ArrayList<>());
+        }
+        try (ZipFile zip = new ZipFile(zipFile, encoding)) {
+            final List<ZipEntry> files = new ArrayList<>();
+            final Enumeration<? extends ZipEntry> em = zip.entries();
+            while (em.hasMoreElements()) {
+                final ZipEntry zipEntry = em.nextElement();
+                if (zipEntry.isDirectory()) {
+                    // 目录先行创建
+                    buildFile(outFile, zipEntry.getName()).mkdirs();
+                } else {
+                    files.add(zipEntry);
+                }
+            }
+            // 由大到小依次分配给当前负载最小的线程
+            files.sort((a, b) -> Long.compare(b.getCompressedSize(), a.getCompressedSize()));
+            for (ZipEntry zipEntry : files) {
+                int min = 0;
+                for (int i = 1; i < parallelism; i++) {
+                    if (loads[i] < loads[min]) {
+                        min = i;
+                    }
+                }
+                loads[min] += Math.max(1, zipEntry.getCompressedSize());
+                groups.get(min).add(zipEntry.getName());
+            }
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>(parallelism);
+        for (List<String> group : groups) {
+            if (group.isEmpty()) {
+                continue;
+            }
+            tasks.add(pool.submit(() -> {
+                try (ZipFile zip = new ZipFile(zipFile, encoding)) {
+                    for (String name : group) {
+                        write(zip, zip.getEntry(name), buildFile(outFile, name));
+                    }
+                } catch (IOException e) {
+                    throw new InstrumentException(e);
+                }
+            }));
+        }
+        tasks.forEach(ForkJoinTask::join);
+        return outFile;
+    }
+
     /**
      * 从Zip文件中提取指定的文件为bytes
      *
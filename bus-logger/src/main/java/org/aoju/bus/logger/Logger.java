@@ -24,8 +24,8 @@
  ********************************************************************************/
 package org.aoju.bus.logger;
 
+import org.aoju.bus.core.text.StrFormatter;
 import org.aoju.bus.core.toolkit.CallerKit;
-import org.aoju.bus.core.toolkit.StringKit;
 import org.aoju.bus.logger.level.Level;
 
 /**
@@ -129,7 +129,7 @@ public final class Logger {
      * @param arguments 变量对应的参数
      */
     public static void warn(Throwable e, String format, Object... arguments) {
-        warn(LogFactory.get(CallerKit.getCallers()), e, StringKit.format(format, arguments));
+        warn(LogFactory.get(CallerKit.getCallers()), e, StrFormatter.format(format, arguments));
     }
 
     /**
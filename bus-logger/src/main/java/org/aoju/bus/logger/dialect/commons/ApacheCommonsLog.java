@@ -25,6 +25,7 @@
 package org.aoju.bus.logger.dialect.commons;
 
 import org.aoju.bus.core.lang.Normal;
+import org.aoju.bus.core.text.StrFormatter;
 import org.aoju.bus.core.toolkit.StringKit;
 import org.aoju.bus.logger.AbstractAware;
 import org.aoju.bus.logger.level.Level;
@@ -69,7 +70,7 @@ public class ApacheCommonsLog extends AbstractAware {
     @Override
     public void trace(String fqcn, Throwable t, String format, Object... arguments) {
         if (isTrace()) {
-            logger.trace(StringKit.format(format, arguments), t);
+            logger.trace(StrFormatter.format(format, arguments), t);
         }
     }
 
@@ -81,7 +82,7 @@ public class ApacheCommonsLog extends AbstractAware {
     @Override
     public void debug(String fqcn, Throwable t, String format, Object... arguments) {
         if (isDebug()) {
-            logger.debug(StringKit.format(format, arguments), t);
+            logger.debug(StrFormatter.format(format, arguments), t);
         }
     }
 
@@ -93,7 +94,7 @@ public class ApacheCommonsLog extends AbstractAware {
     @Override
     public void info(String fqcn, Throwable t, String format, Object... arguments) {
         if (isInfo()) {
-            logger.info(StringKit.format(format, arguments), t);
+            logger.info(StrFormatter.format(format, arguments), t);
         }
     }
 
@@ -105,7 +106,7 @@ public class ApacheCommonsLog extends AbstractAware {
     @Override
     public void warn(String format, Object... arguments) {
         if (isWarn()) {
-            logger.warn(StringKit.format(format, arguments));
+            logger.warn(StrFormatter.format(format, arguments));
         }
     }
 
@@ -116,7 +117,7 @@ public class ApacheCommonsLog extends AbstractAware {
     @Override
     public void warn(String fqcn, Throwable t, String format, Object... arguments) {
         if (isWarn()) {
-            logger.warn(StringKit.format(format, arguments), t);
+            logger.warn(StrFormatter.format(format, arguments), t);
         }
     }
 
@@ -128,7 +129,7 @@ public class ApacheCommonsLog extends AbstractAware {
     @Override
     public void error(String fqcn, Throwable t, String format, Object... arguments) {
         if (isError()) {
-            logger.warn(StringKit.format(format, arguments), t);
+            logger.warn(StrFormatter.format(format, arguments), t);
         }
     }
 
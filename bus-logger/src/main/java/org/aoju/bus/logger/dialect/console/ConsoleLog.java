@@ -28,6 +28,7 @@ import org.aoju.bus.core.lang.Assert;
 import org.aoju.bus.core.lang.Console;
 import org.aoju.bus.core.lang.Dict;
 import org.aoju.bus.core.lang.Normal;
+import org.aoju.bus.core.text.StrFormatter;
 import org.aoju.bus.core.toolkit.DateKit;
 import org.aoju.bus.core.toolkit.StringKit;
 import org.aoju.bus.logger.AbstractAware;
@@ -139,7 +140,7 @@ public class ConsoleLog extends AbstractAware {
                 .set("date", DateKit.now())
                 .set("level", level.toString())
                 .set("name", this.name)
-                .set("msg", StringKit.format(format, arguments));
+                .set("msg", StrFormatter.format(format, arguments));
 
         final String logMsg = StringKit.format(logFormat, dict);
 
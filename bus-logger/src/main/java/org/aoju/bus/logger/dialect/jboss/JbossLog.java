@@ -25,6 +25,7 @@
 package org.aoju.bus.logger.dialect.jboss;
 
 import org.aoju.bus.core.lang.Normal;
+import org.aoju.bus.core.text.StrFormatter;
 import org.aoju.bus.core.toolkit.StringKit;
 import org.aoju.bus.logger.AbstractAware;
 import org.aoju.bus.logger.level.Level;
@@ -81,7 +82,7 @@ public class JbossLog extends AbstractAware {
     @Override
     public void trace(String fqcn, Throwable t, String format, Object... arguments) {
         if (isTrace()) {
-            logger.trace(fqcn, StringKit.format(format, arguments), t);
+            logger.trace(fqcn, StrFormatter.format(format, arguments), t);
         }
     }
 
@@ -93,7 +94,7 @@ public class JbossLog extends AbstractAware {
     @Override
     public void debug(String fqcn, Throwable t, String format, Object... arguments) {
         if (isDebug()) {
-            logger.debug(fqcn, StringKit.format(format, arguments), t);
+            logger.debug(fqcn, StrFormatter.format(format, arguments), t);
         }
     }
 
@@ -105,7 +106,7 @@ public class JbossLog extends AbstractAware {
     @Override
     public void info(String fqcn, Throwable t, String format, Object... arguments) {
         if (isInfo()) {
-            logger.info(fqcn, StringKit.format(format, arguments), t);
+            logger.info(fqcn, StrFormatter.format(format, arguments), t);
         }
     }
 
@@ -117,7 +118,7 @@ public class JbossLog extends AbstractAware {
     @Override
     public void warn(String fqcn, Throwable t, String format, Object... arguments) {
         if (isWarn()) {
-            logger.warn(fqcn, StringKit.format(format, arguments), t);
+            logger.warn(fqcn, StrFormatter.format(format, arguments), t);
         }
     }
 
@@ -129,7 +130,7 @@ public class JbossLog extends AbstractAware {
     @Override
     public void error(String fqcn, Throwable t, String format, Object... arguments) {
         if (isError()) {
-            logger.error(fqcn, StringKit.format(format, arguments), t);
+            logger.error(fqcn, StrFormatter.format(format, arguments), t);
         }
     }
 
@@ -25,6 +25,7 @@
 package org.aoju.bus.logger.dialect.jdk;
 
 import org.aoju.bus.core.lang.Normal;
+import org.aoju.bus.core.text.StrFormatter;
 import org.aoju.bus.core.toolkit.StringKit;
 import org.aoju.bus.logger.AbstractAware;
 
@@ -172,7 +173,7 @@ public class JdkLog extends AbstractAware {
      */
     private void logIfEnabled(String callerFQCN, Level level, Throwable throwable, String format, Object[] arguments) {
         if (logger.isLoggable(level)) {
-            LogRecord record = new LogRecord(level, StringKit.format(format, arguments));
+            LogRecord record = new LogRecord(level, StrFormatter.format(format, arguments));
             record.setLoggerName(getName());
             record.setThrown(throwable);
             fillCallerData(callerFQCN, record);
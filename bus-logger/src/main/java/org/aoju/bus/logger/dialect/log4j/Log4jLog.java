@@ -25,6 +25,7 @@
 package org.aoju.bus.logger.dialect.log4j;
 
 import org.aoju.bus.core.lang.Normal;
+import org.aoju.bus.core.text.StrFormatter;
 import org.aoju.bus.core.toolkit.StringKit;
 import org.aoju.bus.logger.AbstractAware;
 import org.apache.log4j.Level;
@@ -132,7 +133,7 @@ public class Log4jLog extends AbstractAware {
         }
 
         if (logger.isEnabledFor(log4jLevel)) {
-            logger.log(fqcn, log4jLevel, StringKit.format(format, arguments), t);
+            logger.log(fqcn, log4jLevel, StrFormatter.format(format, arguments), t);
         }
     }
 
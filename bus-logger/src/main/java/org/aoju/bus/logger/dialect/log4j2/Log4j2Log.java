@@ -24,6 +24,7 @@
  ********************************************************************************/
 package org.aoju.bus.logger.dialect.log4j2;
 
+import org.aoju.bus.core.text.StrFormatter;
 import org.aoju.bus.core.toolkit.StringKit;
 import org.aoju.bus.logger.AbstractAware;
 import org.apache.logging.log4j.Level;
@@ -152,9 +153,9 @@ public class Log4j2Log extends AbstractAware {
     private void logIfEnabled(String fqcn, Level level, Throwable t, String msgTemplate, Object... arguments) {
         if (this.logger.isEnabled(level)) {
             if (this.logger instanceof AbstractLogger) {
-                ((AbstractLogger) this.logger).logIfEnabled(fqcn, level, null, StringKit.format(msgTemplate, arguments), t);
+                ((AbstractLogger) this.logger).logIfEnabled(fqcn, level, null, StrFormatter.format(msgTemplate, arguments), t);
             } else {
-                this.logger.log(level, StringKit.format(msgTemplate, arguments), t);
+                this.logger.log(level, StrFormatter.format(msgTemplate, arguments), t);
             }
         }
     }
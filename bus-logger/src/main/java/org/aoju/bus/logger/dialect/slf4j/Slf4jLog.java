@@ -25,6 +25,7 @@
 package org.aoju.bus.logger.dialect.slf4j;
 
 import org.aoju.bus.core.lang.Normal;
+import org.aoju.bus.core.text.StrFormatter;
 import org.aoju.bus.core.toolkit.StringKit;
 import org.aoju.bus.logger.AbstractAware;
 import org.aoju.bus.logger.level.Level;
@@ -87,7 +88,7 @@ public class Slf4jLog extends AbstractAware {
             if (this.isLocationAwareLogger) {
                 locationAwareLog((LocationAwareLogger) this.logger, fqcn, LocationAwareLogger.TRACE_INT, t, format, arguments);
             } else {
-                logger.trace(StringKit.format(format, arguments), t);
+                logger.trace(StrFormatter.format(format, arguments), t);
             }
         }
     }
@@ -103,7 +104,7 @@ public class Slf4jLog extends AbstractAware {
             if (this.isLocationAwareLogger) {
                 locationAwareLog((LocationAwareLogger) this.logger, fqcn, LocationAwareLogger.DEBUG_INT, t, format, arguments);
             } else {
-                logger.debug(StringKit.format(format, arguments), t);
+                logger.debug(StrFormatter.format(format, arguments), t);
             }
         }
     }
@@ -119,7 +120,7 @@ public class Slf4jLog extends AbstractAware {
             if (this.isLocationAwareLogger) {
                 locationAwareLog((LocationAwareLogger) this.logger, fqcn, LocationAwareLogger.INFO_INT, t, format, arguments);
             } else {
-                logger.info(StringKit.format(format, arguments), t);
+                logger.info(StrFormatter.format(format, arguments), t);
             }
         }
     }
@@ -135,7 +136,7 @@ public class Slf4jLog extends AbstractAware {
             if (this.isLocationAwareLogger) {
                 locationAwareLog((LocationAwareLogger) this.logger, fqcn, LocationAwareLogger.WARN_INT, t, format, arguments);
             } else {
-                logger.warn(StringKit.format(format, arguments), t);
+                logger.warn(StrFormatter.format(format, arguments), t);
             }
         }
     }
@@ -151,7 +152,7 @@ public class Slf4jLog extends AbstractAware {
             if (this.isLocationAwareLogger) {
                 locationAwareLog((LocationAwareLogger) this.logger, fqcn, LocationAwareLogger.ERROR_INT, t, format, arguments);
             } else {
-                logger.error(StringKit.format(format, arguments), t);
+                logger.error(StrFormatter.format(format, arguments), t);
             }
         }
     }
@@ -191,7 +192,7 @@ public class Slf4jLog extends AbstractAware {
      * @param arguments   参数
      */
     private void locationAwareLog(LocationAwareLogger logger, String fqcn, int level_int, Throwable t, String msgTemplate, Object[] arguments) {
-        logger.log(null, fqcn, level_int, StringKit.format(msgTemplate, arguments), null, t);
+        logger.log(null, fqcn, level_int, StrFormatter.format(msgTemplate, arguments), null, t);
     }
 
 }
@@ -24,6 +24,7 @@
  ********************************************************************************/
 package org.aoju.bus.proxy.intercept;
 
+import org.aoju.bus.core.clone.DeepCloner;
 import org.aoju.bus.proxy.Interceptor;
 import org.aoju.bus.proxy.Invocation;
 
@@ -32,6 +33,7 @@ import java.io.*;
 /**
  * 拦截器，它对所有参数和返回值进行序列化复制。
  * 这在测试远程服务以确保所有参数/返回类型实际上都是可序列化/反序列化的时候非常有用
+ * 指定{@link DeepCloner}时改为深度克隆复制，开销更低，但不再校验是否可序列化
  *
  * @author Kimi Liu
  * @version 6.0.2
@@ -39,6 +41,24 @@ import java.io.*;
  */
 public class SerializingInterceptor implements Interceptor {
 
+    /**
+     * 深度克隆器，为null时使用序列化复制
+     */
+    private final DeepCloner cloner;
+
+    public SerializingInterceptor() {
+        this(null);
+    }
+
+    /**
+     * 构造
+     *
+     * @param cloner 深度克隆器，为null时使用序列化复制
+     */
+    public SerializingInterceptor(DeepCloner cloner) {
+        this.cloner = cloner;
+    }
+
     @Override
     public Object intercept(Invocation invocation) throws Throwable {
         Object[] arguments = invocation.getArguments();
@@ -49,6 +69,9 @@ public class SerializingInterceptor implements Interceptor {
     }
 
     private Object serializedCopy(Object original) {
+        if (null != cloner) {
+            return cloner.clone(original);
+        }
         try {
             final ByteArrayOutputStream bout = new ByteArrayOutputStream();
             final ObjectOutputStream oout = new ObjectOutputStream(bout);
@@ -28,6 +28,7 @@ import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.TypeReference;
 import com.alibaba.fastjson.serializer.ContextValueFilter;
 import com.alibaba.fastjson.serializer.SerializerFeature;
+import org.aoju.bus.core.clone.DeepCloner;
 import org.aoju.bus.core.lang.Symbol;
 import org.aoju.bus.core.lang.exception.InstrumentException;
 import org.aoju.bus.core.toolkit.*;
@@ -61,18 +62,21 @@ public class Provider<T> {
      * 深度复制
      * 1. 为了避免深拷贝要求用户实现 clone 和 序列化的相关接口
      * 2. 为了避免使用 dozer 这种比较重的工具
-     * 3. 自己实现暂时工作量比较大
      * <p>
-     * 暂时使用 fastJson 作为实现深度拷贝的方式
+     * 使用{@link DeepCloner}逐字段复制,无法复制时退回 fastJson 的方式
      *
      * @param object 对象
      * @param <T>    泛型
      * @return 深拷贝后的对象
      */
     public static <T> T clone(T object) {
-        final Class clazz = object.getClass();
-        String jsonString = JSON.toJSONString(object);
-        return (T) JSON.parseObject(jsonString, clazz);
+        try {
+            return DeepCloner.getInstance().clone(object);
+        } catch (InstrumentException e) {
+            final Class clazz = object.getClass();
+            String jsonString = JSON.toJSONString(object);
+            return (T) JSON.parseObject(jsonString, clazz);
+        }
     }
 
     /**
@@ -0,0 +1,229 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.socket.netty;
+
+import com.alibaba.fastjson.JSON;
+import org.aoju.bus.core.lang.Normal;
+import org.aoju.bus.logger.Logger;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 集群消息总线基础实现
+ * <p>
+ * 维护主题到远程节点的兴趣表：节点订阅/取消订阅主题时广播通知,
+ * 新节点启动或底层通道重新连接时请求其他节点上报各自订阅的主题,并重新通知本节点订阅的主题;
+ * 发布消息时只发送给兴趣表中的节点,投递失败(节点已不存在或暂时断开)的节点会从兴趣表中移除,
+ * 节点重新连接后通过上述通知重新加入
+ * </p>
+ * 子类只需实现广播与点对点发送,并在收到数据时调用{@link #onMessage(String)}
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public abstract class AbstractClusterBus implements ClusterBus {
+
+    /**
+     * 当前节点标识
+     */
+    protected final String node;
+    /**
+     * 主题 - 订阅了该主题的远程节点
+     */
+    private final Map<String, Set<String>> interests = new ConcurrentHashMap<>();
+    /**
+     * 当前节点存在订阅者的主题
+     */
+    private final Set<String> topics = ConcurrentHashMap.newKeySet();
+    private volatile Receiver receiver;
+
+    protected AbstractClusterBus() {
+        this(UUID.randomUUID().toString());
+    }
+
+    protected AbstractClusterBus(String node) {
+        this.node = node;
+    }
+
+    @Override
+    public String getNode() {
+        return node;
+    }
+
+    @Override
+    public void start(Receiver receiver) {
+        this.receiver = receiver;
+        doStart();
+        announce();
+    }
+
+    @Override
+    public void subscribe(String topic) {
+        if (topics.add(topic)) {
+            broadcast(new ClusterMessage(ClusterMessage.SUBSCRIBE, node, topic, null));
+        }
+    }
+
+    @Override
+    public void unsubscribe(String topic) {
+        if (topics.remove(topic)) {
+            broadcast(new ClusterMessage(ClusterMessage.UNSUBSCRIBE, node, topic, null));
+        }
+    }
+
+    @Override
+    public void publish(String topic, String message) {
+        Set<String> nodes = interests.get(topic);
+        if (nodes == null || nodes.isEmpty()) {
+            return;
+        }
+        String data = JSON.toJSONString(new ClusterMessage(ClusterMessage.PUBLISH, node, topic, message));
+        for (String target : nodes) {
+            if (!send(target, data)) {
+                Logger.warn("Cluster node {} is unreachable, removed from topic {}", target, topic);
+                leave(target);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        broadcast(new ClusterMessage(ClusterMessage.LEAVE, node, null, null));
+        doStop();
+        interests.clear();
+    }
+
+    /**
+     * 远程节点订阅的主题
+     *
+     * @param topic 主题
+     * @return 节点集合
+     */
+    public Set<String> getNodes(String topic) {
+        Set<String> nodes = interests.get(topic);
+        return nodes == null ? Collections.emptySet() : Collections.unmodifiableSet(nodes);
+    }
+
+    /**
+     * 处理收到的集群消息
+     *
+     * @param data 消息内容
+     */
+    protected void onMessage(String data) {
+        ClusterMessage message;
+        try {
+            message = JSON.parseObject(data, ClusterMessage.class);
+        } catch (Exception e) {
+            Logger.error(Normal.EMPTY, e);
+            return;
+        }
+        if (message == null || node.equals(message.getNode())) {
+            return;
+        }
+        switch (message.getType()) {
+            case ClusterMessage.SUBSCRIBE:
+                interests.computeIfAbsent(message.getTopic(), k -> ConcurrentHashMap.newKeySet()).add(message.getNode());
+                break;
+            case ClusterMessage.UNSUBSCRIBE:
+                interests.computeIfPresent(message.getTopic(), (k, nodes) -> {
+                    nodes.remove(message.getNode());
+                    return nodes.isEmpty() ? null : nodes;
+                });
+                break;
+            case ClusterMessage.SYNC:
+                for (String topic : topics) {
+                    send(message.getNode(), JSON.toJSONString(new ClusterMessage(ClusterMessage.SUBSCRIBE, node, topic, null)));
+                }
+                break;
+            case ClusterMessage.LEAVE:
+                leave(message.getNode());
+                break;
+            case ClusterMessage.PUBLISH:
+                Receiver current = receiver;
+                if (current != null) {
+                    current.receive(message.getTopic(), message.getData());
+                }
+                break;
+            default:
+                Logger.warn("Unknown cluster message type: {}", message.getType());
+        }
+    }
+
+    /**
+     * 请求其他节点上报订阅的主题,并通知本节点订阅的主题
+     * 底层通道(重新)订阅成功后调用,使因断开而被其他节点移除的本节点重新加入,重复通知不影响结果
+     */
+    protected void announce() {
+        broadcast(new ClusterMessage(ClusterMessage.SYNC, node, null, null));
+        for (String topic : topics) {
+            broadcast(new ClusterMessage(ClusterMessage.SUBSCRIBE, node, topic, null));
+        }
+    }
+
+    private void leave(String target) {
+        for (String topic : interests.keySet()) {
+            interests.computeIfPresent(topic, (k, nodes) -> {
+                nodes.remove(target);
+                return nodes.isEmpty() ? null : nodes;
+            });
+        }
+    }
+
+    private void broadcast(ClusterMessage message) {
+        broadcast(JSON.toJSONString(message));
+    }
+
+    /**
+     * 启动底层通道
+     */
+    protected abstract void doStart();
+
+    /**
+     * 关闭底层通道
+     */
+    protected abstract void doStop();
+
+    /**
+     * 向所有节点广播控制消息
+     *
+     * @param data 消息内容
+     */
+    protected abstract void broadcast(String data);
+
+    /**
+     * 向指定节点发送消息
+     *
+     * @param target 目标节点
+     * @param data   消息内容
+     * @return 目标节点不存在时返回false
+     */
+    protected abstract boolean send(String target, String data);
+
+}
@@ -25,6 +25,8 @@
 package org.aoju.bus.socket.netty;
 
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelId;
+import org.aoju.bus.logger.Logger;
 
 /**
  * @author Kimi Liu
@@ -35,6 +37,10 @@ public class ClientService {
 
     private static ClientMap activeClients = new ClientMap();
     private static ClientGroup group = new ClientGroup();
+    /**
+     * 集群消息总线,为空时仅投递至当前节点
+     */
+    private static volatile ClusterBus clusterBus;
 
     public static void active(ChannelHandlerContext context) {
         activeClients.put(context.channel().id(), new SocketClient(context.channel()));
@@ -53,42 +59,117 @@ public class ClientService {
     }
 
     public static SocketClient subscribe(ChannelHandlerContext context, String topic) {
-        if (group.containsKey(topic)) {
-            ClientMap map = group.get(topic);
-            return subscribe(context, topic, map);
-        } else {
-            ClientMap map = new ClientMap();
-            group.put(topic, map);
-            return subscribe(context, topic, map);
+        ChannelId id = context.channel().id();
+        SocketClient[] result = new SocketClient[1];
+        boolean[] created = new boolean[1];
+        group.compute(topic, (key, map) -> {
+            if (map == null) {
+                map = new ClientMap();
+                created[0] = true;
+            }
+            SocketClient client = map.get(id);
+            if (client == null) {
+                client = getClient(context);
+                map.put(id, client);
+            }
+            client.subscribe(topic);
+            result[0] = client;
+            return map;
+        });
+        if (created[0]) {
+            notifyBus(topic);
         }
+        return result[0];
     }
 
-    private static SocketClient subscribe(ChannelHandlerContext context, String topic, ClientMap map) {
-        if (map.containsKey(context.channel().id())) {
-            SocketClient client = map.get(context.channel().id());
-            client.subscribe(topic);
-            return client;
-        } else {
-            SocketClient client = getClient(context);
-            client.subscribe(topic);
-            map.put(context.channel().id(), client);
-            return client;
+    /**
+     * 将客户端从主题中移除,主题无订阅者时通知集群
+     *
+     * @param context 通道上下文
+     * @param topic   主题
+     */
+    public static void cancel(ChannelHandlerContext context, String topic) {
+        ChannelId id = context.channel().id();
+        boolean[] removed = new boolean[1];
+        group.computeIfPresent(topic, (key, map) -> {
+            map.remove(id);
+            if (map.isEmpty()) {
+                removed[0] = true;
+                return null;
+            }
+            return map;
+        });
+        if (removed[0]) {
+            notifyBus(topic);
+        }
+    }
+
+    /**
+     * 主题在当前节点出现或消失后通知集群
+     * 在映射的锁之外执行,按主题当前的状态通知,并发的出现和消失以最后的状态为准
+     *
+     * @param topic 主题
+     */
+    private static synchronized void notifyBus(String topic) {
+        ClusterBus bus = clusterBus;
+        if (bus == null) {
+            return;
+        }
+        try {
+            if (group.containsKey(topic)) {
+                bus.subscribe(topic);
+            } else {
+                bus.unsubscribe(topic);
+            }
+        } catch (RuntimeException e) {
+            // 集群通知失败不影响当前节点的订阅
+            Logger.error(e, "Cluster bus notification failed for topic {}", topic);
         }
     }
 
     public static void remove(ChannelHandlerContext context) {
         inactive(context);
-        for (ClientMap map : group.values()) {
-            map.remove(context.channel().id());
+        for (String topic : group.keySet()) {
+            cancel(context, topic);
         }
     }
 
     public static void publish(String topic, String message) {
         CommandExecutor.execute(new PublishCommand(topic, message));
+        ClusterBus bus = clusterBus;
+        if (bus != null) {
+            CommandExecutor.execute(() -> bus.publish(topic, message));
+        }
     }
 
     public static ClientGroup getClientGroup() {
         return group;
     }
 
+    public static ClusterBus getClusterBus() {
+        return clusterBus;
+    }
+
+    /**
+     * 设置并启动集群消息总线,远程节点投递的消息仅推送给当前节点的订阅者
+     *
+     * @param bus 集群消息总线,为空时关闭集群投递
+     */
+    public static synchronized void setClusterBus(ClusterBus bus) {
+        ClusterBus previous = clusterBus;
+        if (previous == bus) {
+            return;
+        }
+        if (previous != null) {
+            previous.stop();
+        }
+        clusterBus = bus;
+        if (bus != null) {
+            for (String topic : group.keySet()) {
+                bus.subscribe(topic);
+            }
+            bus.start((topic, message) -> CommandExecutor.execute(new PublishCommand(topic, message)));
+        }
+    }
+
 }
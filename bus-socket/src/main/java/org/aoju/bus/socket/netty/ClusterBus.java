@@ -0,0 +1,96 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.socket.netty;
+
+/**
+ * WebSocket集群消息总线
+ * <p>
+ * 各节点通过总线同步主题订阅关系(兴趣表),发布消息时仅投递给
+ * 存在该主题订阅者的节点,避免将每条消息广播至所有节点
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public interface ClusterBus {
+
+    /**
+     * 当前节点标识
+     *
+     * @return 节点标识
+     */
+    String getNode();
+
+    /**
+     * 启动总线
+     *
+     * @param receiver 远程节点投递消息的接收者
+     */
+    void start(Receiver receiver);
+
+    /**
+     * 当前节点出现某主题的首个订阅者
+     *
+     * @param topic 主题
+     */
+    void subscribe(String topic);
+
+    /**
+     * 当前节点已无某主题的订阅者
+     *
+     * @param topic 主题
+     */
+    void unsubscribe(String topic);
+
+    /**
+     * 将消息投递至订阅了该主题的远程节点
+     *
+     * @param topic   主题
+     * @param message 消息内容
+     */
+    void publish(String topic, String message);
+
+    /**
+     * 停止总线并通知其他节点当前节点离开
+     */
+    void stop();
+
+    /**
+     * 远程消息接收者
+     */
+    interface Receiver {
+
+        /**
+         * 收到远程节点投递的消息
+         *
+         * @param topic   主题
+         * @param message 消息内容
+         */
+        void receive(String topic, String message);
+
+    }
+
+}
@@ -0,0 +1,91 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.socket.netty;
+
+import lombok.Data;
+
+/**
+ * 集群节点间传递的消息
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+@Data
+public class ClusterMessage {
+
+    /**
+     * 订阅主题
+     */
+    public static final String SUBSCRIBE = "subscribe";
+    /**
+     * 取消订阅主题
+     */
+    public static final String UNSUBSCRIBE = "unsubscribe";
+    /**
+     * 请求其他节点上报订阅关系
+     */
+    public static final String SYNC = "sync";
+    /**
+     * 节点离开
+     */
+    public static final String LEAVE = "leave";
+    /**
+     * 发布消息
+     */
+    public static final String PUBLISH = "publish";
+
+    /**
+     * 消息类型
+     */
+    private String type;
+
+    /**
+     * 来源节点
+     */
+    private String node;
+
+    /**
+     * 主题
+     */
+    private String topic;
+
+    /**
+     * 消息内容
+     */
+    private String data;
+
+    public ClusterMessage() {
+
+    }
+
+    public ClusterMessage(String type, String node, String topic, String data) {
+        this.type = type;
+        this.node = node;
+        this.topic = topic;
+        this.data = data;
+    }
+
+}
@@ -0,0 +1,81 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.socket.netty;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内集群消息总线
+ * <p>
+ * 同一JVM内的多个节点直接互相投递,用于单机部署及测试
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public class LocalClusterBus extends AbstractClusterBus {
+
+    private static final Map<String, LocalClusterBus> NODES = new ConcurrentHashMap<>();
+
+    public LocalClusterBus() {
+        super();
+    }
+
+    public LocalClusterBus(String node) {
+        super(node);
+    }
+
+    @Override
+    protected void doStart() {
+        NODES.put(node, this);
+    }
+
+    @Override
+    protected void doStop() {
+        NODES.remove(node, this);
+    }
+
+    @Override
+    protected void broadcast(String data) {
+        for (LocalClusterBus bus : NODES.values()) {
+            if (bus != this) {
+                bus.onMessage(data);
+            }
+        }
+    }
+
+    @Override
+    protected boolean send(String target, String data) {
+        LocalClusterBus bus = NODES.get(target);
+        if (bus == null) {
+            return false;
+        }
+        bus.onMessage(data);
+        return true;
+    }
+
+}
@@ -25,6 +25,9 @@
 package org.aoju.bus.socket.netty;
 
 /**
+ * 消息发布,设置{@link ClientService#setClusterBus(ClusterBus)}后
+ * 消息同时投递至订阅了该主题的其他节点
+ *
  * @author Kimi Liu
  * @version 6.0.2
  * @since JDK 1.8+
@@ -41,9 +41,8 @@ public class PublishCommand implements Runnable {
 
     @Override
     public void run() {
-        ClientGroup group = ClientService.getClientGroup();
-        if (group.containsKey(topic)) {
-            ClientMap map = group.get(topic);
+        ClientMap map = ClientService.getClientGroup().get(topic);
+        if (map != null) {
             for (SocketClient client : map.values()) {
                 client.send(topic, message);
             }
@@ -0,0 +1,164 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.socket.netty;
+
+import org.aoju.bus.core.lang.Normal;
+import org.aoju.bus.core.lang.Symbol;
+import org.aoju.bus.core.thread.ThreadBuilder;
+import org.aoju.bus.logger.Logger;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Redis发布/订阅的集群消息总线
+ * <p>
+ * 控制消息通过公共频道{@code prefix:control}广播,
+ * 业务消息发布到目标节点独有的频道{@code prefix:node:id},
+ * PUBLISH返回接收者数为0时视为节点已下线,断开后重新订阅时重新通知其他节点
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public class RedisClusterBus extends AbstractClusterBus {
+
+    private static final String DEFAULT_PREFIX = "bus:websocket";
+
+    private final JedisPool jedisPool;
+    private final String controlChannel;
+    private final String nodePrefix;
+    private final JedisPubSub pubSub = new JedisPubSub() {
+        @Override
+        public void onMessage(String channel, String message) {
+            RedisClusterBus.this.onMessage(message);
+        }
+
+        @Override
+        public void onSubscribe(String channel, int subscribedChannels) {
+            // 重新连接后其他节点可能已因投递失败移除本节点,订阅生效后重新通知
+            if (reconnected && channel.equals(nodePrefix + node)) {
+                try {
+                    announce();
+                } catch (Exception e) {
+                    Logger.error(Normal.EMPTY, e);
+                }
+            }
+        }
+    };
+    private volatile boolean running;
+    /**
+     * 是否为断开后的重新订阅,首次订阅由启动流程通知
+     */
+    private volatile boolean reconnected;
+    private Thread thread;
+
+    public RedisClusterBus(JedisPool jedisPool) {
+        this(jedisPool, DEFAULT_PREFIX);
+    }
+
+    public RedisClusterBus(JedisPool jedisPool, String prefix) {
+        super();
+        this.jedisPool = jedisPool;
+        this.controlChannel = prefix + Symbol.COLON + "control";
+        this.nodePrefix = prefix + Symbol.COLON + "node" + Symbol.COLON;
+    }
+
+    public RedisClusterBus(JedisPool jedisPool, String prefix, String node) {
+        super(node);
+        this.jedisPool = jedisPool;
+        this.controlChannel = prefix + Symbol.COLON + "control";
+        this.nodePrefix = prefix + Symbol.COLON + "node" + Symbol.COLON;
+    }
+
+    @Override
+    protected void doStart() {
+        running = true;
+        reconnected = false;
+        ThreadFactory factory = new ThreadBuilder().setNamePrefix("websocket-cluster-%d").setDaemon(true).build();
+        thread = factory.newThread(() -> {
+            while (running) {
+                try (Jedis jedis = jedisPool.getResource()) {
+                    jedis.subscribe(pubSub, controlChannel, nodePrefix + node);
+                } catch (Exception e) {
+                    if (!running) {
+                        break;
+                    }
+                    Logger.error(Normal.EMPTY, e);
+                    reconnected = true;
+                    try {
+                        TimeUnit.SECONDS.sleep(1);
+                    } catch (InterruptedException ignore) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+        });
+        thread.start();
+        // 等待订阅生效,否则启动时的同步请求的响应可能丢失
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (!pubSub.isSubscribed() && System.currentTimeMillis() < deadline) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    @Override
+    protected void doStop() {
+        running = false;
+        if (pubSub.isSubscribed()) {
+            pubSub.unsubscribe();
+        }
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    @Override
+    protected void broadcast(String data) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.publish(controlChannel, data);
+        }
+    }
+
+    @Override
+    protected boolean send(String target, String data) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            Long receivers = jedis.publish(nodePrefix + target, data);
+            return receivers != null && receivers > 0;
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.socket.origin;
+
+/**
+ * 自适应读缓冲区大小
+ * <p>
+ * 根据最近的读取量调整会话读缓冲区：读满缓冲区时立即翻倍,
+ * 连续两次读取量不超过缓冲区一半时减半,大小始终在[min, max]之间且为2的幂
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+final class AdaptiveReadSize {
+
+    private final int minSize;
+    private final int maxSize;
+    /**
+     * 上一次读取量是否已偏小
+     */
+    private boolean decreaseNow;
+
+    AdaptiveReadSize(int minSize, int maxSize) {
+        this.minSize = normalize(Math.max(minSize, 64));
+        this.maxSize = Math.max(this.minSize, normalize(maxSize));
+    }
+
+    private static int normalize(int size) {
+        int n = 1;
+        while (n < size && n < (1 << 30)) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    /**
+     * 记录本次读取量并计算下一次读缓冲区大小
+     *
+     * @param readSize 本次读取字节数
+     * @param capacity 当前缓冲区容量
+     * @return 下一次读缓冲区大小
+     */
+    int record(int readSize, int capacity) {
+        if (readSize >= capacity) {
+            decreaseNow = false;
+            return grow(capacity);
+        }
+        if (readSize <= capacity >> 1 && capacity > minSize) {
+            if (decreaseNow) {
+                decreaseNow = false;
+                return Math.max(minSize, normalize(capacity) >> 1);
+            }
+            decreaseNow = true;
+        } else {
+            decreaseNow = false;
+        }
+        return capacity;
+    }
+
+    /**
+     * 扩容后的大小
+     *
+     * @param capacity 当前缓冲区容量
+     * @return 扩容后的大小, 已达上限时返回原容量
+     */
+    int grow(int capacity) {
+        return capacity >= maxSize ? capacity : Math.min(maxSize, normalize(capacity + 1));
+    }
+
+}
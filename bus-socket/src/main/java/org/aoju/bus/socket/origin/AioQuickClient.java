@@ -172,6 +172,20 @@ public class AioQuickClient<T> {
         return this;
     }
 
+    /**
+     * 启用自适应读缓冲区,会话初始大小仍由setReadBufferSize指定,
+     * 之后根据实际读取量在[minSize, maxSize]之间伸缩(SSL会话不适用)
+     *
+     * @param minSize 最小值,单位：byte
+     * @param maxSize 最大值,单位：byte
+     * @return the object
+     */
+    public final AioQuickClient<T> setAdaptiveReadBuffer(int minSize, int maxSize) {
+        this.config.setMinReadBufferSize(minSize);
+        this.config.setMaxReadBufferSize(maxSize);
+        return this;
+    }
+
     /**
      * 设置Socket的TCP参数配置
      * AIO客户端的有效可选范围为：
@@ -259,6 +259,15 @@ public class AioQuickServer<T> {
         }
     }
 
+    /**
+     * 获取服务端使用的内存池,服务启动前为null
+     *
+     * @return 内存池
+     */
+    public final BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
     /**
      * 设置读缓存区大小
      *
@@ -270,6 +279,20 @@ public class AioQuickServer<T> {
         return this;
     }
 
+    /**
+     * 启用自适应读缓冲区,会话初始大小仍由setReadBufferSize指定,
+     * 之后根据实际读取量在[minSize, maxSize]之间伸缩(SSL会话不适用)
+     *
+     * @param minSize 最小值,单位：byte
+     * @param maxSize 最大值,单位：byte
+     * @return the object
+     */
+    public final AioQuickServer<T> setAdaptiveReadBuffer(int minSize, int maxSize) {
+        this.config.setMinReadBufferSize(minSize);
+        this.config.setMaxReadBufferSize(maxSize);
+        return this;
+    }
+
     /**
      * 是否启用控制台Banner打印
      *
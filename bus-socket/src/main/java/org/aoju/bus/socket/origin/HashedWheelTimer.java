@@ -0,0 +1,459 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.socket.origin;
+
+import org.aoju.bus.logger.Logger;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 时间轮定时器
+ * <p>
+ * 与{@link java.util.Timer}的最小堆不同,任务的添加与取消均为O(1)操作,
+ * 适合心跳、空闲检测、读超时这类数量巨大且大多会被取消的定时任务
+ * 任务由单个工作线程按刻度(tick)触发,精度为一个刻度时长
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public class HashedWheelTimer {
+
+    /**
+     * 默认共享的时间轮,刻度100毫秒,共512个槽位
+     */
+    public static final HashedWheelTimer DEFAULT_TIMER = new HashedWheelTimer(runnable -> {
+        Thread thread = new Thread(runnable, "HashedWheelTimer");
+        thread.setDaemon(true);
+        return thread;
+    }, 100, TimeUnit.MILLISECONDS, 512);
+
+    private static final int WORKER_STATE_INIT = 0;
+    private static final int WORKER_STATE_STARTED = 1;
+    private static final int WORKER_STATE_SHUTDOWN = 2;
+
+    /**
+     * 工作线程状态
+     */
+    private final AtomicInteger workerState = new AtomicInteger(WORKER_STATE_INIT);
+    /**
+     * 每个刻度的时长(纳秒)
+     */
+    private final long tickDuration;
+    /**
+     * 时间轮槽位
+     */
+    private final HashedWheelBucket[] wheel;
+    private final int mask;
+    /**
+     * 新添加的任务,由工作线程在下一刻度转移至槽位
+     */
+    private final Queue<Timeout> timeouts = new ConcurrentLinkedQueue<>();
+    /**
+     * 已取消的任务,由工作线程在下一刻度从槽位中移除
+     */
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    /**
+     * 待执行的任务数
+     */
+    private final AtomicLong pendingTimeouts = new AtomicLong(0);
+    private final CountDownLatch startTimeInitialized = new CountDownLatch(1);
+    private final Thread workerThread;
+    /**
+     * 时间轮启动时间
+     */
+    private volatile long startTime;
+    /**
+     * 当前刻度,仅由工作线程访问
+     */
+    private long tick;
+
+    public HashedWheelTimer(ThreadFactory threadFactory) {
+        this(threadFactory, 100, TimeUnit.MILLISECONDS, 512);
+    }
+
+    /**
+     * 构造
+     *
+     * @param threadFactory 工作线程工厂
+     * @param tickDuration  刻度时长
+     * @param unit          刻度时长单位
+     * @param ticksPerWheel 槽位数,会被规整为2的幂
+     */
+    public HashedWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be greater than 0: " + tickDuration);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > 1 << 30) {
+            throw new IllegalArgumentException("ticksPerWheel must be in (0, 2^30]: " + ticksPerWheel);
+        }
+        int normalized = 1;
+        while (normalized < ticksPerWheel) {
+            normalized <<= 1;
+        }
+        this.wheel = new HashedWheelBucket[normalized];
+        for (int i = 0; i < normalized; i++) {
+            this.wheel[i] = new HashedWheelBucket();
+        }
+        this.mask = normalized - 1;
+        this.tickDuration = unit.toNanos(tickDuration);
+        if (this.tickDuration >= Long.MAX_VALUE / normalized) {
+            throw new IllegalArgumentException("tickDuration is too large: " + tickDuration);
+        }
+        this.workerThread = threadFactory.newThread(new Worker());
+    }
+
+    /**
+     * 添加一次性任务
+     *
+     * @param task  任务
+     * @param delay 延迟时间
+     * @param unit  时间单位
+     * @return 任务句柄, 可用于取消
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return schedule(task, delay, 0, unit);
+    }
+
+    /**
+     * 添加周期性任务,同一任务句柄在每次执行后重新放入时间轮,不会产生新的任务对象
+     *
+     * @param task   任务
+     * @param delay  首次执行延迟
+     * @param period 执行周期
+     * @param unit   时间单位
+     * @return 任务句柄, 可用于取消
+     */
+    public Timeout scheduleAtFixedRate(Runnable task, long delay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be greater than 0: " + period);
+        }
+        return schedule(task, delay, period, unit);
+    }
+
+    private Timeout schedule(Runnable task, long delay, long period, TimeUnit unit) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        start();
+        pendingTimeouts.incrementAndGet();
+        long deadline = System.nanoTime() + unit.toNanos(Math.max(delay, 0)) - startTime;
+        Timeout timeout = new Timeout(this, task, deadline, unit.toNanos(period));
+        timeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * 待执行的任务数
+     *
+     * @return 任务数
+     */
+    public long pendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    /**
+     * 停止时间轮,未执行的任务将被丢弃
+     */
+    public void shutdown() {
+        if (workerState.getAndSet(WORKER_STATE_SHUTDOWN) == WORKER_STATE_STARTED) {
+            workerThread.interrupt();
+        }
+    }
+
+    private void start() {
+        switch (workerState.get()) {
+            case WORKER_STATE_INIT:
+                if (workerState.compareAndSet(WORKER_STATE_INIT, WORKER_STATE_STARTED)) {
+                    workerThread.start();
+                }
+                break;
+            case WORKER_STATE_STARTED:
+                break;
+            case WORKER_STATE_SHUTDOWN:
+                throw new IllegalStateException("cannot be started once stopped");
+            default:
+                throw new Error("Invalid WorkerState");
+        }
+        while (startTime == 0) {
+            try {
+                startTimeInitialized.await();
+            } catch (InterruptedException ignore) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 定时任务句柄
+     */
+    public static final class Timeout {
+
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long period;
+        private long deadline;
+        /**
+         * 剩余圈数,仅由工作线程访问
+         */
+        private long remainingRounds;
+        private volatile int state = ST_INIT;
+
+        private Timeout next;
+        private Timeout prev;
+        private HashedWheelBucket bucket;
+
+        private Timeout(HashedWheelTimer timer, Runnable task, long deadline, long period) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        /**
+         * 取消任务,周期性任务取消后不再执行
+         *
+         * @return 是否取消成功
+         */
+        public boolean cancel() {
+            if (period > 0) {
+                if (STATE_UPDATER.getAndSet(this, ST_CANCELLED) == ST_CANCELLED) {
+                    return false;
+                }
+            } else if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            timer.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == ST_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == ST_EXPIRED;
+        }
+
+        private void expire() {
+            if (period == 0 && !STATE_UPDATER.compareAndSet(this, ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            if (state == ST_CANCELLED) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable e) {
+                Logger.warn("An exception was thrown by " + task.getClass().getSimpleName(), e);
+            }
+        }
+
+        /**
+         * 移除已取消的任务,仅由工作线程调用
+         */
+        private void remove() {
+            HashedWheelBucket bucket = this.bucket;
+            if (bucket != null) {
+                bucket.remove(this);
+            }
+            timer.pendingTimeouts.decrementAndGet();
+        }
+
+    }
+
+    /**
+     * 时间轮槽位,双向链表结构,仅由工作线程访问
+     */
+    private static final class HashedWheelBucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        /**
+         * 触发当前刻度已到期的任务,周期任务返回待重新放入时间轮
+         *
+         * @param deadline    当前刻度的截止时间
+         * @param rescheduled 重新调度队列
+         */
+        void expireTimeouts(long deadline, Queue<Timeout> rescheduled) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if (timeout.deadline <= deadline) {
+                        timeout.expire();
+                        if (timeout.period > 0 && !timeout.isCancelled()) {
+                            timeout.deadline += timeout.period;
+                            rescheduled.add(timeout);
+                        } else if (!timeout.isCancelled()) {
+                            // 已取消的任务由取消队列负责计数
+                            timeout.timer.pendingTimeouts.decrementAndGet();
+                        }
+                    } else {
+                        throw new IllegalStateException(String.format(
+                                "timeout.deadline (%d) > deadline (%d)", timeout.deadline, deadline));
+                    }
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                if (timeout == tail) {
+                    tail = null;
+                    head = null;
+                } else {
+                    head = next;
+                }
+            } else if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+    }
+
+    private final class Worker implements Runnable {
+
+        @Override
+        public void run() {
+            startTime = System.nanoTime();
+            if (startTime == 0) {
+                // 0 用于标识未初始化
+                startTime = 1;
+            }
+            startTimeInitialized.countDown();
+
+            do {
+                final long deadline = waitForNextTick();
+                if (deadline > 0) {
+                    int idx = (int) (tick & mask);
+                    processCancelledTasks();
+                    transferTimeoutsToBuckets();
+                    wheel[idx].expireTimeouts(deadline, timeouts);
+                    tick++;
+                }
+            } while (workerState.get() == WORKER_STATE_STARTED);
+        }
+
+        private void transferTimeoutsToBuckets() {
+            // 限制单次转移数量,避免添加任务过快时工作线程无法推进
+            for (int i = 0; i < 100000; i++) {
+                Timeout timeout = timeouts.poll();
+                if (timeout == null) {
+                    break;
+                }
+                if (timeout.isCancelled()) {
+                    continue;
+                }
+                long calculated = timeout.deadline / tickDuration;
+                timeout.remainingRounds = (calculated - tick) / wheel.length;
+                // 已过期的任务放入当前槽位立即执行
+                final long ticks = Math.max(calculated, tick);
+                wheel[(int) (ticks & mask)].add(timeout);
+            }
+        }
+
+        private void processCancelledTasks() {
+            for (; ; ) {
+                Timeout timeout = cancelledTimeouts.poll();
+                if (timeout == null) {
+                    break;
+                }
+                timeout.remove();
+            }
+        }
+
+        /**
+         * 等待下一刻度
+         *
+         * @return 当前刻度的截止时间, 停止时返回负值
+         */
+        private long waitForNextTick() {
+            long deadline = tickDuration * (tick + 1);
+            for (; ; ) {
+                final long currentTime = System.nanoTime() - startTime;
+                long sleepTimeMs = (deadline - currentTime + 999999) / 1000000;
+                if (sleepTimeMs <= 0) {
+                    return currentTime == Long.MIN_VALUE ? -Long.MAX_VALUE : currentTime;
+                }
+                try {
+                    Thread.sleep(sleepTimeMs);
+                } catch (InterruptedException ignored) {
+                    if (workerState.get() == WORKER_STATE_SHUTDOWN) {
+                        return Long.MIN_VALUE;
+                    }
+                }
+            }
+        }
+
+    }
+
+}
@@ -59,6 +59,8 @@ class SSLAioSession<T> extends TcpAioSession<T> {
 
     SSLAioSession(AsynchronousSocketChannel channel, ServerConfig<T> config, TcpReadHandler<T> aioReadCompletionHandler, TcpWriteHandler<T> aioWriteCompletionHandler, SSLService sslService, PageBuffer pageBuffer) {
         super(channel, config, aioReadCompletionHandler, aioWriteCompletionHandler, pageBuffer);
+        // 网络读缓冲区按初始读缓冲区大小分配,不支持自适应调整
+        this.adaptiveReadSize = null;
         this.handshakeModel = sslService.createSSLEngine(channel);
         this.sslService = sslService;
     }
@@ -41,6 +41,14 @@ final class ServerConfig<T> {
      * 消息体缓存大小,字节
      */
     private int readBufferSize = 512;
+    /**
+     * 自适应读缓冲区的最小值,字节
+     */
+    private int minReadBufferSize;
+    /**
+     * 自适应读缓冲区的最大值,字节,为0时不启用自适应
+     */
+    private int maxReadBufferSize;
 
     /**
      * Write缓存区容量
@@ -84,6 +92,10 @@ final class ServerConfig<T> {
      * 线程数
      */
     private int threadNum = 1;
+    /**
+     * 反应器(Selector线程)数
+     */
+    private int reactorNum = 1;
 
 
     private int readBacklog = getIntProperty(ServerConfig.Property.READ_BACKLOG, 4096);
@@ -152,6 +164,22 @@ final class ServerConfig<T> {
         this.readBufferSize = readBufferSize;
     }
 
+    public int getMinReadBufferSize() {
+        return minReadBufferSize;
+    }
+
+    public void setMinReadBufferSize(int minReadBufferSize) {
+        this.minReadBufferSize = minReadBufferSize;
+    }
+
+    public int getMaxReadBufferSize() {
+        return maxReadBufferSize;
+    }
+
+    public void setMaxReadBufferSize(int maxReadBufferSize) {
+        this.maxReadBufferSize = maxReadBufferSize;
+    }
+
     public boolean isBannerEnabled() {
         return bannerEnabled;
     }
@@ -187,6 +215,14 @@ final class ServerConfig<T> {
         this.threadNum = threadNum;
     }
 
+    public int getReactorNum() {
+        return reactorNum;
+    }
+
+    public void setReactorNum(int reactorNum) {
+        this.reactorNum = reactorNum;
+    }
+
     public int getWriteBufferSize() {
         return writeBufferSize;
     }
@@ -211,6 +247,9 @@ final class ServerConfig<T> {
         String SERVER_PAGE_IS_DIRECT = PROJECT_NAME + ".server.page.isDirect";
         String CLIENT_PAGE_IS_DIRECT = PROJECT_NAME + ".client.page.isDirect";
         String READ_BACKLOG = PROJECT_NAME + ".read.backlog";
+        String UDP_PAGE_SIZE = PROJECT_NAME + ".udp.pageSize";
+        String UDP_READ_BATCH = PROJECT_NAME + ".udp.readBatch";
+        String UDP_WRITE_BATCH = PROJECT_NAME + ".udp.writeBatch";
     }
 
 }
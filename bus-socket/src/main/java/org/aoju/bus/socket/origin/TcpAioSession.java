@@ -96,6 +96,18 @@ class TcpAioSession<T> extends AioSession<T> {
     private ServerConfig<T> ioServerConfig;
     private InputStream inputStream;
     private WriteBuffer byteBuf;
+    /**
+     * 当前会话所属的内存页
+     */
+    private PageBuffer pageBuffer;
+    /**
+     * 自适应读缓冲区大小,未启用时为null
+     */
+    AdaptiveReadSize adaptiveReadSize;
+    /**
+     * 最近一次读取的字节数
+     */
+    private int lastReadSize;
 
     TcpAioSession(AsynchronousSocketChannel channel, final ServerConfig<T> config, TcpReadHandler<T> readCompletionHandler, TcpWriteHandler<T> writeCompletionHandler, PageBuffer pageBuffer) {
         this.channel = channel;
@@ -103,7 +115,11 @@ class TcpAioSession<T> extends AioSession<T> {
         this.writeCompletionHandler = writeCompletionHandler;
         this.ioServerConfig = config;
 
+        this.pageBuffer = pageBuffer;
         this.readBuffer = pageBuffer.allocate(config.getReadBufferSize());
+        if (config.getMaxReadBufferSize() > 0) {
+            this.adaptiveReadSize = new AdaptiveReadSize(config.getMinReadBufferSize(), config.getMaxReadBufferSize());
+        }
         byteBuf = new WriteBuffer(pageBuffer, var -> {
             if (!semaphore.tryAcquire()) {
                 return null;
@@ -257,7 +273,7 @@ class TcpAioSession<T> extends AioSession<T> {
         if (status == SESSION_STATUS_CLOSED) {
             return;
         }
-        final ByteBuffer readBuffer = this.readBuffer.buffer();
+        ByteBuffer readBuffer = this.readBuffer.buffer();
         readBuffer.flip();
         final Message<T> messageProcessor = ioServerConfig.getProcessor();
         while (readBuffer.hasRemaining() && status == SESSION_STATUS_ENABLED) {
@@ -301,6 +317,10 @@ class TcpAioSession<T> extends AioSession<T> {
             readBuffer.limit(readBuffer.capacity());
         }
 
+        if (adaptiveReadSize != null) {
+            readBuffer = resizeReadBuffer(readBuffer);
+        }
+
         //读缓冲区已满
         if (!readBuffer.hasRemaining()) {
             RuntimeException exception = new RuntimeException("readBuffer has no remaining");
@@ -315,6 +335,37 @@ class TcpAioSession<T> extends AioSession<T> {
     }
 
 
+    /**
+     * 记录本次读取的字节数,用于自适应调整读缓冲区
+     *
+     * @param readSize 读取的字节数
+     */
+    void recordReadSize(int readSize) {
+        this.lastReadSize = readSize;
+    }
+
+    /**
+     * 根据最近的读取量调整读缓冲区大小,未消费的数据会被迁移至新缓冲区
+     *
+     * @param readBuffer 当前处于写模式的读缓冲区
+     * @return 调整后的读缓冲区
+     */
+    private ByteBuffer resizeReadBuffer(ByteBuffer readBuffer) {
+        int capacity = readBuffer.capacity();
+        int size = readBuffer.hasRemaining()
+                ? adaptiveReadSize.record(lastReadSize, capacity)
+                : adaptiveReadSize.grow(capacity);
+        if (size == capacity || readBuffer.position() >= size) {
+            return readBuffer;
+        }
+        VirtualBuffer resized = pageBuffer.allocate(size);
+        readBuffer.flip();
+        resized.buffer().put(readBuffer);
+        this.readBuffer.clean();
+        this.readBuffer = resized;
+        return resized.buffer();
+    }
+
     protected void continueRead() {
         readFromChannel0(readBuffer.buffer());
     }
@@ -134,6 +134,7 @@ class TcpReadHandler<T> implements CompletionHandler<Integer, TcpAioSession<T>>
             if (monitor != null) {
                 monitor.readMonitor(aioSession, result);
             }
+            aioSession.recordReadSize(result);
             aioSession.readFromChannel(result == -1);
         } catch (Exception e) {
             failed(e, aioSession);
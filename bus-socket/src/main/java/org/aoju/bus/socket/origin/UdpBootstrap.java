@@ -24,29 +24,37 @@
  ********************************************************************************/
 package org.aoju.bus.socket.origin;
 
-import org.aoju.bus.core.io.*;
+import org.aoju.bus.core.io.BufferPool;
+import org.aoju.bus.core.io.EventFactory;
+import org.aoju.bus.core.io.RingBuffer;
 import org.aoju.bus.core.lang.Symbol;
 import org.aoju.bus.logger.Logger;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
-import java.nio.ByteBuffer;
-import java.nio.channels.ClosedSelectorException;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
 import java.nio.channels.DatagramChannel;
 import java.nio.channels.SelectionKey;
-import java.nio.channels.Selector;
-import java.util.Iterator;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * UDP服务启动类
+ * <p>
+ * 可通过{@link #setReactorNum(int)}启用多个反应器,
+ * 并通过{@link #openReusePort(String, int)}在操作系统支持SO_REUSEPORT时为每个反应器绑定独立的通道
+ * </p>
  *
  * @author Kimi Liu
  * @version 6.0.2
  * @since JDK 1.8+
  */
-public class UdpBootstrap<Request> implements Runnable {
+public class UdpBootstrap<Request> {
 
     /**
      * 状态：初始
@@ -68,6 +76,10 @@ public class UdpBootstrap<Request> implements Runnable {
      * 状态：已停止
      */
     private static final byte STATUS_STOPPED = STATUS_STOPPING << 1;
+    /**
+     * SO_REUSEPORT,JDK9+才提供该选项
+     */
+    private static final SocketOption<Boolean> SO_REUSEPORT = reusePortOption();
     /**
      * 服务ID
      */
@@ -77,9 +89,17 @@ public class UdpBootstrap<Request> implements Runnable {
      */
     private volatile byte status = STATUS_INIT;
     /**
-     * 多路复用器
+     * 反应器
+     */
+    private UdpReactor<Request>[] reactors;
+    /**
+     * 仍在运行的反应器数
      */
-    private Selector selector;
+    private final AtomicInteger runningReactors = new AtomicInteger(0);
+    /**
+     * 通道分配游标
+     */
+    private final AtomicInteger reactorCursor = new AtomicInteger(0);
 
     /**
      * 服务配置
@@ -91,11 +111,6 @@ public class UdpBootstrap<Request> implements Runnable {
      */
     private RingBuffer<UdpReadEvent<Request>>[] readRingBuffers;
 
-    /**
-     * 读缓冲区
-     */
-    private VirtualBuffer readBuffer;
-
     private EventFactory<UdpReadEvent<Request>> factory = new EventFactory<UdpReadEvent<Request>>() {
         @Override
         public UdpReadEvent<Request> newInstance() {
@@ -109,14 +124,19 @@ public class UdpBootstrap<Request> implements Runnable {
         }
     };
 
-
-    private PageBuffer pageBuffer = new BufferPool(1024, 1, true).allocateBufferPage();
-
     public UdpBootstrap(Protocol<Request> protocol, Message<Request> messageProcessor) {
         config.setProtocol(protocol);
         config.setProcessor(messageProcessor);
     }
 
+    private static SocketOption<Boolean> reusePortOption() {
+        try {
+            return (SocketOption<Boolean>) StandardSocketOptions.class.getField("SO_REUSEPORT").get(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /**
      * 开启一个UDP通道,端口号随机
      *
@@ -147,32 +167,92 @@ public class UdpBootstrap<Request> implements Runnable {
      * @throws IOException 异常
      */
     public UdpChannel<Request> open(String host, int port) throws IOException {
-        if (selector == null) {
-            synchronized (this) {
-                if (selector == null) {
-                    selector = Selector.open();
-                }
+        initReactors();
+        UdpReactor<Request> reactor = reactors[(reactorCursor.getAndIncrement() & Integer.MAX_VALUE) % reactors.length];
+        UdpChannel<Request> udpChannel = open(reactor, host, port, false);
+        //启动线程服务
+        initThreadServer();
+        return udpChannel;
+    }
+
+    /**
+     * 为每个反应器开启一个绑定在同一地址上的UDP通道,由内核在通道间分发数据报
+     * 若当前操作系统或JDK不支持SO_REUSEPORT,则退化为仅开启一个通道
+     *
+     * @param host 绑定本机地址
+     * @param port 指定绑定端口号,必须大于0
+     * @return UDP通道
+     * @throws IOException 异常
+     */
+    public List<UdpChannel<Request>> openReusePort(String host, int port) throws IOException {
+        if (port <= 0) {
+            throw new IllegalArgumentException("port must be greater than 0: " + port);
+        }
+        initReactors();
+        if (reactors.length == 1 || !isReusePortSupported()) {
+            if (reactors.length > 1) {
+                Logger.warn("SO_REUSEPORT is not supported, only one channel will be opened on port:{}", port);
             }
+            return Collections.singletonList(open(host, port));
+        }
+        List<UdpChannel<Request>> channels = new ArrayList<>(reactors.length);
+        for (UdpReactor<Request> reactor : reactors) {
+            channels.add(open(reactor, host, port, true));
+        }
+        initThreadServer();
+        return channels;
+    }
+
+    /**
+     * 当前运行环境是否支持SO_REUSEPORT
+     *
+     * @return true/false
+     */
+    public static boolean isReusePortSupported() {
+        if (SO_REUSEPORT == null) {
+            return false;
         }
+        try (DatagramChannel channel = DatagramChannel.open()) {
+            return channel.supportedOptions().contains(SO_REUSEPORT);
+        } catch (IOException e) {
+            return false;
+        }
+    }
 
+    private UdpChannel<Request> open(UdpReactor<Request> reactor, String host, int port, boolean reusePort) throws IOException {
         DatagramChannel channel = DatagramChannel.open();
         channel.configureBlocking(false);
-        if (port > 0) {
-            channel.socket().bind(host == null ? new InetSocketAddress(port) : new InetSocketAddress(host, port));
+        if (reusePort) {
+            channel.setOption(SO_REUSEPORT, true);
         }
-
-        if (status == STATUS_RUNNING) {
-            selector.wakeup();
+        if (port > 0) {
+            channel.bind(host == null ? new InetSocketAddress(port) : new InetSocketAddress(host, port));
         }
-        SelectionKey selectionKey = channel.register(selector, SelectionKey.OP_READ);
-        UdpChannel<Request> udpChannel = new UdpChannel<>(channel, selectionKey, config.getWriteQueueCapacity(), pageBuffer);
+        SelectionKey selectionKey = reactor.register(channel);
+        UdpChannel<Request> udpChannel = new UdpChannel<>(channel, selectionKey, config.getWriteQueueCapacity(), reactor);
         selectionKey.attach(udpChannel);
-
-        //启动线程服务
-        initThreadServer();
         return udpChannel;
     }
 
+    private void initReactors() throws IOException {
+        if (reactors != null) {
+            return;
+        }
+        synchronized (this) {
+            if (reactors != null) {
+                return;
+            }
+            int reactorNum = Math.max(1, config.getReactorNum());
+            int pageSize = ServerConfig.getIntProperty(ServerConfig.Property.UDP_PAGE_SIZE, 256 * 1024);
+            BufferPool bufferPool = new BufferPool(Math.max(pageSize, config.getReadBufferSize()), reactorNum, true);
+            UdpReactor<Request>[] array = new UdpReactor[reactorNum];
+            for (int i = 0; i < reactorNum; i++) {
+                array[i] = new UdpReactor<>(this, i, bufferPool.allocateBufferPage());
+            }
+            reactors = array;
+        }
+    }
+
     private void initThreadServer() {
         if (status != STATUS_INIT) {
             return;
@@ -181,13 +261,9 @@ public class UdpBootstrap<Request> implements Runnable {
             if (status != STATUS_INIT) {
                 return;
             }
-            updateServiceStatus(STATUS_STARTING);
+            updateServiceStatus(STATUS_RUNNING);
 
-            readBuffer = pageBuffer.allocate(config.getReadBufferSize());
             int uid = UdpBootstrap.uid++;
-            Thread serverThread = new Thread(this, "UDP-Selector-" + uid);
-            serverThread.start();
-
             readRingBuffers = new RingBuffer[config.getThreadNum()];
             for (int i = 0; i < config.getThreadNum(); i++) {
                 final RingBuffer<UdpReadEvent<Request>> ringBuffer = readRingBuffers[i] = new RingBuffer<>(1024, factory);
@@ -210,6 +286,11 @@ public class UdpBootstrap<Request> implements Runnable {
                     }
                 }, "UDP-Worker-" + uid + Symbol.HYPHEN + i).start();
             }
+
+            runningReactors.set(reactors.length);
+            for (UdpReactor<Request> reactor : reactors) {
+                reactor.start("UDP-Selector-" + uid + Symbol.HYPHEN + reactor.getIndex());
+            }
         }
     }
 
@@ -217,26 +298,20 @@ public class UdpBootstrap<Request> implements Runnable {
         this.status = status;
     }
 
-    @Override
-    public void run() {
-        updateServiceStatus(STATUS_RUNNING);
-        // 通过检查状态使之一直保持服务状态
-        while (STATUS_RUNNING == status) {
-            try {
-                running();
-            } catch (ClosedSelectorException e) {
-                e.printStackTrace();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
-        if (selector != null) {
-            try {
-                selector.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-            selector = null;
+    ServerConfig<Request> config() {
+        return config;
+    }
+
+    boolean isRunning() {
+        return STATUS_RUNNING == status;
+    }
+
+    /**
+     * 反应器停止回调,最后一个反应器停止后唤醒并结束业务线程
+     */
+    void reactorStopped() {
+        if (runningReactors.decrementAndGet() > 0) {
+            return;
         }
         for (int i = 0; i < config.getThreadNum(); i++) {
             RingBuffer<UdpReadEvent<Request>> ringBuffer = readRingBuffers[i];
@@ -252,64 +327,16 @@ public class UdpBootstrap<Request> implements Runnable {
     }
 
     /**
-     * 运行channel服务
-     *
-     * @throws IOException 异常
-     * @throws Exception   异常
-     */
-    private void running() throws IOException, Exception {
-        // 优先获取SelectionKey,若无关注事件触发则阻塞在selector.select(),减少select被调用次数
-        Set<SelectionKey> selectionKeys = selector.selectedKeys();
-        if (selectionKeys.isEmpty()) {
-            selector.select();
-        }
-        Iterator<SelectionKey> keyIterator = selectionKeys.iterator();
-        // 执行本次已触发待处理的事件
-        while (keyIterator.hasNext()) {
-            final SelectionKey key = keyIterator.next();
-            UdpChannel<Request> udpChannel = (UdpChannel<Request>) key.attachment();
-            try {
-                if (!key.isValid()) {
-                    udpChannel.close();
-                    continue;
-                }
-                // 读取客户端数据
-                if (key.isReadable()) {
-                    doRead(udpChannel);
-                } else if (key.isWritable()) {
-                    udpChannel.doWrite();
-                } else {
-                    Logger.warn("奇怪了...");
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
-        selectionKeys.clear();
-    }
-
-    /**
-     * 去读数据
+     * 分发已解码的消息,未配置业务线程时在反应器线程内同步处理
      *
-     * @param channel 频道
+     * @param channel    频道
+     * @param aioSession 会话
+     * @param remote     远程地址
+     * @param t          消息
      * @throws IOException          异常
      * @throws InterruptedException 异常
      */
-    private void doRead(UdpChannel channel) throws IOException, InterruptedException {
-        //接收数据
-        ByteBuffer buffer = readBuffer.buffer();
-        SocketAddress remote = channel.getChannel().receive(buffer);
-        buffer.flip();
-        UdpAioSession<Request> aioSession = channel.createAndCacheSession(remote);
-
-        //解码
-        Request t = config.getProtocol().decode(buffer, aioSession);
-        buffer.clear();
-        if (t == null) {
-            Logger.debug("decode null");
-            return;
-        }
-
+    void dispatch(UdpChannel<Request> channel, UdpAioSession<Request> aioSession, SocketAddress remote, Request t) throws IOException, InterruptedException {
         if (config.getThreadNum() == 0) {
             //非异步则同步处理业务
             config.getProcessor().process(aioSession, t);
@@ -317,8 +344,8 @@ public class UdpBootstrap<Request> implements Runnable {
             return;
         }
 
-        RingBuffer<UdpReadEvent<Request>> ringBuffer = readRingBuffers[remote.hashCode() % config.getThreadNum()];
-        int index = -1;
+        RingBuffer<UdpReadEvent<Request>> ringBuffer = readRingBuffers[(remote.hashCode() & Integer.MAX_VALUE) % config.getThreadNum()];
+        int index;
         while ((index = ringBuffer.tryNextWriteIndex()) < 0) {
             //读缓冲区已满,尝试清空写缓冲区
             channel.doWrite();
@@ -330,7 +357,7 @@ public class UdpBootstrap<Request> implements Runnable {
                 Request message = event.getMessage();
                 ringBuffer.publishReadIndex(readIndex);
                 config.getProcessor().process(session, message);
-                aioSession.writeBuffer().flush();
+                session.writeBuffer().flush();
             }
         }
         UdpReadEvent<Request> udpEvent = ringBuffer.get(index);
@@ -341,7 +368,20 @@ public class UdpBootstrap<Request> implements Runnable {
 
     public void shutdown() {
         status = STATUS_STOPPING;
-        selector.wakeup();
+        if (reactors != null) {
+            for (UdpReactor<Request> reactor : reactors) {
+                reactor.wakeup();
+            }
+        }
+    }
+
+    /**
+     * 获取反应器,可用于查询各反应器的收发及丢弃计数
+     *
+     * @return 反应器列表
+     */
+    public List<UdpReactor<Request>> getReactors() {
+        return reactors == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(reactors));
     }
 
     /**
@@ -366,4 +406,15 @@ public class UdpBootstrap<Request> implements Runnable {
         return this;
     }
 
+    /**
+     * 设置反应器数量,需在开启通道前设置
+     *
+     * @param num 反应器数量
+     * @return the object
+     */
+    public final UdpBootstrap<Request> setReactorNum(int num) {
+        this.config.setReactorNum(num);
+        return this;
+    }
+
 }
@@ -29,7 +29,6 @@ import org.aoju.bus.core.io.PageBuffer;
 import org.aoju.bus.core.io.RingBuffer;
 import org.aoju.bus.core.io.VirtualBuffer;
 import org.aoju.bus.core.lang.Normal;
-import org.aoju.bus.core.lang.Symbol;
 import org.aoju.bus.logger.Logger;
 
 import java.io.IOException;
@@ -49,6 +48,11 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public final class UdpChannel<Request> {
 
+    /**
+     * 单次可写事件最多连续发送的数据报数量
+     */
+    private static final int WRITE_BATCH = ServerConfig.getIntProperty(ServerConfig.Property.UDP_WRITE_BATCH, 128);
+
     private PageBuffer pageBuffer;
     private int writeQueueCapacity;
     /**
@@ -58,10 +62,15 @@ public final class UdpChannel<Request> {
 
     private SelectionKey selectionKey;
 
+    /**
+     * 当前通道所属的反应器
+     */
+    private UdpReactor<Request> reactor;
+
     /**
      * 与当前UDP通道对接的会话
      */
-    private ConcurrentHashMap<String, UdpAioSession<Request>> udpAioSessionConcurrentHashMap = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<SocketAddress, UdpAioSession<Request>> udpAioSessionConcurrentHashMap = new ConcurrentHashMap<>();
 
     /**
      * 待输出消息
@@ -72,10 +81,15 @@ public final class UdpChannel<Request> {
      */
     private Object lock = new Object();
 
+    /**
+     * 因socket发送缓冲区已满而未能发出的数据,下次可写时优先发送
+     */
+    private VirtualBuffer pendingResponse;
+    private SocketAddress pendingRemote;
 
     private int writeBacklog = 2048;
 
-    UdpChannel(final DatagramChannel channel, SelectionKey selectionKey, int writeQueueCapacity, PageBuffer pageBuffer) {
+    UdpChannel(final DatagramChannel channel, SelectionKey selectionKey, int writeQueueCapacity, UdpReactor<Request> reactor) {
         this.channel = channel;
         writeRingBuffer = new RingBuffer<>(writeBacklog, new EventFactory<UdpWriteEvent>() {
             @Override
@@ -91,7 +105,8 @@ public final class UdpChannel<Request> {
         });
         this.selectionKey = selectionKey;
         this.writeQueueCapacity = writeQueueCapacity;
-        this.pageBuffer = pageBuffer;
+        this.reactor = reactor;
+        this.pageBuffer = reactor.getPageBuffer();
     }
 
     private void write(VirtualBuffer virtualBuffer, SocketAddress remote) throws IOException, InterruptedException {
@@ -100,6 +115,7 @@ public final class UdpChannel<Request> {
         if (index < 0) {
             try {
                 channel.send(virtualBuffer.buffer(), remote);
+                reactor.onSent();
             } finally {
                 virtualBuffer.clean();
             }
@@ -118,20 +134,35 @@ public final class UdpChannel<Request> {
         }
     }
 
-    void doWrite() throws IOException {
-        int writeSize = -1;
-        do {
+    /**
+     * 批量输出队列中的数据,由反应器线程调用
+     * 仅在队列清空时才取消写关注,socket发送缓冲区已满时保留剩余数据待下次可写
+     *
+     * @return 本次发送的数据报数
+     * @throws IOException 异常
+     */
+    int doWrite() throws IOException {
+        int count = 0;
+        if (pendingResponse != null) {
+            if (!send(pendingResponse, pendingRemote)) {
+                return count;
+            }
+            pendingResponse = null;
+            pendingRemote = null;
+            count++;
+        }
+        while (count < WRITE_BATCH) {
             int index = writeRingBuffer.tryNextReadIndex();
             //无可写数据,去除写关注
             if (index < 0) {
                 synchronized (lock) {
                     selectionKey.interestOps(selectionKey.interestOps() & ~SelectionKey.OP_WRITE);
-                    selectionKey.selector().wakeup();
                 }
                 index = writeRingBuffer.tryNextReadIndex();
                 if (index < 0) {
-                    return;
-                } else {
+                    return count;
+                }
+                synchronized (lock) {
                     selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_WRITE);
                 }
             }
@@ -141,13 +172,32 @@ public final class UdpChannel<Request> {
             SocketAddress remote = event.getRemote();
             writeRingBuffer.publishReadIndex(index);
 
-            ByteBuffer buffer = response.buffer();
-            writeSize = channel.send(buffer, remote);
-            response.clean();
-            if (buffer.hasRemaining()) {
-                Logger.error("buffer has remaining!");
+            if (!send(response, remote)) {
+                pendingResponse = response;
+                pendingRemote = remote;
+                return count;
             }
-        } while (writeSize > 0);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 发送单个数据报
+     *
+     * @param response 待发送数据
+     * @param remote   远程地址
+     * @return false:socket发送缓冲区已满,数据未发出
+     * @throws IOException 异常
+     */
+    private boolean send(VirtualBuffer response, SocketAddress remote) throws IOException {
+        ByteBuffer buffer = response.buffer();
+        if (channel.send(buffer, remote) == 0 && buffer.hasRemaining()) {
+            return false;
+        }
+        response.clean();
+        reactor.onSent();
+        return true;
     }
 
     /**
@@ -171,13 +221,13 @@ public final class UdpChannel<Request> {
             throw new UnsupportedOperationException();
 
         }
-        InetSocketAddress address = (InetSocketAddress) remote;
-        String key = address.getHostName() + Symbol.COLON + address.getPort();
-        UdpAioSession<Request> session = udpAioSessionConcurrentHashMap.get(key);
+        // 直接以地址作为键,避免getHostName()触发反向DNS解析
+        UdpAioSession<Request> session = udpAioSessionConcurrentHashMap.get(remote);
         if (session != null) {
             return session;
         }
         synchronized (this) {
+            session = udpAioSessionConcurrentHashMap.get(remote);
             if (session != null) {
                 return session;
             }
@@ -197,7 +247,7 @@ public final class UdpChannel<Request> {
             };
             WriteBuffer writeBuffer = new WriteBuffer(pageBuffer, function, writeQueueCapacity);
             session = new UdpAioSession<>(this, remote, writeBuffer);
-            udpAioSessionConcurrentHashMap.put(key, session);
+            udpAioSessionConcurrentHashMap.put(remote, session);
         }
         return session;
     }
@@ -212,7 +262,7 @@ public final class UdpChannel<Request> {
             selector.wakeup();
             selectionKey = null;
         }
-        for (Map.Entry<String, UdpAioSession<Request>> entry : udpAioSessionConcurrentHashMap.entrySet()) {
+        for (Map.Entry<SocketAddress, UdpAioSession<Request>> entry : udpAioSessionConcurrentHashMap.entrySet()) {
             entry.getValue().close();
         }
         try {
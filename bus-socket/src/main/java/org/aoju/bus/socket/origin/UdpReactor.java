@@ -0,0 +1,304 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.socket.origin;
+
+import org.aoju.bus.core.io.PageBuffer;
+import org.aoju.bus.core.io.VirtualBuffer;
+import org.aoju.bus.logger.Logger;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * UDP反应器
+ * <p>
+ * 每个反应器独占一个Selector线程及一块直接内存页作为接收缓冲区,
+ * 多个反应器配合SO_REUSEPORT可由内核将数据报分散至多个核心处理
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public final class UdpReactor<Request> implements Runnable {
+
+    /**
+     * 单次可读事件最多连续接收的数据报数量
+     */
+    private static final int READ_BATCH = ServerConfig.getIntProperty(ServerConfig.Property.UDP_READ_BATCH, 64);
+
+    private final UdpBootstrap<Request> bootstrap;
+    private final int index;
+    private final Selector selector;
+    /**
+     * 当前反应器专属的内存页
+     */
+    private final PageBuffer pageBuffer;
+    /**
+     * 待注册的通道,由反应器线程执行注册,避免与select()竞争
+     */
+    private final Queue<FutureTask<SelectionKey>> registerTasks = new ConcurrentLinkedQueue<>();
+    /**
+     * 接收的数据报数
+     */
+    private final LongAdder receivedPackets = new LongAdder();
+    /**
+     * 接收的字节数
+     */
+    private final LongAdder receivedBytes = new LongAdder();
+    /**
+     * 解码失败或被丢弃的数据报数
+     */
+    private final LongAdder droppedPackets = new LongAdder();
+    /**
+     * 发送的数据报数
+     */
+    private final LongAdder sentPackets = new LongAdder();
+    /**
+     * 读缓冲区
+     */
+    private VirtualBuffer readBuffer;
+    /**
+     * 反应器线程
+     */
+    private volatile Thread thread;
+
+    UdpReactor(UdpBootstrap<Request> bootstrap, int index, PageBuffer pageBuffer) throws IOException {
+        this.bootstrap = bootstrap;
+        this.index = index;
+        this.pageBuffer = pageBuffer;
+        this.selector = Selector.open();
+    }
+
+    @Override
+    public void run() {
+        readBuffer = pageBuffer.allocate(bootstrap.config().getReadBufferSize());
+        // 通过检查状态使之一直保持服务状态
+        while (bootstrap.isRunning()) {
+            try {
+                running();
+            } catch (ClosedSelectorException e) {
+                Logger.error("UDP reactor-" + index + " selector closed", e);
+                break;
+            } catch (Exception e) {
+                Logger.error("UDP reactor-" + index + " exception", e);
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            Logger.error("UDP reactor-" + index + " close selector exception", e);
+        }
+        readBuffer.clean();
+        bootstrap.reactorStopped();
+    }
+
+    /**
+     * 运行channel服务
+     *
+     * @throws IOException 异常
+     */
+    private void running() throws IOException {
+        FutureTask<SelectionKey> registerTask;
+        while ((registerTask = registerTasks.poll()) != null) {
+            registerTask.run();
+        }
+        // 优先获取SelectionKey,若无关注事件触发则阻塞在selector.select(),减少select被调用次数
+        Set<SelectionKey> selectionKeys = selector.selectedKeys();
+        if (selectionKeys.isEmpty()) {
+            selector.select();
+        }
+        Iterator<SelectionKey> keyIterator = selectionKeys.iterator();
+        // 执行本次已触发待处理的事件
+        while (keyIterator.hasNext()) {
+            final SelectionKey key = keyIterator.next();
+            UdpChannel<Request> udpChannel = (UdpChannel<Request>) key.attachment();
+            try {
+                if (!key.isValid()) {
+                    udpChannel.close();
+                    continue;
+                }
+                // 读取客户端数据
+                if (key.isReadable()) {
+                    doRead(udpChannel);
+                }
+                // 批量输出待发送的数据
+                if (key.isValid() && key.isWritable()) {
+                    udpChannel.doWrite();
+                }
+            } catch (Exception e) {
+                Logger.error("UDP reactor-" + index + " process key exception", e);
+            }
+        }
+        selectionKeys.clear();
+    }
+
+    /**
+     * 批量接收数据报,直至通道无可读数据或达到单次上限
+     *
+     * @param channel 频道
+     * @throws IOException          异常
+     * @throws InterruptedException 异常
+     */
+    private void doRead(UdpChannel<Request> channel) throws IOException, InterruptedException {
+        ByteBuffer buffer = readBuffer.buffer();
+        for (int i = 0; i < READ_BATCH; i++) {
+            SocketAddress remote = channel.getChannel().receive(buffer);
+            if (remote == null) {
+                return;
+            }
+            buffer.flip();
+            receivedPackets.increment();
+            receivedBytes.add(buffer.remaining());
+            UdpAioSession<Request> aioSession = channel.createAndCacheSession(remote);
+
+            //解码
+            Request t;
+            try {
+                t = bootstrap.config().getProtocol().decode(buffer, aioSession);
+            } finally {
+                buffer.clear();
+            }
+            if (t == null) {
+                droppedPackets.increment();
+                Logger.debug("decode null");
+                continue;
+            }
+            bootstrap.dispatch(channel, aioSession, remote, t);
+        }
+    }
+
+    /**
+     * 注册通道至当前反应器
+     *
+     * @param channel 通道
+     * @return the object
+     * @throws IOException 异常
+     */
+    SelectionKey register(DatagramChannel channel) throws IOException {
+        if (thread == null || Thread.currentThread() == thread) {
+            return channel.register(selector, SelectionKey.OP_READ);
+        }
+        FutureTask<SelectionKey> task = new FutureTask<>(() -> channel.register(selector, SelectionKey.OP_READ));
+        registerTasks.offer(task);
+        selector.wakeup();
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * 启动反应器线程
+     *
+     * @param name 线程名称
+     */
+    void start(String name) {
+        thread = new Thread(this, name);
+        thread.start();
+    }
+
+    void wakeup() {
+        selector.wakeup();
+    }
+
+    void onSent() {
+        sentPackets.increment();
+    }
+
+    PageBuffer getPageBuffer() {
+        return pageBuffer;
+    }
+
+    /**
+     * 反应器序号
+     *
+     * @return 序号
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * 接收的数据报数
+     *
+     * @return 数量
+     */
+    public long getReceivedPackets() {
+        return receivedPackets.sum();
+    }
+
+    /**
+     * 接收的字节数
+     *
+     * @return 字节数
+     */
+    public long getReceivedBytes() {
+        return receivedBytes.sum();
+    }
+
+    /**
+     * 解码失败或被丢弃的数据报数
+     *
+     * @return 数量
+     */
+    public long getDroppedPackets() {
+        return droppedPackets.sum();
+    }
+
+    /**
+     * 发送的数据报数
+     *
+     * @return 数量
+     */
+    public long getSentPackets() {
+        return sentPackets.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "UdpReactor-" + index + "{received=" + getReceivedPackets()
+                + ", receivedBytes=" + getReceivedBytes()
+                + ", dropped=" + getDroppedPackets()
+                + ", sent=" + getSentPackets() + '}';
+    }
+
+}
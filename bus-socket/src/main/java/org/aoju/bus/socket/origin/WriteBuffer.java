@@ -284,6 +284,24 @@ public class WriteBuffer extends OutputStream {
         return count > 0 || (writeInBuf != null && writeInBuf.buffer().position() > 0);
     }
 
+    /**
+     * 当前已就绪待输出的缓冲块数量,仅用于监控,不保证实时准确
+     *
+     * @return 待输出的缓冲块数量
+     */
+    public int queueSize() {
+        return count;
+    }
+
+    /**
+     * 待输出队列容量
+     *
+     * @return 队列容量
+     */
+    public int queueCapacity() {
+        return items.length;
+    }
+
 
     /**
      * 存储缓冲区至队列中以备输出
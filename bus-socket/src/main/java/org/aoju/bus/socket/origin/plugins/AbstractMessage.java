@@ -41,6 +41,10 @@ import java.util.List;
 public abstract class AbstractMessage<T> implements Message<T>, NetMonitor<T> {
 
     private List<Plugin<T>> plugins = new ArrayList<>();
+    /**
+     * 指标插件,注册后才对消息处理计时
+     */
+    private MetricsPlugin<T> metrics;
 
     @Override
     public final void readMonitor(AioSession<T> session, int readSize) {
@@ -76,8 +80,18 @@ public abstract class AbstractMessage<T> implements Message<T>, NetMonitor<T> {
                 flag = false;
             }
         }
-        if (flag) {
+        if (!flag) {
+            return;
+        }
+        if (metrics == null) {
+            process0(session, msg);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
             process0(session, msg);
+        } finally {
+            metrics.processed(session, System.nanoTime() - start);
         }
     }
 
@@ -95,5 +109,8 @@ public abstract class AbstractMessage<T> implements Message<T>, NetMonitor<T> {
 
     public final void addPlugin(Plugin plugin) {
         this.plugins.add(plugin);
+        if (plugin instanceof MetricsPlugin) {
+            this.metrics = (MetricsPlugin<T>) plugin;
+        }
     }
 }
@@ -26,16 +26,20 @@ package org.aoju.bus.socket.origin.plugins;
 
 import org.aoju.bus.logger.Logger;
 import org.aoju.bus.socket.origin.AioSession;
+import org.aoju.bus.socket.origin.HashedWheelTimer;
 import org.aoju.bus.socket.origin.StateMachine;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 心跳插件
+ * <p>
+ * 每个会话仅在共享时间轮中占用一个周期任务,收到消息时只刷新会话的最后活跃时间,
+ * 不会重新创建或调度任务
+ * </p>
  *
  * @author Kimi Liu
  * @version 6.0.2
@@ -43,17 +47,25 @@ import java.util.TimerTask;
  */
 public abstract class HeartPlugin<T> extends AbstractPlugin<T> {
 
-    private static Timer timer = new Timer("HeartMonitor Timer", true);
-    private Map<AioSession<T>, Long> sessionMap = new HashMap<>();
+    private final Map<AioSession<T>, HeartState> sessionMap = new ConcurrentHashMap<>();
+    private final HashedWheelTimer timer;
     private int timeout;
 
     public HeartPlugin(int timeout) {
+        this(timeout, HashedWheelTimer.DEFAULT_TIMER);
+    }
+
+    public HeartPlugin(int timeout, HashedWheelTimer timer) {
         this.timeout = timeout;
+        this.timer = timer;
     }
 
     @Override
     public final boolean preProcess(AioSession<T> session, T t) {
-        sessionMap.put(session, System.currentTimeMillis());
+        HeartState state = sessionMap.get(session);
+        if (state != null) {
+            state.lastTime = System.currentTimeMillis();
+        }
         //是否心跳响应消息
         if (isHeartMessage(session, t)) {
             //延长心跳监测时间
@@ -66,13 +78,15 @@ public abstract class HeartPlugin<T> extends AbstractPlugin<T> {
     public final void stateEvent(StateMachine stateMachineEnum, AioSession<T> session, Throwable throwable) {
         switch (stateMachineEnum) {
             case NEW_SESSION:
-                sessionMap.put(session, System.currentTimeMillis());
-                registerHeart(session, timeout);
                 //注册心跳监测
+                registerHeart(session, timeout);
                 break;
             case SESSION_CLOSED:
                 //移除心跳监测
-                sessionMap.remove(session);
+                HeartState state = sessionMap.remove(session);
+                if (state != null) {
+                    state.cancel();
+                }
                 break;
         }
     }
@@ -101,30 +115,64 @@ public abstract class HeartPlugin<T> extends AbstractPlugin<T> {
             return;
         }
         Logger.info("session:{}注册心跳任务,超时时间:{}", session, timeout);
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                if (session.isInvalid()) {
-                    sessionMap.remove(session);
-                    Logger.info("session:{} 已失效,移除心跳任务", session);
-                    return;
-                }
-                Long lastTime = sessionMap.get(session);
-                if (lastTime == null) {
-                    Logger.warn("session:{} timeout is null", session);
-                    lastTime = System.currentTimeMillis();
-                    sessionMap.put(session, lastTime);
-                }
-                if (System.currentTimeMillis() - lastTime > timeout) {
-                    try {
-                        sendHeartRequest(session);
-                    } catch (IOException e) {
-                        Logger.error("heart exception", e);
-                    }
+        HeartState state = new HeartState(session);
+        HeartState previous = sessionMap.put(session, state);
+        if (previous != null) {
+            previous.cancel();
+        }
+        state.timeout = timer.scheduleAtFixedRate(state, timeout, timeout, TimeUnit.MILLISECONDS);
+        if (state.cancelled) {
+            // 注册期间会话已关闭
+            state.cancel();
+        }
+    }
+
+    /**
+     * 会话心跳状态,同时作为时间轮中的周期任务
+     */
+    private class HeartState implements Runnable {
+
+        private final AioSession<T> session;
+        private volatile long lastTime = System.currentTimeMillis();
+        private volatile HashedWheelTimer.Timeout timeout;
+        /**
+         * 是否已取消,先于任务的超时对象设置时由注册方或任务自身完成取消
+         */
+        private volatile boolean cancelled;
+
+        HeartState(AioSession<T> session) {
+            this.session = session;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                cancel();
+                return;
+            }
+            if (session.isInvalid()) {
+                sessionMap.remove(session, this);
+                cancel();
+                Logger.info("session:{} 已失效,移除心跳任务", session);
+                return;
+            }
+            if (System.currentTimeMillis() - lastTime > HeartPlugin.this.timeout) {
+                try {
+                    sendHeartRequest(session);
+                } catch (IOException e) {
+                    Logger.error("heart exception", e);
                 }
-                registerHeart(session, timeout);
             }
-        }, timeout);
+        }
+
+        void cancel() {
+            cancelled = true;
+            HashedWheelTimer.Timeout timeout = this.timeout;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+
     }
 
 }
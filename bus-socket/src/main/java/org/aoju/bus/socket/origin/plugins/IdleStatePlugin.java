@@ -0,0 +1,192 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.socket.origin.plugins;
+
+import org.aoju.bus.logger.Logger;
+import org.aoju.bus.socket.origin.AioSession;
+import org.aoju.bus.socket.origin.HashedWheelTimer;
+import org.aoju.bus.socket.origin.StateMachine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 空闲检测插件
+ * <p>
+ * 会话在指定时间内无读/写操作时触发{@link #idleEvent(AioSession, boolean)},
+ * 默认关闭会话,可用于实现读超时
+ * 读写仅刷新会话的时间戳,检测任务由共享时间轮按剩余时间调度
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public class IdleStatePlugin<T> extends AbstractPlugin<T> {
+
+    private final Map<AioSession<T>, IdleState> sessionMap = new ConcurrentHashMap<>();
+    private final HashedWheelTimer timer;
+    /**
+     * 读空闲超时时间(毫秒),小于等于0则不检测
+     */
+    private final long readIdleTimeout;
+    /**
+     * 写空闲超时时间(毫秒),小于等于0则不检测
+     */
+    private final long writeIdleTimeout;
+
+    public IdleStatePlugin(long readIdleTimeout) {
+        this(readIdleTimeout, 0);
+    }
+
+    public IdleStatePlugin(long readIdleTimeout, long writeIdleTimeout) {
+        this(readIdleTimeout, writeIdleTimeout, HashedWheelTimer.DEFAULT_TIMER);
+    }
+
+    public IdleStatePlugin(long readIdleTimeout, long writeIdleTimeout, HashedWheelTimer timer) {
+        this.readIdleTimeout = readIdleTimeout;
+        this.writeIdleTimeout = writeIdleTimeout;
+        this.timer = timer;
+    }
+
+    @Override
+    public void stateEvent(StateMachine stateMachineEnum, AioSession<T> session, Throwable throwable) {
+        switch (stateMachineEnum) {
+            case NEW_SESSION:
+                if (readIdleTimeout > 0 || writeIdleTimeout > 0) {
+                    IdleState state = new IdleState(session);
+                    sessionMap.put(session, state);
+                    state.schedule(minTimeout());
+                }
+                break;
+            case SESSION_CLOSED:
+                IdleState state = sessionMap.remove(session);
+                if (state != null) {
+                    state.cancel();
+                }
+                break;
+        }
+    }
+
+    @Override
+    public void readMonitor(AioSession<T> session, int readSize) {
+        IdleState state = sessionMap.get(session);
+        if (state != null) {
+            state.lastReadTime = System.currentTimeMillis();
+        }
+    }
+
+    @Override
+    public void writeMonitor(AioSession<T> session, int writeSize) {
+        IdleState state = sessionMap.get(session);
+        if (state != null) {
+            state.lastWriteTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 会话空闲时触发,默认关闭会话
+     *
+     * @param session 会话
+     * @param read    true:读空闲,false:写空闲
+     */
+    protected void idleEvent(AioSession<T> session, boolean read) {
+        Logger.info("session:{} {}空闲超时,关闭会话", session, read ? "读" : "写");
+        session.close(!read);
+    }
+
+    private long minTimeout() {
+        if (readIdleTimeout <= 0) {
+            return writeIdleTimeout;
+        }
+        if (writeIdleTimeout <= 0) {
+            return readIdleTimeout;
+        }
+        return Math.min(readIdleTimeout, writeIdleTimeout);
+    }
+
+    /**
+     * 会话空闲状态,同时作为时间轮中的检测任务
+     */
+    private class IdleState implements Runnable {
+
+        private final AioSession<T> session;
+        private volatile long lastReadTime;
+        private volatile long lastWriteTime;
+        private volatile HashedWheelTimer.Timeout timeout;
+
+        IdleState(AioSession<T> session) {
+            this.session = session;
+            this.lastReadTime = this.lastWriteTime = System.currentTimeMillis();
+        }
+
+        @Override
+        public void run() {
+            if (session.isInvalid()) {
+                sessionMap.remove(session, this);
+                return;
+            }
+            long now = System.currentTimeMillis();
+            long nextDelay = Long.MAX_VALUE;
+            if (readIdleTimeout > 0) {
+                long remain = readIdleTimeout - (now - lastReadTime);
+                if (remain <= 0) {
+                    lastReadTime = now;
+                    idleEvent(session, true);
+                    remain = readIdleTimeout;
+                }
+                nextDelay = Math.min(nextDelay, remain);
+            }
+            if (writeIdleTimeout > 0) {
+                long remain = writeIdleTimeout - (now - lastWriteTime);
+                if (remain <= 0) {
+                    lastWriteTime = now;
+                    idleEvent(session, false);
+                    remain = writeIdleTimeout;
+                }
+                nextDelay = Math.min(nextDelay, remain);
+            }
+            if (!session.isInvalid()) {
+                schedule(nextDelay);
+            } else {
+                sessionMap.remove(session, this);
+            }
+        }
+
+        void schedule(long delay) {
+            timeout = timer.schedule(this, delay, TimeUnit.MILLISECONDS);
+        }
+
+        void cancel() {
+            HashedWheelTimer.Timeout timeout = this.timeout;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,302 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.socket.origin.plugins;
+
+import org.aoju.bus.core.io.BufferPool;
+import org.aoju.bus.socket.origin.AioSession;
+import org.aoju.bus.socket.origin.StateMachine;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 可查询的运行指标插件
+ * <p>
+ * 与{@link MonitorPlugin}定时输出日志不同,本插件只做原子累加,由调用方按需读取,
+ * 消息处理耗时由{@link AbstractMessage}在注册本插件后才开始计时,未注册时不产生额外开销
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+public class MetricsPlugin<T> extends AbstractPlugin<T> {
+
+    /**
+     * 累计读取字节数
+     */
+    private final LongAdder readBytes = new LongAdder();
+    /**
+     * 累计写出字节数
+     */
+    private final LongAdder writeBytes = new LongAdder();
+    /**
+     * 累计处理消息数
+     */
+    private final LongAdder processedMessages = new LongAdder();
+    /**
+     * 累计处理失败消息数
+     */
+    private final LongAdder failedMessages = new LongAdder();
+    /**
+     * 累计新建连接数
+     */
+    private final LongAdder newSessions = new LongAdder();
+    /**
+     * 累计断开连接数
+     */
+    private final LongAdder closedSessions = new LongAdder();
+    /**
+     * 消息处理耗时
+     */
+    private final LatencyHistogram latency = new LatencyHistogram();
+    /**
+     * 会话级指标,未开启时为null
+     */
+    private final Map<AioSession<T>, SessionMetrics> sessions;
+    /**
+     * 内存池,用于统计占用情况
+     */
+    private volatile BufferPool bufferPool;
+
+    public MetricsPlugin() {
+        this(true);
+    }
+
+    /**
+     * @param sessionMetrics 是否统计会话级指标
+     */
+    public MetricsPlugin(boolean sessionMetrics) {
+        this.sessions = sessionMetrics ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * 绑定内存池以统计其占用情况
+     *
+     * @param bufferPool 内存池
+     * @return this
+     */
+    public MetricsPlugin<T> bind(BufferPool bufferPool) {
+        this.bufferPool = bufferPool;
+        return this;
+    }
+
+    @Override
+    public void stateEvent(StateMachine stateMachineEnum, AioSession<T> session, Throwable throwable) {
+        switch (stateMachineEnum) {
+            case NEW_SESSION:
+                newSessions.increment();
+                if (sessions != null) {
+                    sessions.put(session, new SessionMetrics(session));
+                }
+                break;
+            case SESSION_CLOSED:
+                closedSessions.increment();
+                if (sessions != null) {
+                    sessions.remove(session);
+                }
+                break;
+            case PROCESS_EXCEPTION:
+                failedMessages.increment();
+                break;
+        }
+    }
+
+    @Override
+    public void readMonitor(AioSession<T> session, int readSize) {
+        readBytes.add(readSize);
+        SessionMetrics metrics = sessionMetrics(session);
+        if (metrics != null) {
+            metrics.readBytes.addAndGet(readSize);
+        }
+    }
+
+    @Override
+    public void writeMonitor(AioSession<T> session, int writeSize) {
+        writeBytes.add(writeSize);
+        SessionMetrics metrics = sessionMetrics(session);
+        if (metrics != null) {
+            metrics.writeBytes.addAndGet(writeSize);
+        }
+    }
+
+    /**
+     * 记录一次消息处理
+     *
+     * @param session 会话
+     * @param nanos   处理耗时(纳秒)
+     */
+    void processed(AioSession<T> session, long nanos) {
+        processedMessages.increment();
+        latency.record(nanos);
+        SessionMetrics metrics = sessionMetrics(session);
+        if (metrics != null) {
+            metrics.messages.incrementAndGet();
+            metrics.latencyNanos.addAndGet(nanos);
+        }
+    }
+
+    private SessionMetrics sessionMetrics(AioSession<T> session) {
+        return sessions == null ? null : sessions.get(session);
+    }
+
+    public long getReadBytes() {
+        return readBytes.sum();
+    }
+
+    public long getWriteBytes() {
+        return writeBytes.sum();
+    }
+
+    public long getProcessedMessages() {
+        return processedMessages.sum();
+    }
+
+    public long getFailedMessages() {
+        return failedMessages.sum();
+    }
+
+    /**
+     * 当前在线连接数
+     *
+     * @return 连接数
+     */
+    public long getOnlineSessions() {
+        return newSessions.sum() - closedSessions.sum();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * 获取指定会话的指标
+     *
+     * @param session 会话
+     * @return 会话指标, 未开启会话级统计或会话不存在时为null
+     */
+    public SessionMetrics getSessionMetrics(AioSession<T> session) {
+        return sessionMetrics(session);
+    }
+
+    /**
+     * 获取全部在线会话的指标
+     *
+     * @return 会话指标
+     */
+    public Map<AioSession<T>, SessionMetrics> getSessions() {
+        return sessions == null ? Collections.emptyMap() : Collections.unmodifiableMap(sessions);
+    }
+
+    /**
+     * 全局指标快照,便于导出
+     *
+     * @return 指标名称与取值
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("readBytes", getReadBytes());
+        map.put("writeBytes", getWriteBytes());
+        map.put("processedMessages", getProcessedMessages());
+        map.put("failedMessages", getFailedMessages());
+        map.put("onlineSessions", getOnlineSessions());
+        map.put("latencyMeanNanos", latency.getMean());
+        map.put("latencyP50Nanos", latency.getPercentile(50));
+        map.put("latencyP99Nanos", latency.getPercentile(99));
+        map.put("latencyMaxNanos", latency.getMax());
+        if (sessions != null) {
+            long queued = 0;
+            for (SessionMetrics metrics : sessions.values()) {
+                queued += metrics.getWriteQueueSize();
+            }
+            map.put("writeQueueSize", queued);
+        }
+        BufferPool pool = this.bufferPool;
+        if (pool != null) {
+            long capacity = pool.capacity();
+            map.put("bufferPoolCapacity", capacity);
+            map.put("bufferPoolUsed", capacity - pool.available());
+        }
+        return map;
+    }
+
+    /**
+     * 会话级指标
+     */
+    public static final class SessionMetrics {
+
+        private final AioSession<?> session;
+        private final long createTime = System.currentTimeMillis();
+        private final AtomicLong readBytes = new AtomicLong();
+        private final AtomicLong writeBytes = new AtomicLong();
+        private final AtomicLong messages = new AtomicLong();
+        private final AtomicLong latencyNanos = new AtomicLong();
+
+        SessionMetrics(AioSession<?> session) {
+            this.session = session;
+        }
+
+        public long getCreateTime() {
+            return createTime;
+        }
+
+        public long getReadBytes() {
+            return readBytes.get();
+        }
+
+        public long getWriteBytes() {
+            return writeBytes.get();
+        }
+
+        public long getMessages() {
+            return messages.get();
+        }
+
+        /**
+         * 平均消息处理耗时(纳秒)
+         *
+         * @return 平均耗时
+         */
+        public double getMeanLatency() {
+            long count = messages.get();
+            return count == 0 ? 0 : (double) latencyNanos.get() / count;
+        }
+
+        /**
+         * 当前待输出的缓冲块数量
+         *
+         * @return 数量
+         */
+        public int getWriteQueueSize() {
+            return session.isInvalid() ? 0 : session.writeBuffer().queueSize();
+        }
+
+    }
+
+}
@@ -25,14 +25,10 @@
 package org.aoju.bus.socket.origin.plugins;
 
 import org.aoju.bus.core.io.BufferPool;
-import org.aoju.bus.core.io.PageBuffer;
-import org.aoju.bus.core.lang.Normal;
-import org.aoju.bus.core.lang.Symbol;
 import org.aoju.bus.logger.Logger;
 import org.aoju.bus.socket.origin.AioQuickServer;
 import org.aoju.bus.socket.origin.QuickTimer;
 
-import java.lang.reflect.Field;
 import java.util.TimerTask;
 import java.util.concurrent.TimeUnit;
 
@@ -68,25 +64,12 @@ public class PageBufferPlugin<T> extends AbstractPlugin {
                         Logger.error("unKnow server or client need to monitor!");
                         return;
                     }
-                    try {
-                        Field bufferPoolField = AioQuickServer.class.getDeclaredField("bufferPool");
-                        bufferPoolField.setAccessible(true);
-                        BufferPool pagePool = (BufferPool) bufferPoolField.get(server);
-                        if (pagePool == null) {
-                            Logger.error("server maybe has not started!");
-                            return;
-                        }
-                        Field field = BufferPool.class.getDeclaredField("bufferPageList");
-                        field.setAccessible(true);
-                        PageBuffer[] pages = (PageBuffer[]) field.get(pagePool);
-                        String logger = Normal.EMPTY;
-                        for (PageBuffer page : pages) {
-                            logger += Symbol.CRLF + page.toString();
-                        }
-                        Logger.info(logger);
-                    } catch (Exception e) {
-                        Logger.error(Normal.EMPTY, e);
+                    BufferPool pagePool = server.getBufferPool();
+                    if (pagePool == null) {
+                        Logger.error("server maybe has not started!");
+                        return;
                     }
+                    Logger.info(pagePool.toString());
                 }
             }
         }, mills, mills);
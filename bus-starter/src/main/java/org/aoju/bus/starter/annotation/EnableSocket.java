@@ -26,6 +26,7 @@ package org.aoju.bus.starter.annotation;
 
 import org.aoju.bus.socket.spring.extension.MessageConfiguration;
 import org.aoju.bus.socket.spring.support.MessageMatcher;
+import org.aoju.bus.starter.socket.SocketMetricsEndpoint;
 import org.aoju.bus.starter.socket.SocketScannerRegistrar;
 import org.springframework.context.annotation.Import;
 
@@ -42,7 +43,7 @@ import java.lang.annotation.*;
 @Documented
 @Target({ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
-@Import({SocketScannerRegistrar.class, MessageConfiguration.class, MessageMatcher.class})
+@Import({SocketScannerRegistrar.class, MessageConfiguration.class, MessageMatcher.class, SocketMetricsEndpoint.class})
 public @interface EnableSocket {
 
     String[] basePackage() default {};
@@ -0,0 +1,62 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2020 aoju.org and other contributors.                      *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ ********************************************************************************/
+package org.aoju.bus.starter.socket;
+
+import org.aoju.bus.socket.origin.plugins.MetricsPlugin;
+import org.aoju.bus.starter.BusXExtend;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 导出容器中所有{@link MetricsPlugin}的指标快照
+ * 需开启 extend.websocket.metrics.enabled=true,访问路径可通过 extend.websocket.metrics.path 修改
+ *
+ * @author Kimi Liu
+ * @version 6.0.2
+ * @since JDK 1.8+
+ */
+@RestController
+@ConditionalOnProperty(name = BusXExtend.WEBSOCKET + ".metrics.enabled", havingValue = "true")
+public class SocketMetricsEndpoint {
+
+    @Autowired(required = false)
+    private Map<String, MetricsPlugin<?>> plugins = Collections.emptyMap();
+
+    @GetMapping("${" + BusXExtend.WEBSOCKET + ".metrics.path:/socket/metrics}")
+    public Map<String, Object> metrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (Map.Entry<String, MetricsPlugin<?>> entry : plugins.entrySet()) {
+            map.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return map;
+    }
+
+}